@@ -0,0 +1,129 @@
+package com.wordawake.gateway.bench;
+
+import com.wordawake.gateway.dispatch.AudioDispatcher;
+import com.wordawake.gateway.framing.FrameLatencyTracker;
+import com.wordawake.gateway.kafka.AudioBufferSerializer;
+import com.wordawake.gateway.kafka.AudioStreamProducer;
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import com.wordawake.gateway.routing.NoopSessionDirectory;
+import com.wordawake.gateway.service.SessionService;
+import com.wordawake.gateway.session.OutboundMailbox;
+import com.wordawake.gateway.session.OutboundMailboxFactory;
+import com.wordawake.gateway.session.SessionRegistry;
+import com.wordawake.gateway.websocket.GatewayHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.mock.MockProducerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.web.socket.BinaryMessage;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 오디오 수신 경로: GatewayHandler.handleBinaryMessage → AudioDispatcher → AudioStreamProducer.send.
+ * broker=mock 은 Kafka MockProducer(즉시 완료), embedded 는 내장 KRaft 브로커로 실제 발행.
+ * codec=ima-adpcm 은 lane writer 에서 PCM16 → IMA-ADPCM 인코딩 비용이 더해짐 (레코드 크기는 약 1/4).
+ * 디스패처는 BLOCK 정책이라 발행이 밀리면 호출 측도 기다림 → ops/s 가 실제 처리량에 가깝게 나옴.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AudioIngestBenchmark {
+
+    private static final String TOPIC = "audio-stream";
+
+    @Param({"mock", "embedded"})
+    public String broker;
+
+    /** 프레임 크기 (16kHz 16bit mono 기준 100ms = 3200 bytes) */
+    @Param({"640", "3200"})
+    public int frameBytes;
+
+    /** 발행 전 코덱 단계 (pcm16 = 변환 없음) */
+    @Param({"pcm16", "ima-adpcm"})
+    public String codec;
+
+    private final GatewayMetrics metrics = new GatewayMetrics(new SimpleMeterRegistry());
+    private EmbeddedKafkaBroker embeddedBroker;
+    private MockProducer<String, ByteBuffer> mockProducer;
+    private ProducerFactory<String, ByteBuffer> producerFactory;
+    private AudioStreamProducer producer;
+    private AudioDispatcher dispatcher;
+    private OutboundMailboxFactory mailboxFactory;
+    private GatewayHandler handler;
+    private StubWebSocketSession session;
+    private BinaryMessage frame;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if ("embedded".equals(broker)) {
+            embeddedBroker = new EmbeddedKafkaKraftBroker(1, 1, TOPIC);
+            embeddedBroker.afterPropertiesSet();
+            Map<String, Object> props = new HashMap<>();
+            props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedBroker.getBrokersAsString());
+            props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+            props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, AudioBufferSerializer.class);
+            producerFactory = new DefaultKafkaProducerFactory<>(props);
+        } else {
+            mockProducer = new MockProducer<>(true, null, new StringSerializer(), new AudioBufferSerializer());
+            producerFactory = new MockProducerFactory<>(() -> mockProducer);
+        }
+        producer = new AudioStreamProducer(new KafkaTemplate<>(producerFactory), TOPIC, metrics,
+                true, 8192, 100, 4096, false, Optional.empty(), Optional.empty());
+        dispatcher = new AudioDispatcher(producer, metrics, 64, 100_000, AudioDispatcher.OverflowPolicy.BLOCK,
+                10_000, 4096, 16384, false, codec, Optional.empty(), Optional.empty());
+        mailboxFactory = new OutboundMailboxFactory(1 << 20, 10_000, OutboundMailbox.OverflowPolicy.DROP_OLDEST, 0, 0, metrics);
+        SessionService sessionService = new SessionService(new SessionRegistry(64, mailboxFactory),
+                new NoopSessionDirectory());
+        handler = new GatewayHandler(sessionService, dispatcher, new FrameLatencyTracker(metrics, 512), Optional.empty(), Optional.empty());
+        session = new StubWebSocketSession("bench-session");
+        handler.afterConnectionEstablished(session);
+        frame = new BinaryMessage(new byte[frameBytes]);
+    }
+
+    /** MockProducer 는 발행 이력을 쌓아 두므로 iteration 마다 비움 (메모리 증가가 측정에 섞이지 않게) */
+    @Setup(Level.Iteration)
+    public void clearHistory() {
+        if (mockProducer != null) {
+            mockProducer.clear();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dispatcher.shutdown();
+        mailboxFactory.shutdown();
+        if (producerFactory instanceof DefaultKafkaProducerFactory<String, ByteBuffer> factory) {
+            factory.destroy();
+        }
+        if (embeddedBroker != null) {
+            embeddedBroker.destroy();
+        }
+    }
+
+    @Benchmark
+    public void handleBinaryMessage() throws Exception {
+        // BinaryMessage payload 는 읽기 위치가 바뀌지 않으므로 같은 인스턴스 재사용 가능
+        handler.handleMessage(session, frame);
+    }
+}
@@ -0,0 +1,68 @@
+package com.wordawake.gateway.bench;
+
+import com.wordawake.gateway.message.GatewayMessage;
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import com.wordawake.gateway.session.OutboundMailbox;
+import com.wordawake.gateway.session.OutboundMailboxFactory;
+import com.wordawake.gateway.session.SessionRegistry;
+import com.wordawake.gateway.websocket.HeartbeatBroadcaster;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 하트비트 1회(tick) 팬아웃 비용. 스텁 세션 1k / 10k / 100k.
+ * GatewaySessionManager.sendHeartbeatToAll 은 워커에 넘기고 바로 반환하므로, 같은 메시지로 broadcast 를 호출해 완료까지 기다림.
+ * spread-ratio 0 으로 시간 분산 대기를 빼고 순수 팬아웃(메시지 생성 + shard 병렬 송신 큐 적재)만 잰다.
+ * 실제 전송은 세션 writer 에서 비동기로 일어나므로 tick 사이에 송신 큐가 비도록 iteration 당 호출 수를 제한하지 않음
+ * (밀린 세션은 DROP_OLDEST 로 최신 하트비트만 유지).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HeartbeatFanoutBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int sessions;
+
+    @Param({"4"})
+    public int parallelism;
+
+    private final GatewayMetrics metrics = new GatewayMetrics(new SimpleMeterRegistry());
+    private OutboundMailboxFactory mailboxFactory;
+    private HeartbeatBroadcaster broadcaster;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 하트비트 1개 크기 정도만 대기 허용 → 밀리면 이전 하트비트를 버림
+        mailboxFactory = new OutboundMailboxFactory(256, 10_000, OutboundMailbox.OverflowPolicy.DROP_OLDEST, 0, 0, metrics);
+        SessionRegistry registry = new SessionRegistry(64, mailboxFactory);
+        for (int i = 0; i < sessions; i++) {
+            String id = "session-" + i;
+            registry.register(id, new StubWebSocketSession(id));
+        }
+        broadcaster = new HeartbeatBroadcaster(registry, parallelism, 30_000, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        broadcaster.shutdown();
+        mailboxFactory.shutdown();
+    }
+
+    @Benchmark
+    public HeartbeatBroadcaster.TickStats sendHeartbeatToAll() {
+        return broadcaster.broadcast(new GatewayMessage.Heartbeat(Instant.now())).join();
+    }
+}
@@ -0,0 +1,105 @@
+package com.wordawake.gateway.bench;
+
+import com.google.gson.Gson;
+import com.wordawake.gateway.message.GatewayMessage;
+import com.wordawake.gateway.message.MessageEncoding;
+import com.wordawake.gateway.utils.Constants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 연결 안내(handshake)와 하트비트 인코딩 비용 (전송할 WebSocketMessage 생성까지).
+ * - 기준: 이전 방식 (Map → Gson, Gson 매번 생성/공유) 과 "고정 prefix 문자열 + time"
+ * - json / cbor: MessageEncoding 인코더 (고정 부분을 미리 인코딩해 두고 가변 값만 이어 씀)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MessageEncodingBenchmark {
+
+    private static final Gson SHARED_GSON = new Gson();
+
+    private String sessionId;
+    private String heartbeatPrefix;
+
+    @Setup
+    public void setUp() {
+        sessionId = "0d4f1c1e-5f7a-4c1b-9a55-7c3e2b1d9f10";
+        String json = SHARED_GSON.toJson(heartbeatMap());
+        heartbeatPrefix = json.substring(0, json.length() - 1) + ",\"time\":\"";
+    }
+
+    @Benchmark
+    public WebSocketMessage<?> handshakeNewGson() {
+        return new TextMessage(new Gson().toJson(handshakeMap(sessionId)));
+    }
+
+    @Benchmark
+    public WebSocketMessage<?> handshakeSharedGson() {
+        return new TextMessage(SHARED_GSON.toJson(handshakeMap(sessionId)));
+    }
+
+    @Benchmark
+    public WebSocketMessage<?> handshakeJson() {
+        return MessageEncoding.JSON.encode(new GatewayMessage.Connected(sessionId));
+    }
+
+    @Benchmark
+    public WebSocketMessage<?> handshakeCbor() {
+        return MessageEncoding.CBOR.encode(new GatewayMessage.Connected(sessionId));
+    }
+
+    @Benchmark
+    public WebSocketMessage<?> heartbeatFullMap() {
+        Map<String, Object> heartbeat = heartbeatMap();
+        heartbeat.put("time", Instant.now().toString());
+        return new TextMessage(SHARED_GSON.toJson(heartbeat));
+    }
+
+    @Benchmark
+    public WebSocketMessage<?> heartbeatPrefix() {
+        return new TextMessage(heartbeatPrefix + Instant.now() + "\"}");
+    }
+
+    @Benchmark
+    public WebSocketMessage<?> heartbeatJson() {
+        return MessageEncoding.JSON.encode(new GatewayMessage.Heartbeat(Instant.now()));
+    }
+
+    @Benchmark
+    public WebSocketMessage<?> heartbeatCbor() {
+        return MessageEncoding.CBOR.encode(new GatewayMessage.Heartbeat(Instant.now()));
+    }
+
+    private static Map<String, Object> handshakeMap(String sessionId) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(Constants.GW_MSG_STATUS, "101");
+        response.put(Constants.GW_MSG_MESSAGE, "success");
+        response.put(Constants.GW_MSG_SESSION_ID, sessionId);
+        return response;
+    }
+
+    private static Map<String, Object> heartbeatMap() {
+        Map<String, Object> heartbeat = new LinkedHashMap<>();
+        heartbeat.put("status", 200);
+        heartbeat.put("status-msg", "정상");
+        heartbeat.put("hotword", "켜줘(테스트)");
+        heartbeat.put("type", "command");
+        heartbeat.put("intent", "control");
+        heartbeat.put("action", "turn-on");
+        return heartbeat;
+    }
+}
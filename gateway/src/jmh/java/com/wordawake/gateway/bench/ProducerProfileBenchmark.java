@@ -0,0 +1,113 @@
+package com.wordawake.gateway.bench;
+
+import com.wordawake.gateway.kafka.AudioBufferSerializer;
+import com.wordawake.gateway.kafka.AudioProducerProfile;
+import com.wordawake.gateway.kafka.ConsistentHashPartitioner;
+import com.wordawake.gateway.kafka.SessionKeySerializer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * audio-stream Producer 프로필별 처리량/지연 비교 (내장 KRaft 브로커, 파티션 6).
+ * - sendAsync: 비동기 발행 처리량. buffer.memory 가 차면 send 가 막히므로 ops/s 가 실제 브로커 처리량에 수렴
+ * - sendAndAwaitAck: 레코드 하나의 발행 → ack 지연 분포 (SampleTime, p50/p99)
+ * - keyFormat: string (sessionId 36바이트) / uuid16 (16바이트 binary). 파티셔너는 운영과 같은 ConsistentHashPartitioner
+ * 실행: ./gradlew jmh -Pjmh.includes=ProducerProfile
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class ProducerProfileBenchmark {
+
+    private static final String TOPIC = "audio-stream";
+
+    @Param({"default", "low-latency", "high-throughput"})
+    public String profile;
+
+    /** 병합된 레코드 크기 (coalesce.max-bytes 기준) */
+    @Param({"3200", "8192"})
+    public int recordBytes;
+
+    @Param({"string", "uuid16"})
+    public String keyFormat;
+
+    private static final int SESSIONS = 1000;
+    private static final String[] SESSION_IDS = new String[SESSIONS];
+
+    static {
+        for (int i = 0; i < SESSIONS; i++) {
+            SESSION_IDS[i] = UUID.randomUUID().toString();
+        }
+    }
+
+    private EmbeddedKafkaBroker embeddedBroker;
+    private DefaultKafkaProducerFactory<String, ByteBuffer> producerFactory;
+    private KafkaTemplate<String, ByteBuffer> template;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        embeddedBroker = new EmbeddedKafkaKraftBroker(1, 6, TOPIC);
+        embeddedBroker.afterPropertiesSet();
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedBroker.getBrokersAsString());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
+                "uuid16".equals(keyFormat) ? SessionKeySerializer.class : StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, AudioBufferSerializer.class);
+        props.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, ConsistentHashPartitioner.class);
+        AudioProducerProfile.of(profile).applyTo(props);
+        producerFactory = new DefaultKafkaProducerFactory<>(props);
+        template = new KafkaTemplate<>(producerFactory);
+        // PCM 과 비슷하게 압축되도록 완전 난수 대신 완만한 파형
+        payload = new byte[recordBytes];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (Math.sin(i / 8.0) * 64);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        template.flush();
+        producerFactory.destroy();
+        embeddedBroker.destroy();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void sendAsync() {
+        template.send(TOPIC, sessionKey(), ByteBuffer.wrap(payload));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object sendAndAwaitAck() throws Exception {
+        return template.send(TOPIC, sessionKey(), ByteBuffer.wrap(payload)).get(10, TimeUnit.SECONDS);
+    }
+
+    private static String sessionKey() {
+        return SESSION_IDS[ThreadLocalRandom.current().nextInt(SESSIONS)];
+    }
+}
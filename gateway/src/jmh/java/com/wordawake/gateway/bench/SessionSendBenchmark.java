@@ -0,0 +1,68 @@
+package com.wordawake.gateway.bench;
+
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import com.wordawake.gateway.routing.NoopSessionDirectory;
+import com.wordawake.gateway.service.SessionService;
+import com.wordawake.gateway.session.OutboundMailbox;
+import com.wordawake.gateway.session.OutboundMailboxFactory;
+import com.wordawake.gateway.session.SessionRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionService.sendToSession 경합 측정 (Kafka 리스너/전달 워커 여러 개가 동시에 보내는 상황).
+ * sessions=1 은 한 세션에 몰리는 최악의 경우 (송신 큐 락 경합), 1000 은 세션이 고르게 퍼진 경우.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class SessionSendBenchmark {
+
+    @Param({"1", "1000"})
+    public int sessions;
+
+    private final GatewayMetrics metrics = new GatewayMetrics(new SimpleMeterRegistry());
+    private OutboundMailboxFactory mailboxFactory;
+    private SessionService sessionService;
+    private String[] sessionIds;
+    private TextMessage message;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 예산 초과 시 오래된 것부터 버리므로 writer 가 못 따라가도 메모리는 일정
+        mailboxFactory = new OutboundMailboxFactory(64 * 1024, 10_000, OutboundMailbox.OverflowPolicy.DROP_OLDEST, 0, 0, metrics);
+        sessionService = new SessionService(new SessionRegistry(64, mailboxFactory), new NoopSessionDirectory());
+        sessionIds = new String[sessions];
+        for (int i = 0; i < sessions; i++) {
+            sessionIds[i] = "session-" + i;
+            sessionService.register(sessionIds[i], new StubWebSocketSession(sessionIds[i]));
+        }
+        message = new TextMessage("{\"word\":\"헤이 워드\"}");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mailboxFactory.shutdown();
+    }
+
+    @Benchmark
+    public boolean sendToSession() {
+        String sessionId = sessionIds[ThreadLocalRandom.current().nextInt(sessionIds.length)];
+        return sessionService.sendToSession(sessionId, message);
+    }
+}
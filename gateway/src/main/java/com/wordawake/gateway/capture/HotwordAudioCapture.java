@@ -0,0 +1,204 @@
+package com.wordawake.gateway.capture;
+
+import com.wordawake.gateway.codec.AudioCodec;
+import com.wordawake.gateway.utils.Constants;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * hotword 전후 오디오 캡처 → STT 토픽 발행 (app.capture.enabled=true 일 때만).
+ *
+ * - 세션마다 off-heap 링({@link OffHeapAudioRings})에 수신 오디오를 클라이언트 입력 형식 그대로 계속 덮어씀
+ * - hotword 이벤트를 받으면 그 시점 위치를 기억하고, post-ms 뒤 [위치 - pre, 위치 + post] 구간을 잘라
+ *   STT 토픽에 레코드 하나로 발행 (key=sessionId, 헤더: audio-codec, hotword-offset, hotword-event)
+ * - 발행은 전용 sttCaptureKafkaTemplate 사용 → audio-stream 의 key-format 이 uuid16 이어도 key 는 sessionId 문자열
+ * - 세션이 먼저 끝나면 대기 중인 캡처는 그때까지 받은 오디오로 바로 발행하고 슬롯 반납
+ *
+ * ima-adpcm 입력 세션은 프레임 경계 없이 잘라내면 복원할 수 없으므로 캡처하지 않음.
+ * 캡처 작업(발행/반납)은 단일 스케줄러 스레드에서만 실행되므로 세션별 캡처 순서가 유지됨.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.capture.enabled", havingValue = "true")
+public class HotwordAudioCapture {
+
+    private final KafkaTemplate<String, ByteBuffer> kafkaTemplate;
+    private final String sttTopic;
+    private final long preBytes;
+    private final long postBytes;
+    private final long postMs;
+    private final OffHeapAudioRings rings;
+    private final Map<String, SessionCapture> sessions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("hotword-capture").daemon().factory());
+    private final AtomicLong rejectedSessions = new AtomicLong();
+
+    public HotwordAudioCapture(
+            @Qualifier("sttCaptureKafkaTemplate") KafkaTemplate<String, ByteBuffer> sttCaptureKafkaTemplate,
+            @Value("${app.capture.stt-topic:stt-requests}") String sttTopic,
+            @Value("${app.capture.pre-ms:3000}") long preMs,
+            @Value("${app.capture.post-ms:2000}") long postMs,
+            @Value("${app.capture.bytes-per-second:32000}") int bytesPerSecond,
+            @Value("${app.capture.max-sessions:1000}") int maxSessions) {
+        this.kafkaTemplate = sttCaptureKafkaTemplate;
+        this.sttTopic = sttTopic;
+        this.preBytes = preMs * bytesPerSecond / 1000;
+        this.postBytes = postMs * bytesPerSecond / 1000;
+        this.postMs = postMs;
+        this.rings = new OffHeapAudioRings((int) (preBytes + postBytes), maxSessions);
+        log.info("[HotwordAudioCapture] 링 {} bytes x {} 세션 (off-heap)", rings.getSlotBytes(), maxSessions);
+    }
+
+    /** 세션 시작. 링 슬롯이 없으면 그 세션은 캡처하지 않음 */
+    public void open(String sessionId, AudioCodec inputFormat) {
+        if (inputFormat == AudioCodec.IMA_ADPCM) {
+            return;
+        }
+        OffHeapAudioRings.Ring ring = rings.acquire();
+        if (ring == null) {
+            rejectedSessions.incrementAndGet();
+            log.warn("[HotwordAudioCapture] 링 슬롯 부족으로 캡처 제외 - sessionId={}", sessionId);
+            return;
+        }
+        sessions.put(sessionId, new SessionCapture(sessionId, inputFormat, ring));
+    }
+
+    /** 수신 오디오 기록 (수신 스레드). audio 의 position 은 바꾸지 않음 */
+    public void write(String sessionId, ByteBuffer audio) {
+        SessionCapture capture = sessions.get(sessionId);
+        if (capture != null) {
+            capture.ring.write(audio);
+        }
+    }
+
+    /** hotword 이벤트 수신. post-ms 뒤 전후 구간을 STT 토픽에 발행 */
+    public void onHotword(String sessionId, byte[] event) {
+        SessionCapture capture = sessions.get(sessionId);
+        if (capture == null) {
+            return;
+        }
+        long mark = capture.ring.position();
+        synchronized (capture) {
+            if (capture.closed) {
+                return;
+            }
+            PendingCapture pending = new PendingCapture(mark, event);
+            capture.pending.add(pending);
+            pending.future = scheduler.schedule(() -> {
+                synchronized (capture) {
+                    capture.pending.remove(pending);
+                }
+                publish(capture, pending);
+            }, postMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** 세션 종료. 대기 중인 캡처는 지금까지 받은 오디오로 먼저 발행된 뒤 슬롯 반납 */
+    public void close(String sessionId) {
+        SessionCapture capture = sessions.remove(sessionId);
+        if (capture == null) {
+            return;
+        }
+        List<PendingCapture> pending;
+        synchronized (capture) {
+            capture.closed = true;
+            pending = new ArrayList<>(capture.pending);
+            capture.pending.clear();
+        }
+        scheduler.execute(() -> {
+            for (PendingCapture p : pending) {
+                // 이미 실행된 캡처는 cancel 이 false (같은 스레드라 실행 중일 수는 없음)
+                if (p.future.cancel(false)) {
+                    publish(capture, p);
+                }
+            }
+            rings.release(capture.ring);
+        });
+    }
+
+    /** 슬롯 부족으로 캡처하지 못한 누적 세션 수 */
+    public long getRejectedSessionCount() {
+        return rejectedSessions.get();
+    }
+
+    public int getFreeSlotCount() {
+        return rings.getFreeSlotCount();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void publish(SessionCapture capture, PendingCapture pending) {
+        byte[] audio;
+        long start;
+        // 스냅샷과 시작 위치를 같은 시점 기준으로 (앞부분이 덮어써졌으면 hotword 위치도 그만큼 앞당겨짐)
+        synchronized (capture.ring) {
+            audio = capture.ring.snapshot(pending.mark - preBytes, pending.mark + postBytes);
+            start = Math.max(Math.max(pending.mark - preBytes, 0), capture.ring.position() - rings.getSlotBytes());
+        }
+        if (audio.length == 0) {
+            return;
+        }
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(Constants.KAFKA_HEADER_AUDIO_CODEC, capture.codec.headerValue());
+        headers.add(Constants.KAFKA_HEADER_HOTWORD_OFFSET,
+                ByteBuffer.allocate(Integer.BYTES).putInt((int) Math.max(0, pending.mark - start)).array());
+        if (pending.event != null) {
+            headers.add(Constants.KAFKA_HEADER_HOTWORD_EVENT, pending.event);
+        }
+        kafkaTemplate.send(new ProducerRecord<>(sttTopic, null, capture.sessionId, ByteBuffer.wrap(audio), headers))
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.warn("[HotwordAudioCapture] STT 발행 실패 - sessionId={}, 이유={}", capture.sessionId, ex.getMessage());
+                    }
+                });
+        log.info("[HotwordAudioCapture] STT 발행 - sessionId={}, size={} bytes", capture.sessionId, audio.length);
+    }
+
+    /** 세션별 캡처 상태 (pending/closed 는 this 로 동기화) */
+    private static final class SessionCapture {
+        final String sessionId;
+        final AudioCodec codec;
+        final OffHeapAudioRings.Ring ring;
+        final List<PendingCapture> pending = new ArrayList<>(1);
+        boolean closed;
+
+        SessionCapture(String sessionId, AudioCodec codec, OffHeapAudioRings.Ring ring) {
+            this.sessionId = sessionId;
+            this.codec = codec;
+            this.ring = ring;
+        }
+    }
+
+    /** post-ms 대기 중인 캡처 하나 */
+    private static final class PendingCapture {
+        final long mark;
+        final byte[] event;
+        volatile ScheduledFuture<?> future;
+
+        PendingCapture(long mark, byte[] event) {
+            this.mark = mark;
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.wordawake.gateway.capture;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 세션별 고정 크기 오디오 링 버퍼 모음 (off-heap).
+ *
+ * 기동 시 direct 슬랩을 한 번 할당해 slotBytes 크기 슬롯으로 나누고, 세션 시작 시 슬롯 하나를 빌려 준다.
+ * 세션 수가 늘어도 힙에는 세션당 작은 {@link Ring} 객체만 생기고 오디오 바이트는 GC 대상이 아님.
+ * 슬롯이 모두 쓰이면 {@link #acquire()} 가 null (해당 세션은 캡처 안 함).
+ *
+ * 슬랩은 ByteBuffer 크기 제한(2GB) 때문에 최대 1GB 단위로 나눠 할당.
+ * 슬랩 접근은 절대 위치 get/put 만 사용하므로 여러 스레드가 같은 슬랩을 공유해도 position 경합 없음.
+ */
+public class OffHeapAudioRings {
+
+    private static final long MAX_SLAB_BYTES = 1L << 30;
+
+    private final int slotBytes;
+    private final int slotsPerSlab;
+    private final ByteBuffer[] slabs;
+    /** 빈 슬롯 번호 스택 (this 로 동기화) */
+    private final int[] freeSlots;
+    private int freeCount;
+
+    public OffHeapAudioRings(int slotBytes, int maxSlots) {
+        if (slotBytes <= 0 || maxSlots <= 0 || slotBytes > MAX_SLAB_BYTES) {
+            throw new IllegalArgumentException("invalid ring size: slotBytes=" + slotBytes + ", maxSlots=" + maxSlots);
+        }
+        this.slotBytes = slotBytes;
+        this.slotsPerSlab = (int) Math.min(maxSlots, MAX_SLAB_BYTES / slotBytes);
+        this.slabs = new ByteBuffer[(maxSlots + slotsPerSlab - 1) / slotsPerSlab];
+        for (int i = 0; i < slabs.length; i++) {
+            int slots = Math.min(slotsPerSlab, maxSlots - i * slotsPerSlab);
+            slabs[i] = ByteBuffer.allocateDirect(slots * slotBytes);
+        }
+        this.freeSlots = new int[maxSlots];
+        for (int i = 0; i < maxSlots; i++) {
+            freeSlots[i] = maxSlots - 1 - i;
+        }
+        this.freeCount = maxSlots;
+    }
+
+    /** 빈 슬롯으로 링 생성. 남은 슬롯이 없으면 null */
+    public Ring acquire() {
+        int slot;
+        synchronized (this) {
+            if (freeCount == 0) {
+                return null;
+            }
+            slot = freeSlots[--freeCount];
+        }
+        return new Ring(slot, slabs[slot / slotsPerSlab], (slot % slotsPerSlab) * slotBytes);
+    }
+
+    /** 링 반납. 이후 그 링에 쓰기/읽기는 무시됨 */
+    public void release(Ring ring) {
+        synchronized (ring) {
+            if (ring.released) {
+                return;
+            }
+            ring.released = true;
+        }
+        synchronized (this) {
+            freeSlots[freeCount++] = ring.slot;
+        }
+    }
+
+    public int getSlotBytes() {
+        return slotBytes;
+    }
+
+    public synchronized int getFreeSlotCount() {
+        return freeCount;
+    }
+
+    /**
+     * 슬롯 하나의 링. 쓰기는 세션 수신 스레드, 읽기(snapshot)는 캡처 스레드에서 하므로 this 로 동기화.
+     * 위치는 세션 시작부터 쓴 누적 바이트(written)로 표현하고, 슬롯에는 마지막 slotBytes 만 남는다.
+     */
+    public final class Ring {
+        private final int slot;
+        private final ByteBuffer slab;
+        private final int base;
+        private long written;
+        private boolean released;
+
+        private Ring(int slot, ByteBuffer slab, int base) {
+            this.slot = slot;
+            this.slab = slab;
+            this.base = base;
+        }
+
+        /** src 의 [position, limit) 를 덧붙임 (src 의 position 은 바꾸지 않음). 링보다 길면 끝부분만 남음 */
+        public synchronized void write(ByteBuffer src) {
+            if (released) {
+                return;
+            }
+            int length = src.remaining();
+            int from = src.position();
+            if (length > slotBytes) {
+                written += length - slotBytes;
+                from += length - slotBytes;
+                length = slotBytes;
+            }
+            int offset = (int) (written % slotBytes);
+            int first = Math.min(length, slotBytes - offset);
+            slab.put(base + offset, src, from, first);
+            if (first < length) {
+                slab.put(base, src, from + first, length - first);
+            }
+            written += length;
+        }
+
+        /** 지금까지 쓴 누적 바이트 */
+        public synchronized long position() {
+            return written;
+        }
+
+        /**
+         * 누적 위치 [from, to) 구간을 복사해 반환. 이미 덮어써진 앞부분과 아직 안 쓴 뒷부분은 잘라냄.
+         * 반납된 링이면 빈 배열.
+         */
+        public synchronized byte[] snapshot(long from, long to) {
+            if (released) {
+                return new byte[0];
+            }
+            long start = Math.max(Math.max(from, 0), written - slotBytes);
+            long end = Math.min(to, written);
+            if (end <= start) {
+                return new byte[0];
+            }
+            byte[] out = new byte[(int) (end - start)];
+            int offset = (int) (start % slotBytes);
+            int first = Math.min(out.length, slotBytes - offset);
+            slab.get(base + offset, out, 0, first);
+            if (first < out.length) {
+                slab.get(base, out, first, out.length - first);
+            }
+            return out;
+        }
+    }
+}
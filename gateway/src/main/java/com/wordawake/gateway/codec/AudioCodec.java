@@ -0,0 +1,61 @@
+package com.wordawake.gateway.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * 오디오 인코딩 형식. 클라이언트 입력 형식(핸드셰이크 협상)과 audio-stream 레코드 형식(audio-codec 헤더)에 공통 사용.
+ *
+ * - PCM16: 16bit signed little-endian mono (기존 원본 그대로)
+ * - MULAW: G.711 μ-law, 샘플당 8bit (PCM16 대비 1/2)
+ * - IMA_ADPCM: 샘플당 4bit + 프레임마다 4바이트 헤더 (PCM16 대비 약 1/4), 형식은 {@link ImaAdpcm}
+ */
+public enum AudioCodec {
+
+    PCM16("pcm16"),
+    MULAW("mulaw"),
+    IMA_ADPCM("ima-adpcm");
+
+    private final String id;
+    /** 레코드 헤더 값 (레코드마다 문자열 인코딩하지 않도록 미리 만들어 둠, 수정 금지) */
+    private final byte[] headerValue;
+
+    AudioCodec(String id) {
+        this.id = id;
+        this.headerValue = id.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public byte[] headerValue() {
+        return headerValue;
+    }
+
+    /**
+     * PCM16 입력을 이 형식으로 바꾸는 인코더. PCM16 은 변환 없음(null).
+     * IMA-ADPCM 인코더는 세션 상태를 가지므로 세션마다 새로 만든다.
+     */
+    public AudioEncoder newEncoder() {
+        return switch (this) {
+            case PCM16 -> null;
+            case MULAW -> MuLaw.ENCODER;
+            case IMA_ADPCM -> new ImaAdpcm.Encoder();
+        };
+    }
+
+    /** "ima-adpcm", "IMA_ADPCM", "mulaw" 등 → 형식. 비어 있으면 PCM16, 알 수 없으면 IllegalArgumentException */
+    public static AudioCodec of(String name) {
+        if (name == null || name.isBlank()) {
+            return PCM16;
+        }
+        String normalized = name.trim().toLowerCase(Locale.ROOT).replace('_', '-');
+        for (AudioCodec codec : values()) {
+            if (codec.id.equals(normalized)) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("unsupported audio codec: " + name);
+    }
+}
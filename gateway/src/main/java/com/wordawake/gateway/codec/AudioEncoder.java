@@ -0,0 +1,19 @@
+package com.wordawake.gateway.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * PCM16(little-endian mono) → 압축 형식 인코더.
+ * 핫패스에서 프레임마다 호출되므로 구현은 할당 없이 입력/출력 버퍼만 사용한다.
+ */
+public interface AudioEncoder {
+
+    /** pcmBytes 바이트 PCM 을 인코딩했을 때의 최대 출력 크기 (출력 버퍼 준비용) */
+    int maxEncodedBytes(int pcmBytes);
+
+    /**
+     * pcm 의 [position, limit) 를 인코딩해 out 의 position 부터 쓴다 (out.position 은 쓴 만큼 전진).
+     * pcm 의 position/limit 은 바꾸지 않음. 홀수 바이트로 끝나면 마지막 바이트(불완전 샘플)는 무시.
+     */
+    void encode(ByteBuffer pcm, ByteBuffer out);
+}
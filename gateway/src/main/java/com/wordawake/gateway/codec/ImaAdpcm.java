@@ -0,0 +1,138 @@
+package com.wordawake.gateway.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * IMA-ADPCM (샘플당 4bit).
+ *
+ * 프레임(= 인코딩 1회) 형식: [predictor int16 LE][step index 1B][0 1B] + 샘플 nibble (하위 nibble 이 먼저, 홀수면 마지막 상위 nibble 0)
+ * - 헤더에 인코딩 직전 상태를 실어, 소비자가 어느 프레임(레코드 헤더의 frame-lengths 경계)부터 읽어도 복원 가능
+ * - 인코더 상태는 프레임 사이에 이어지므로 프레임 경계에서도 음질이 끊기지 않음
+ */
+public final class ImaAdpcm {
+
+    /** 프레임 헤더 크기 */
+    public static final int HEADER_BYTES = 4;
+
+    private static final int[] INDEX_TABLE = {
+            -1, -1, -1, -1, 2, 4, 6, 8,
+            -1, -1, -1, -1, 2, 4, 6, 8
+    };
+
+    private static final int[] STEP_TABLE = {
+            7, 8, 9, 10, 11, 12, 13, 14, 16, 17,
+            19, 21, 23, 25, 28, 31, 34, 37, 41, 45,
+            50, 55, 60, 66, 73, 80, 88, 97, 107, 118,
+            130, 143, 157, 173, 190, 209, 230, 253, 279, 307,
+            337, 371, 408, 449, 494, 544, 598, 658, 724, 796,
+            876, 963, 1060, 1166, 1282, 1411, 1552, 1707, 1878, 2066,
+            2272, 2499, 2749, 3024, 3327, 3660, 4026, 4428, 4871, 5358,
+            5894, 6484, 7132, 7845, 8630, 9493, 10442, 11487, 12635, 13899,
+            15289, 16818, 18500, 20350, 22385, 24623, 27086, 29794, 32767
+    };
+
+    private ImaAdpcm() {
+    }
+
+    /** 세션별 인코더 (predictor/step index 상태 보유, 단일 스레드 사용) */
+    public static final class Encoder implements AudioEncoder {
+        private int predictor;
+        private int index;
+
+        @Override
+        public int maxEncodedBytes(int pcmBytes) {
+            return HEADER_BYTES + (pcmBytes / 2 + 1) / 2;
+        }
+
+        @Override
+        public void encode(ByteBuffer pcm, ByteBuffer out) {
+            out.put((byte) predictor).put((byte) (predictor >> 8)).put((byte) index).put((byte) 0);
+            int end = pcm.limit() - 1;
+            int pending = -1;
+            for (int i = pcm.position(); i < end; i += 2) {
+                int nibble = encodeSample((short) ((pcm.get(i) & 0xFF) | (pcm.get(i + 1) << 8)));
+                if (pending < 0) {
+                    pending = nibble;
+                } else {
+                    out.put((byte) (pending | (nibble << 4)));
+                    pending = -1;
+                }
+            }
+            if (pending >= 0) {
+                out.put((byte) pending);
+            }
+        }
+
+        private int encodeSample(int sample) {
+            int step = STEP_TABLE[index];
+            int diff = sample - predictor;
+            int nibble = 0;
+            if (diff < 0) {
+                nibble = 8;
+                diff = -diff;
+            }
+            int delta = step >> 3;
+            if (diff >= step) {
+                nibble |= 4;
+                diff -= step;
+                delta += step;
+            }
+            step >>= 1;
+            if (diff >= step) {
+                nibble |= 2;
+                diff -= step;
+                delta += step;
+            }
+            step >>= 1;
+            if (diff >= step) {
+                nibble |= 1;
+                delta += step;
+            }
+            predictor = clamp((nibble & 8) != 0 ? predictor - delta : predictor + delta);
+            index = Math.clamp(index + INDEX_TABLE[nibble], 0, STEP_TABLE.length - 1);
+            return nibble;
+        }
+    }
+
+    /**
+     * 프레임 하나를 PCM16 샘플로 복원 (소비자/테스트용).
+     * frame 의 [position, limit) 를 읽고 복원한 샘플 수를 반환. 마지막 바이트의 상위 nibble 이 패딩인지는
+     * 호출 측이 원본 샘플 수로 판단 (여기서는 모든 nibble 을 복원).
+     */
+    public static int decode(ByteBuffer frame, short[] out) {
+        return decode(frame, out, 0);
+    }
+
+    /** out[offset] 부터 복원. 반환값은 복원한 샘플 수 */
+    public static int decode(ByteBuffer frame, short[] out, int offset) {
+        int pos = frame.position();
+        int predictor = (short) ((frame.get(pos) & 0xFF) | (frame.get(pos + 1) << 8));
+        int index = frame.get(pos + 2);
+        int n = offset;
+        for (int i = pos + HEADER_BYTES; i < frame.limit() && n < out.length; i++) {
+            int b = frame.get(i) & 0xFF;
+            for (int shift = 0; shift <= 4 && n < out.length; shift += 4) {
+                int nibble = (b >> shift) & 0x0F;
+                int step = STEP_TABLE[index];
+                int delta = step >> 3;
+                if ((nibble & 4) != 0) {
+                    delta += step;
+                }
+                if ((nibble & 2) != 0) {
+                    delta += step >> 1;
+                }
+                if ((nibble & 1) != 0) {
+                    delta += step >> 2;
+                }
+                predictor = clamp((nibble & 8) != 0 ? predictor - delta : predictor + delta);
+                index = Math.clamp(index + INDEX_TABLE[nibble], 0, STEP_TABLE.length - 1);
+                out[n++] = (short) predictor;
+            }
+        }
+        return n - offset;
+    }
+
+    private static int clamp(int sample) {
+        return Math.clamp(sample, Short.MIN_VALUE, Short.MAX_VALUE);
+    }
+}
@@ -0,0 +1,57 @@
+package com.wordawake.gateway.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * G.711 μ-law. 16bit 샘플 → 8bit (상태 없음, 인코더 하나를 모든 세션이 공유).
+ */
+public final class MuLaw {
+
+    /** 상태가 없으므로 공유 */
+    public static final AudioEncoder ENCODER = new AudioEncoder() {
+        @Override
+        public int maxEncodedBytes(int pcmBytes) {
+            return pcmBytes / 2;
+        }
+
+        @Override
+        public void encode(ByteBuffer pcm, ByteBuffer out) {
+            int end = pcm.limit() - 1;
+            for (int i = pcm.position(); i < end; i += 2) {
+                out.put(MuLaw.encode((short) ((pcm.get(i) & 0xFF) | (pcm.get(i + 1) << 8))));
+            }
+        }
+    };
+
+    private static final int BIAS = 0x84;
+    private static final int CLIP = 32635;
+
+    private MuLaw() {
+    }
+
+    public static byte encode(short sample) {
+        int s = sample;
+        int sign = (s >> 8) & 0x80;
+        if (sign != 0) {
+            s = -s;
+        }
+        if (s > CLIP) {
+            s = CLIP;
+        }
+        s += BIAS;
+        int exponent = 7;
+        for (int mask = 0x4000; (s & mask) == 0 && exponent > 0; mask >>= 1) {
+            exponent--;
+        }
+        int mantissa = (s >> (exponent + 3)) & 0x0F;
+        return (byte) ~(sign | (exponent << 4) | mantissa);
+    }
+
+    public static short decode(byte encoded) {
+        int u = ~encoded & 0xFF;
+        int exponent = (u >> 4) & 0x07;
+        int mantissa = u & 0x0F;
+        int s = (((mantissa << 3) + BIAS) << exponent) - BIAS;
+        return (short) ((u & 0x80) != 0 ? -s : s);
+    }
+}
@@ -0,0 +1,27 @@
+package com.wordawake.gateway.config;
+
+import com.wordawake.gateway.vad.VadSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 오디오 수신 단계 설정.
+ * - VAD (app.audio.vad.enabled=true 일 때만): 무음 구간을 Kafka 발행 전에 걸러냄 (AudioDispatcher lane 단위)
+ */
+@Configuration
+public class AudioConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.audio.vad.enabled", havingValue = "true")
+    public VadSettings vadSettings(
+            @Value("${app.audio.vad.sample-rate:16000}") int sampleRate,
+            @Value("${app.audio.vad.threshold-db:-45}") double thresholdDb,
+            @Value("${app.audio.vad.margin-db:10}") double marginDb,
+            @Value("${app.audio.vad.hangover-ms:300}") long hangoverMs,
+            @Value("${app.audio.vad.pre-roll-ms:200}") long preRollMs,
+            @Value("${app.audio.vad.keepalive-ms:1000}") long keepaliveMs) {
+        return new VadSettings(sampleRate, thresholdDb, marginDb, hangoverMs, preRollMs, keepaliveMs);
+    }
+}
@@ -0,0 +1,90 @@
+package com.wordawake.gateway.config;
+
+import com.wordawake.gateway.streams.HotwordDetector;
+import com.wordawake.gateway.streams.HotwordStreamsTopology;
+import com.wordawake.gateway.streams.TemplateMatchingDetector;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.kstream.KStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 게이트웨이 내장 hotword 감지 (app.hotword-streams.enabled=true 일 때만).
+ * audio-stream 을 Kafka Streams 로 구독해 hotword-events 에 감지 결과를 발행 → 외부 Hotword 서비스 없이 동작.
+ * 여러 게이트웨이 노드가 같은 application-id 로 파티션을 나눠 처리.
+ *
+ * 감지기: HotwordDetector 빈을 직접 등록하지 않으면 템플릿(PCM16 LE raw) 기반 TemplateMatchingDetector 사용.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.hotword-streams.enabled", havingValue = "true")
+public class HotwordStreamsConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${app.kafka.topic.audio-stream:audio-stream}")
+    private String audioStreamTopic;
+
+    @Value("${app.kafka.topic.hotword-events:hotword-events}")
+    private String hotwordEventsTopic;
+
+    @Value("${app.hotword-streams.sample-rate:16000}")
+    private int sampleRate;
+
+    @Bean(name = "hotwordStreamsBuilder")
+    public StreamsBuilderFactoryBean hotwordStreamsBuilder(
+            @Value("${app.hotword-streams.application-id:gateway-hotword-streams}") String applicationId,
+            @Value("${app.hotword-streams.threads:1}") int threads) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, applicationId);
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, threads);
+        // Streams 기본 producer linger(100ms)는 감지 결과 지연으로 바로 더해지므로 0
+        props.put(StreamsConfig.producerPrefix(ProducerConfig.LINGER_MS_CONFIG), 0);
+        return new StreamsBuilderFactoryBean(new KafkaStreamsConfiguration(props));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public HotwordDetector hotwordDetector(
+            @Value("${app.hotword-streams.detector.word}") String word,
+            @Value("${app.hotword-streams.detector.template}") Resource template,
+            @Value("${app.hotword-streams.detector.threshold:0.85}") double threshold,
+            @Value("${app.hotword-streams.detector.min-energy-db:-40}") double minEnergyDb,
+            @Value("${app.hotword-streams.detector.max-shift-ms:200}") int maxShiftMs) throws IOException {
+        short[] samples;
+        try (InputStream in = template.getInputStream()) {
+            byte[] pcm = in.readAllBytes();
+            samples = new short[pcm.length / 2];
+            for (int i = 0; i < samples.length; i++) {
+                samples[i] = (short) ((pcm[2 * i] & 0xFF) | (pcm[2 * i + 1] << 8));
+            }
+        }
+        log.info("[HotwordStreams] 템플릿 감지기 - word={}, template={} ({} samples)", word, template, samples.length);
+        // 감지 포락선 프레임 20ms 기준
+        return new TemplateMatchingDetector(word, samples, sampleRate, threshold, minEnergyDb, maxShiftMs / 20);
+    }
+
+    @Bean
+    public KStream<String, String> hotwordDetectionStream(StreamsBuilder hotwordStreamsBuilder, HotwordDetector hotwordDetector,
+                                                          @Value("${app.hotword-streams.window-ms:2000}") int windowMs) {
+        int windowSamples = (int) ((long) sampleRate * windowMs / 1000);
+        return HotwordStreamsTopology.build(hotwordStreamsBuilder, audioStreamTopic, hotwordEventsTopic,
+                hotwordDetector, windowSamples);
+    }
+}
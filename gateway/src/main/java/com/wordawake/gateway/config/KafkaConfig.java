@@ -1,23 +1,42 @@
 package com.wordawake.gateway.config;
 
+import com.wordawake.gateway.kafka.AdaptiveCoalescing;
+import com.wordawake.gateway.kafka.AudioBufferSerializer;
+import com.wordawake.gateway.kafka.AudioProducerProfile;
+import com.wordawake.gateway.kafka.ConsistentHashPartitioner;
+import com.wordawake.gateway.kafka.SessionKeySerializer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
-import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Kafka 설정.
- * - audio-stream: 오디오 청크 발행용 Producer (key=sessionId, value=byte[])
+ * - audio-stream: 오디오 청크 발행용 Producer (key=sessionId, value=ByteBuffer → 직렬화 후 byte[])
+ *   key 는 key-format 에 따라 sessionId 문자열(string) 또는 16바이트 UUID(uuid16), 파티션은 ConsistentHashPartitioner 로 세션별 고정
+ *   배치/압축/acks 는 프로필(app.kafka.audio-producer.profile)로 선택, compression-type 만 따로 덮어쓸 수 있음
+ * - stt-requests: hotword 캡처 발행용 Producer. key-format 과 관계없이 key 는 항상 sessionId 문자열
  * - hotword-events: Hotword 서비스가 발행한 감지 결과 구독은 Spring Boot 기본 Consumer 설정 사용
+ *   (배치 모드는 같은 ConsumerFactory 로 만든 batch 리스너 컨테이너 팩토리 사용)
  */
+@Slf4j
 @Configuration
 public class KafkaConfig {
 
@@ -30,34 +49,156 @@ public class KafkaConfig {
     @Value("${app.kafka.topic.hotword-events:hotword-events}")
     private String hotwordEventsTopic;
 
-    /** 테스트/운영 공통: 토픽이 없으면 생성 (파티션 1, 복제 1) */
+    /** 세션 단위로 나뉘므로 하류 컨슈머(Hotword 서비스/내장 감지) 병렬도 상한 */
+    @Value("${app.kafka.audio-stream.partitions:1}")
+    private int audioStreamPartitions;
+
+    /** string (sessionId UTF-8) / uuid16 (16바이트 binary, 컨슈머는 SessionKeyDeserializer 로 복원) */
+    @Value("${app.kafka.audio-stream.key-format:string}")
+    private String audioStreamKeyFormat;
+
+    @Value("${app.kafka.audio-stream.partitioner.virtual-nodes:64}")
+    private int audioStreamVirtualNodes;
+
+    /** 리스너 concurrency 상한이 되므로 concurrency 이상으로 둘 것 */
+    @Value("${app.kafka.hotword-events.partitions:1}")
+    private int hotwordEventsPartitions;
+
+    @Value("${app.kafka.hotword-events.max-poll-records:500}")
+    private int hotwordEventsMaxPollRecords;
+
+    @Value("${app.kafka.audio-producer.profile:default}")
+    private String audioProducerProfile;
+
+    /** 비우면 프로필 값 사용 (none / gzip / snappy / lz4 / zstd) */
+    @Value("${app.kafka.audio-producer.compression-type:}")
+    private String audioProducerCompressionType;
+
+    @Value("${app.spill.enabled:false}")
+    private boolean spillEnabled;
+
+    /** 스필 사용 시 buffer.memory 가 찼을 때 send 가 기다리는 최대 시간 (넘으면 예외 → 스필) */
+    @Value("${app.spill.max-block-ms:200}")
+    private long spillMaxBlockMs;
+
+    /** 스필 사용 시 발행 실패 판정까지의 시간 (기본 120초 → 브로커 장애 시 더 빨리 스필로 넘김, linger + request.timeout 이상) */
+    @Value("${app.spill.delivery-timeout-ms:35000}")
+    private int spillDeliveryTimeoutMs;
+
+    /** 가상 스레드 모드: 직접 만드는 리스너 컨테이너 팩토리에는 Boot 설정이 적용되지 않으므로 여기서 반영 */
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    /** 테스트/운영 공통: 토픽이 없으면 생성 (파티션 수는 설정값, 복제 1). 이미 있는 토픽이 더 작으면 파티션을 늘림 */
     @Bean
     public org.apache.kafka.clients.admin.NewTopic audioStreamTopicBean() {
-        return TopicBuilder.name(audioStreamTopic).partitions(1).replicas(1).build();
+        return TopicBuilder.name(audioStreamTopic).partitions(audioStreamPartitions).replicas(1).build();
     }
 
     @Bean
     public org.apache.kafka.clients.admin.NewTopic hotwordEventsTopicBean() {
-        return TopicBuilder.name(hotwordEventsTopic).partitions(1).replicas(1).build();
+        return TopicBuilder.name(hotwordEventsTopic).partitions(hotwordEventsPartitions).replicas(1).build();
+    }
+
+    /**
+     * hotword-events 배치 리스너용 컨테이너 팩토리.
+     * poll 한 레코드 묶음을 List 로 한 번에 넘김 (concurrency 는 @KafkaListener 에서 지정)
+     * value 는 byte[] 그대로 (이벤트 JSON 을 문자열로 만들지 않고 WebSocket 텍스트 프레임까지 넘김)
+     * 가상 스레드 모드면 컨슈머 스레드도 가상 스레드 (리스너가 WebSocket 전송 대기로 막혀도 플랫폼 스레드를 잡지 않음)
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> hotwordBatchListenerContainerFactory(
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().getKafkaConsumerProperties()
+                .setProperty("max.poll.records", String.valueOf(hotwordEventsMaxPollRecords));
+        factory.getContainerProperties().getKafkaConsumerProperties()
+                .setProperty(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        if (virtualThreadsEnabled) {
+            factory.getContainerProperties().setListenerTaskExecutor(new VirtualThreadTaskExecutor("hotword-listener-"));
+        }
+        return factory;
     }
 
-    /** 오디오 청크 전용 Producer 설정 (value = byte[]) */
+    /** 오디오 청크 전용 Producer 설정 (value = 풀 버퍼 ByteBuffer, 전송 바이트는 기존과 동일) */
     @Bean
-    public ProducerFactory<String, byte[]> audioProducerFactory() {
+    public ProducerFactory<String, ByteBuffer> audioProducerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, switch (audioStreamKeyFormat) {
+            case "string" -> StringSerializer.class;
+            case "uuid16" -> SessionKeySerializer.class;
+            default -> throw new IllegalArgumentException("unknown audio-stream key-format: " + audioStreamKeyFormat);
+        });
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, AudioBufferSerializer.class);
+        props.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, ConsistentHashPartitioner.class);
+        props.put(ConsistentHashPartitioner.VIRTUAL_NODES_CONFIG, audioStreamVirtualNodes);
+        AudioProducerProfile profile = AudioProducerProfile.of(audioProducerProfile);
+        profile.applyTo(props);
+        if (!audioProducerCompressionType.isBlank()) {
+            props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, audioProducerCompressionType);
+        }
+        if (spillEnabled) {
+            // 브로커 장애로 버퍼가 차면 WebSocket/디스패처 스레드를 오래 막지 말고 스필로 넘김
+            props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, spillMaxBlockMs);
+            props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, spillDeliveryTimeoutMs);
+        }
+        log.info("[KafkaConfig] audio-stream Producer 프로필={}, compression={}, key-format={}, partitions={}",
+                profile, props.getOrDefault(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none"), audioStreamKeyFormat,
+                audioStreamPartitions);
         return new DefaultKafkaProducerFactory<>(props);
     }
 
+    /** hotword 전후 오디오 캡처를 발행하는 STT 요청 토픽 (app.capture.enabled=true 일 때만) */
+    @Bean
+    @ConditionalOnProperty(name = "app.capture.enabled", havingValue = "true")
+    public org.apache.kafka.clients.admin.NewTopic sttRequestsTopicBean(
+            @Value("${app.capture.stt-topic:stt-requests}") String sttTopic) {
+        return TopicBuilder.name(sttTopic).partitions(1).replicas(1).build();
+    }
+
+    /**
+     * 적응형 병합 (app.audio.coalesce.adaptive.enabled=true 일 때만).
+     * 상한은 고정 병합 설정(coalesce.max-bytes / max-delay-ms) 그대로, 하한부터 시작해 부하에 따라 올라감
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.audio.coalesce.adaptive.enabled", havingValue = "true")
+    public AdaptiveCoalescing adaptiveCoalescing(
+            @Value("${app.audio.coalesce.max-bytes:8192}") int maxBytes,
+            @Value("${app.audio.coalesce.max-delay-ms:100}") long maxDelayMs,
+            @Value("${app.audio.coalesce.adaptive.min-bytes:2048}") int minBytes,
+            @Value("${app.audio.coalesce.adaptive.min-delay-ms:20}") long minDelayMs,
+            @Value("${app.audio.coalesce.adaptive.high-records-per-second:2000}") double highRate,
+            @Value("${app.audio.coalesce.adaptive.low-records-per-second:200}") double lowRate,
+            @Value("${app.audio.coalesce.adaptive.high-in-flight:1000}") int highInFlight) {
+        return new AdaptiveCoalescing(minBytes, maxBytes,
+                TimeUnit.MILLISECONDS.toNanos(minDelayMs), TimeUnit.MILLISECONDS.toNanos(maxDelayMs),
+                highRate, lowRate, highInFlight);
+    }
+
     /** 오디오 스트림 토픽에 발행할 때 사용하는 KafkaTemplate */
     @Bean
-    public KafkaTemplate<String, byte[]> audioStreamKafkaTemplate(
-            ProducerFactory<String, byte[]> audioProducerFactory) {
+    public KafkaTemplate<String, ByteBuffer> audioStreamKafkaTemplate(
+            ProducerFactory<String, ByteBuffer> audioProducerFactory) {
         return new KafkaTemplate<>(audioProducerFactory);
     }
 
+    /**
+     * hotword 캡처를 STT 토픽에 발행하는 KafkaTemplate (app.capture.enabled=true 일 때만).
+     * audio-stream 의 key-format(uuid16) 이 STT 컨슈머에 번지지 않도록 key 는 항상 String, 파티셔너도 기본값
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.capture.enabled", havingValue = "true")
+    public KafkaTemplate<String, ByteBuffer> sttCaptureKafkaTemplate() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, AudioBufferSerializer.class);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
     /** 토픽 이름을 다른 빈에서 주입받을 때 사용 (선택) */
     @Bean(name = "audioStreamTopicName")
     public String audioStreamTopicName() {
@@ -0,0 +1,51 @@
+package com.wordawake.gateway.config;
+
+import com.wordawake.gateway.reactive.ReactiveGatewayHandler;
+import com.wordawake.gateway.reactive.ReactiveHandshakeService;
+import com.wordawake.gateway.websocket.HandshakeAdmission;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.reactor.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.reactive.socket.server.support.WebSocketHandlerAdapter;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * reactive(Netty) 전송 모드 설정. reactive 프로필(application-reactive.yml)에서 web-application-type=reactive 일 때만 사용.
+ * servlet 모드 설정({@link WebSocketConfig})과 같은 경로(/socket)에 {@link ReactiveGatewayHandler} 를 등록.
+ *
+ * servlet 스타터(Tomcat)도 클래스패스에 있으므로 Netty 서버 팩토리를 직접 등록해 reactive 서버로 Netty 를 고정.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebSocketConfig {
+
+    // 1M (1024 * 1024 * 1), servlet 모드의 binary 버퍼 한도와 같은 값
+    @Value("${websocket.max-binary-message-buffer-size:1048576}")
+    private int maxBinaryMessageBufferSize;
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public HandlerMapping gatewaySocketHandlerMapping(ReactiveGatewayHandler reactiveGatewayHandler) {
+        log.info("[Gateway Server] Register reactive websocket handler");
+        // 애노테이션 기반 핸들러보다 먼저 매칭
+        return new SimpleUrlHandlerMapping(Map.of("/socket", reactiveGatewayHandler), -1);
+    }
+
+    @Bean
+    public WebSocketHandlerAdapter webSocketHandlerAdapter(Optional<HandshakeAdmission> handshakeAdmission) {
+        return new WebSocketHandlerAdapter(
+                new ReactiveHandshakeService(handshakeAdmission.orElse(null), maxBinaryMessageBufferSize));
+    }
+}
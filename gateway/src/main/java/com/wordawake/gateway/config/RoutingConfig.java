@@ -0,0 +1,140 @@
+package com.wordawake.gateway.config;
+
+import com.wordawake.gateway.kafka.HotwordEventConsumer;
+import com.wordawake.gateway.routing.HotwordEventRouter;
+import com.wordawake.gateway.routing.KafkaSessionDirectory;
+import com.wordawake.gateway.routing.NoopSessionDirectory;
+import com.wordawake.gateway.routing.SessionDirectory;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 다중 게이트웨이 노드 라우팅 설정.
+ * - app.routing.enabled=false (기본): 단일 노드. 모든 노드가 공용 hotword-events 를 직접 소비
+ * - app.routing.enabled=true: 세션 디렉터리(compacted 토픽) + HotwordEventRouter 가 공용 토픽을
+ *   세션 소유 노드의 inbox 토픽(hotword-events.{nodeId})으로 넘기고, 각 노드는 자기 inbox 만 소비
+ */
+@Configuration
+public class RoutingConfig {
+
+    private static final String ENABLED = "app.routing.enabled";
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${app.kafka.topic.hotword-events:hotword-events}")
+    private String hotwordEventsTopic;
+
+    @Value("${app.kafka.hotword-events.partitions:1}")
+    private int hotwordEventsPartitions;
+
+    @Value("${app.routing.enabled:false}")
+    private boolean routingEnabled;
+
+    /** 이 게이트웨이 노드 id. 지정하지 않으면 호스트 이름 (inbox 토픽 이름에 쓰이므로 재기동해도 같게 유지) */
+    @Bean(name = "gatewayNodeId")
+    public String gatewayNodeId(@Value("${app.routing.node-id:}") String nodeId) throws UnknownHostException {
+        return nodeId.isBlank() ? InetAddress.getLocalHost().getHostName() : nodeId;
+    }
+
+    /** HotwordEventConsumer 가 구독하는 토픽: 라우팅 모드면 이 노드 inbox, 아니면 공용 토픽 */
+    @Bean(name = "hotwordInboxTopicName")
+    public String hotwordInboxTopicName(@Qualifier("gatewayNodeId") String nodeId) {
+        return routingEnabled ? HotwordEventRouter.inboxTopicOf(hotwordEventsTopic, nodeId) : hotwordEventsTopic;
+    }
+
+    /** inbox 는 노드마다 따로 소비하므로 consumer group 도 노드별로 분리 */
+    @Bean(name = "hotwordInboxGroupId")
+    public String hotwordInboxGroupId(@Value("${spring.kafka.consumer.group-id:gateway-hotword-consumer}") String groupId,
+                                      @Qualifier("gatewayNodeId") String nodeId) {
+        return routingEnabled ? groupId + "-" + nodeId : groupId;
+    }
+
+    /** 단일 노드: 소유 노드를 조회하는 곳이 없으므로 세션 등록/해제를 기록하지 않음 */
+    @Bean
+    @ConditionalOnProperty(name = ENABLED, havingValue = "false", matchIfMissing = true)
+    public SessionDirectory noopSessionDirectory() {
+        return new NoopSessionDirectory();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = ENABLED, havingValue = "true")
+    public NewTopic hotwordInboxTopicBean(@Qualifier("hotwordInboxTopicName") String inboxTopic) {
+        return TopicBuilder.name(inboxTopic).partitions(hotwordEventsPartitions).replicas(1).build();
+    }
+
+    /** 세션 디렉터리 토픽. key = sessionId 마지막 값만 남도록 compaction */
+    @Bean
+    @ConditionalOnProperty(name = ENABLED, havingValue = "true")
+    public NewTopic sessionDirectoryTopicBean(
+            @Value("${app.routing.directory-topic:session-directory}") String directoryTopic,
+            @Value("${app.routing.directory-partitions:3}") int partitions) {
+        return TopicBuilder.name(directoryTopic).partitions(partitions).replicas(1).compact().build();
+    }
+
+    /** 디렉터리 갱신용 String Producer */
+    @Bean
+    @ConditionalOnProperty(name = ENABLED, havingValue = "true")
+    public KafkaTemplate<String, String> routingKafkaTemplate() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        // 라우팅은 지연이 중요하므로 linger 없이 바로 전송
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    /** inbox 전달용 byte[] Producer (라우터가 받은 이벤트 바이트를 디코딩 없이 그대로 넘김) */
+    @Bean
+    @ConditionalOnProperty(name = ENABLED, havingValue = "true")
+    public KafkaTemplate<String, byte[]> hotwordForwardKafkaTemplate() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = ENABLED, havingValue = "true")
+    public SessionDirectory kafkaSessionDirectory(
+            @Qualifier("gatewayNodeId") String nodeId,
+            @Value("${app.routing.directory-topic:session-directory}") String directoryTopic,
+            @Qualifier("routingKafkaTemplate") KafkaTemplate<String, String> routingKafkaTemplate,
+            @Value("${app.routing.released-ttl-ms:60000}") long releasedTtlMs,
+            @Value("${app.routing.unknown-owner-wait-ms:2000}") long unknownOwnerWaitMs) {
+        // 끊긴 세션은 최소한 라우터의 소유 노드 대기 시간보다 오래 기억
+        return new KafkaSessionDirectory(nodeId, directoryTopic, routingKafkaTemplate, bootstrapServers,
+                Math.max(releasedTtlMs, unknownOwnerWaitMs));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = ENABLED, havingValue = "true")
+    public HotwordEventRouter hotwordEventRouter(
+            @Qualifier("gatewayNodeId") String nodeId,
+            SessionDirectory sessionDirectory,
+            HotwordEventConsumer hotwordEventConsumer,
+            @Qualifier("hotwordForwardKafkaTemplate") KafkaTemplate<String, byte[]> hotwordForwardKafkaTemplate,
+            @Value("${app.routing.unknown-owner-wait-ms:2000}") long unknownOwnerWaitMs,
+            @Value("${app.routing.directory-load-wait-ms:60000}") long directoryLoadWaitMs) {
+        return new HotwordEventRouter(nodeId, sessionDirectory, hotwordEventConsumer, hotwordForwardKafkaTemplate, hotwordEventsTopic,
+                unknownOwnerWaitMs, directoryLoadWaitMs);
+    }
+}
@@ -2,9 +2,11 @@ package com.wordawake.gateway.config;
 
 import com.wordawake.gateway.websocket.GatewayHandler;
 import com.wordawake.gateway.websocket.GatewayInterceptor;
+import com.wordawake.gateway.websocket.HandshakeAdmission;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
@@ -12,12 +14,18 @@ import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
 import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
 
+import java.util.Optional;
+
+/** servlet(Tomcat) 전송 모드 (기본). reactive 프로필이면 {@link ReactiveWebSocketConfig} 사용 */
 @Slf4j
 @Configuration
 @EnableWebSocket
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final GatewayHandler gatewayHandler;
+    /** app.admission.enabled=false 면 null */
+    private final HandshakeAdmission handshakeAdmission;
 
     // 10M (1024 * 1024 * 10)
     @Value("${websocket.max-text-message-buffer-size:10485760}")
@@ -32,15 +40,16 @@ public class WebSocketConfig implements WebSocketConfigurer {
     private long maxSessionIdleTimeout;
 
     @Autowired
-    public WebSocketConfig(GatewayHandler gatewayHandler) {
+    public WebSocketConfig(GatewayHandler gatewayHandler, Optional<HandshakeAdmission> handshakeAdmission) {
         this.gatewayHandler = gatewayHandler;
+        this.handshakeAdmission = handshakeAdmission.orElse(null);
     }
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         log.info("[Gateway Server] Register websocket config");
         registry.addHandler(gatewayHandler, "/socket")
-                .addInterceptors(new GatewayInterceptor())
+                .addInterceptors(new GatewayInterceptor(handshakeAdmission))
                 .setAllowedOriginPatterns("*")
         ;
     }
@@ -0,0 +1,410 @@
+package com.wordawake.gateway.dispatch;
+
+import com.wordawake.gateway.codec.AudioCodec;
+import com.wordawake.gateway.codec.AudioEncoder;
+import com.wordawake.gateway.flow.CreditFlowController;
+import com.wordawake.gateway.framing.AudioFrameHeader;
+import com.wordawake.gateway.framing.FrameStamp;
+import com.wordawake.gateway.kafka.AudioStreamProducer;
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import com.wordawake.gateway.utils.AudioBufferPool;
+import com.wordawake.gateway.vad.VadSettings;
+import com.wordawake.gateway.vad.VoiceActivityGate;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 세션별 순서를 보장하는 오디오 프레임 디스패처.
+ * handleBinaryMessage 에서 받은 프레임을 세션 단위 FIFO 큐(lane)에 넣고,
+ * lane 당 하나의 가상 스레드가 순서대로 AudioStreamProducer 로 넘김 (세션 내 단일 writer).
+ * 수신 프레임은 풀(AudioBufferPool)의 버퍼에 복사해 큐에 넣고, 발행(또는 폐기) 후 풀에 반납.
+ *
+ * 코덱 단계: 클라이언트 입력이 PCM16 이면 lane writer 가 발행 직전에 target 코덱(app.audio.codec.target)으로 인코딩
+ * (출력도 풀 버퍼, 인코더 상태는 lane 단위). 클라이언트가 이미 압축 형식으로 보내면 그대로 발행.
+ * 입력 형식은 핸드셰이크에서 협상한 값을 {@link #openSession} 으로 받음. lane 은 openSession 에서만 만들고,
+ * 열리지 않았거나 이미 정리된 세션의 프레임은 lane 을 새로 만들지 않고 버림 (DROPPED).
+ *
+ * VAD 단계 (app.audio.vad.enabled): PCM16 입력 세션은 인코딩 전에 {@link VoiceActivityGate} 를 거쳐
+ * 음성 구간(+ pre-roll / hangover)과 주기적 keepalive 프레임만 발행. 압축 입력은 판정 없이 모두 발행.
+ *
+ * 상한
+ * - 세션별: 큐에 쌓인 프레임 수 (max-in-flight-per-session)
+ * - 전체: 모든 세션의 대기 + 발행 중 프레임 수 (max-in-flight-total, 동시 진입 시 약간 초과 가능한 근사 상한)
+ * 상한 도달 시 {@link OverflowPolicy} 에 따라 reader 블로킹 / 오래된 프레임 폐기 / 세션 종료.
+ * 수신 프레임 수/크기는 submit 에서, 세션별 오디오 총량은 lane 정리 시 GatewayMetrics 에 기록.
+ *
+ * framed 세션 ({@link AudioFrameHeader}): 큐 버퍼 앞에 게이트웨이 수신 시각(8바이트)을 붙여 클라이언트 헤더와 함께 보관하고,
+ * lane writer 가 발행 직전에 헤더를 떼어 시퀀스/시각을 AudioStreamProducer 로 넘김 (레코드 헤더로 발행).
+ *
+ * 흐름 제어 (app.flow.enabled): 프레임 처리(발행 또는 폐기, REJECTED 포함)가 끝나면 수신 크기만큼 {@link CreditFlowController} 에 크레딧 반환.
+ */
+@Slf4j
+@Component
+public class AudioDispatcher {
+
+    /** 상한 도달 시 동작 */
+    public enum OverflowPolicy {
+        /** 공간이 생길 때까지 reader(WebSocket 수신 스레드) 대기. block-timeout 초과 시 REJECTED */
+        BLOCK,
+        /** 해당 세션의 가장 오래된 프레임을 버리고 새 프레임 수용 */
+        DROP_OLDEST,
+        /** 프레임을 받지 않고 REJECTED 반환 → 호출 측에서 세션 종료 */
+        CLOSE_SESSION
+    }
+
+    /** submit 결과 */
+    public enum Result {
+        ACCEPTED,
+        /** 수용했지만 공간 확보를 위해 프레임을 버림 (또는 새 프레임 자체를 버림, 열리지 않은/종료된 세션 포함) */
+        DROPPED,
+        /** 수용 불가. 호출 측에서 세션을 닫아야 함 */
+        REJECTED
+    }
+
+    /** framed 세션 큐 버퍼 앞에 붙이는 게이트웨이 수신 시각 크기 */
+    private static final int STAMP_BYTES = Long.BYTES;
+
+    private final AudioStreamProducer audioStreamProducer;
+    private final GatewayMetrics metrics;
+    private final int maxPerSession;
+    private final int maxTotal;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final AudioBufferPool framePool;
+    private final AudioCodec targetCodec;
+    /** null 이면 VAD 미사용 */
+    private final VadSettings vadSettings;
+    /** null 이면 흐름 제어 미사용 */
+    private final CreditFlowController flowController;
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("audio-dispatch-", 0).factory());
+
+    public AudioDispatcher(
+            AudioStreamProducer audioStreamProducer,
+            GatewayMetrics metrics,
+            @Value("${app.audio.dispatch.max-in-flight-per-session:64}") int maxPerSession,
+            @Value("${app.audio.dispatch.max-in-flight-total:100000}") int maxTotal,
+            @Value("${app.audio.dispatch.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+            @Value("${app.audio.dispatch.block-timeout-ms:1000}") long blockTimeoutMs,
+            @Value("${app.audio.buffer-pool.frame-buffer-bytes:4096}") int frameBufferBytes,
+            @Value("${app.audio.buffer-pool.max-pooled-frames:16384}") int maxPooledFrames,
+            @Value("${app.audio.buffer-pool.direct:false}") boolean directBuffers,
+            @Value("${app.audio.codec.target:pcm16}") String targetCodec,
+            Optional<VadSettings> vadSettings,
+            Optional<CreditFlowController> flowController) {
+        this.audioStreamProducer = audioStreamProducer;
+        this.metrics = metrics;
+        this.maxPerSession = maxPerSession;
+        this.maxTotal = maxTotal;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+        this.framePool = new AudioBufferPool(frameBufferBytes, maxPooledFrames, directBuffers);
+        this.targetCodec = AudioCodec.of(targetCodec);
+        this.vadSettings = vadSettings.orElse(null);
+        this.flowController = flowController.orElse(null);
+    }
+
+    /**
+     * 세션 시작 시 클라이언트 입력 형식 지정. PCM16 이면 target 코덱으로 인코딩, 그 외는 그대로 발행.
+     * submit 전에 호출해야 함 (lane 이 없는 세션의 프레임은 버려짐).
+     */
+    public void openSession(String sessionId, AudioCodec inputFormat) {
+        openSession(sessionId, inputFormat, false);
+    }
+
+    /** framed=true 면 프레임마다 {@link AudioFrameHeader} 가 붙어 옴 (호출 측에서 헤더 검사 후 submit) */
+    public void openSession(String sessionId, AudioCodec inputFormat, boolean framed) {
+        lanes.computeIfAbsent(sessionId, id -> new Lane(id, inputFormat, framed));
+    }
+
+    /**
+     * 프레임을 세션 lane 에 넣음. 같은 세션의 프레임은 submit 순서대로 발행됨.
+     * payload 의 [position, limit) 는 호출 중에 풀 버퍼로 복사되므로, 반환 후 호출 측(컨테이너)이 재사용해도 됨.
+     */
+    public Result submit(String sessionId, ByteBuffer payload) throws InterruptedException {
+        return submit(sessionId, payload, 0);
+    }
+
+    /** framed 세션 프레임 제출. receiveMicros = 게이트웨이 수신 시각 (framed 가 아닌 세션이면 무시) */
+    public Result submit(String sessionId, ByteBuffer payload, long receiveMicros) throws InterruptedException {
+        Lane lane = lanes.get(sessionId);
+        if (lane == null) {
+            // 열리지 않았거나 이미 정리된 세션: 고아 lane 을 만들지 않음
+            droppedFrames.incrementAndGet();
+            if (flowController != null) {
+                flowController.release(sessionId, payload.remaining());
+            }
+            return Result.DROPPED;
+        }
+        Result result = Result.ACCEPTED;
+        lane.lock.lock();
+        try {
+            int bytes = payload.remaining();
+            if (lane.closed) {
+                droppedFrames.incrementAndGet();
+                returnCredit(lane, bytes);
+                return Result.DROPPED;
+            }
+            metrics.onFrameReceived(bytes);
+            lane.receivedBytes += bytes;
+            long deadline = System.nanoTime() + blockTimeoutNanos;
+            while (lane.queue.size() >= maxPerSession || inFlight.get() >= maxTotal) {
+                switch (overflowPolicy) {
+                    case BLOCK -> {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            returnCredit(lane, bytes);
+                            return Result.REJECTED;
+                        }
+                        // 전체 상한은 다른 lane 에서 풀리므로 signal 을 못 받을 수 있음 → 짧게 나눠 대기
+                        lane.notFull.awaitNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(10)));
+                    }
+                    case DROP_OLDEST -> {
+                        droppedFrames.incrementAndGet();
+                        ByteBuffer oldest = lane.queue.pollFirst();
+                        if (oldest == null) {
+                            returnCredit(lane, bytes);
+                            return Result.DROPPED; // 자기 lane 이 비었는데 전체 상한 → 새 프레임을 버림
+                        }
+                        returnCredit(lane, oldest.remaining() - lane.prefixBytes);
+                        framePool.release(oldest);
+                        inFlight.decrementAndGet();
+                        result = Result.DROPPED;
+                    }
+                    case CLOSE_SESSION -> {
+                        returnCredit(lane, bytes);
+                        return Result.REJECTED;
+                    }
+                }
+            }
+            ByteBuffer frame = framePool.acquire(lane.prefixBytes + bytes);
+            if (lane.framed) {
+                frame.putLong(receiveMicros);
+            }
+            AudioBufferPool.copy(payload, frame);
+            frame.flip();
+            lane.queue.addLast(frame);
+            inFlight.incrementAndGet();
+            if (!lane.scheduled) {
+                lane.scheduled = true;
+                executor.execute(() -> drain(lane));
+            }
+            return result;
+        } finally {
+            lane.lock.unlock();
+        }
+    }
+
+    /**
+     * 세션 종료 시 호출. 이미 받은 프레임은 모두 발행한 뒤 AudioStreamProducer 의 세션 버퍼를 정리하고 lane 제거.
+     */
+    public void closeSession(String sessionId) {
+        Lane lane = lanes.get(sessionId);
+        if (lane == null) {
+            audioStreamProducer.closeSession(sessionId);
+            return;
+        }
+        lane.lock.lock();
+        try {
+            lane.closed = true;
+            if (!lane.scheduled) {
+                lane.scheduled = true;
+                executor.execute(() -> drain(lane));
+            }
+        } finally {
+            lane.lock.unlock();
+        }
+    }
+
+    /** 모든 세션의 대기 + 발행 중 프레임 수 */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /** 프레임 버퍼 풀 (모니터링용) */
+    public AudioBufferPool getFramePool() {
+        return framePool;
+    }
+
+    /** 상한 초과로 버려진 누적 프레임 수 */
+    public long getDroppedFrameCount() {
+        return droppedFrames.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /** lane 의 단일 writer. 큐가 빌 때까지 순서대로 발행 */
+    private void drain(Lane lane) {
+        while (true) {
+            ByteBuffer frame;
+            lane.lock.lock();
+            try {
+                frame = lane.queue.pollFirst();
+                if (frame == null) {
+                    lane.scheduled = false;
+                    if (!lane.closed) {
+                        return;
+                    }
+                }
+            } finally {
+                lane.lock.unlock();
+            }
+            if (frame == null) {
+                // 종료된 세션: 남은 프레임 발행 완료 → 세션 정리
+                lanes.remove(lane.sessionId, lane);
+                if (lane.vad != null) {
+                    lane.vad.close();
+                }
+                audioStreamProducer.closeSession(lane.sessionId);
+                metrics.onSessionAudioClosed(lane.receivedBytes);
+                return;
+            }
+            int bytes = frame.remaining() - lane.prefixBytes;
+            if (lane.framed) {
+                frame.position(lane.prefixBytes + AudioFrameHeader.SIZE);
+            }
+            try {
+                forward(lane, frame);
+            } catch (Exception e) {
+                log.error("[AudioDispatcher] 발행 실패 - sessionId={}", lane.sessionId, e);
+            } finally {
+                returnCredit(lane, bytes);
+                inFlight.decrementAndGet();
+                lane.lock.lock();
+                try {
+                    lane.notFull.signal();
+                } finally {
+                    lane.lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * lane writer 에서만 호출. frame 소유권을 넘겨받아 발행 후 (또는 VAD 가 버리거나 보관) 반납.
+     * VAD 가 있으면 게이트가 내보내기로 한 프레임(pre-roll 포함)을 순서대로 발행.
+     */
+    private void forward(Lane lane, ByteBuffer frame) {
+        if (lane.vad == null) {
+            try {
+                publish(lane, frame);
+            } finally {
+                framePool.release(frame);
+            }
+            return;
+        }
+        VoiceActivityGate.Decision decision = lane.vad.process(frame, lane.ready);
+        metrics.onVadDecision(decision != VoiceActivityGate.Decision.SILENCE);
+        ByteBuffer ready;
+        while ((ready = lane.ready.pollFirst()) != null) {
+            try {
+                publish(lane, ready);
+            } finally {
+                framePool.release(ready);
+            }
+        }
+    }
+
+    /** lane writer 에서만 호출. 인코더가 있으면 풀 버퍼에 인코딩해 발행 후 반납 */
+    private void publish(Lane lane, ByteBuffer frame) {
+        FrameStamp stamp = null;
+        if (lane.framed) {
+            // 헤더는 position 앞에 그대로 있음: [0, 8) 수신 시각, [8, 24) 클라이언트 헤더
+            stamp = lane.stamp.set(
+                    AudioFrameHeader.streamId(frame, STAMP_BYTES),
+                    AudioFrameHeader.sequence(frame, STAMP_BYTES),
+                    AudioFrameHeader.captureMicros(frame, STAMP_BYTES),
+                    frame.getLong(0));
+        }
+        if (lane.encoder == null) {
+            send(lane, frame, stamp);
+            return;
+        }
+        ByteBuffer encoded = framePool.acquire(lane.encoder.maxEncodedBytes(frame.remaining()));
+        try {
+            lane.encoder.encode(frame, encoded);
+            encoded.flip();
+            send(lane, encoded, stamp);
+        } finally {
+            framePool.release(encoded);
+        }
+    }
+
+    private void send(Lane lane, ByteBuffer audio, FrameStamp stamp) {
+        if (stamp == null) {
+            audioStreamProducer.send(lane.sessionId, audio, lane.codec);
+        } else {
+            audioStreamProducer.send(lane.sessionId, audio, lane.codec, stamp);
+        }
+    }
+
+    /** 처리가 끝난 수신 바이트만큼 흐름 제어 크레딧 반환 */
+    private void returnCredit(Lane lane, int bytes) {
+        if (flowController != null) {
+            flowController.release(lane.sessionId, bytes);
+        }
+    }
+
+    /** 세션별 FIFO 큐 */
+    private final class Lane {
+        final String sessionId;
+        /** 발행 레코드의 코덱 */
+        final AudioCodec codec;
+        /** null 이면 변환 없이 발행 (lane writer 만 사용) */
+        final AudioEncoder encoder;
+        /** null 이면 모든 프레임 발행 (lane writer 만 사용) */
+        final VoiceActivityGate vad;
+        /** VAD 가 내보내기로 한 프레임 (lane writer 만 사용) */
+        final ArrayDeque<ByteBuffer> ready = new ArrayDeque<>();
+        final ArrayDeque<ByteBuffer> queue = new ArrayDeque<>();
+        final ReentrantLock lock = new ReentrantLock();
+        final Condition notFull = lock.newCondition();
+        boolean scheduled;
+        boolean closed;
+        /** 세션이 보낸 오디오 총량 (lock 안에서 갱신) */
+        long receivedBytes;
+        /** framed 세션이면 큐 버퍼 = [수신 시각][클라이언트 헤더][오디오] */
+        final boolean framed;
+        /** 큐 버퍼에서 수신 데이터 앞에 붙인 바이트 수 */
+        final int prefixBytes;
+        /** 발행 시 재사용 (lane writer 만 사용) */
+        final FrameStamp stamp = new FrameStamp();
+
+        Lane(String sessionId, AudioCodec inputFormat, boolean framed) {
+            this.sessionId = sessionId;
+            this.framed = framed;
+            this.prefixBytes = framed ? STAMP_BYTES : 0;
+            if (inputFormat == AudioCodec.PCM16) {
+                this.codec = targetCodec;
+                this.encoder = targetCodec.newEncoder();
+                this.vad = vadSettings == null ? null : new VoiceActivityGate(vadSettings, framePool);
+            } else {
+                this.codec = inputFormat;
+                this.encoder = null;
+                this.vad = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.wordawake.gateway.dispatch;
+
+import com.wordawake.gateway.service.SessionService;
+import com.wordawake.gateway.session.PreEncodedTextMessage;
+import com.wordawake.gateway.utils.Constants;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Hotword 감지 결과 배치 전달기.
+ * poll 한 배치를 대상 세션(key)별로 묶고, 세션 그룹을 delivery 워커들에 나눠 병렬로 전달.
+ *
+ * - 한 세션의 레코드는 항상 한 워커가 배치 내 순서대로 전달 → 세션 내 순서 유지
+ * - 같은 세션은 같은 파티션으로 들어오므로 (key = sessionId) 리스너 concurrency 를 올려도 순서는 유지됨
+ * - dispatch 는 배치 전달이 끝난 뒤 반환 → 다음 배치(같은 세션의 이후 이벤트)가 앞지르지 않음.
+ *   워커 하나가 실패하거나 인터럽트돼도 나머지 워커를 모두 기다린 뒤 반환
+ * - 실제 전송은 세션 송신 큐(OutboundMailbox)가 하므로 워커는 클라이언트 I/O 를 기다리지 않음
+ * - 배치 수신 시각을 함께 넘겨 consume → WebSocket 전송 지연을 계측
+ * - payload 는 byte[] 그대로 PreEncodedTextMessage 로 전달 (String 디코딩/재인코딩, 내용 검사 없음).
+ *   이벤트 종류는 헤더(event-type)로만 판단: 헤더가 없으면 전달(기존 발행 측 호환), "hotword" 가 아니면 건너뜀
+ */
+@Slf4j
+@Component
+public class HotwordDispatcher {
+
+    /** 배치 1회 전달 결과 */
+    public record BatchResult(int sessions, int delivered, int failed) {
+        static final BatchResult EMPTY = new BatchResult(0, 0, 0);
+
+        BatchResult plus(BatchResult other) {
+            return new BatchResult(sessions + other.sessions, delivered + other.delivered, failed + other.failed);
+        }
+    }
+
+    private static final byte[] HOTWORD_EVENT_TYPE = Constants.KAFKA_EVENT_TYPE_HOTWORD.getBytes(StandardCharsets.US_ASCII);
+
+    private final SessionService sessionService;
+    private final int parallelism;
+    /** parallelism 1 이면 null (리스너 스레드에서 바로 전달) */
+    private final ExecutorService workers;
+
+    public HotwordDispatcher(
+            SessionService sessionService,
+            @Value("${app.kafka.hotword-events.delivery-parallelism:4}") int parallelism) {
+        this.sessionService = sessionService;
+        this.parallelism = Math.max(1, parallelism);
+        this.workers = this.parallelism == 1 ? null : Executors.newFixedThreadPool(this.parallelism,
+                Thread.ofPlatform().name("hotword-delivery-", 0).daemon().factory());
+    }
+
+    /**
+     * 배치 전달. 세션 그룹이 2개 이상이면 워커에 나눠 병렬로, 아니면 호출 스레드에서 전달.
+     */
+    public BatchResult dispatch(List<ConsumerRecord<String, byte[]>> records) {
+        long receivedNanos = System.nanoTime();
+        Map<String, List<byte[]>> bySession = groupBySession(records);
+        if (bySession.isEmpty()) {
+            return BatchResult.EMPTY;
+        }
+        int buckets = Math.min(parallelism, bySession.size());
+        if (workers == null || buckets == 1) {
+            return deliverGroups(new ArrayList<>(bySession.entrySet()), receivedNanos);
+        }
+
+        // 세션 그룹을 워커 수만큼 round-robin 으로 분배
+        List<List<Map.Entry<String, List<byte[]>>>> split = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            split.add(new ArrayList<>());
+        }
+        int i = 0;
+        for (Map.Entry<String, List<byte[]>> group : bySession.entrySet()) {
+            split.get(i++ % buckets).add(group);
+        }
+        List<Callable<BatchResult>> tasks = new ArrayList<>(buckets - 1);
+        for (int b = 1; b < buckets; b++) {
+            List<Map.Entry<String, List<byte[]>>> bucket = split.get(b);
+            tasks.add(() -> deliverGroups(bucket, receivedNanos));
+        }
+
+        List<Future<BatchResult>> futures = new ArrayList<>(tasks.size());
+        for (Callable<BatchResult> task : tasks) {
+            futures.add(workers.submit(task));
+        }
+        // 첫 묶음은 리스너 스레드가 직접 처리 (스레드 전환 한 번 절약)
+        BatchResult total = BatchResult.EMPTY;
+        try {
+            total = deliverGroups(split.get(0), receivedNanos);
+        } finally {
+            // 첫 묶음이 실패해도 워커 묶음이 모두 끝난 뒤에 반환 (다음 배치가 앞지르지 않도록)
+            total = total.plus(awaitAll(futures));
+        }
+        return total;
+    }
+
+    /**
+     * 워커 묶음을 하나씩 모두 기다림. 한 워커가 실패해도 나머지를 계속 기다리고 결과를 합산,
+     * 인터럽트는 모두 기다린 뒤에 다시 설정
+     */
+    private BatchResult awaitAll(List<Future<BatchResult>> futures) {
+        BatchResult total = BatchResult.EMPTY;
+        boolean interrupted = false;
+        for (Future<BatchResult> future : futures) {
+            while (true) {
+                try {
+                    total = total.plus(future.get());
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    log.error("[HotwordDispatcher] 전달 워커 실패", e.getCause());
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return total;
+    }
+
+    /**
+     * 한 건 전달. sessionId 의 클라이언트에게 payload(UTF-8 JSON)를 그대로 보냄.
+     *
+     * @return 송신 큐 적재 성공 여부
+     */
+    public boolean deliver(String sessionId, byte[] payload) {
+        return deliver(sessionId, payload, System.nanoTime());
+    }
+
+    /** 클라이언트에 전달할 레코드인지 헤더로 판단 (event-type 헤더가 없으면 hotword 로 간주) */
+    public static boolean isHotwordEvent(Headers headers) {
+        Header type = headers.lastHeader(Constants.KAFKA_HEADER_EVENT_TYPE);
+        return type == null || Arrays.equals(type.value(), HOTWORD_EVENT_TYPE);
+    }
+
+    private boolean deliver(String sessionId, byte[] payload, long receivedNanos) {
+        return sessionService.sendToSession(sessionId, new PreEncodedTextMessage(payload), receivedNanos);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    /** key(sessionId)별로 묶되 배치 내 순서는 유지. key 없는 레코드, hotword 가 아닌 레코드는 건너뜀 */
+    private static Map<String, List<byte[]>> groupBySession(List<ConsumerRecord<String, byte[]>> records) {
+        Map<String, List<byte[]>> bySession = new LinkedHashMap<>();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            String sessionId = record.key();
+            if (sessionId == null) {
+                log.warn("[HotwordDispatcher] sessionId 없음 - partition={}, offset={}", record.partition(), record.offset());
+                continue;
+            }
+            if (record.value() == null || !isHotwordEvent(record.headers())) {
+                log.debug("[HotwordDispatcher] 전달 대상 아님 - sessionId={}, offset={}", sessionId, record.offset());
+                continue;
+            }
+            bySession.computeIfAbsent(sessionId, k -> new ArrayList<>(2)).add(record.value());
+        }
+        return bySession;
+    }
+
+    private BatchResult deliverGroups(List<Map.Entry<String, List<byte[]>>> groups, long receivedNanos) {
+        int delivered = 0;
+        int failed = 0;
+        for (Map.Entry<String, List<byte[]>> group : groups) {
+            for (byte[] payload : group.getValue()) {
+                if (deliver(group.getKey(), payload, receivedNanos)) {
+                    delivered++;
+                } else {
+                    failed++;
+                }
+            }
+        }
+        return new BatchResult(groups.size(), delivered, failed);
+    }
+}
@@ -0,0 +1,187 @@
+package com.wordawake.gateway.flow;
+
+import com.wordawake.gateway.message.GatewayMessage;
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import com.wordawake.gateway.service.SessionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 세션별 바이트 크레딧 흐름 제어 (app.flow.enabled=true 일 때만).
+ *
+ * 프로토콜 (기존 텍스트 채널, 서버 → 클라이언트):
+ * - 연결 시: {"type":"credit","credit":window,"window":window} → 클라이언트는 window 바이트까지 보낼 수 있음
+ * - 이후: {"type":"credit","credit":n} → n 바이트 추가 허용 (누적)
+ * 클라이언트는 (받은 credit 합 - 보낸 오디오 바이트) 가 0 이면 전송을 멈추거나 프레임 주기를 늦춘다.
+ *
+ * 크레딧은 프레임이 AudioStreamProducer 로 넘어간 뒤(또는 폐기된 뒤) 돌려줌.
+ * Producer 의 buffer.memory 가 차면 send 가 막혀 lane writer 가 멈추므로 크레딧도 멈추고, 그 압력이 클라이언트까지 전달됨.
+ * 돌려줄 크레딧은 grant-batch-bytes 만큼 모아서 한 메시지로 보냄 (프레임마다 텍스트 메시지를 만들지 않음).
+ *
+ * CBOR 서브프로토콜 세션은 같은 필드의 CBOR map 바이너리 프레임으로 받음 ({@link GatewayMessage.Credit}).
+ *
+ * 크레딧을 무시하는 클라이언트: 잔액이 음수가 되면 수신 스레드를 잔액이 회복될 때까지 붙잡아 둠.
+ * 그동안 컨테이너는 그 연결에서 다음 메시지를 읽지 않으므로 소켓 읽기가 멈추고 TCP 윈도가 닫힘.
+ * throttle-timeout 안에 회복되지 않으면 TIMED_OUT → 호출 측에서 세션 종료.
+ * window 보다 큰 프레임은 크레딧이 모두 돌아와도 잔액이 음수로 남아 회복될 수 없으므로,
+ * 차감/대기 없이 바로 TOO_LARGE → 호출 측에서 세션 종료 (클라이언트는 초기 크레딧 메시지의 window 로 상한을 앎).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.flow.enabled", havingValue = "true")
+public class CreditFlowController {
+
+    /** acquire 결과 */
+    public enum Result {
+        ACCEPTED,
+        /** throttle-timeout 안에 잔액이 회복되지 않음. 호출 측에서 세션을 닫아야 함 */
+        TIMED_OUT,
+        /** 프레임이 window 보다 커서 받을 수 없음 (잔액 변화 없음). 호출 측에서 세션을 닫아야 함 */
+        TOO_LARGE
+    }
+
+    private final SessionService sessionService;
+    private final GatewayMetrics metrics;
+    private final long windowBytes;
+    private final long grantBatchBytes;
+    private final long throttleTimeoutNanos;
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+
+    public CreditFlowController(
+            SessionService sessionService,
+            GatewayMetrics metrics,
+            @Value("${app.flow.window-bytes:65536}") long windowBytes,
+            @Value("${app.flow.grant-batch-bytes:16384}") long grantBatchBytes,
+            @Value("${app.flow.throttle-timeout-ms:5000}") long throttleTimeoutMs) {
+        if (windowBytes <= 0 || grantBatchBytes <= 0 || grantBatchBytes > windowBytes) {
+            throw new IllegalArgumentException("invalid flow window: window=" + windowBytes + ", grant-batch=" + grantBatchBytes);
+        }
+        this.sessionService = sessionService;
+        this.metrics = metrics;
+        this.windowBytes = windowBytes;
+        this.grantBatchBytes = grantBatchBytes;
+        this.throttleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(throttleTimeoutMs);
+    }
+
+    /** 세션 시작: 초기 윈도만큼 크레딧 부여 */
+    public void open(String sessionId) {
+        accounts.put(sessionId, new Account(windowBytes));
+        sessionService.sendToSession(sessionId, new GatewayMessage.Credit(windowBytes, windowBytes));
+    }
+
+    /**
+     * 수신 스레드에서 프레임을 디스패처에 넘기기 전에 호출. 잔액에서 bytes 를 차감하고,
+     * 잔액이 음수(크레딧 무시)면 회복될 때까지 대기 (그동안 이 연결의 소켓 읽기가 멈춤).
+     *
+     * window 보다 큰 프레임은 차감하지 않고 바로 TOO_LARGE.
+     *
+     * @return 제한 시간 안에 회복 못 하면 TIMED_OUT, 프레임이 window 보다 크면 TOO_LARGE (둘 다 세션을 닫아야 함)
+     */
+    public Result acquire(String sessionId, int bytes) throws InterruptedException {
+        Account account = accounts.get(sessionId);
+        if (account == null) {
+            return Result.ACCEPTED;
+        }
+        if (bytes > windowBytes) {
+            log.warn("[CreditFlow] 크레딧 윈도보다 큰 프레임 - sessionId={}, bytes={}, window={}", sessionId, bytes, windowBytes);
+            return Result.TOO_LARGE;
+        }
+        account.lock.lock();
+        try {
+            account.balance -= bytes;
+            if (account.balance >= 0) {
+                return Result.ACCEPTED;
+            }
+            long start = System.nanoTime();
+            long remaining = throttleTimeoutNanos;
+            while (account.balance < 0 && !account.closed) {
+                if (remaining <= 0) {
+                    metrics.onFlowThrottled(System.nanoTime() - start, true);
+                    log.warn("[CreditFlow] 크레딧 초과 상태 지속 - sessionId={}, balance={}", sessionId, account.balance);
+                    return Result.TIMED_OUT;
+                }
+                remaining = account.replenished.awaitNanos(remaining);
+            }
+            metrics.onFlowThrottled(System.nanoTime() - start, false);
+            return Result.ACCEPTED;
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    /** lane writer 에서 프레임 처리(발행/폐기)가 끝나면 호출. 모인 크레딧이 grant-batch 이상이면 클라이언트에 부여 */
+    public void release(String sessionId, int bytes) {
+        Account account = accounts.get(sessionId);
+        if (account == null) {
+            return;
+        }
+        long grant = 0;
+        account.lock.lock();
+        try {
+            account.balance += bytes;
+            account.ungranted += bytes;
+            // 잔액이 바닥난 클라이언트는 부여를 기다리며 멈춰 있으므로 모으지 않고 바로 보냄
+            if (account.ungranted >= grantBatchBytes || account.balance - account.ungranted <= 0) {
+                grant = account.ungranted;
+                account.ungranted = 0;
+            }
+            account.replenished.signalAll();
+        } finally {
+            account.lock.unlock();
+        }
+        if (grant > 0) {
+            sessionService.sendToSession(sessionId, GatewayMessage.Credit.grant(grant));
+        }
+    }
+
+    /** 세션 종료: 대기 중인 수신 스레드를 풀어 줌 */
+    public void close(String sessionId) {
+        Account account = accounts.remove(sessionId);
+        if (account == null) {
+            return;
+        }
+        account.lock.lock();
+        try {
+            account.closed = true;
+            account.replenished.signalAll();
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    /** 현재 잔액 (서버 기준, 아직 부여 메시지로 보내지 않은 크레딧 포함). 세션이 없으면 0 */
+    public long getBalance(String sessionId) {
+        Account account = accounts.get(sessionId);
+        if (account == null) {
+            return 0;
+        }
+        account.lock.lock();
+        try {
+            return account.balance;
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    /** 세션별 크레딧 잔액 (lock 으로 보호) */
+    private static final class Account {
+        final ReentrantLock lock = new ReentrantLock();
+        final Condition replenished = lock.newCondition();
+        long balance;
+        /** 돌려받았지만 아직 클라이언트에 부여 메시지로 알리지 않은 크레딧 */
+        long ungranted;
+        boolean closed;
+
+        Account(long windowBytes) {
+            this.balance = windowBytes;
+        }
+    }
+}
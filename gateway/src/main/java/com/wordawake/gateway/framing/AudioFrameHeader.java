@@ -0,0 +1,81 @@
+package com.wordawake.gateway.framing;
+
+import com.wordawake.gateway.codec.AudioCodec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * framed 바이너리 프레임 헤더 (핸드셰이크 frame-format=framed 로 협상한 세션만).
+ * 오디오 앞에 16바이트 고정 헤더를 붙임, 모두 big-endian:
+ *
+ * <pre>
+ * offset size
+ *  0     1    version (1)
+ *  1     1    codec (0 = pcm16, 1 = mulaw, 2 = ima-adpcm), 협상한 입력 형식과 같아야 함
+ *  2     2    stream id (unsigned). 클라이언트가 재시작 등으로 시퀀스를 새로 시작하면 바꿈
+ *  4     4    sequence (unsigned, 스트림 안에서 프레임마다 1씩 증가)
+ *  8     8    capture timestamp (epoch microseconds, 클라이언트 시계)
+ * 16     ...  오디오 (codec 형식)
+ * </pre>
+ *
+ * 필드는 절대 위치로 읽으므로 버퍼 position 은 바꾸지 않음 (base = 헤더 시작 위치).
+ */
+public final class AudioFrameHeader {
+
+    public static final int SIZE = 16;
+    public static final int VERSION = 1;
+
+    private AudioFrameHeader() {
+    }
+
+    /**
+     * frame 의 [position, limit) 가 올바른 framed 프레임인지 확인.
+     *
+     * @throws IllegalArgumentException 길이/버전/코덱이 맞지 않으면
+     */
+    public static void check(ByteBuffer frame, AudioCodec expectedCodec) {
+        if (frame.remaining() < SIZE) {
+            throw new IllegalArgumentException("frame shorter than header: " + frame.remaining());
+        }
+        int base = frame.position();
+        int version = frame.get(base) & 0xFF;
+        if (version != VERSION) {
+            throw new IllegalArgumentException("unsupported frame version: " + version);
+        }
+        AudioCodec codec = codec(frame, base);
+        if (codec != expectedCodec) {
+            throw new IllegalArgumentException("frame codec " + codec + " does not match negotiated " + expectedCodec);
+        }
+    }
+
+    public static AudioCodec codec(ByteBuffer buf, int base) {
+        int id = buf.get(base + 1) & 0xFF;
+        return switch (id) {
+            case 0 -> AudioCodec.PCM16;
+            case 1 -> AudioCodec.MULAW;
+            case 2 -> AudioCodec.IMA_ADPCM;
+            default -> throw new IllegalArgumentException("unknown frame codec id: " + id);
+        };
+    }
+
+    public static int streamId(ByteBuffer buf, int base) {
+        return buf.getShort(base + 2) & 0xFFFF;
+    }
+
+    public static long sequence(ByteBuffer buf, int base) {
+        return buf.getInt(base + 4) & 0xFFFFFFFFL;
+    }
+
+    public static long captureMicros(ByteBuffer buf, int base) {
+        return buf.getLong(base + 8);
+    }
+
+    /** out 의 현재 위치에 헤더를 씀 (클라이언트/테스트/벤치마크용) */
+    public static void write(ByteBuffer out, AudioCodec codec, int streamId, long sequence, long captureMicros) {
+        out.put((byte) VERSION);
+        out.put((byte) codec.ordinal());
+        out.putShort((short) streamId);
+        out.putInt((int) sequence);
+        out.putLong(captureMicros);
+    }
+}
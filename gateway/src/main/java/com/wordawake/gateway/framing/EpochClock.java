@@ -0,0 +1,21 @@
+package com.wordawake.gateway.framing;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 마이크로초 epoch 시각. 기동 시 한 번 잡은 기준점 + nanoTime 경과로 계산
+ * (프레임마다 Instant 를 만들지 않고, 시계 보정(NTP)으로 뒤로 가지 않음).
+ */
+public final class EpochClock {
+
+    private static final long BASE_MICROS = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+    private static final long BASE_NANOS = System.nanoTime();
+
+    private EpochClock() {
+    }
+
+    public static long micros() {
+        return BASE_MICROS + (System.nanoTime() - BASE_NANOS) / 1000;
+    }
+}
@@ -0,0 +1,144 @@
+package com.wordawake.gateway.framing;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * framed 세션의 시퀀스 추적 + hotword 종단 지연 측정.
+ *
+ * - 수신 시 ({@link #onFrame}): 스트림별 다음 기대 시퀀스와 비교해 유실(건너뛴 수)/역순(기대보다 작음, 중복 포함)을 집계하고,
+ *   최근 timeline-frames 개 프레임의 (시퀀스, 캡처 시각, 게이트웨이 수신 시각)을 세션 링에 기록
+ * - hotword 이벤트 수신 시 ({@link #onHotwordEvent}): 이벤트 JSON 의 "seq"(+ 선택 "streamId")로 링에서 프레임을 찾아
+ *   캡처 → 전달, 게이트웨이 수신 → 전달 지연을 기록 (gateway.e2e.latency{from=capture|gateway})
+ *
+ * capture 기준 값은 클라이언트 시계 기준이라 시계 차이만큼 틀어질 수 있음 (음수면 버림).
+ * gateway 기준 값은 게이트웨이 내부 시계만 쓰므로 Kafka 왕복 + Hotword 처리 시간의 정확한 측정치.
+ * 링에서 밀려난 오래된 시퀀스는 측정하지 않음.
+ */
+@Slf4j
+@Component
+public class FrameLatencyTracker {
+
+    private final GatewayMetrics metrics;
+    /** 2의 거듭제곱 */
+    private final int timelineFrames;
+    private final Map<String, Timeline> timelines = new ConcurrentHashMap<>();
+
+    public FrameLatencyTracker(GatewayMetrics metrics,
+                               @Value("${app.audio.framing.timeline-frames:512}") int timelineFrames) {
+        this.metrics = metrics;
+        this.timelineFrames = Integer.highestOneBit(Math.max(1, timelineFrames - 1)) << 1;
+    }
+
+    /** framed 세션 시작 */
+    public void open(String sessionId) {
+        timelines.put(sessionId, new Timeline(timelineFrames));
+    }
+
+    public void close(String sessionId) {
+        timelines.remove(sessionId);
+    }
+
+    /** 프레임 수신 (세션 수신 스레드) */
+    public void onFrame(String sessionId, int streamId, long sequence, long captureMicros, long receiveMicros) {
+        Timeline timeline = timelines.get(sessionId);
+        if (timeline == null) {
+            return;
+        }
+        long lost = 0;
+        boolean reordered = false;
+        synchronized (timeline) {
+            if (timeline.streamId != streamId) {
+                // 새 스트림: 시퀀스 다시 시작, 이전 스트림 기록은 무효
+                timeline.streamId = streamId;
+                timeline.nextSequence = sequence;
+                Arrays.fill(timeline.sequences, -1);
+            }
+            if (sequence > timeline.nextSequence) {
+                lost = sequence - timeline.nextSequence;
+            } else if (sequence < timeline.nextSequence) {
+                reordered = true;
+            }
+            if (!reordered) {
+                timeline.nextSequence = sequence + 1;
+            }
+            int slot = (int) (sequence & (timeline.sequences.length - 1));
+            timeline.sequences[slot] = sequence;
+            timeline.captureMicros[slot] = captureMicros;
+            timeline.receiveMicros[slot] = receiveMicros;
+        }
+        if (lost > 0) {
+            metrics.onFramesLost(lost);
+        } else if (reordered) {
+            metrics.onFrameReordered();
+        }
+    }
+
+    /**
+     * hotword 이벤트 전달 시 호출. 이벤트에 "seq" 가 있고 그 프레임이 링에 남아 있으면 지연 기록.
+     *
+     * @return 지연을 기록했으면 true
+     */
+    public boolean onHotwordEvent(String sessionId, String event) {
+        Timeline timeline = timelines.get(sessionId);
+        if (timeline == null || event == null || !event.contains("\"seq\"")) {
+            return false;
+        }
+        long sequence;
+        int streamId;
+        try {
+            JsonObject json = JsonParser.parseString(event).getAsJsonObject();
+            sequence = json.get("seq").getAsLong();
+            JsonElement stream = json.get("streamId");
+            streamId = stream == null ? -1 : stream.getAsInt();
+        } catch (RuntimeException e) {
+            log.debug("[FrameLatency] seq 파싱 실패 - sessionId={}, event={}", sessionId, event);
+            return false;
+        }
+        long captureMicros;
+        long receiveMicros;
+        synchronized (timeline) {
+            int slot = (int) (sequence & (timeline.sequences.length - 1));
+            if (timeline.sequences[slot] != sequence || (streamId >= 0 && streamId != timeline.streamId)) {
+                return false;
+            }
+            captureMicros = timeline.captureMicros[slot];
+            receiveMicros = timeline.receiveMicros[slot];
+        }
+        long now = EpochClock.micros();
+        metrics.onEndToEndLatency(now - captureMicros, now - receiveMicros);
+        return true;
+    }
+
+    /** Kafka 에서 받은 UTF-8 바이트 그대로. framed 세션일 때만 디코딩 (raw 세션 이벤트는 문자열을 만들지 않음) */
+    public boolean onHotwordEvent(String sessionId, byte[] event) {
+        return event != null && timelines.containsKey(sessionId)
+                && onHotwordEvent(sessionId, new String(event, StandardCharsets.UTF_8));
+    }
+
+    /** 세션별 최근 프레임 링 (this 로 동기화) */
+    private static final class Timeline {
+        final long[] sequences;
+        final long[] captureMicros;
+        final long[] receiveMicros;
+        int streamId = -1;
+        long nextSequence;
+
+        Timeline(int size) {
+            this.sequences = new long[size];
+            this.captureMicros = new long[size];
+            this.receiveMicros = new long[size];
+            Arrays.fill(sequences, -1);
+        }
+    }
+}
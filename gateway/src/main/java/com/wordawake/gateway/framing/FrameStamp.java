@@ -0,0 +1,39 @@
+package com.wordawake.gateway.framing;
+
+/**
+ * 프레임 하나의 시퀀스/시각 정보 (framed 세션). lane writer 가 하나를 재사용하며 프레임마다 채워
+ * AudioStreamProducer 로 넘기고, 병합기는 호출 중에 값만 복사함 (참조를 보관하지 않음).
+ */
+public final class FrameStamp {
+
+    private int streamId;
+    private long sequence;
+    private long captureMicros;
+    private long receiveMicros;
+
+    public FrameStamp set(int streamId, long sequence, long captureMicros, long receiveMicros) {
+        this.streamId = streamId;
+        this.sequence = sequence;
+        this.captureMicros = captureMicros;
+        this.receiveMicros = receiveMicros;
+        return this;
+    }
+
+    public int streamId() {
+        return streamId;
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+
+    /** 클라이언트 캡처 시각 (epoch microseconds, 클라이언트 시계) */
+    public long captureMicros() {
+        return captureMicros;
+    }
+
+    /** 게이트웨이 수신 시각 (epoch microseconds, {@link EpochClock}) */
+    public long receiveMicros() {
+        return receiveMicros;
+    }
+}
@@ -0,0 +1,16 @@
+package com.wordawake.gateway.framing;
+
+/**
+ * audio-stream 레코드 하나에 담긴 framed 프레임들의 시퀀스 범위와 첫 프레임 시각.
+ * 레코드 헤더(stream-id, seq-first, seq-last, capture-ts, gateway-ts)로 발행됨.
+ * VAD 가 무음을 거르면 범위 안의 일부 시퀀스는 레코드에 없을 수 있음 (frame-lengths 개수 &lt; 범위 크기).
+ */
+public record SequenceRange(int streamId, long firstSequence, long lastSequence,
+                            long captureMicros, long receiveMicros) {
+
+    /** 프레임 하나짜리 범위 */
+    public static SequenceRange of(FrameStamp stamp) {
+        return new SequenceRange(stamp.streamId(), stamp.sequence(), stamp.sequence(),
+                stamp.captureMicros(), stamp.receiveMicros());
+    }
+}
@@ -0,0 +1,75 @@
+package com.wordawake.gateway.kafka;
+
+/**
+ * 적응형 병합 한도 계산 (app.audio.coalesce.adaptive).
+ * 주기마다 발행 레코드율과 ack 대기 레코드 수를 보고 병합기의 크기/시간 한도를 단계적으로 조정한다.
+ *
+ * - 부하 높음 (레코드율 >= highRate 또는 in-flight >= highInFlight): 한도 2배 → 레코드 수↓, 레코드당 바이트↑
+ * - 부하 낮음 (레코드율 <= lowRate 이고 in-flight < highInFlight / 2): 한도 1/2 → 지연↓
+ * - 그 사이: 유지 (경계에서 왔다갔다 하지 않게)
+ *
+ * Kafka Producer 의 linger.ms/batch.size 는 생성 시 고정이라 실행 중에는 바꿀 수 없음.
+ * 대신 그 앞단인 병합기 한도를 움직여 같은 효과(부하 시 큰 배치, 한가할 때 즉시 발행)를 낸다.
+ * 상태는 주기 작업 한 실행만 갱신 (동기화 없음, 실행이 겹치지 않게 하는 것은 호출자 몫).
+ */
+public class AdaptiveCoalescing {
+
+    private final int minBytes;
+    private final int maxBytes;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final double highRate;
+    private final double lowRate;
+    private final int highInFlight;
+
+    private int currentBytes;
+    private long currentDelayNanos;
+
+    public AdaptiveCoalescing(int minBytes, int maxBytes, long minDelayNanos, long maxDelayNanos,
+                              double highRate, double lowRate, int highInFlight) {
+        if (minBytes <= 0 || minBytes > maxBytes || minDelayNanos > maxDelayNanos || lowRate > highRate) {
+            throw new IllegalArgumentException("invalid adaptive coalescing bounds");
+        }
+        this.minBytes = minBytes;
+        this.maxBytes = maxBytes;
+        this.minDelayNanos = minDelayNanos;
+        this.maxDelayNanos = maxDelayNanos;
+        this.highRate = highRate;
+        this.lowRate = lowRate;
+        this.highInFlight = highInFlight;
+        // 한가한 상태에서 시작
+        this.currentBytes = minBytes;
+        this.currentDelayNanos = minDelayNanos;
+    }
+
+    /**
+     * 한 주기 관측값 반영.
+     *
+     * @param recordsPerSecond 직전 주기 동안의 발행 레코드율
+     * @param inFlight         현재 ack 대기 레코드 수
+     * @return 한도가 바뀌었으면 true
+     */
+    public boolean update(double recordsPerSecond, int inFlight) {
+        int bytes = currentBytes;
+        long delay = currentDelayNanos;
+        if (recordsPerSecond >= highRate || inFlight >= highInFlight) {
+            bytes = (int) Math.min((long) bytes * 2, maxBytes);
+            delay = Math.min(Math.max(delay * 2, 1), maxDelayNanos);
+        } else if (recordsPerSecond <= lowRate && inFlight < highInFlight / 2) {
+            bytes = Math.max(bytes / 2, minBytes);
+            delay = Math.max(delay / 2, minDelayNanos);
+        }
+        boolean changed = bytes != currentBytes || delay != currentDelayNanos;
+        currentBytes = bytes;
+        currentDelayNanos = delay;
+        return changed;
+    }
+
+    public int getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public long getCurrentDelayNanos() {
+        return currentDelayNanos;
+    }
+}
@@ -0,0 +1,28 @@
+package com.wordawake.gateway.kafka;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * audio-stream value 직렬화기 (ByteBuffer → byte[]).
+ * 버퍼의 [position, limit) 만 읽고 position 은 건드리지 않음 → 발행 완료 후 같은 버퍼를 풀에 반납해 재사용 가능.
+ * Kafka Serializer 계약상 결과는 byte[] 이므로, 레코드(병합 단위)당 배열 1개가 생긴다.
+ * 힙 버퍼이면서 배열 전체가 정확히 내용과 같으면 복사 없이 그대로 사용.
+ */
+public class AudioBufferSerializer implements Serializer<ByteBuffer> {
+
+    @Override
+    public byte[] serialize(String topic, ByteBuffer data) {
+        if (data == null) {
+            return null;
+        }
+        int length = data.remaining();
+        if (data.hasArray() && data.arrayOffset() == 0 && data.position() == 0 && data.array().length == length) {
+            return data.array();
+        }
+        byte[] out = new byte[length];
+        data.get(data.position(), out);
+        return out;
+    }
+}
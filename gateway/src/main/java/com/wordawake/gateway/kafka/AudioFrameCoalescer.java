@@ -0,0 +1,236 @@
+package com.wordawake.gateway.kafka;
+
+import com.wordawake.gateway.codec.AudioCodec;
+import com.wordawake.gateway.framing.FrameStamp;
+import com.wordawake.gateway.framing.SequenceRange;
+import com.wordawake.gateway.utils.AudioBufferPool;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 세션별 오디오 프레임 병합기.
+ * 10~20ms 단위로 들어오는 작은 PCM 프레임을 연속으로 이어 붙여 하나의 Kafka 레코드로 만든다.
+ *
+ * flush 조건 (먼저 만족하는 쪽)
+ * - 크기: 누적 바이트가 maxBytes 이상이 되면 즉시
+ * - 시간: 첫 프레임이 들어온 뒤 maxDelayNanos 가 지나면 {@link #flushExpired(long)} 에서
+ *
+ * 누적 버퍼는 풀(AudioBufferPool)에서 빌려 쓰고, flush 시 소유권이 Sink 로 넘어감 (Sink 가 발행 완료 후 반납).
+ * 프레임 경계는 flush 시 프레임 길이 배열로 함께 넘겨, 레코드 헤더에 보존할 수 있게 함.
+ * 한 레코드에는 같은 코덱 프레임만 들어감 (코덱이 바뀌면 앞선 누적분을 먼저 flush).
+ * framed 세션 프레임은 시퀀스/시각(FrameStamp)을 함께 받아 레코드마다 시퀀스 범위와 첫 프레임 시각을 넘김
+ * (스트림이 바뀌면 앞선 누적분을 먼저 flush).
+ * 크기/시간 한도는 {@link #setLimits} 로 실행 중 조정 가능 (적응형 병합, {@link AdaptiveCoalescing}).
+ */
+public class AudioFrameCoalescer {
+
+    /** 병합 결과를 받아 실제 발행하는 쪽 (AudioStreamProducer) */
+    @FunctionalInterface
+    public interface Sink {
+        /**
+         * @param record 읽기 가능 상태(flip 완료)의 레코드 버퍼. 발행 후 풀에 반납해야 함
+         * @param codec  레코드에 담긴 프레임의 인코딩 형식
+         * @param range  framed 프레임의 시퀀스 범위 (framed 세션이 아니면 null)
+         */
+        void flush(String sessionId, ByteBuffer record, int[] frameLengths, AudioCodec codec, SequenceRange range);
+    }
+
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    /** 버퍼 풀 버퍼 크기 이하. setLimits 로 바뀌며, 이미 쌓인 버퍼는 다음 append/flushExpired 부터 새 한도 적용 */
+    private volatile int maxBytes;
+    private volatile long maxDelayNanos;
+    private final AudioBufferPool bufferPool;
+    private final Sink sink;
+
+    public AudioFrameCoalescer(int maxBytes, long maxDelayNanos, AudioBufferPool bufferPool, Sink sink) {
+        this.bufferPool = bufferPool;
+        this.sink = sink;
+        setLimits(maxBytes, maxDelayNanos);
+    }
+
+    /** flush 크기/시간 한도 변경 */
+    public void setLimits(int maxBytes, long maxDelayNanos) {
+        if (maxBytes <= 0 || maxBytes > bufferPool.getBufferSize()) {
+            throw new IllegalArgumentException("maxBytes must be in (0, pool buffer size]: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.maxDelayNanos = maxDelayNanos;
+    }
+
+    public int getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getMaxDelayNanos() {
+        return maxDelayNanos;
+    }
+
+    /**
+     * 프레임 추가. 같은 세션의 프레임은 호출 순서대로 이어 붙는다.
+     * frame 의 [position, limit) 를 복사하며 frame 자체는 변경하지 않음 (호출 측이 계속 소유).
+     * maxBytes 이상인 단일 프레임은 병합하지 않고 (앞선 누적분 flush 후) 그대로 내보냄.
+     */
+    public void append(String sessionId, ByteBuffer frame, long nowNanos) {
+        append(sessionId, frame, AudioCodec.PCM16, nowNanos);
+    }
+
+    /** 인코딩된 프레임 추가. codec 은 레코드 헤더로 전달됨 */
+    public void append(String sessionId, ByteBuffer frame, AudioCodec codec, long nowNanos) {
+        append(sessionId, frame, codec, null, nowNanos);
+    }
+
+    /** framed 프레임 추가. stamp 값은 호출 중에 복사됨 (null 이면 시퀀스 정보 없음) */
+    public void append(String sessionId, ByteBuffer frame, AudioCodec codec, FrameStamp stamp, long nowNanos) {
+        int length = frame.remaining();
+        int maxBytes = this.maxBytes;
+        while (true) {
+            Pending p = pending.computeIfAbsent(sessionId, Pending::new);
+            p.lock.lock();
+            try {
+                if (p.removed) {
+                    continue; // close() 와 경합 → 새 버퍼로 재시도
+                }
+                if (p.size() > 0 && (p.size() + length > maxBytes || p.codec != codec
+                        || (stamp != null && p.stamped && p.streamId != stamp.streamId()))) {
+                    flushLocked(p);
+                }
+                if (length >= maxBytes) {
+                    ByteBuffer single = bufferPool.acquire(length);
+                    AudioBufferPool.copy(frame, single);
+                    single.flip();
+                    sink.flush(sessionId, single, new int[]{length}, codec, stamp == null ? null : SequenceRange.of(stamp));
+                    return;
+                }
+                p.codec = codec;
+                p.append(frame, length, nowNanos, maxBytes);
+                if (stamp != null) {
+                    p.stamp(stamp);
+                }
+                if (p.size() >= maxBytes) {
+                    flushLocked(p);
+                }
+                return;
+            } finally {
+                p.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 시간 조건 flush. 첫 프레임 이후 maxDelay 가 지난 세션 버퍼를 내보냄.
+     * 스케줄러에서 maxDelay 보다 짧은 주기로 호출.
+     */
+    public void flushExpired(long nowNanos) {
+        long maxDelayNanos = this.maxDelayNanos;
+        for (Pending p : pending.values()) {
+            p.lock.lock();
+            try {
+                if (p.size() > 0 && nowNanos - p.firstFrameNanos >= maxDelayNanos) {
+                    flushLocked(p);
+                }
+            } finally {
+                p.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 세션 종료 시 호출. 남은 프레임을 내보내고 버퍼 제거.
+     */
+    public void close(String sessionId) {
+        Pending p = pending.remove(sessionId);
+        if (p == null) {
+            return;
+        }
+        p.lock.lock();
+        try {
+            p.removed = true;
+            if (p.size() > 0) {
+                flushLocked(p);
+            } else if (p.buf != null) {
+                bufferPool.release(p.buf);
+                p.buf = null;
+            }
+        } finally {
+            p.lock.unlock();
+        }
+    }
+
+    /** 현재 병합 버퍼를 가진 세션 수 */
+    public int pendingSessionCount() {
+        return pending.size();
+    }
+
+    private void flushLocked(Pending p) {
+        ByteBuffer record = p.buf;
+        int[] frames = Arrays.copyOf(p.frameLengths, p.frameCount);
+        p.buf = null;
+        p.frameCount = 0;
+        SequenceRange range = p.stamped
+                ? new SequenceRange(p.streamId, p.firstSequence, p.lastSequence, p.captureMicros, p.receiveMicros)
+                : null;
+        p.stamped = false;
+        record.flip();
+        sink.flush(p.sessionId, record, frames, p.codec, range);
+    }
+
+    /** 세션별 누적 상태. 레코드 버퍼는 첫 프레임에 풀에서 빌리고 flush 시 Sink 로 넘김 */
+    private final class Pending {
+        /**
+         * synchronized 대신 락: flush 가 Producer send 를 부르고 send 는 buffer.memory 가 차면 max.block.ms 까지 막힘.
+         * 가상 스레드(디스패처 lane)가 synchronized 안에서 막히면 캐리어 스레드까지 붙잡힘(pinning)
+         */
+        final ReentrantLock lock = new ReentrantLock();
+        final String sessionId;
+        ByteBuffer buf;
+        int[] frameLengths = new int[16];
+        int frameCount;
+        AudioCodec codec = AudioCodec.PCM16;
+        long firstFrameNanos;
+        boolean removed;
+        /** 누적분에 framed 프레임이 있으면 true (아래 필드 유효) */
+        boolean stamped;
+        int streamId;
+        long firstSequence;
+        long lastSequence;
+        long captureMicros;
+        long receiveMicros;
+
+        Pending(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        int size() {
+            return buf == null ? 0 : buf.position();
+        }
+
+        void append(ByteBuffer frame, int length, long nowNanos, int maxBytes) {
+            if (buf == null) {
+                buf = bufferPool.acquire(maxBytes);
+            }
+            if (buf.position() == 0) {
+                firstFrameNanos = nowNanos;
+            }
+            AudioBufferPool.copy(frame, buf);
+            if (frameCount == frameLengths.length) {
+                frameLengths = Arrays.copyOf(frameLengths, frameCount * 2);
+            }
+            frameLengths[frameCount++] = length;
+        }
+
+        void stamp(FrameStamp stamp) {
+            if (!stamped) {
+                stamped = true;
+                streamId = stamp.streamId();
+                firstSequence = stamp.sequence();
+                captureMicros = stamp.captureMicros();
+                receiveMicros = stamp.receiveMicros();
+            }
+            lastSequence = stamp.sequence();
+        }
+    }
+}
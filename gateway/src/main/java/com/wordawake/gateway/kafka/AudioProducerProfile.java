@@ -0,0 +1,57 @@
+package com.wordawake.gateway.kafka;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * audio-stream Producer 프로필 (app.kafka.audio-producer.profile).
+ *
+ * - DEFAULT: Kafka 기본값 그대로 (이전 동작)
+ * - LOW_LATENCY: linger 0, 작은 배치, lz4, acks=1.
+ *   멱등성을 끄는 대신 in-flight 요청을 1개로 제한해 재시도 시에도 세션 내 청크 순서 유지
+ * - HIGH_THROUGHPUT: linger 20ms, 256KB 배치, zstd, acks=all + 멱등성, 버퍼 메모리 확대
+ *
+ * 병합기(coalesce)가 이미 세션 단위로 레코드를 키우므로, Producer 배치는 여러 세션 레코드를 파티션 단위로 묶는 역할.
+ */
+public enum AudioProducerProfile {
+
+    DEFAULT(Map.of()),
+
+    LOW_LATENCY(Map.of(
+            ProducerConfig.LINGER_MS_CONFIG, 0,
+            ProducerConfig.BATCH_SIZE_CONFIG, 16 * 1024,
+            ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4",
+            ProducerConfig.ACKS_CONFIG, "1",
+            ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false,
+            ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 1,
+            ProducerConfig.BUFFER_MEMORY_CONFIG, 32L * 1024 * 1024)),
+
+    HIGH_THROUGHPUT(Map.of(
+            ProducerConfig.LINGER_MS_CONFIG, 20,
+            ProducerConfig.BATCH_SIZE_CONFIG, 256 * 1024,
+            ProducerConfig.COMPRESSION_TYPE_CONFIG, "zstd",
+            ProducerConfig.ACKS_CONFIG, "all",
+            ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+            ProducerConfig.BUFFER_MEMORY_CONFIG, 128L * 1024 * 1024));
+
+    private final Map<String, Object> properties;
+
+    AudioProducerProfile(Map<String, Object> properties) {
+        this.properties = properties;
+    }
+
+    /** 프로필 설정을 props 에 덮어씀 (bootstrap/serializer 등 나머지 설정은 그대로) */
+    public void applyTo(Map<String, Object> props) {
+        props.putAll(properties);
+    }
+
+    /** "low-latency", "LOW_LATENCY", "high-throughput" 등 설정 문자열 → 프로필. 비어 있으면 DEFAULT */
+    public static AudioProducerProfile of(String name) {
+        if (name == null || name.isBlank()) {
+            return DEFAULT;
+        }
+        return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
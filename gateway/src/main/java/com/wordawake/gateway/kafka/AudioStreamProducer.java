@@ -1,37 +1,261 @@
 package com.wordawake.gateway.kafka;
 
+import com.wordawake.gateway.codec.AudioCodec;
+import com.wordawake.gateway.framing.FrameStamp;
+import com.wordawake.gateway.framing.SequenceRange;
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import com.wordawake.gateway.spill.AudioSpill;
+import com.wordawake.gateway.utils.AudioBufferPool;
+import com.wordawake.gateway.utils.Constants;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * 클라이언트가 WebSocket으로 보낸 음성 청크를 Kafka 토픽(audio-stream)에 발행.
  * Hotword 서비스(Python 등)가 이 토픽을 구독해 스트리밍 인식 수행.
  *
- * 메시지 형식: key = sessionId, value = 오디오 바이트(원본 그대로)
- * - key=sessionId 로 같은 클라이언트 청크가 같은 파티션으로 가서 순서 유지
+ * 메시지 형식: key = sessionId, value = 오디오 바이트 (인코딩 형식은 audio-codec 헤더, 예: pcm16 / mulaw / ima-adpcm)
+ * - key=sessionId 로 같은 클라이언트 청크가 같은 파티션으로 가서 순서 유지 (ConsistentHashPartitioner).
+ *   key 바이트 형식은 app.kafka.audio-stream.key-format (string / uuid16, KafkaConfig 참고)
+ * - 병합(coalesce) 사용 시 연속 프레임 여러 개가 한 레코드로 묶이고,
+ *   프레임 경계는 헤더(frame-lengths, int32 big-endian 배열)로 전달
+ * - framed 세션이면 시퀀스/시각 헤더 추가 (모두 big-endian): stream-id(int32), seq-first / seq-last(int64),
+ *   capture-ts(int64, 첫 프레임 클라이언트 캡처 시각), gateway-ts(int64, 첫 프레임 게이트웨이 수신 시각), 시각은 epoch microseconds.
+ *   Hotword 서비스가 감지 이벤트에 "seq"(감지 구간 마지막 프레임 시퀀스)를 돌려주면 게이트웨이가 종단 지연을 계측
+ * - 레코드 버퍼는 풀에서 빌려 쓰고 send 콜백 완료 시 반납 (프레임마다 byte[] 를 새로 만들지 않음)
+ * - send 콜백에서 브로커 ack 지연/실패를 GatewayMetrics 에 기록
+ * - 적응형 병합(AdaptiveCoalescing) 사용 시 주기마다 발행률/ack 대기 수로 병합 한도 조정
+ * - 스필(AudioSpill) 사용 시 발행 실패 레코드는 로컬 디스크에 기록했다가 복구 후 재생.
+ *   기록은 스필 writer 스레드가 하므로 send 콜백(Producer 네트워크 스레드)은 디스크 I/O 를 기다리지 않음.
+ *   스필에 재생 대기 레코드가 있는 파티션은 새 레코드도 스필 뒤에 붙여 세션 내 순서 유지
  */
 @Slf4j
 @Component
 public class AudioStreamProducer {
 
-    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final KafkaTemplate<String, ByteBuffer> kafkaTemplate;
     private final String topicName;
+    private final GatewayMetrics metrics;
+    /** 레코드 버퍼 풀 (버퍼 크기 = 병합 최대 크기) */
+    private final AudioBufferPool recordPool;
+    /** null 이면 병합 없이 프레임마다 바로 발행 */
+    private final AudioFrameCoalescer coalescer;
+    /** null 이면 병합 한도 고정 */
+    private final AdaptiveCoalescing adaptive;
+    /** null 이면 발행 실패 레코드는 버림 */
+    private final AudioSpill spill;
+    private final LongAdder publishedRecords = new LongAdder();
+    /**
+     * 주기 작업 중복 실행 방지. 가상 스레드 모드(spring.threads.virtual.enabled)의 스케줄러는 fixed-rate 작업을
+     * 매번 새 스레드로 실행하므로, 발행이 막혀 이전 실행이 끝나지 않았으면 이번 주기는 건너뜀
+     */
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final AtomicBoolean adapting = new AtomicBoolean();
+    private long lastAdaptRecords;
+    private long lastAdaptNanos = System.nanoTime();
 
     public AudioStreamProducer(
-            KafkaTemplate<String, byte[]> audioStreamKafkaTemplate,
-            @Qualifier("audioStreamTopicName") String topicName) {
+            @Qualifier("audioStreamKafkaTemplate") KafkaTemplate<String, ByteBuffer> audioStreamKafkaTemplate,
+            @Qualifier("audioStreamTopicName") String topicName,
+            GatewayMetrics metrics,
+            @Value("${app.audio.coalesce.enabled:true}") boolean coalesceEnabled,
+            @Value("${app.audio.coalesce.max-bytes:8192}") int coalesceMaxBytes,
+            @Value("${app.audio.coalesce.max-delay-ms:100}") long coalesceMaxDelayMs,
+            @Value("${app.audio.buffer-pool.max-pooled-records:4096}") int maxPooledRecords,
+            @Value("${app.audio.buffer-pool.direct:false}") boolean directBuffers,
+            Optional<AdaptiveCoalescing> adaptiveCoalescing,
+            Optional<AudioSpill> audioSpill) {
         this.kafkaTemplate = audioStreamKafkaTemplate;
         this.topicName = topicName;
+        this.metrics = metrics;
+        this.recordPool = new AudioBufferPool(coalesceMaxBytes, maxPooledRecords, directBuffers);
+        this.coalescer = coalesceEnabled
+                ? new AudioFrameCoalescer(coalesceMaxBytes, TimeUnit.MILLISECONDS.toNanos(coalesceMaxDelayMs),
+                        recordPool, this::publish)
+                : null;
+        this.adaptive = coalescer == null ? null : adaptiveCoalescing.orElse(null);
+        this.spill = audioSpill.orElse(null);
+        if (adaptive != null) {
+            coalescer.setLimits(adaptive.getCurrentBytes(), adaptive.getCurrentDelayNanos());
+        }
     }
 
     /**
      * 오디오 청크를 audio-stream 토픽에 발행.
      * key=sessionId 로 파티션되어, 같은 클라이언트의 청크 순서가 유지됨.
+     * 병합 사용 시 세션 버퍼에 쌓였다가 크기/시간 조건을 만족하면 한 레코드로 발행.
+     * audioChunk 의 [position, limit) 는 호출 중에 복사되므로, 반환 후 호출 측이 재사용해도 됨.
      */
+    public void send(String sessionId, ByteBuffer audioChunk, AudioCodec codec) {
+        send(sessionId, audioChunk, codec, null);
+    }
+
+    /** framed 세션 청크 발행. stamp 는 호출 중에 복사됨 (null 이면 시퀀스 헤더 없음) */
+    public void send(String sessionId, ByteBuffer audioChunk, AudioCodec codec, FrameStamp stamp) {
+        if (coalescer == null) {
+            ByteBuffer record = recordPool.acquire(audioChunk.remaining());
+            AudioBufferPool.copy(audioChunk, record);
+            record.flip();
+            publish(sessionId, record, null, codec, stamp == null ? null : SequenceRange.of(stamp));
+            return;
+        }
+        coalescer.append(sessionId, audioChunk, codec, stamp, System.nanoTime());
+    }
+
+    /** PCM16 원본 청크 발행 */
+    public void send(String sessionId, ByteBuffer audioChunk) {
+        send(sessionId, audioChunk, AudioCodec.PCM16);
+    }
+
+    /** byte[] 호환용. 핫패스에서는 {@link #send(String, ByteBuffer, AudioCodec)} 사용 */
     public void send(String sessionId, byte[] audioChunk) {
-        kafkaTemplate.send(topicName, sessionId, audioChunk);
-        log.debug("[AudioStreamProducer] 발행 - sessionId={}, size={} bytes", sessionId, audioChunk.length);
+        send(sessionId, ByteBuffer.wrap(audioChunk));
+    }
+
+    /**
+     * 세션 종료 시 호출. 병합 버퍼에 남은 프레임을 발행하고 버퍼 제거.
+     */
+    public void closeSession(String sessionId) {
+        if (coalescer != null) {
+            coalescer.close(sessionId);
+        }
+    }
+
+    /**
+     * 시간 조건 flush. max-delay-ms 보다 짧은 주기로 실행해 지연이 flush 윈도우 하나를 넘지 않게 함.
+     */
+    @Scheduled(fixedRateString = "${app.audio.coalesce.sweep-interval-ms:10}")
+    public void flushExpired() {
+        if (coalescer == null || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            coalescer.flushExpired(System.nanoTime());
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    /**
+     * 적응형 병합 주기 조정. 직전 주기 발행률과 현재 ack 대기 수를 넘겨 한도가 바뀌면 병합기에 반영.
+     */
+    @Scheduled(fixedRateString = "${app.audio.coalesce.adaptive.interval-ms:1000}")
+    public void adaptCoalescing() {
+        if (adaptive == null || !adapting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            long records = publishedRecords.sum();
+            double seconds = (now - lastAdaptNanos) / 1e9;
+            double rate = seconds > 0 ? (records - lastAdaptRecords) / seconds : 0;
+            lastAdaptNanos = now;
+            lastAdaptRecords = records;
+            if (adaptive.update(rate, metrics.getKafkaInFlight())) {
+                coalescer.setLimits(adaptive.getCurrentBytes(), adaptive.getCurrentDelayNanos());
+                log.debug("[AudioStreamProducer] 병합 한도 조정 - rate={}/s, maxBytes={}, maxDelayMs={}",
+                        (long) rate, adaptive.getCurrentBytes(), TimeUnit.NANOSECONDS.toMillis(adaptive.getCurrentDelayNanos()));
+            }
+        } finally {
+            adapting.set(false);
+        }
+    }
+
+    /** 현재 병합 크기 한도 (병합 미사용 시 0, 모니터링용) */
+    public int getCoalesceMaxBytes() {
+        return coalescer == null ? 0 : coalescer.getMaxBytes();
+    }
+
+    /** 현재 병합 시간 한도 (병합 미사용 시 0, 모니터링용) */
+    public long getCoalesceMaxDelayNanos() {
+        return coalescer == null ? 0 : coalescer.getMaxDelayNanos();
+    }
+
+    /** 병합 버퍼에 프레임이 쌓여 있는 세션 수 (모니터링용) */
+    public int getPendingSessionCount() {
+        return coalescer == null ? 0 : coalescer.pendingSessionCount();
+    }
+
+    /** 레코드 버퍼 풀 (모니터링용) */
+    public AudioBufferPool getRecordPool() {
+        return recordPool;
+    }
+
+    private void publish(String sessionId, ByteBuffer record, int[] frameLengths, AudioCodec codec, SequenceRange range) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(Constants.KAFKA_HEADER_AUDIO_CODEC, codec.headerValue());
+        if (frameLengths != null) {
+            headers.add(Constants.KAFKA_HEADER_FRAME_LENGTHS, encodeFrameLengths(frameLengths));
+        }
+        if (range != null) {
+            headers.add(Constants.KAFKA_HEADER_STREAM_ID, ByteBuffer.allocate(Integer.BYTES).putInt(range.streamId()).array());
+            headers.add(Constants.KAFKA_HEADER_SEQ_FIRST, longBytes(range.firstSequence()));
+            headers.add(Constants.KAFKA_HEADER_SEQ_LAST, longBytes(range.lastSequence()));
+            headers.add(Constants.KAFKA_HEADER_CAPTURE_TS, longBytes(range.captureMicros()));
+            headers.add(Constants.KAFKA_HEADER_GATEWAY_TS, longBytes(range.receiveMicros()));
+        }
+        int size = record.remaining();
+        ProducerRecord<String, ByteBuffer> producerRecord = new ProducerRecord<>(topicName, null, sessionId, record, headers);
+        if (spill != null && spill.hasBacklog(topicName, sessionId)) {
+            // 앞선 레코드가 아직 스필에 있음 → 바로 보내면 순서가 뒤바뀜
+            spill.appendAsync(producerRecord, () -> recordPool.release(record));
+            return;
+        }
+        long startNanos = metrics.onKafkaSendStarted();
+        publishedRecords.increment();
+        try {
+            kafkaTemplate.send(producerRecord)
+                    .whenComplete((result, ex) -> {
+                        // Producer 네트워크 스레드: 디스크 기록은 스필 writer 로 넘기고 버퍼는 기록 뒤 반납
+                        if (ex != null && spill != null) {
+                            spill.appendAsync(producerRecord, () -> recordPool.release(record));
+                        } else {
+                            recordPool.release(record);
+                        }
+                        metrics.onKafkaSendCompleted(startNanos, ex != null);
+                        if (ex != null) {
+                            log.warn("[AudioStreamProducer] 발행 실패 - sessionId={}, 이유={}", sessionId, ex.getMessage());
+                        }
+                    });
+        } catch (RuntimeException e) {
+            // buffer.memory 가 차서 max.block.ms 안에 자리를 못 얻은 경우 등
+            boolean spilled = spill != null && spill.appendAsync(producerRecord, () -> recordPool.release(record));
+            if (spill == null) {
+                recordPool.release(record);
+            }
+            metrics.onKafkaSendCompleted(startNanos, true);
+            if (!spilled) {
+                throw e;
+            }
+            log.debug("[AudioStreamProducer] send 실패로 스필 - sessionId={}, 이유={}", sessionId, e.getMessage());
+            return;
+        }
+        log.debug("[AudioStreamProducer] 발행 - sessionId={}, size={} bytes, frames={}",
+                sessionId, size, frameLengths == null ? 1 : frameLengths.length);
+    }
+
+    private static byte[] longBytes(long value) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+    }
+
+    /** 프레임 길이 배열 → int32 big-endian 바이트 */
+    static byte[] encodeFrameLengths(int[] frameLengths) {
+        ByteBuffer buf = ByteBuffer.allocate(frameLengths.length * Integer.BYTES);
+        for (int length : frameLengths) {
+            buf.putInt(length);
+        }
+        return buf.array();
     }
 }
@@ -0,0 +1,101 @@
+package com.wordawake.gateway.kafka;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * audio-stream 파티셔너: 세션 key 를 consistent hashing 링으로 파티션에 고정.
+ *
+ * - 같은 key 는 항상 같은 파티션 → 세션 내 순서 유지 (기본 파티셔너와 같음)
+ * - 파티션마다 virtual-nodes 개 점을 링에 두고 key 해시의 시계 방향 다음 점의 파티션 선택.
+ *   파티션을 늘려도 새 파티션으로 옮겨 가는 세션만 바뀜 (약 1/(n+1)). 기본 파티셔너(murmur2 % n)는 대부분의 세션이
+ *   다른 파티션으로 옮겨 가 하류 컨슈머(세션별 오디오 창)가 상태를 잃음
+ * - 링은 파티션 수별로 한 번만 만들어 캐시 (레코드마다 이진 탐색 한 번)
+ *
+ * 설정: {@link #VIRTUAL_NODES_CONFIG} (Producer 설정 맵에 넣음, 기본 64)
+ */
+public class ConsistentHashPartitioner implements Partitioner {
+
+    public static final String VIRTUAL_NODES_CONFIG = "session.partitioner.virtual-nodes";
+    private static final int DEFAULT_VIRTUAL_NODES = 64;
+
+    private int virtualNodes = DEFAULT_VIRTUAL_NODES;
+    private final Map<Integer, Ring> rings = new ConcurrentHashMap<>();
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        Object value = configs.get(VIRTUAL_NODES_CONFIG);
+        if (value != null) {
+            virtualNodes = Integer.parseInt(value.toString());
+            if (virtualNodes <= 0) {
+                throw new IllegalArgumentException(VIRTUAL_NODES_CONFIG + " must be positive: " + value);
+            }
+        }
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        int partitions = cluster.partitionsForTopic(topic).size();
+        if (partitions <= 1) {
+            return 0;
+        }
+        if (keyBytes == null) {
+            // audio-stream 은 항상 key 가 있음. 없으면 순서 보장 대상이 아니므로 아무 파티션
+            return ThreadLocalRandom.current().nextInt(partitions);
+        }
+        return rings.computeIfAbsent(partitions, n -> new Ring(n, virtualNodes)).partition(keyBytes);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /** 파티션 수 하나에 대한 해시 링 (불변). 발행 전에 파티션을 미리 알아야 하는 곳(AudioSpill)도 사용 */
+    public static final class Ring {
+
+        /** 링 위 점의 해시 (오름차순) */
+        private final int[] points;
+        /** points[i] 의 파티션 */
+        private final int[] owners;
+
+        public Ring(int partitions, int virtualNodes) {
+            // 상위 32비트 = 점 해시, 하위 32비트 = 파티션 → 정렬하면 해시 순 (같은 해시는 파티션 번호 순)
+            long[] packed = new long[partitions * virtualNodes];
+            int n = 0;
+            for (int p = 0; p < partitions; p++) {
+                for (int v = 0; v < virtualNodes; v++) {
+                    int hash = Utils.murmur2(("partition-" + p + "#" + v).getBytes(StandardCharsets.US_ASCII));
+                    packed[n++] = ((long) hash << 32) | p;
+                }
+            }
+            Arrays.sort(packed);
+            points = new int[n];
+            owners = new int[n];
+            for (int i = 0; i < n; i++) {
+                points[i] = (int) (packed[i] >> 32);
+                owners[i] = (int) packed[i];
+            }
+        }
+
+        /** 직렬화된 key 의 파티션 */
+        public int partition(byte[] keyBytes) {
+            return partition(Utils.murmur2(keyBytes));
+        }
+
+        /** 해시 이상인 첫 점의 파티션 (끝을 넘으면 처음 점) */
+        int partition(int hash) {
+            int i = Arrays.binarySearch(points, hash);
+            if (i < 0) {
+                i = -i - 1;
+            }
+            return owners[i == points.length ? 0 : i];
+        }
+    }
+}
@@ -1,47 +1,114 @@
 package com.wordawake.gateway.kafka;
 
-import com.wordawake.gateway.service.SessionService;
+import com.wordawake.gateway.capture.HotwordAudioCapture;
+import com.wordawake.gateway.dispatch.HotwordDispatcher;
+import com.wordawake.gateway.framing.FrameLatencyTracker;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Hotword 서비스가 발행한 감지 결과(hotword-events)를 구독.
  * 수신한 메시지의 key(sessionId)로 SessionService에서 WebSocket 세션을 찾아,
  * 해당 클라이언트에게만 value(JSON)를 텍스트 메시지로 전달.
  *
- * 수신 메시지: key = sessionId, value = JSON 예: {"word":"헤이 워드"}
+ * 수신 메시지: key = sessionId, value = UTF-8 JSON 예: {"word":"헤이 워드"}, 선택 헤더 event-type=hotword
+ * value 는 byte[] 로 받아 그대로 클라이언트 텍스트 프레임으로 보냄 (String 변환/내용 검사 없음, 종류 판단은 헤더로).
+ *
+ * 두 가지 모드 중 app.kafka.hotword-events.batch.enabled 로 하나만 기동:
+ * - batch (기본): poll 배치 단위로 받아 HotwordDispatcher 가 세션별로 묶어 병렬 전달 (광고 등으로 한꺼번에 몰릴 때)
+ * - single: 레코드 한 건씩 리스너 스레드에서 전달
+ * 두 모드 모두 리스너 concurrency 는 app.kafka.hotword-events.concurrency (파티션 수 이하로)
+ *
+ * 구독 토픽은 RoutingConfig 가 정함: 단일 노드면 공용 hotword-events,
+ * 라우팅 모드(app.routing.enabled)면 HotwordEventRouter 가 넘겨 주는 이 노드 전용 inbox 토픽
+ *
+ * framed 세션의 이벤트가 "seq" 를 돌려주면 FrameLatencyTracker 로 종단 지연(캡처/게이트웨이 수신 → 이벤트 수신) 기록.
+ * hotword 캡처(app.capture.enabled)를 켜면 클라이언트 전달과 별개로 해당 세션의 전후 오디오 캡처를 시작.
+ * 두 처리는 {@link #deliver(List)} 에 모여 있어, 라우팅 모드에서 HotwordEventRouter 가 이 노드 소유 세션 이벤트를
+ * inbox 를 거치지 않고 바로 넘길 때도 똑같이 적용됨
  */
 @Slf4j
 @Component
 public class HotwordEventConsumer {
 
-    private final SessionService sessionService;
+    private final HotwordDispatcher hotwordDispatcher;
+    /** app.capture.enabled=false 면 null */
+    private final HotwordAudioCapture hotwordAudioCapture;
+    private final FrameLatencyTracker frameLatencyTracker;
 
-    public HotwordEventConsumer(SessionService sessionService) {
-        this.sessionService = sessionService;
+    public HotwordEventConsumer(HotwordDispatcher hotwordDispatcher, FrameLatencyTracker frameLatencyTracker,
+                                Optional<HotwordAudioCapture> hotwordAudioCapture) {
+        this.hotwordDispatcher = hotwordDispatcher;
+        this.frameLatencyTracker = frameLatencyTracker;
+        this.hotwordAudioCapture = hotwordAudioCapture.orElse(null);
+    }
+
+    @KafkaListener(topics = "#{@hotwordInboxTopicName}",
+            groupId = "#{@hotwordInboxGroupId}",
+            containerFactory = "hotwordBatchListenerContainerFactory",
+            concurrency = "${app.kafka.hotword-events.concurrency:1}",
+            autoStartup = "${app.kafka.hotword-events.batch.enabled:true}")
+    public void onHotwordEvents(List<ConsumerRecord<String, byte[]>> records) {
+        HotwordDispatcher.BatchResult result = deliver(records);
+        if (result.failed() > 0) {
+            log.warn("[HotwordEventConsumer] 일부 전달 실패(세션 없음/종료) - records={}, sessions={}, failed={}",
+                    records.size(), result.sessions(), result.failed());
+        } else {
+            log.debug("[HotwordEventConsumer] 배치 전달 완료 - records={}, sessions={}", records.size(), result.sessions());
+        }
     }
 
-    @KafkaListener(topics = "${app.kafka.topic.hotword-events:hotword-events}", groupId = "${spring.kafka.consumer.group-id:gateway-hotword-consumer}")
-    public void onHotwordEvent(
-            String payload,
-            @Header(KafkaHeaders.RECEIVED_KEY) String sessionId) {
-        if (sessionId == null) {
-            log.warn("[HotwordEventConsumer] sessionId 없음 - payload={}", payload);
+    /**
+     * 이 노드 세션으로 가는 이벤트 배치 전달: 종단 지연 기록 + hotword 캡처 시작 후 HotwordDispatcher 로 클라이언트 전달.
+     * 배치 리스너와 HotwordEventRouter(소유 노드가 자기 자신인 이벤트)가 함께 사용
+     */
+    public HotwordDispatcher.BatchResult deliver(List<ConsumerRecord<String, byte[]>> records) {
+        for (ConsumerRecord<String, byte[]> record : records) {
+            if (record.key() == null || record.value() == null || !HotwordDispatcher.isHotwordEvent(record.headers())) {
+                continue;
+            }
+            onHotword(record.key(), record.value());
+        }
+        return hotwordDispatcher.dispatch(records);
+    }
+
+    /** 단건 모드는 Boot 기본 리스너 팩토리를 쓰므로 value 역직렬화기만 byte[] 로 덮어씀 */
+    @KafkaListener(topics = "#{@hotwordInboxTopicName}",
+            groupId = "#{@hotwordInboxGroupId}",
+            concurrency = "${app.kafka.hotword-events.concurrency:1}",
+            autoStartup = "#{!${app.kafka.hotword-events.batch.enabled:true}}",
+            properties = "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer")
+    public void onHotwordEvent(ConsumerRecord<String, byte[]> record) {
+        String sessionId = record.key();
+        byte[] payload = record.value();
+        if (sessionId == null || payload == null) {
+            log.warn("[HotwordEventConsumer] sessionId/payload 없음 - partition={}, offset={}", record.partition(), record.offset());
             return;
         }
-        // payload(JSON)를 그대로 클라이언트에 전달. "word" 필드 여부는 로그용으로만 확인
-        if (payload != null && !payload.contains("\"word\"")) {
-            log.debug("[HotwordEventConsumer] payload에 'word' 필드 없을 수 있음 - payload={}", payload);
+        if (!HotwordDispatcher.isHotwordEvent(record.headers())) {
+            log.debug("[HotwordEventConsumer] 전달 대상 아님 - sessionId={}, offset={}", sessionId, record.offset());
+            return;
         }
+        onHotword(sessionId, payload);
 
-        boolean sent = sessionService.sendToSession(sessionId, payload);
+        boolean sent = hotwordDispatcher.deliver(sessionId, payload);
         if (sent) {
-            log.info("[HotwordEventConsumer] 클라이언트 전달 완료 - sessionId={}, payload={}", sessionId, payload);
+            log.debug("[HotwordEventConsumer] 클라이언트 전달 완료 - sessionId={}, bytes={}", sessionId, payload.length);
         } else {
             log.warn("[HotwordEventConsumer] 클라이언트 전달 실패(세션 없음/종료) - sessionId={}", sessionId);
         }
     }
+
+    /** 클라이언트 전달 전 처리 (종단 지연 기록, hotword 캡처 시작) */
+    private void onHotword(String sessionId, byte[] payload) {
+        frameLatencyTracker.onHotwordEvent(sessionId, payload);
+        if (hotwordAudioCapture != null) {
+            hotwordAudioCapture.onHotword(sessionId, payload);
+        }
+    }
 }
@@ -0,0 +1,36 @@
+package com.wordawake.gateway.kafka;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * audio-stream key 역직렬화기. key 형식(app.kafka.audio-stream.key-format)과 상관없이 sessionId 문자열로 복원:
+ * 16바이트면 {@link SessionKeySerializer} 의 UUID binary → 소문자 UUID 문자열, 그 외 길이는 UTF-8 문자열.
+ * 형식을 바꾸는 동안 두 형식 레코드가 섞여 있어도 같은 세션은 같은 sessionId 로 읽힘.
+ */
+public class SessionKeyDeserializer implements Deserializer<String> {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @Override
+    public String deserialize(String topic, byte[] key) {
+        return key == null ? null : decode(key);
+    }
+
+    public static String decode(byte[] key) {
+        if (key.length != SessionKeySerializer.UUID_KEY_BYTES) {
+            return new String(key, StandardCharsets.UTF_8);
+        }
+        char[] chars = new char[36];
+        int c = 0;
+        for (int i = 0; i < key.length; i++) {
+            if (i == 4 || i == 6 || i == 8 || i == 10) {
+                chars[c++] = '-';
+            }
+            chars[c++] = HEX[(key[i] >> 4) & 0xF];
+            chars[c++] = HEX[key[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
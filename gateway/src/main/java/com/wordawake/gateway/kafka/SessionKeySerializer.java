@@ -0,0 +1,60 @@
+package com.wordawake.gateway.kafka;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * audio-stream key 직렬화기 (app.kafka.audio-stream.key-format=uuid16).
+ * sessionId 가 UUID 문자열(소문자 36자, 두 전송 모드 모두 이 형식)이면 16바이트 binary 로 → 레코드마다 key 20바이트 절약.
+ * UUID 형식이 아닌 id 는 UTF-8 그대로 ({@link SessionKeyDeserializer} 는 16바이트 key 만 UUID 로 되돌림).
+ */
+public class SessionKeySerializer implements Serializer<String> {
+
+    /** UUID binary key 길이 */
+    public static final int UUID_KEY_BYTES = 16;
+    private static final int UUID_CHARS = 36;
+
+    @Override
+    public byte[] serialize(String topic, String sessionId) {
+        return sessionId == null ? null : encode(sessionId);
+    }
+
+    /** sessionId → key 바이트 (UUID 면 16바이트, 아니면 UTF-8) */
+    public static byte[] encode(String sessionId) {
+        if (sessionId.length() != UUID_CHARS) {
+            return sessionId.getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] key = new byte[UUID_KEY_BYTES];
+        int k = 0;
+        int i = 0;
+        while (i < UUID_CHARS) {
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (sessionId.charAt(i) != '-') {
+                    return sessionId.getBytes(StandardCharsets.UTF_8);
+                }
+                i++;
+                continue;
+            }
+            int hi = hex(sessionId.charAt(i));
+            int lo = hex(sessionId.charAt(i + 1));
+            if ((hi | lo) < 0) {
+                return sessionId.getBytes(StandardCharsets.UTF_8);
+            }
+            key[k++] = (byte) (hi << 4 | lo);
+            i += 2;
+        }
+        return key;
+    }
+
+    /** 소문자 16진수만 허용 (대문자 UUID 는 되돌렸을 때 원래 id 와 달라지므로 UTF-8 로 보냄) */
+    private static int hex(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        return -1;
+    }
+}
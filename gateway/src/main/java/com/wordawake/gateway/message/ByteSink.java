@@ -0,0 +1,74 @@
+package com.wordawake.gateway.message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 인코더 내부용 바이트 버퍼. 보통 결과 크기로 용량을 잡고 시작하므로
+ * 크기가 맞으면 {@link #toByteArray()} 가 복사 없이 내부 배열을 그대로 반환 (그 뒤로는 쓰지 않음).
+ */
+final class ByteSink {
+
+    private byte[] buf;
+    private int size;
+
+    ByteSink(int capacity) {
+        this.buf = new byte[capacity];
+    }
+
+    void write(int b) {
+        ensure(1);
+        buf[size++] = (byte) b;
+    }
+
+    void write(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, size, bytes.length);
+        size += bytes.length;
+    }
+
+    /** 빅엔디언 n 바이트 (CBOR 길이/정수) */
+    void writeBigEndian(long value, int n) {
+        ensure(n);
+        for (int i = n - 1; i >= 0; i--) {
+            buf[size++] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    /** s[from, to) 를 UTF-8 로. ASCII 는 그대로 복사, 그 외 문자가 나오면 나머지 구간만 한 번에 인코딩 */
+    void writeUtf8(String s, int from, int to) {
+        ensure(to - from);
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                write(s.substring(i, to).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            buf[size++] = (byte) c;
+        }
+    }
+
+    /** 0 이상 정수의 10진 ASCII (JSON 숫자) */
+    void writeDecimal(long value) {
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        ensure(digits);
+        for (int i = size + digits - 1; i >= size; i--) {
+            buf[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+    }
+
+    byte[] toByteArray() {
+        return size == buf.length ? buf : Arrays.copyOf(buf, size);
+    }
+
+    private void ensure(int n) {
+        if (size + n > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + n));
+        }
+    }
+}
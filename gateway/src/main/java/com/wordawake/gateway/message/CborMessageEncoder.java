@@ -0,0 +1,148 @@
+package com.wordawake.gateway.message;
+
+import com.wordawake.gateway.utils.Constants;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * CBOR(RFC 8949) 바이너리 프레임 인코더. JSON 과 같은 키/값을 definite-length map 으로 씀
+ * (문자열 → text string, 정수 → unsigned/negative integer).
+ * JSON 인코더처럼 가변 값 직전까지를 미리 인코딩해 두고 호출마다 가변 값만 이어 씀.
+ */
+final class CborMessageEncoder implements GatewayMessageEncoder {
+
+    static final CborMessageEncoder INSTANCE = new CborMessageEncoder();
+
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_TEXT = 3;
+    private static final int MAJOR_MAP = 5;
+
+    /** map(4) type:connected, status:"101", message:"success", sessionId 키 */
+    private static final byte[] CONNECTED_PREFIX;
+    /** map(고정 필드 + 1) 고정 필드..., time 키 */
+    private static final byte[] HEARTBEAT_PREFIX;
+    /** map(2) type:credit, credit 키 */
+    private static final byte[] CREDIT_PREFIX;
+    /** map(3) type:credit, credit 키 (연결 시 첫 부여, 뒤에 window 가 붙음) */
+    private static final byte[] CREDIT_WITH_WINDOW_PREFIX;
+    private static final byte[] WINDOW_KEY;
+
+    static {
+        ByteSink connected = new ByteSink(64);
+        head(connected, MAJOR_MAP, 4);
+        text(connected, Constants.GW_MSG_TYPE);
+        text(connected, Constants.GW_MSG_TYPE_CONNECTED);
+        text(connected, Constants.GW_MSG_STATUS);
+        text(connected, "101");
+        text(connected, Constants.GW_MSG_MESSAGE);
+        text(connected, "success");
+        text(connected, Constants.GW_MSG_SESSION_ID);
+        CONNECTED_PREFIX = connected.toByteArray();
+
+        ByteSink heartbeat = new ByteSink(128);
+        head(heartbeat, MAJOR_MAP, GatewayMessage.Heartbeat.FIXED_FIELDS.size() + 1);
+        for (Map.Entry<String, Object> field : GatewayMessage.Heartbeat.FIXED_FIELDS) {
+            text(heartbeat, field.getKey());
+            if (field.getValue() instanceof Integer number) {
+                integer(heartbeat, number);
+            } else {
+                text(heartbeat, (String) field.getValue());
+            }
+        }
+        text(heartbeat, "time");
+        HEARTBEAT_PREFIX = heartbeat.toByteArray();
+
+        CREDIT_PREFIX = creditPrefix(2);
+        CREDIT_WITH_WINDOW_PREFIX = creditPrefix(3);
+        ByteSink window = new ByteSink(8);
+        text(window, Constants.GW_MSG_WINDOW);
+        WINDOW_KEY = window.toByteArray();
+    }
+
+    private CborMessageEncoder() {
+    }
+
+    @Override
+    public WebSocketMessage<?> encode(GatewayMessage message) {
+        ByteSink out = switch (message) {
+            case GatewayMessage.Connected connected -> withText(CONNECTED_PREFIX, connected.sessionId());
+            case GatewayMessage.Heartbeat heartbeat -> withText(HEARTBEAT_PREFIX, heartbeat.time().toString());
+            case GatewayMessage.Credit credit -> {
+                boolean withWindow = credit.window() > 0;
+                // 정수 하나는 최대 9바이트
+                ByteSink sink = new ByteSink(CREDIT_WITH_WINDOW_PREFIX.length + WINDOW_KEY.length + 18);
+                sink.write(withWindow ? CREDIT_WITH_WINDOW_PREFIX : CREDIT_PREFIX);
+                integer(sink, credit.credit());
+                if (withWindow) {
+                    sink.write(WINDOW_KEY);
+                    integer(sink, credit.window());
+                }
+                yield sink;
+            }
+        };
+        return new BinaryMessage(out.toByteArray());
+    }
+
+    private static byte[] creditPrefix(int fields) {
+        ByteSink out = new ByteSink(24);
+        head(out, MAJOR_MAP, fields);
+        text(out, Constants.GW_MSG_TYPE);
+        text(out, Constants.GW_MSG_TYPE_CREDIT);
+        text(out, Constants.GW_MSG_CREDIT);
+        return out.toByteArray();
+    }
+
+    /** prefix + text(value) (ASCII 값 24자 이상 255자 이하면 용량이 딱 맞아 복사 없음) */
+    private static ByteSink withText(byte[] prefix, String value) {
+        ByteSink out = new ByteSink(prefix.length + 2 + value.length());
+        out.write(prefix);
+        text(out, value);
+        return out;
+    }
+
+    /** 초기 바이트(major type + 추가 정보) + 필요하면 1/2/4/8 바이트 빅엔디언 값 */
+    private static void head(ByteSink out, int majorType, long value) {
+        int major = majorType << 5;
+        if (value < 24) {
+            out.write(major | (int) value);
+        } else if (value <= 0xFF) {
+            out.write(major | 24);
+            out.writeBigEndian(value, 1);
+        } else if (value <= 0xFFFF) {
+            out.write(major | 25);
+            out.writeBigEndian(value, 2);
+        } else if (value <= 0xFFFFFFFFL) {
+            out.write(major | 26);
+            out.writeBigEndian(value, 4);
+        } else {
+            out.write(major | 27);
+            out.writeBigEndian(value, 8);
+        }
+    }
+
+    private static void integer(ByteSink out, long value) {
+        if (value >= 0) {
+            head(out, MAJOR_UNSIGNED, value);
+        } else {
+            head(out, MAJOR_NEGATIVE, -1 - value);
+        }
+    }
+
+    /** text string: 길이(UTF-8 바이트 수)가 먼저라 ASCII 가 아니면 한 번 인코딩해서 길이를 잼 */
+    private static void text(ByteSink out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                head(out, MAJOR_TEXT, utf8.length);
+                out.write(utf8);
+                return;
+            }
+        }
+        head(out, MAJOR_TEXT, value.length());
+        out.writeUtf8(value, 0, value.length());
+    }
+}
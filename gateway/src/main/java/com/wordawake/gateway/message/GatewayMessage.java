@@ -0,0 +1,40 @@
+package com.wordawake.gateway.message;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 게이트웨이 → 클라이언트 제어 메시지. 인코딩(JSON / CBOR)은 세션이 고른 {@link MessageEncoding} 이 담당.
+ * hotword 이벤트는 Kafka 에서 받은 JSON 바이트를 그대로 넘기므로 여기에 포함하지 않음.
+ */
+public sealed interface GatewayMessage {
+
+    /** 연결 직후 안내: {"type":"connected","status":"101","message":"success","sessionId":...} */
+    record Connected(String sessionId) implements GatewayMessage {
+    }
+
+    /** 하트비트: 고정 필드 + 전송 시각 */
+    record Heartbeat(Instant time) implements GatewayMessage {
+
+        /** tick 마다 같은 필드 (기존 클라이언트와 같은 키/값, 이 순서대로 인코딩). 값은 String 또는 Integer */
+        static final List<Map.Entry<String, Object>> FIXED_FIELDS = List.of(
+                Map.entry("status", 200),
+                Map.entry("status-msg", "정상"),
+                Map.entry("hotword", "켜줘(테스트)"),
+                Map.entry("type", "command"),
+                Map.entry("intent", "control"),
+                Map.entry("action", "turn-on"));
+    }
+
+    /**
+     * 흐름 제어 크레딧 부여: {"type":"credit","credit":n[,"window":w]}.
+     * window 는 연결 시 첫 부여에만 (0 이면 생략).
+     */
+    record Credit(long credit, long window) implements GatewayMessage {
+
+        public static Credit grant(long credit) {
+            return new Credit(credit, 0);
+        }
+    }
+}
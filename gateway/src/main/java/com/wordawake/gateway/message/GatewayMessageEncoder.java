@@ -0,0 +1,13 @@
+package com.wordawake.gateway.message;
+
+import org.springframework.web.socket.WebSocketMessage;
+
+/**
+ * 제어 메시지 → WebSocket 프레임 인코더.
+ * 연결/하트비트마다 호출되므로 구현은 메시지 종류별 고정 부분을 미리 인코딩해 두고 가변 값만 이어 쓴다.
+ * 구현은 상태가 없어 스레드 안전.
+ */
+public interface GatewayMessageEncoder {
+
+    WebSocketMessage<?> encode(GatewayMessage message);
+}
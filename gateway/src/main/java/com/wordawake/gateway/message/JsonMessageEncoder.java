@@ -0,0 +1,153 @@
+package com.wordawake.gateway.message;
+
+import com.wordawake.gateway.utils.Constants;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.util.Map;
+
+/**
+ * JSON 텍스트 프레임 인코더.
+ * 메시지 종류별로 마지막 가변 값 직전까지(키, 상수 값, 하트비트 고정 필드)를 클래스 로드 시 UTF-8 로 만들어 두고,
+ * 호출마다 그 뒤에 가변 값만 이어 씀 (Map/Gson 없이 결과 배열 하나).
+ * TextMessage 는 UTF-8 바이트로 만들어 메일박스 예산 계산(getPayloadLength)에서 다시 인코딩하지 않음.
+ * 출력은 이전 Map + Gson 출력과 키/값이 같지만(connected 는 "type" 추가) 키 순서는 다름 (HashMap 순서 대신 고정 순서).
+ */
+final class JsonMessageEncoder implements GatewayMessageEncoder {
+
+    static final JsonMessageEncoder INSTANCE = new JsonMessageEncoder();
+
+    /** {"type":"connected","status":"101","message":"success","sessionId": */
+    private static final byte[] CONNECTED_PREFIX;
+    /** {고정 필드...,"time": */
+    private static final byte[] HEARTBEAT_PREFIX;
+    /** {"type":"credit","credit": */
+    private static final byte[] CREDIT_PREFIX;
+    /** ,"window": */
+    private static final byte[] WINDOW_KEY;
+
+    static {
+        ByteSink connected = new ByteSink(96);
+        connected.write('{');
+        field(connected, Constants.GW_MSG_TYPE, Constants.GW_MSG_TYPE_CONNECTED);
+        connected.write(',');
+        field(connected, Constants.GW_MSG_STATUS, "101");
+        connected.write(',');
+        field(connected, Constants.GW_MSG_MESSAGE, "success");
+        connected.write(',');
+        key(connected, Constants.GW_MSG_SESSION_ID);
+        CONNECTED_PREFIX = connected.toByteArray();
+
+        ByteSink heartbeat = new ByteSink(160);
+        heartbeat.write('{');
+        for (Map.Entry<String, Object> field : GatewayMessage.Heartbeat.FIXED_FIELDS) {
+            if (field.getValue() instanceof Integer number) {
+                key(heartbeat, field.getKey());
+                heartbeat.writeDecimal(number);
+            } else {
+                field(heartbeat, field.getKey(), (String) field.getValue());
+            }
+            heartbeat.write(',');
+        }
+        key(heartbeat, "time");
+        HEARTBEAT_PREFIX = heartbeat.toByteArray();
+
+        ByteSink credit = new ByteSink(32);
+        credit.write('{');
+        field(credit, Constants.GW_MSG_TYPE, Constants.GW_MSG_TYPE_CREDIT);
+        credit.write(',');
+        key(credit, Constants.GW_MSG_CREDIT);
+        CREDIT_PREFIX = credit.toByteArray();
+
+        ByteSink window = new ByteSink(16);
+        window.write(',');
+        key(window, Constants.GW_MSG_WINDOW);
+        WINDOW_KEY = window.toByteArray();
+    }
+
+    private JsonMessageEncoder() {
+    }
+
+    @Override
+    public WebSocketMessage<?> encode(GatewayMessage message) {
+        ByteSink out = switch (message) {
+            case GatewayMessage.Connected connected -> withString(CONNECTED_PREFIX, connected.sessionId());
+            case GatewayMessage.Heartbeat heartbeat -> withString(HEARTBEAT_PREFIX, heartbeat.time().toString());
+            case GatewayMessage.Credit credit -> {
+                ByteSink sink = new ByteSink(CREDIT_PREFIX.length + WINDOW_KEY.length + 24);
+                sink.write(CREDIT_PREFIX);
+                number(sink, credit.credit());
+                if (credit.window() > 0) {
+                    sink.write(WINDOW_KEY);
+                    number(sink, credit.window());
+                }
+                sink.write('}');
+                yield sink;
+            }
+        };
+        return new TextMessage(out.toByteArray());
+    }
+
+    /** prefix + "value"} (ASCII 값이면 용량이 딱 맞아 복사 없음) */
+    private static ByteSink withString(byte[] prefix, String value) {
+        ByteSink out = new ByteSink(prefix.length + value.length() + 3);
+        out.write(prefix);
+        string(out, value);
+        out.write('}');
+        return out;
+    }
+
+    private static void field(ByteSink out, String name, String value) {
+        key(out, name);
+        string(out, value);
+    }
+
+    private static void key(ByteSink out, String name) {
+        string(out, name);
+        out.write(':');
+    }
+
+    private static void number(ByteSink out, long value) {
+        if (value >= 0) {
+            out.writeDecimal(value);
+        } else {
+            String digits = Long.toString(value);
+            out.writeUtf8(digits, 0, digits.length());
+        }
+    }
+
+    /** 따옴표 + 이스케이프 (", \, 제어 문자). 그 외 문자는 UTF-8 그대로 */
+    private static void string(ByteSink out, String value) {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                out.writeUtf8(value, start, i);
+                escape(out, c);
+                start = i + 1;
+            }
+        }
+        out.writeUtf8(value, start, value.length());
+        out.write('"');
+    }
+
+    private static void escape(ByteSink out, char c) {
+        out.write('\\');
+        switch (c) {
+            case '"', '\\' -> out.write(c);
+            case '\n' -> out.write('n');
+            case '\r' -> out.write('r');
+            case '\t' -> out.write('t');
+            case '\b' -> out.write('b');
+            case '\f' -> out.write('f');
+            default -> {
+                out.write('u');
+                out.write('0');
+                out.write('0');
+                out.write(Character.forDigit(c >> 4, 16));
+                out.write(Character.forDigit(c & 0xF, 16));
+            }
+        }
+    }
+}
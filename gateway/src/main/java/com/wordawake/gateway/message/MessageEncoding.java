@@ -0,0 +1,43 @@
+package com.wordawake.gateway.message;
+
+import com.wordawake.gateway.utils.Constants;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.util.List;
+
+/**
+ * 제어 메시지 인코딩. 핸드셰이크의 WebSocket 서브프로토콜(Sec-WebSocket-Protocol)로 협상.
+ *
+ * - JSON: 텍스트 프레임 (서브프로토콜을 요청하지 않은 기존 클라이언트 포함)
+ * - CBOR: 바이너리 프레임 (RFC 8949, 같은 키/값 구조의 map)
+ * hotword 이벤트는 인코딩과 상관없이 JSON 텍스트 프레임 → CBOR 세션은 프레임 종류(텍스트/바이너리)로 구분.
+ */
+public enum MessageEncoding {
+
+    JSON(Constants.WS_SUBPROTOCOL_JSON, JsonMessageEncoder.INSTANCE),
+    CBOR(Constants.WS_SUBPROTOCOL_CBOR, CborMessageEncoder.INSTANCE);
+
+    /** 서버가 받아들이는 서브프로토콜 (클라이언트가 요청한 순서대로 첫 번째 일치를 고름) */
+    public static final List<String> SUBPROTOCOLS = List.of(Constants.WS_SUBPROTOCOL_JSON, Constants.WS_SUBPROTOCOL_CBOR);
+
+    private final String subprotocol;
+    private final GatewayMessageEncoder encoder;
+
+    MessageEncoding(String subprotocol, GatewayMessageEncoder encoder) {
+        this.subprotocol = subprotocol;
+        this.encoder = encoder;
+    }
+
+    public String subprotocol() {
+        return subprotocol;
+    }
+
+    public WebSocketMessage<?> encode(GatewayMessage message) {
+        return encoder.encode(message);
+    }
+
+    /** 핸드셰이크에서 수락한 서브프로토콜 → 인코딩. 없거나(null, "") 모르는 값이면 JSON */
+    public static MessageEncoding of(String acceptedProtocol) {
+        return CBOR.subprotocol.equals(acceptedProtocol) ? CBOR : JSON;
+    }
+}
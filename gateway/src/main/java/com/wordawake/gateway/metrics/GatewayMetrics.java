@@ -0,0 +1,188 @@
+package com.wordawake.gateway.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 게이트웨이 단계별 계측 (수신 → Kafka 발행 → hotword 전달).
+ * 미터는 생성 시 한 번만 등록하고 필드로 보관 → 프레임마다 태그 조회/객체 생성 없음.
+ * 컴포넌트 상태(세션 수, 큐 깊이 등) 게이지는 {@link GatewayMetricsBinder} 에서 등록.
+ *
+ * Prometheus 노출: /gateway/actuator/prometheus
+ */
+@Component
+public class GatewayMetrics {
+
+    private final Counter framesReceived;
+    private final DistributionSummary frameBytes;
+    private final DistributionSummary sessionAudioBytes;
+    private final Counter vadForwarded;
+    private final Counter vadSuppressed;
+    private final Timer kafkaSendLatency;
+    private final Counter kafkaSendErrors;
+    private final AtomicInteger kafkaInFlight = new AtomicInteger();
+    private final Timer hotwordDeliveryLatency;
+    private final Timer flowThrottled;
+    private final Counter framesLost;
+    private final Counter framesReordered;
+    private final Timer e2eFromCapture;
+    private final Timer e2eFromGateway;
+    private final Counter flowThrottleTimeouts;
+    private final Counter handshakeRejectedRate;
+    private final Counter handshakeRejectedCapacity;
+    private final Timer virtualThreadPinned;
+
+    public GatewayMetrics(MeterRegistry registry) {
+        this.framesReceived = Counter.builder("gateway.audio.frames.received")
+                .description("WebSocket 으로 받은 오디오 프레임 수")
+                .register(registry);
+        this.frameBytes = DistributionSummary.builder("gateway.audio.frame.bytes")
+                .description("수신 오디오 프레임 크기")
+                .baseUnit("bytes")
+                .register(registry);
+        this.sessionAudioBytes = DistributionSummary.builder("gateway.audio.session.bytes")
+                .description("세션 하나가 연결 동안 보낸 오디오 총량 (세션 종료 시 기록)")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.vadForwarded = Counter.builder("gateway.audio.vad.frames")
+                .tag("decision", "forwarded")
+                .description("VAD 판정 프레임 수 (forwarded = 음성/hangover/keepalive, suppressed = 무음)")
+                .register(registry);
+        this.vadSuppressed = Counter.builder("gateway.audio.vad.frames")
+                .tag("decision", "suppressed")
+                .description("VAD 판정 프레임 수 (forwarded = 음성/hangover/keepalive, suppressed = 무음)")
+                .register(registry);
+        this.kafkaSendLatency = Timer.builder("gateway.kafka.send.latency")
+                .description("audio-stream 발행 → 브로커 ack 지연")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.kafkaSendErrors = Counter.builder("gateway.kafka.send.errors")
+                .description("audio-stream 발행 실패 수")
+                .register(registry);
+        Gauge.builder("gateway.kafka.send.in-flight", kafkaInFlight, AtomicInteger::get)
+                .description("ack 대기 중인 audio-stream 레코드 수")
+                .register(registry);
+        this.hotwordDeliveryLatency = Timer.builder("gateway.hotword.delivery.latency")
+                .description("hotword 이벤트 수신(consume) → WebSocket 전송 완료 지연")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.flowThrottled = Timer.builder("gateway.flow.throttle.wait")
+                .description("크레딧을 넘겨 보낸 세션의 수신을 멈춘 시간")
+                .register(registry);
+        this.flowThrottleTimeouts = Counter.builder("gateway.flow.throttle.timeouts")
+                .description("제한 시간 안에 크레딧이 회복되지 않아 닫은 세션 수")
+                .register(registry);
+        this.framesLost = Counter.builder("gateway.audio.frames.lost")
+                .description("framed 세션에서 시퀀스가 건너뛴 프레임 수 (클라이언트 → 게이트웨이 구간 유실)")
+                .register(registry);
+        this.framesReordered = Counter.builder("gateway.audio.frames.reordered")
+                .description("framed 세션에서 기대보다 작은 시퀀스로 도착한 프레임 수 (역순/중복)")
+                .register(registry);
+        this.e2eFromCapture = Timer.builder("gateway.e2e.latency")
+                .tag("from", "capture")
+                .description("hotword 가 가리킨 프레임의 캡처(클라이언트 시계) 또는 게이트웨이 수신 → hotword 이벤트 수신 지연")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.e2eFromGateway = Timer.builder("gateway.e2e.latency")
+                .tag("from", "gateway")
+                .description("hotword 가 가리킨 프레임의 캡처(클라이언트 시계) 또는 게이트웨이 수신 → hotword 이벤트 수신 지연")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.handshakeRejectedRate = Counter.builder("gateway.handshake.rejected")
+                .tag("reason", "rate")
+                .description("수락 제어로 거절한 핸드셰이크 수 (rate = 수락률 초과, capacity = 노드 세션 상한)")
+                .register(registry);
+        this.handshakeRejectedCapacity = Counter.builder("gateway.handshake.rejected")
+                .tag("reason", "capacity")
+                .description("수락 제어로 거절한 핸드셰이크 수 (rate = 수락률 초과, capacity = 노드 세션 상한)")
+                .register(registry);
+        this.virtualThreadPinned = Timer.builder("gateway.vt.pinned")
+                .description("가상 스레드가 캐리어 스레드에 고정된 채 막힌 시간 (JFR jdk.VirtualThreadPinned, 임계값 이상만)")
+                .register(registry);
+    }
+
+    /** 프레임 수신 (핫패스: 할당 없음) */
+    public void onFrameReceived(int bytes) {
+        framesReceived.increment();
+        frameBytes.record(bytes);
+    }
+
+    /** 세션 종료 시 그 세션의 오디오 총량 */
+    public void onSessionAudioClosed(long bytes) {
+        sessionAudioBytes.record(bytes);
+    }
+
+    /** VAD 판정 (forwarded = 발행 대상, pre-roll 로 나중에 발행되는 프레임은 suppressed 로 셈) */
+    public void onVadDecision(boolean forwarded) {
+        (forwarded ? vadForwarded : vadSuppressed).increment();
+    }
+
+    /** 크레딧 초과 세션의 수신 대기 종료 (timedOut = 회복 못 해 세션을 닫음) */
+    public void onFlowThrottled(long waitNanos, boolean timedOut) {
+        flowThrottled.record(waitNanos, TimeUnit.NANOSECONDS);
+        if (timedOut) {
+            flowThrottleTimeouts.increment();
+        }
+    }
+
+    /** 핸드셰이크 거절 (rateLimited = 수락률 초과, 아니면 세션 상한) */
+    public void onHandshakeRejected(boolean rateLimited) {
+        (rateLimited ? handshakeRejectedRate : handshakeRejectedCapacity).increment();
+    }
+
+    /** 가상 스레드 pinning 감지 (VirtualThreadPinningMonitor) */
+    public void onVirtualThreadPinned(long nanos) {
+        virtualThreadPinned.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** framed 세션 시퀀스 유실 (건너뛴 프레임 수) */
+    public void onFramesLost(long frames) {
+        framesLost.increment(frames);
+    }
+
+    /** framed 세션 역순/중복 프레임 */
+    public void onFrameReordered() {
+        framesReordered.increment();
+    }
+
+    /** hotword 종단 지연 (마이크로초). 클라이언트 시계가 앞서 음수가 된 capture 기준 값은 버림 */
+    public void onEndToEndLatency(long fromCaptureMicros, long fromGatewayMicros) {
+        if (fromCaptureMicros >= 0) {
+            e2eFromCapture.record(fromCaptureMicros, TimeUnit.MICROSECONDS);
+        }
+        e2eFromGateway.record(Math.max(0, fromGatewayMicros), TimeUnit.MICROSECONDS);
+    }
+
+    /** Kafka 발행 시작. 반환값을 {@link #onKafkaSendCompleted} 에 넘김 */
+    public long onKafkaSendStarted() {
+        kafkaInFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    public void onKafkaSendCompleted(long startNanos, boolean failed) {
+        kafkaInFlight.decrementAndGet();
+        if (failed) {
+            kafkaSendErrors.increment();
+        } else {
+            kafkaSendLatency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** ack 대기 중인 audio-stream 레코드 수 (적응형 병합 입력) */
+    public int getKafkaInFlight() {
+        return kafkaInFlight.get();
+    }
+
+    /** hotword 이벤트가 클라이언트에 쓰여짐. originNanos = 이벤트를 consume 한 시각 */
+    public void onHotwordDelivered(long originNanos) {
+        hotwordDeliveryLatency.record(System.nanoTime() - originNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,113 @@
+package com.wordawake.gateway.metrics;
+
+import com.wordawake.gateway.capture.HotwordAudioCapture;
+import com.wordawake.gateway.dispatch.AudioDispatcher;
+import com.wordawake.gateway.kafka.AudioStreamProducer;
+import com.wordawake.gateway.session.OutboundMailboxFactory;
+import com.wordawake.gateway.session.SessionRegistry;
+import com.wordawake.gateway.spill.AudioSpill;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * 컴포넌트 상태 게이지 등록 (scrape 시점에 값을 읽으므로 핫패스 비용 없음).
+ * - 세션 수, 오디오 디스패치 대기 프레임 수/폐기 수, 병합 대기 세션 수/현재 병합 한도, 버퍼 풀 상태, 송신 큐 대기 바이트
+ * - hotword 캡처 사용 시: 남은 링 슬롯 수, 슬롯 부족으로 캡처 제외된 세션 수
+ */
+@Component
+public class GatewayMetricsBinder implements MeterBinder {
+
+    private final SessionRegistry sessionRegistry;
+    private final AudioDispatcher audioDispatcher;
+    private final AudioStreamProducer audioStreamProducer;
+    private final OutboundMailboxFactory mailboxFactory;
+    /** app.capture.enabled=false 면 null */
+    private final HotwordAudioCapture hotwordAudioCapture;
+    /** app.spill.enabled=false 면 null */
+    private final AudioSpill audioSpill;
+
+    public GatewayMetricsBinder(SessionRegistry sessionRegistry, AudioDispatcher audioDispatcher,
+                                AudioStreamProducer audioStreamProducer, OutboundMailboxFactory mailboxFactory,
+                                Optional<HotwordAudioCapture> hotwordAudioCapture, Optional<AudioSpill> audioSpill) {
+        this.sessionRegistry = sessionRegistry;
+        this.audioDispatcher = audioDispatcher;
+        this.audioStreamProducer = audioStreamProducer;
+        this.mailboxFactory = mailboxFactory;
+        this.hotwordAudioCapture = hotwordAudioCapture.orElse(null);
+        this.audioSpill = audioSpill.orElse(null);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.sessions.active", sessionRegistry, SessionRegistry::size)
+                .description("연결 중인 WebSocket 세션 수")
+                .register(registry);
+        Gauge.builder("gateway.audio.dispatch.queue.depth", audioDispatcher, AudioDispatcher::getInFlightCount)
+                .description("디스패치 대기 + 발행 중 오디오 프레임 수")
+                .register(registry);
+        FunctionCounter.builder("gateway.audio.dispatch.dropped", audioDispatcher, AudioDispatcher::getDroppedFrameCount)
+                .description("대기 상한 초과로 버린 오디오 프레임 수")
+                .register(registry);
+        Gauge.builder("gateway.audio.coalesce.pending.sessions", audioStreamProducer, AudioStreamProducer::getPendingSessionCount)
+                .description("병합 버퍼에 프레임이 남아 있는 세션 수")
+                .register(registry);
+        Gauge.builder("gateway.audio.coalesce.max-bytes", audioStreamProducer, AudioStreamProducer::getCoalesceMaxBytes)
+                .description("현재 병합 크기 한도 (적응형 병합 시 변동)")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("gateway.audio.coalesce.max-delay", audioStreamProducer, p -> p.getCoalesceMaxDelayNanos() / 1e9)
+                .description("현재 병합 시간 한도 (적응형 병합 시 변동)")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("gateway.buffer.pool.pooled", audioDispatcher, d -> d.getFramePool().getPooledCount())
+                .tag("pool", "frame")
+                .register(registry);
+        Gauge.builder("gateway.buffer.pool.pooled", audioStreamProducer, p -> p.getRecordPool().getPooledCount())
+                .tag("pool", "record")
+                .register(registry);
+        FunctionCounter.builder("gateway.buffer.pool.allocated", audioDispatcher, d -> d.getFramePool().getAllocatedCount())
+                .tag("pool", "frame")
+                .description("풀에서 새로 할당한 버퍼 수 (계속 늘면 풀 크기 부족)")
+                .register(registry);
+        FunctionCounter.builder("gateway.buffer.pool.allocated", audioStreamProducer, p -> p.getRecordPool().getAllocatedCount())
+                .tag("pool", "record")
+                .description("풀에서 새로 할당한 버퍼 수 (계속 늘면 풀 크기 부족)")
+                .register(registry);
+        Gauge.builder("gateway.outbound.queued.bytes", mailboxFactory, OutboundMailboxFactory::getTotalQueuedBytes)
+                .description("모든 세션 송신 큐에 대기 중인 바이트")
+                .baseUnit("bytes")
+                .register(registry);
+        if (hotwordAudioCapture != null) {
+            Gauge.builder("gateway.capture.rings.free", hotwordAudioCapture, HotwordAudioCapture::getFreeSlotCount)
+                    .description("남은 hotword 캡처 링 슬롯 수")
+                    .register(registry);
+            FunctionCounter.builder("gateway.capture.sessions.rejected", hotwordAudioCapture, HotwordAudioCapture::getRejectedSessionCount)
+                    .description("링 슬롯 부족으로 캡처하지 못한 세션 수")
+                    .register(registry);
+        }
+        if (audioSpill != null) {
+            Gauge.builder("gateway.spill.disk.bytes", audioSpill, AudioSpill::getDiskBytes)
+                    .description("스필 세그먼트가 차지한 디스크 바이트")
+                    .baseUnit("bytes")
+                    .register(registry);
+            FunctionCounter.builder("gateway.spill.records", audioSpill, AudioSpill::getSpilledRecordCount)
+                    .tag("result", "spilled")
+                    .register(registry);
+            FunctionCounter.builder("gateway.spill.records", audioSpill, AudioSpill::getReplayedRecordCount)
+                    .tag("result", "replayed")
+                    .register(registry);
+            FunctionCounter.builder("gateway.spill.records", audioSpill, AudioSpill::getDroppedRecordCount)
+                    .tag("result", "dropped")
+                    .description("보존 기간 초과/기록 실패로 버린 스필 레코드 수")
+                    .register(registry);
+            FunctionCounter.builder("gateway.spill.segments.dropped", audioSpill, AudioSpill::getDroppedSegmentCount)
+                    .description("디스크 상한/보존 기간 초과로 재생 전에 지운 세그먼트 수")
+                    .register(registry);
+        }
+    }
+}
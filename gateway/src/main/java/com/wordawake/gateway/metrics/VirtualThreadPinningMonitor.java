@@ -0,0 +1,76 @@
+package com.wordawake.gateway.metrics;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 가상 스레드 pinning 감시 (spring.threads.virtual.enabled=true 일 때만).
+ * JFR jdk.VirtualThreadPinned 이벤트를 프로세스 안에서 구독해 gateway.vt.pinned 타이머에 기록하고 위치를 경고 로그로 남김.
+ *
+ * JDK 21 에서는 synchronized 블록/메서드 안에서 막히면 가상 스레드가 캐리어를 놓지 못함 → 캐리어 수(= 코어 수)만큼
+ * 고정되면 나머지 가상 스레드 전부가 멈춤. 알려진 경로(병합기 flush, 세션 송신)는 ReentrantLock/동시 전송 상한으로 막았고,
+ * 이 감시는 라이브러리 내부 등 남은 경로를 찾는 용도. 임계값(pinned-threshold-ms) 미만은 JFR 이 이벤트를 만들지 않음.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    /** 로그에 남길 스택 프레임 수 */
+    private static final int LOGGED_FRAMES = 5;
+
+    private final GatewayMetrics metrics;
+    private final RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+            GatewayMetrics metrics,
+            @Value("${app.virtual-threads.pinned-threshold-ms:20}") long thresholdMs) {
+        this.metrics = metrics;
+        this.stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("[VirtualThreadPinningMonitor] 시작 - threshold={}ms", thresholdMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        stream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        metrics.onVirtualThreadPinned(event.getDuration().toNanos());
+        log.warn("[VirtualThreadPinningMonitor] 가상 스레드 pinning - duration={}ms, thread={}, at={}",
+                event.getDuration().toMillis(),
+                event.getThread() == null ? "?" : event.getThread().getJavaName(),
+                topFrames(event.getStackTrace()));
+    }
+
+    private static String topFrames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "?";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(LOGGED_FRAMES, frames.size()); i++) {
+            RecordedFrame frame = frames.get(i);
+            if (i > 0) {
+                sb.append(" <- ");
+            }
+            sb.append(frame.getMethod().getType().getName()).append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber());
+        }
+        return sb.toString();
+    }
+}
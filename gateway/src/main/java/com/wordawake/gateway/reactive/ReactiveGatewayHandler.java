@@ -0,0 +1,141 @@
+package com.wordawake.gateway.reactive;
+
+import com.wordawake.gateway.message.MessageEncoding;
+import com.wordawake.gateway.websocket.GatewayHandler;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * reactive(Netty) 전송 모드의 WebSocket 핸들러 (reactive 프로필, spring.main.web-application-type=reactive).
+ * 연결 수립/수신/종료 처리는 servlet 모드와 같은 {@link GatewayHandler} 를 {@link ReactiveSessionBridge} 로 호출해 재사용
+ * (세션 등록, welcome, 디스패처/흐름 제어/캡처, hotword 전달 경로 모두 동일).
+ * 제어 메시지 인코딩 서브프로토콜도 servlet 모드와 같은 목록으로 협상 (수락 결과는 브리지의 getAcceptedProtocol).
+ *
+ * 수신 배압: session.receive() → publishOn(가상 스레드, prefetch = inbound-prefetch) → GatewayHandler → AudioDispatcher → Producer.
+ * 디스패처 lane 이 차서 막히거나(overflow-policy=BLOCK) 크레딧이 바닥나 기다리는 동안 publishOn 큐가 차면
+ * Netty 로 demand 가 가지 않아 그 연결의 소켓 읽기가 멈춤 → 클라이언트 TCP 윈도까지 배압이 이어짐.
+ * (servlet 모드는 읽기를 멈출 수 없어 수신 스레드를 붙잡는 방식)
+ * 처리는 가상 스레드에서 하므로 Netty 이벤트 루프는 블로킹 호출을 하지 않음.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveGatewayHandler implements WebSocketHandler {
+
+    private final GatewayHandler gatewayHandler;
+    private final int inboundPrefetch;
+    private final int outboundWindow;
+    private final long sendTimeoutMillis;
+    /** 수신 처리 스케줄러: 세션별 publishOn 워커가 직렬로 실행됨 (순서 유지) */
+    private final Scheduler inboundScheduler = Schedulers.fromExecutorService(
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-reactive-in-", 0).factory()), "ws-reactive-in");
+
+    public ReactiveGatewayHandler(
+            GatewayHandler gatewayHandler,
+            @Value("${app.reactive.inbound-prefetch:8}") int inboundPrefetch,
+            @Value("${app.reactive.outbound-window:64}") int outboundWindow,
+            @Value("${app.outbound.send-timeout-ms:10000}") long sendTimeoutMillis) {
+        this.gatewayHandler = gatewayHandler;
+        this.inboundPrefetch = inboundPrefetch;
+        this.outboundWindow = outboundWindow;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+    }
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        ReactiveSessionBridge bridge = new ReactiveSessionBridge(session, outboundWindow, sendTimeoutMillis);
+        Mono<Void> established = Mono.<Void>fromRunnable(() -> invoke(() -> gatewayHandler.afterConnectionEstablished(bridge)))
+                .subscribeOn(inboundScheduler);
+        Mono<Void> inbound = session.receive()
+                .map(WebSocketMessage::retain)
+                .publishOn(inboundScheduler, inboundPrefetch)
+                .doOnNext(message -> handleInbound(bridge, message))
+                .doOnDiscard(WebSocketMessage.class, message -> DataBufferUtils.release(message.getPayload()))
+                .then()
+                // 클라이언트가 끊으면 송신 스트림도 끝냄
+                .doFinally(signal -> bridge.terminate());
+        Mono<Void> outbound = session.send(bridge.outbound());
+        CloseStatus[] closeStatus = {CloseStatus.NORMAL};
+        return established
+                .then(Mono.when(inbound, outbound))
+                .onErrorResume(e -> {
+                    invoke(() -> gatewayHandler.handleTransportError(bridge, e));
+                    closeStatus[0] = CloseStatus.SERVER_ERROR;
+                    bridge.terminate();
+                    return Mono.empty();
+                })
+                .then(Mono.<Void>fromRunnable(() -> invoke(() -> gatewayHandler.afterConnectionClosed(bridge, closeStatus[0])))
+                        .subscribeOn(inboundScheduler));
+    }
+
+    @Override
+    public List<String> getSubProtocols() {
+        return MessageEncoding.SUBPROTOCOLS;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        inboundScheduler.dispose();
+    }
+
+    private void handleInbound(ReactiveSessionBridge bridge, WebSocketMessage message) {
+        DataBuffer payload = message.getPayload();
+        try {
+            switch (message.getType()) {
+                case TEXT -> gatewayHandler.handleMessage(bridge, new TextMessage(message.getPayloadAsText()));
+                case BINARY -> {
+                    // 보통 버퍼 하나 (Netty ByteBuf 를 복사 없이 감쌈). 디스패처가 풀 버퍼로 복사하므로 release 전까지만 유효하면 됨
+                    try (DataBuffer.ByteBufferIterator buffers = payload.readableByteBuffers()) {
+                        ByteBuffer first = buffers.next();
+                        gatewayHandler.handleMessage(bridge, new BinaryMessage(buffers.hasNext() ? copy(payload) : first));
+                    }
+                }
+                default -> {
+                    // ping/pong 은 Netty 가 처리
+                }
+            }
+        } catch (Exception e) {
+            throw Exceptions.propagate(e);
+        } finally {
+            DataBufferUtils.release(payload);
+        }
+    }
+
+    private static ByteBuffer copy(DataBuffer payload) {
+        ByteBuffer copy = ByteBuffer.allocate(payload.readableByteCount());
+        payload.toByteBuffer(payload.readPosition(), copy, 0, copy.capacity());
+        return copy;
+    }
+
+    private static void invoke(ThrowingRunnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
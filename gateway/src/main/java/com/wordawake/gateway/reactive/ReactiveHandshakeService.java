@@ -0,0 +1,72 @@
+package com.wordawake.gateway.reactive;
+
+import com.wordawake.gateway.utils.Constants;
+import com.wordawake.gateway.websocket.GatewayInterceptor;
+import com.wordawake.gateway.websocket.HandshakeAdmission;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.server.support.HandshakeWebSocketService;
+import org.springframework.web.reactive.socket.server.upgrade.ReactorNettyRequestUpgradeStrategy;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.server.WebsocketServerSpec;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * reactive 모드 핸드셰이크: servlet 모드의 GatewayInterceptor 와 같은 형식 협상 + 수락 제어
+ * ({@link GatewayInterceptor#negotiate}) 를 업그레이드 전에 수행. 거절하면 HTTP 상태로 응답하고 업그레이드하지 않음.
+ * 협상 결과(audioFormat, framed)는 exchange 속성 → 세션 속성으로 복사.
+ *
+ * 업그레이드 전략은 Reactor Netty 로 고정 (servlet 스타터 때문에 Tomcat 전략이 먼저 감지되는 것 방지).
+ */
+public class ReactiveHandshakeService extends HandshakeWebSocketService {
+
+    private static final Set<String> SESSION_ATTRIBUTES = Set.of(Constants.WS_ATTR_AUDIO_FORMAT, Constants.WS_ATTR_FRAMED);
+
+    /** null 이면 수락 제어 없음 */
+    private final HandshakeAdmission admission;
+
+    public ReactiveHandshakeService(HandshakeAdmission admission, int maxFramePayloadLength) {
+        super(new ReactorNettyRequestUpgradeStrategy(
+                () -> WebsocketServerSpec.builder().maxFramePayloadLength(maxFramePayloadLength)));
+        this.admission = admission;
+        setSessionAttributePredicate(SESSION_ATTRIBUTES::contains);
+    }
+
+    @Override
+    public Mono<Void> handleRequest(ServerWebExchange exchange, WebSocketHandler handler) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpStatus rejected = GatewayInterceptor.negotiate(
+                requested(request, Constants.WS_PARAM_AUDIO_FORMAT, Constants.WS_HEADER_AUDIO_FORMAT),
+                requested(request, Constants.WS_PARAM_FRAME_FORMAT, Constants.WS_HEADER_FRAME_FORMAT),
+                admission, exchange.getAttributes(), exchange.getResponse().getHeaders());
+        if (rejected != null) {
+            exchange.getResponse().setStatusCode(rejected);
+            return exchange.getResponse().setComplete();
+        }
+        if (admission == null) {
+            return super.handleRequest(exchange, handler);
+        }
+        // 업그레이드 결과 Mono 는 세션이 끝나야 완료되므로, 세션 시작(또는 업그레이드 실패) 시점에 진행 중 수를 줄임
+        AtomicBoolean done = new AtomicBoolean();
+        Runnable handshakeDone = () -> {
+            if (done.compareAndSet(false, true)) {
+                admission.onHandshakeDone();
+            }
+        };
+        return super.handleRequest(exchange, session -> {
+                    handshakeDone.run();
+                    return handler.handle(session);
+                })
+                .doFinally(signal -> handshakeDone.run());
+    }
+
+    /** 쿼리 파라미터 우선, 없으면 헤더 */
+    private static String requested(ServerHttpRequest request, String paramName, String headerName) {
+        String param = request.getQueryParams().getFirst(paramName);
+        return param != null ? param : request.getHeaders().getFirst(headerName);
+    }
+}
@@ -0,0 +1,201 @@
+package com.wordawake.gateway.reactive;
+
+import com.wordawake.gateway.session.PreEncodedTextMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.AlternativeJdkIdGenerator;
+import org.springframework.util.IdGenerator;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.PongMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * reactive WebSocket 세션을 servlet 쪽 {@link org.springframework.web.socket.WebSocketSession} 으로 보이게 하는 어댑터.
+ * GatewayHandler / SessionService / OutboundMailbox 를 그대로 재사용하기 위함.
+ *
+ * - sendMessage: 메일박스 writer(가상 스레드)가 호출. 송신 창(outbound-window)만큼만 transport 앞에 쌓고,
+ *   창이 차면 transport 가 가져갈 때까지 writer 를 막음 → 메일박스의 전송 타임아웃/바이트 예산이 servlet 과 같게 동작
+ * - close: reactive 세션 close 구독 (I/O 는 Netty 이벤트 루프에서)
+ * - PreEncodedTextMessage(hotword 이벤트 JSON 바이트)는 디코딩 없이 그대로 텍스트 프레임으로
+ * - getId: servlet 세션(StandardWebSocketSession)과 같은 UUID 문자열 (reactive 세션 id 는 요청 로그 접두어 형식이라 쓰지 않음).
+ *   audio-stream key 형식 uuid16 이 두 모드에서 같게 16바이트가 되도록
+ * 송신 메시지는 {@link #outbound()} 로 reactive 세션 send 에 연결.
+ */
+@Slf4j
+final class ReactiveSessionBridge implements org.springframework.web.socket.WebSocketSession, PreEncodedTextMessage.DirectWrite {
+
+    private static final IdGenerator ID_GENERATOR = new AlternativeJdkIdGenerator();
+
+    private final String id = ID_GENERATOR.generateId().toString();
+    private final WebSocketSession session;
+    private final Sinks.Many<WebSocketMessage<?>> outbound = Sinks.many().unicast().onBackpressureBuffer();
+    /** transport 가 아직 가져가지 않은 송신 메시지 수 상한 */
+    private final Semaphore window;
+    private final long sendTimeoutMillis;
+    private volatile boolean closed;
+
+    ReactiveSessionBridge(WebSocketSession session, int outboundWindow, long sendTimeoutMillis) {
+        this.session = session;
+        this.window = new Semaphore(outboundWindow);
+        this.sendTimeoutMillis = sendTimeoutMillis;
+    }
+
+    /** reactive 세션으로 보낼 메시지 스트림 (session.send 에 넘김, 한 번만 구독 가능) */
+    Flux<org.springframework.web.reactive.socket.WebSocketMessage> outbound() {
+        return outbound.asFlux()
+                .map(message -> toReactive(session, message))
+                .doOnNext(message -> window.release());
+    }
+
+    /** 연결 종료 (reactive 쪽에서 끊긴 경우 포함). 막혀 있는 writer 를 깨움 */
+    synchronized void terminate() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        outbound.tryEmitComplete();
+        window.release(Integer.MAX_VALUE / 2);
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        try {
+            if (!window.tryAcquire(sendTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IOException("outbound window full - sessionId=" + id);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        }
+        if (closed) {
+            throw new IOException("session closed - sessionId=" + id);
+        }
+        // 메일박스가 세션당 단일 writer 를 보장하므로 동시 emit 없음
+        Sinks.EmitResult result = outbound.tryEmitNext(message);
+        if (result.isFailure()) {
+            throw new IOException("outbound emit failed - sessionId=" + id + ", result=" + result);
+        }
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public URI getUri() {
+        return session.getHandshakeInfo().getUri();
+    }
+
+    @Override
+    public HttpHeaders getHandshakeHeaders() {
+        return session.getHandshakeInfo().getHeaders();
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return session.getAttributes();
+    }
+
+    @Override
+    public Principal getPrincipal() {
+        // 인증 미사용 (servlet 쪽도 Principal 없음)
+        return null;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return null;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return session.getHandshakeInfo().getRemoteAddress();
+    }
+
+    @Override
+    public String getAcceptedProtocol() {
+        return session.getHandshakeInfo().getSubProtocol();
+    }
+
+    @Override
+    public void setTextMessageSizeLimit(int messageSizeLimit) {
+        // 프레임 크기 상한은 Netty 서버 설정(spring.netty / websocket server spec)에서 지정
+    }
+
+    @Override
+    public int getTextMessageSizeLimit() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+    }
+
+    @Override
+    public int getBinaryMessageSizeLimit() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public List<WebSocketExtension> getExtensions() {
+        return List.of();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed && session.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        close(CloseStatus.NORMAL);
+    }
+
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        session.close(new org.springframework.web.reactive.socket.CloseStatus(status.getCode(), status.getReason()))
+                .subscribe(null, e -> log.debug("[ReactiveGateway] 세션 종료 실패 - sessionId={}", id, e));
+    }
+
+    private static org.springframework.web.reactive.socket.WebSocketMessage toReactive(WebSocketSession target,
+                                                                                      WebSocketMessage<?> message) {
+        if (message instanceof TextMessage text) {
+            return target.textMessage(text.getPayload());
+        }
+        if (message instanceof PreEncodedTextMessage preEncoded) {
+            // 이미 UTF-8 → 디코딩/재인코딩 없이 감싸기만
+            return new org.springframework.web.reactive.socket.WebSocketMessage(
+                    org.springframework.web.reactive.socket.WebSocketMessage.Type.TEXT,
+                    target.bufferFactory().wrap(preEncoded.getPayload()));
+        }
+        ByteBuffer payload = ((ByteBuffer) message.getPayload()).duplicate();
+        if (message instanceof BinaryMessage) {
+            return target.binaryMessage(factory -> factory.wrap(payload));
+        }
+        if (message instanceof PingMessage) {
+            return target.pingMessage(factory -> factory.wrap(payload));
+        }
+        if (message instanceof PongMessage) {
+            return target.pongMessage(factory -> factory.wrap(payload));
+        }
+        throw new IllegalArgumentException("unsupported message type: " + message.getClass().getName());
+    }
+}
@@ -0,0 +1,154 @@
+package com.wordawake.gateway.routing;
+
+import com.wordawake.gateway.kafka.HotwordEventConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 공용 hotword-events → 세션 소유 노드의 inbox 토픽(hotword-events.{nodeId}) 라우터 (라우팅 모드 전용).
+ * 모든 게이트웨이 노드가 같은 router consumer group 으로 공용 토픽을 나눠 읽고,
+ * SessionDirectory 로 소유 노드를 찾아 그 노드의 inbox 로만 넘김 → 각 노드는 자기 세션 이벤트만 소비.
+ *
+ * - 소유 노드가 자기 자신이면 inbox 를 거치지 않고 바로 전달 (Kafka 왕복 1회 절약).
+ *   inbox 소비와 같은 HotwordEventConsumer.deliver 를 써서 종단 지연 기록/hotword 캡처도 그대로 적용
+ * - 로컬 전달은 배치의 inbox 발행이 모두 완료된 뒤에만. 발행이 실패하면 로컬 전달 없이 예외 → 배치 재처리 시
+ *   로컬 클라이언트가 같은 이벤트를 두 번 받지 않음 (재발행되는 inbox 이벤트는 at-least-once)
+ * - 이미 끊긴 세션(SessionDirectory.isReleased)의 이벤트는 기다리지 않고 바로 버림 (끊긴 뒤 도착하는 이벤트는 흔함)
+ * - 디렉터리가 본 적 없는 세션이면 바로 버리지 않고 unknownOwnerWait 동안 다시 조회 (다른 노드의 claim 이 아직 디렉터리에 안 들어온 경우).
+ *   디렉터리가 재적재 중(재기동 직후)이면 적재가 끝날 때까지 directoryLoadWait 한도로 더 기다림.
+ *   그래도 모르면 이미 끊긴 세션으로 보고 버리고 경고
+ * - 넘긴 레코드의 발행 완료를 기다린 뒤 반환 → offset 커밋은 전달 후 (at-least-once)
+ * - value 는 byte[] 그대로 넘김 (헤더 포함, 라우터는 이벤트 JSON 을 디코딩하지 않음)
+ * Hotword 서비스가 디렉터리 토픽을 직접 읽을 수 있으면 inbox 토픽에 바로 발행해 라우터를 건너뛸 수 있음.
+ */
+@Slf4j
+public class HotwordEventRouter {
+
+    /** 소유 노드를 다시 조회하는 간격 */
+    private static final long RETRY_INTERVAL_MS = 20;
+
+    private final String nodeId;
+    private final SessionDirectory sessionDirectory;
+    private final HotwordEventConsumer hotwordEventConsumer;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final String inboxTopicPrefix;
+    private final long unknownOwnerWaitMs;
+    private final long directoryLoadWaitMs;
+
+    public HotwordEventRouter(String nodeId, SessionDirectory sessionDirectory, HotwordEventConsumer hotwordEventConsumer,
+                              KafkaTemplate<String, byte[]> kafkaTemplate, String inboxTopicPrefix,
+                              long unknownOwnerWaitMs, long directoryLoadWaitMs) {
+        this.nodeId = nodeId;
+        this.sessionDirectory = sessionDirectory;
+        this.hotwordEventConsumer = hotwordEventConsumer;
+        this.kafkaTemplate = kafkaTemplate;
+        this.inboxTopicPrefix = inboxTopicPrefix;
+        this.unknownOwnerWaitMs = unknownOwnerWaitMs;
+        this.directoryLoadWaitMs = directoryLoadWaitMs;
+    }
+
+    @KafkaListener(topics = "${app.kafka.topic.hotword-events:hotword-events}",
+            groupId = "${app.routing.router-group-id:gateway-hotword-router}",
+            containerFactory = "hotwordBatchListenerContainerFactory",
+            concurrency = "${app.kafka.hotword-events.concurrency:1}")
+    public void route(List<ConsumerRecord<String, byte[]>> records) throws InterruptedException {
+        List<ConsumerRecord<String, byte[]>> local = new ArrayList<>();
+        List<CompletableFuture<SendResult<String, byte[]>>> forwards = new ArrayList<>();
+        List<ConsumerRecord<String, byte[]>> unknown = new ArrayList<>();
+        // 한 번 보류한 세션의 뒤 이벤트도 보류 (세션 내 순서 유지)
+        Set<String> unknownKeys = new HashSet<>();
+        int released = 0;
+        for (ConsumerRecord<String, byte[]> record : records) {
+            if (record.key() == null) {
+                continue;
+            }
+            if (unknownKeys.contains(record.key()) || !dispatch(record, local, forwards)) {
+                if (sessionDirectory.isReleased(record.key())) {
+                    released++;
+                } else {
+                    unknown.add(record);
+                    unknownKeys.add(record.key());
+                }
+            }
+        }
+        if (!unknown.isEmpty()) {
+            released += awaitOwners(unknown, local, forwards);
+        }
+        // 전달 실패 시 예외 → 로컬 전달 전에 배치 재처리
+        if (!forwards.isEmpty()) {
+            CompletableFuture.allOf(forwards.toArray(new CompletableFuture[0])).join();
+        }
+        if (!local.isEmpty()) {
+            hotwordEventConsumer.deliver(local);
+        }
+        if (released > 0) {
+            log.debug("[HotwordEventRouter] 끊긴 세션 이벤트 버림 - dropped={}", released);
+        }
+        if (!unknown.isEmpty()) {
+            log.warn("[HotwordEventRouter] 소유 노드 없음(미등록) - dropped={}", unknown.size());
+        }
+        log.debug("[HotwordEventRouter] 라우팅 - records={}, local={}, forwarded={}", records.size(), local.size(), forwards.size());
+    }
+
+    /**
+     * 소유 노드를 모르는 레코드를 다시 조회. 찾은 레코드는 unknown 에서 빼서 전달 목록으로 옮기고,
+     * 그 사이 끊긴 세션 레코드는 버림. unknownOwnerWait 가 지나도, 디렉터리가 적재 중이면 directoryLoadWait 까지 계속 기다림
+     *
+     * @return 끊긴 세션이라 버린 레코드 수
+     */
+    private int awaitOwners(List<ConsumerRecord<String, byte[]>> unknown, List<ConsumerRecord<String, byte[]>> local,
+                             List<CompletableFuture<SendResult<String, byte[]>>> forwards) throws InterruptedException {
+        int released = 0;
+        long start = System.nanoTime();
+        long ownerDeadline = start + TimeUnit.MILLISECONDS.toNanos(unknownOwnerWaitMs);
+        long loadDeadline = start + TimeUnit.MILLISECONDS.toNanos(Math.max(unknownOwnerWaitMs, directoryLoadWaitMs));
+        while (!unknown.isEmpty()) {
+            long now = System.nanoTime();
+            boolean loading = !sessionDirectory.isLoaded();
+            if (now - ownerDeadline >= 0 && (!loading || now - loadDeadline >= 0)) {
+                if (loading) {
+                    log.warn("[HotwordEventRouter] 디렉터리 적재 대기 초과 - waitMs={}", directoryLoadWaitMs);
+                }
+                break;
+            }
+            Thread.sleep(RETRY_INTERVAL_MS);
+            unknown.removeIf(record -> dispatch(record, local, forwards));
+            int waiting = unknown.size();
+            unknown.removeIf(record -> sessionDirectory.isReleased(record.key()));
+            released += waiting - unknown.size();
+        }
+        return released;
+    }
+
+    /** 소유 노드가 자기 자신이면 local 에 추가, 다른 노드면 inbox 로 발행. 모르면 false */
+    private boolean dispatch(ConsumerRecord<String, byte[]> record, List<ConsumerRecord<String, byte[]>> local,
+                             List<CompletableFuture<SendResult<String, byte[]>>> forwards) {
+        String owner = sessionDirectory.ownerOf(record.key());
+        if (owner == null) {
+            return false;
+        }
+        if (owner.equals(nodeId)) {
+            local.add(record);
+        } else {
+            forwards.add(kafkaTemplate.send(new ProducerRecord<>(
+                    inboxTopicOf(inboxTopicPrefix, owner), null, record.key(), record.value(), record.headers())));
+        }
+        return true;
+    }
+
+    /** 노드별 inbox 토픽 이름 */
+    public static String inboxTopicOf(String prefix, String nodeId) {
+        return prefix + "." + nodeId;
+    }
+}
@@ -0,0 +1,32 @@
+package com.wordawake.gateway.routing;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 프로세스 내부 디렉터리 (테스트용. 단일 노드 기본값은 {@link NoopSessionDirectory}).
+ * 이 노드가 claim 한 세션만 알고 있으므로 ownerOf 는 자기 노드 또는 null.
+ */
+public class InMemorySessionDirectory implements SessionDirectory {
+
+    private final String nodeId;
+    private final ConcurrentHashMap<String, String> owners = new ConcurrentHashMap<>();
+
+    public InMemorySessionDirectory(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public void claim(String sessionId) {
+        owners.put(sessionId, nodeId);
+    }
+
+    @Override
+    public void release(String sessionId) {
+        owners.remove(sessionId, nodeId);
+    }
+
+    @Override
+    public String ownerOf(String sessionId) {
+        return owners.get(sessionId);
+    }
+}
@@ -0,0 +1,169 @@
+package com.wordawake.gateway.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compacted 토픽 기반 세션 디렉터리.
+ * - claim: (key = sessionId, value = nodeId) 발행, release: 같은 key 로 tombstone(value null) 발행
+ * - 모든 노드가 토픽 전체를 처음부터 읽어 로컬 맵을 유지 (노드별 consumer group, 기동 시 seekToBeginning)
+ * - compaction 으로 토픽에는 살아 있는 세션의 마지막 소유자만 남음
+ * - release/tombstone 을 본 sessionId 는 releasedTtl 동안 기억 → 끊긴 뒤 도착한 이벤트는 라우터가 기다리지 않고 바로 버림.
+ *   tombstone 은 레코드 timestamp 기준이라 재적재 때 읽은 오래된 tombstone 은 바로 만료
+ * - 재적재 진행: 파티션 배정 시 각 파티션 끝 offset 을 조회해 두고, 모든 파티션을 그 offset 까지 읽으면 isLoaded.
+ *   그 전까지 ownerOf 의 null 은 '아직 모름' (HotwordEventRouter 가 이벤트를 버리지 않고 기다림)
+ *
+ * sessionId 는 연결마다 새로 만들어지므로 (노드 간 이동 없음) claim/release 순서 경합은 생기지 않음.
+ */
+@Slf4j
+public class KafkaSessionDirectory implements SessionDirectory, ConsumerSeekAware {
+
+    private final String nodeId;
+    private final String topic;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final String bootstrapServers;
+    private final ConcurrentHashMap<String, String> owners = new ConcurrentHashMap<>();
+    /** 재적재 중인 파티션 → 다 읽었다고 볼 offset (끝 offset). 비면 적재 완료 */
+    private final ConcurrentHashMap<TopicPartition, Long> loading = new ConcurrentHashMap<>();
+    private volatile boolean assigned;
+    /** 끊긴 세션 → 끊긴 시각 (epoch ms) */
+    private final ConcurrentHashMap<String, Long> released = new ConcurrentHashMap<>();
+    private final long releasedTtlMillis;
+    private volatile long lastPurgeMillis;
+
+    public KafkaSessionDirectory(String nodeId, String topic, KafkaTemplate<String, String> kafkaTemplate,
+                                 String bootstrapServers, long releasedTtlMillis) {
+        this.nodeId = nodeId;
+        this.topic = topic;
+        this.kafkaTemplate = kafkaTemplate;
+        this.bootstrapServers = bootstrapServers;
+        this.releasedTtlMillis = releasedTtlMillis;
+    }
+
+    @Override
+    public void claim(String sessionId) {
+        // 자기 노드 세션은 토픽 왕복을 기다리지 않고 바로 반영
+        owners.put(sessionId, nodeId);
+        kafkaTemplate.send(topic, sessionId, nodeId);
+    }
+
+    @Override
+    public void release(String sessionId) {
+        if (owners.remove(sessionId, nodeId)) {
+            markReleased(sessionId, System.currentTimeMillis());
+            kafkaTemplate.send(topic, sessionId, null);
+        }
+    }
+
+    @Override
+    public String ownerOf(String sessionId) {
+        return owners.get(sessionId);
+    }
+
+    @Override
+    public boolean isReleased(String sessionId) {
+        Long releasedAt = released.get(sessionId);
+        return releasedAt != null && System.currentTimeMillis() - releasedAt < releasedTtlMillis;
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return assigned && loading.isEmpty();
+    }
+
+    @KafkaListener(topics = "${app.routing.directory-topic:session-directory}",
+            groupId = "gateway-directory-#{@gatewayNodeId}")
+    public void onDirectoryRecord(ConsumerRecord<String, String> record) {
+        if (record.key() != null) {
+            if (record.value() == null) {
+                owners.remove(record.key());
+                markReleased(record.key(), record.timestamp());
+            } else {
+                owners.put(record.key(), record.value());
+            }
+        }
+        // key 없는 레코드도 재적재 진행에는 포함
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        Long end = loading.get(partition);
+        if (end != null && record.offset() + 1 >= end && loading.remove(partition, end) && loading.isEmpty()) {
+            log.debug("[KafkaSessionDirectory] 디렉터리 재적재 완료 - nodeId={}, sessions={}", nodeId, owners.size());
+        }
+    }
+
+    /** 끊긴 세션 기록. releasedTtl 마다 한 번 만료된 항목 정리 */
+    private void markReleased(String sessionId, long releasedAt) {
+        long now = System.currentTimeMillis();
+        if (now - releasedAt < releasedTtlMillis) {
+            released.put(sessionId, releasedAt);
+        }
+        if (now - lastPurgeMillis >= releasedTtlMillis) {
+            lastPurgeMillis = now;
+            released.values().removeIf(at -> now - at >= releasedTtlMillis);
+        }
+    }
+
+    /** 노드 재기동 시 로컬 맵이 비어 있으므로 항상 토픽 처음부터 다시 읽음 */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        loading.putAll(endOffsetsToLoad(assignments.keySet()));
+        assigned = true;
+        callback.seekToBeginning(assignments.keySet());
+        log.debug("[KafkaSessionDirectory] 디렉터리 재적재 - nodeId={}, partitions={}, loading={}",
+                nodeId, assignments.keySet(), loading.keySet());
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        partitions.forEach(loading::remove);
+    }
+
+    /**
+     * 비어 있지 않은 파티션의 끝 offset. 조회에 실패하면 적재 완료로 간주 (라우터가 무한히 기다리지 않도록,
+     * 이 경우 재적재 중 들어온 다른 노드 세션 이벤트는 라우터의 소유 노드 대기 시간까지만 기다림)
+     */
+    private Map<TopicPartition, Long> endOffsetsToLoad(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, Long> toLoad = new HashMap<>();
+        if (partitions.isEmpty()) {
+            return toLoad;
+        }
+        Map<TopicPartition, OffsetSpec> earliest = new HashMap<>();
+        Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            earliest.put(partition, OffsetSpec.earliest());
+            latest.put(partition, OffsetSpec.latest());
+        }
+        try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers))) {
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> begin =
+                    admin.listOffsets(earliest).all().get(10, TimeUnit.SECONDS);
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> end =
+                    admin.listOffsets(latest).all().get(10, TimeUnit.SECONDS);
+            for (TopicPartition partition : partitions) {
+                long endOffset = end.get(partition).offset();
+                if (endOffset > begin.get(partition).offset()) {
+                    toLoad.put(partition, endOffset);
+                }
+            }
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.warn("[KafkaSessionDirectory] 끝 offset 조회 실패, 적재 완료로 간주 - nodeId={}, 이유={}", nodeId, e.getMessage());
+            toLoad.clear();
+        }
+        return toLoad;
+    }
+}
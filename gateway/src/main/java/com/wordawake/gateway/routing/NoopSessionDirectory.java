@@ -0,0 +1,22 @@
+package com.wordawake.gateway.routing;
+
+/**
+ * 단일 노드(app.routing.enabled=false) 기본 디렉터리. 아무것도 기록하지 않음.
+ * 라우팅을 하지 않으면 ownerOf 를 읽는 곳(HotwordEventRouter)이 없으므로,
+ * 세션마다 SessionRegistry 와 별도 맵을 하나 더 유지할 이유가 없음.
+ */
+public class NoopSessionDirectory implements SessionDirectory {
+
+    @Override
+    public void claim(String sessionId) {
+    }
+
+    @Override
+    public void release(String sessionId) {
+    }
+
+    @Override
+    public String ownerOf(String sessionId) {
+        return null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.wordawake.gateway.routing;
+
+/**
+ * sessionId → 세션을 가진 게이트웨이 노드(nodeId) 디렉터리.
+ * 여러 게이트웨이 인스턴스가 떠 있을 때 hotword 결과를 세션 소유 노드로 바로 보내기 위해 사용.
+ *
+ * - claim: 이 노드에 세션이 연결됨 (연결 직후)
+ * - release: 이 노드에서 세션이 끊김 (연결 종료 시)
+ * - ownerOf: 세션을 가진 노드. 모르면 null
+ * - isReleased: 최근에 끊긴 세션 (ownerOf 는 null 이지만 '아직 모름'이 아니라 '이미 없음')
+ * - isLoaded: 기동 시 다른 노드의 세션까지 다 읽었는지. false 인 동안 ownerOf 의 null 은 '아직 모름'
+ */
+public interface SessionDirectory {
+
+    void claim(String sessionId);
+
+    void release(String sessionId);
+
+    String ownerOf(String sessionId);
+
+    default boolean isReleased(String sessionId) {
+        return false;
+    }
+
+    default boolean isLoaded() {
+        return true;
+    }
+}
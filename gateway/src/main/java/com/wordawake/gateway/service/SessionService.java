@@ -1,41 +1,52 @@
 package com.wordawake.gateway.service;
 
+import com.wordawake.gateway.message.GatewayMessage;
+import com.wordawake.gateway.routing.SessionDirectory;
+import com.wordawake.gateway.session.OutboundMailbox;
+import com.wordawake.gateway.session.SessionEntry;
+import com.wordawake.gateway.session.SessionRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 
-import java.io.IOException;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 /**
  * WebSocket 세션 보관소.
  * - Hotword 감지 결과를 "어느 클라이언트에게 보낼지" 알기 위해 sessionId → WebSocketSession 매핑 유지
  * - 연결 시 등록, 종료 시 해제
+ * - 실제 저장은 SessionRegistry(단일 원본)에 위임. 하트비트(GatewaySessionManager)도 같은 레지스트리를 봄
+ * - 등록/해제를 SessionDirectory 에도 알려, 다중 노드 구성에서 hotword 결과가 이 노드로 라우팅되게 함
  */
 @Slf4j
 @Service
 public class SessionService {
 
-    /** sessionId(WebSocketSession.getId()) → WebSocketSession */
-    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final SessionRegistry sessionRegistry;
+    private final SessionDirectory sessionDirectory;
+
+    public SessionService(SessionRegistry sessionRegistry, SessionDirectory sessionDirectory) {
+        this.sessionRegistry = sessionRegistry;
+        this.sessionDirectory = sessionDirectory;
+    }
 
     /**
      * 연결 직후 호출. 세션을 저장해 두어 나중에 Hotword 결과를 해당 클라이언트에게 전달할 수 있게 함.
      */
     public void register(String sessionId, WebSocketSession session) {
-        sessions.put(sessionId, session);
-        log.debug("[SessionService] 세션 등록 - sessionId={}, 현재 수={}", sessionId, sessions.size());
+        sessionRegistry.register(sessionId, session);
+        sessionDirectory.claim(sessionId);
+        log.debug("[SessionService] 세션 등록 - sessionId={}, 현재 수={}", sessionId, sessionRegistry.size());
     }
 
     /**
      * 연결 종료 시 호출. 보관 중이던 세션 제거.
      */
     public void unregister(String sessionId) {
-        WebSocketSession removed = sessions.remove(sessionId);
+        SessionEntry removed = sessionRegistry.remove(sessionId);
+        sessionDirectory.release(sessionId);
         if (removed != null) {
-            log.debug("[SessionService] 세션 해제 - sessionId={}, 현재 수={}", sessionId, sessions.size());
+            log.debug("[SessionService] 세션 해제 - sessionId={}, 현재 수={}", sessionId, sessionRegistry.size());
         }
     }
 
@@ -43,31 +54,64 @@ public class SessionService {
      * sessionId에 해당하는 WebSocketSession 조회. 없으면 null.
      */
     public WebSocketSession get(String sessionId) {
-        return sessions.get(sessionId);
+        SessionEntry entry = sessionRegistry.get(sessionId);
+        return entry == null ? null : entry.getSession();
     }
 
     /**
      * 해당 sessionId의 클라이언트에게 텍스트 메시지 전송.
      * 세션이 없거나 이미 닫혀 있으면 전송하지 않고 false 반환.
+     * 실제 전송은 세션 송신 큐(OutboundMailbox)의 writer 가 수행하므로 호출 스레드는 클라이언트 I/O 를 기다리지 않음.
      *
-     * @return 전송 성공 여부
+     * @return 송신 큐 적재 성공 여부
      */
     public boolean sendToSession(String sessionId, String text) {
-        WebSocketSession session = sessions.get(sessionId);
-        if (session == null) {
+        return sendToSession(sessionId, new TextMessage(text));
+    }
+
+    /**
+     * 해당 sessionId의 클라이언트에게 메시지(텍스트/바이너리) 전송. 동작은 {@link #sendToSession(String, String)} 과 같음.
+     */
+    public boolean sendToSession(String sessionId, WebSocketMessage<?> message) {
+        return sendToSession(sessionId, message, 0);
+    }
+
+    /**
+     * originNanos(System.nanoTime 기준) 부터 클라이언트 전송 완료까지 지연을 계측하며 전송. 0 이면 계측 안 함.
+     */
+    public boolean sendToSession(String sessionId, WebSocketMessage<?> message, long originNanos) {
+        SessionEntry entry = openEntry(sessionId);
+        return entry != null && offer(entry, message, originNanos);
+    }
+
+    /**
+     * 제어 메시지(welcome/크레딧) 전송. 세션이 핸드셰이크에서 고른 인코딩(JSON 텍스트 / CBOR 바이너리)으로 인코딩.
+     */
+    public boolean sendToSession(String sessionId, GatewayMessage message) {
+        SessionEntry entry = openEntry(sessionId);
+        return entry != null && offer(entry, entry.getEncoding().encode(message), 0);
+    }
+
+    /** 열린 세션 항목. 없거나 이미 닫혔으면 null (닫힌 세션은 레지스트리에서 정리) */
+    private SessionEntry openEntry(String sessionId) {
+        SessionEntry entry = sessionRegistry.get(sessionId);
+        if (entry == null) {
             log.warn("[SessionService] 세션 없음 - sessionId={}", sessionId);
-            return false;
+            return null;
         }
-        if (!session.isOpen()) {
+        if (!entry.isOpen()) {
             log.warn("[SessionService] 세션 이미 닫힘 - sessionId={}", sessionId);
-            return false;
+            sessionRegistry.remove(sessionId);
+            return null;
         }
-        try {
-            session.sendMessage(new TextMessage(text));
-            return true;
-        } catch (IOException e) {
-            log.error("[SessionService] 메시지 전송 실패 - sessionId={}", sessionId, e);
-            return false;
+        return entry;
+    }
+
+    private boolean offer(SessionEntry entry, WebSocketMessage<?> message, long originNanos) {
+        OutboundMailbox.OfferResult result = entry.getOutbound().offer(message, originNanos);
+        if (result != OutboundMailbox.OfferResult.QUEUED) {
+            log.warn("[SessionService] 송신 큐 적재 실패 - sessionId={}, result={}", entry.getId(), result);
         }
+        return result != OutboundMailbox.OfferResult.CLOSED;
     }
 }
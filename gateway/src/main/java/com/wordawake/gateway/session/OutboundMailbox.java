@@ -0,0 +1,348 @@
+package com.wordawake.gateway.session;
+
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 세션별 송신 큐 (단일 writer).
+ * Kafka 리스너, 하트비트, 연결 처리 등 여러 스레드가 offer 로 메시지를 넣고,
+ * 세션당 하나의 writer 작업만 WebSocketSession.sendMessage 를 호출 → 동시 쓰기 충돌 없음.
+ * offer 는 클라이언트 네트워크 I/O 를 기다리지 않음.
+ *
+ * - 바이트 예산: 대기 중 메시지 payload 합계가 maxQueuedBytes 를 넘으면 {@link OverflowPolicy} 적용
+ * - 전송 타임아웃: sendMessage 직전(동시 전송 허가를 받은 뒤)에 watchdog 에 sendTimeout 뒤 확인 작업을 예약.
+ *   그때까지 같은 전송이 끝나지 않았으면 세션을 닫고 멈춘 writer 를 인터럽트 → 송신 트래픽이 없어도 제시간에 감지,
+ *   허가를 기다리는 정상 세션은 타임아웃 대상이 아님
+ * - originNanos 가 있는 메시지(hotword 이벤트)는 전송 완료 시 origin → 전송 지연을 GatewayMetrics 에 기록
+ * - {@link PreEncodedTextMessage} 는 세션이 바이트를 그대로 못 쓰면(servlet) 전송 직전에 TextMessage 로 바꿈
+ *   (offer 하는 Kafka 리스너 스레드가 아니라 writer 가 디코딩)
+ * - 동시 전송 상한(writePermits, 팩토리 공용): 컨테이너 내부 synchronized 안에서 막히는 블로킹 쓰기는
+ *   가상 스레드의 캐리어까지 붙잡으므로(pinning), 동시에 전송 중인 writer 수를 캐리어 수보다 작게 제한.
+ *   허가 없이 전송하는 경우는 없음: 허가를 기다리는 동안 메시지는 큐에 남아 예산/초과 정책 대상이 되고,
+ *   writer 는 permitWait 마다 메일박스가 닫혔는지 확인하며 다시 기다림.
+ *   허가를 쥔 채 멈춘 전송은 전송 타임아웃으로 세션을 닫아 정리
+ */
+@Slf4j
+public final class OutboundMailbox {
+
+    /** 바이트 예산 초과 시 동작 */
+    public enum OverflowPolicy {
+        /** 새 메시지를 버림 */
+        DROP_NEWEST,
+        /** 대기 중인 가장 오래된 메시지부터 버림 */
+        DROP_OLDEST,
+        /** 세션 종료 */
+        CLOSE_SESSION
+    }
+
+    /** offer 결과 */
+    public enum OfferResult {
+        QUEUED,
+        DROPPED,
+        /** 메일박스가 닫혀 있거나 이번 offer 로 닫힘 */
+        CLOSED
+    }
+
+    private final WebSocketSession session;
+    private final Executor writer;
+    /** 전송 타임아웃 확인용 (팩토리 공용) */
+    private final ScheduledExecutorService watchdog;
+    private final long maxQueuedBytes;
+    private final long sendTimeoutNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final GatewayMetrics metrics;
+    /** 모든 메일박스 대기 바이트 합계 (팩토리 공용, 모니터링용) */
+    private final LongAdder totalQueuedBytes;
+    /** null 이면 동시 전송 제한 없음 */
+    private final Semaphore writePermits;
+    private final long permitWaitNanos;
+
+    private final ArrayDeque<Pending> queue = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long queuedBytes;
+    private boolean writing;
+    /** sendMessage 호출 중 (허가 대기 중에는 false) */
+    private boolean sending;
+    /** 전송마다 증가. watchdog 작업이 자기가 예약된 전송인지 구분 */
+    private long sendSeq;
+    private Thread sendingThread;
+    private ScheduledFuture<?> sendTimeoutTask;
+    private boolean closed;
+
+    OutboundMailbox(WebSocketSession session, Executor writer, ScheduledExecutorService watchdog, long maxQueuedBytes,
+                    long sendTimeoutNanos, OverflowPolicy overflowPolicy,
+                    GatewayMetrics metrics, LongAdder totalQueuedBytes, Semaphore writePermits, long permitWaitNanos) {
+        this.session = session;
+        this.writer = writer;
+        this.watchdog = watchdog;
+        this.maxQueuedBytes = maxQueuedBytes;
+        this.sendTimeoutNanos = sendTimeoutNanos;
+        this.overflowPolicy = overflowPolicy;
+        this.metrics = metrics;
+        this.totalQueuedBytes = totalQueuedBytes;
+        this.writePermits = writePermits;
+        this.permitWaitNanos = permitWaitNanos;
+    }
+
+    /**
+     * 메시지를 큐에 넣음. 클라이언트 I/O 를 기다리지 않고 바로 반환.
+     */
+    public OfferResult offer(WebSocketMessage<?> message) {
+        return offer(message, 0);
+    }
+
+    /**
+     * 메시지를 큐에 넣음. originNanos(System.nanoTime 기준, 0 이면 미기록)부터 전송 완료까지 지연을 계측.
+     */
+    public OfferResult offer(WebSocketMessage<?> message, long originNanos) {
+        // TextMessage 는 getPayloadLength 마다 UTF-8 인코딩을 하므로 크기는 한 번만 계산해 보관
+        int size = message.getPayloadLength();
+        lock.lock();
+        try {
+            if (closed) {
+                return OfferResult.CLOSED;
+            }
+            OfferResult result = OfferResult.QUEUED;
+            while (!queue.isEmpty() && queuedBytes + size > maxQueuedBytes) {
+                switch (overflowPolicy) {
+                    case DROP_NEWEST -> {
+                        return OfferResult.DROPPED;
+                    }
+                    case DROP_OLDEST -> {
+                        dequeued(queue.pollFirst().size);
+                        result = OfferResult.DROPPED;
+                    }
+                    case CLOSE_SESSION -> {
+                        log.warn("[OutboundMailbox] 송신 예산 초과 - sessionId={}, queued={} bytes", session.getId(), queuedBytes);
+                        closeLocked(CloseStatus.SESSION_NOT_RELIABLE);
+                        return OfferResult.CLOSED;
+                    }
+                }
+            }
+            queue.addLast(new Pending(message, size, originNanos));
+            queuedBytes += size;
+            totalQueuedBytes.add(size);
+            if (!writing) {
+                writing = true;
+                writer.execute(this::drain);
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 대기 중이거나 전송 중인 메시지가 있으면 true (클라이언트가 따라오지 못하는 상태) */
+    public boolean isBacklogged() {
+        lock.lock();
+        try {
+            return writing;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 대기 중인 payload 바이트 합계 */
+    public long getQueuedBytes() {
+        lock.lock();
+        try {
+            return queuedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 세션 종료 시 호출. 대기 메시지는 버림 */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            clearQueue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** writer 작업. 큐가 빌 때까지 순서대로 전송 */
+    private void drain() {
+        while (true) {
+            lock.lock();
+            try {
+                endSendingLocked();
+                if (queue.isEmpty() || closed) {
+                    writing = false;
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            // 허가를 받은 뒤에 꺼냄 → 기다리는 동안 메시지는 큐에 남음
+            if (!acquirePermit()) {
+                return;
+            }
+            Pending pending;
+            lock.lock();
+            try {
+                pending = queue.pollFirst();
+                if (pending == null || closed) {
+                    writing = false;
+                    releasePermit();
+                    return;
+                }
+                dequeued(pending.size);
+            } finally {
+                lock.unlock();
+            }
+            try {
+                send(pending.message);
+                if (pending.originNanos != 0) {
+                    metrics.onHotwordDelivered(pending.originNanos);
+                }
+            } catch (Exception e) {
+                log.warn("[OutboundMailbox] 전송 실패 - sessionId={}, 이유={}", session.getId(), e.getMessage());
+                lock.lock();
+                try {
+                    if (!closed) {
+                        closeLocked(CloseStatus.SERVER_ERROR);
+                    }
+                    endSendingLocked();
+                    writing = false;
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            } finally {
+                releasePermit();
+            }
+        }
+    }
+
+    /**
+     * 동시 전송 허가 획득. j.u.c 대기라 가상 스레드가 캐리어를 놓고 기다림.
+     * permitWait 마다 메일박스가 닫혔는지 확인하고, 닫혔으면(또는 인터럽트) writer 를 끝내고 false
+     */
+    private boolean acquirePermit() {
+        if (writePermits == null) {
+            return true;
+        }
+        try {
+            while (!writePermits.tryAcquire(permitWaitNanos, TimeUnit.NANOSECONDS)) {
+                lock.lock();
+                try {
+                    if (closed) {
+                        writing = false;
+                        return false;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                log.debug("[OutboundMailbox] 전송 허가 대기 중 - sessionId={}", session.getId());
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lock.lock();
+            try {
+                writing = false;
+            } finally {
+                lock.unlock();
+            }
+            return false;
+        }
+    }
+
+    private void releasePermit() {
+        if (writePermits != null) {
+            writePermits.release();
+        }
+    }
+
+    /** 실제 전송. 호출 전에 허가를 받아 둠 */
+    private void send(WebSocketMessage<?> message) throws Exception {
+        WebSocketMessage<?> out = message instanceof PreEncodedTextMessage preEncoded
+                && !(session instanceof PreEncodedTextMessage.DirectWrite) ? preEncoded.toTextMessage() : message;
+        startSending();
+        session.sendMessage(out);
+    }
+
+    /** 전송 타임아웃 시계 시작: sendTimeout 뒤 이 전송이 아직 진행 중이면 onSendTimeout */
+    private void startSending() {
+        lock.lock();
+        try {
+            sending = true;
+            sendingThread = Thread.currentThread();
+            long seq = ++sendSeq;
+            if (watchdog != null && sendTimeoutNanos != Long.MAX_VALUE) {
+                sendTimeoutTask = watchdog.schedule(() -> onSendTimeout(seq), sendTimeoutNanos, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void endSendingLocked() {
+        sending = false;
+        sendingThread = null;
+        if (sendTimeoutTask != null) {
+            sendTimeoutTask.cancel(false);
+            sendTimeoutTask = null;
+        }
+    }
+
+    /** watchdog 스레드. 세션을 닫고 sendMessage 에 멈춘 writer 를 인터럽트해 허가와 스레드를 돌려받음 */
+    private void onSendTimeout(long seq) {
+        lock.lock();
+        try {
+            if (!sending || seq != sendSeq) {
+                return;
+            }
+            log.warn("[OutboundMailbox] 전송 타임아웃 - sessionId={}", session.getId());
+            if (!closed) {
+                closeLocked(CloseStatus.SESSION_NOT_RELIABLE);
+            }
+            sendingThread.interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeLocked(CloseStatus status) {
+        closed = true;
+        clearQueue();
+        // 세션 close 도 I/O 이므로 호출 스레드가 아닌 writer 에서 수행
+        writer.execute(() -> {
+            try {
+                session.close(status);
+            } catch (Exception e) {
+                log.debug("[OutboundMailbox] 세션 종료 실패 - sessionId={}", session.getId(), e);
+            }
+        });
+    }
+
+    private void dequeued(int size) {
+        queuedBytes -= size;
+        totalQueuedBytes.add(-size);
+    }
+
+    private void clearQueue() {
+        totalQueuedBytes.add(-queuedBytes);
+        queue.clear();
+        queuedBytes = 0;
+    }
+
+    /** 대기 메시지 + 계산해 둔 크기 + 계측 기준 시각 */
+    private record Pending(WebSocketMessage<?> message, int size, long originNanos) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.wordawake.gateway.session;
+
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 세션별 OutboundMailbox 생성 + 공용 writer 실행기 보관.
+ * writer 는 가상 스레드라 멈춘 클라이언트에 대한 블로킹 전송이 플랫폼 스레드를 점유하지 않음.
+ * max-concurrent-writes > 0 이면 모든 메일박스의 동시 전송 수를 제한 (pinning 대비, {@link OutboundMailbox} 참고).
+ * 허가 없이 전송하지 않음. write-permit-wait-ms 는 허가 대기 중 세션 종료 여부를 다시 확인하는 주기.
+ */
+@Component
+public class OutboundMailboxFactory {
+
+    private final long maxQueuedBytes;
+    private final long sendTimeoutNanos;
+    private final OutboundMailbox.OverflowPolicy overflowPolicy;
+    private final GatewayMetrics metrics;
+    private final LongAdder totalQueuedBytes = new LongAdder();
+    /** null 이면 제한 없음 */
+    private final Semaphore writePermits;
+    private final long permitWaitNanos;
+    private final ExecutorService writer =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-outbound-", 0).factory());
+    /** 전송 타임아웃 watchdog. 전송마다 예약/취소하므로 취소된 작업은 바로 큐에서 제거 */
+    private final ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1,
+            Thread.ofPlatform().name("ws-outbound-watchdog").daemon().factory());
+
+    public OutboundMailboxFactory(
+            @Value("${app.outbound.max-queued-bytes:1048576}") long maxQueuedBytes,
+            @Value("${app.outbound.send-timeout-ms:10000}") long sendTimeoutMs,
+            @Value("${app.outbound.overflow-policy:DROP_OLDEST}") OutboundMailbox.OverflowPolicy overflowPolicy,
+            @Value("${app.outbound.max-concurrent-writes:0}") int maxConcurrentWrites,
+            @Value("${app.outbound.write-permit-wait-ms:50}") long permitWaitMs,
+            GatewayMetrics metrics) {
+        this.maxQueuedBytes = maxQueuedBytes;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.overflowPolicy = overflowPolicy;
+        this.metrics = metrics;
+        this.writePermits = maxConcurrentWrites > 0 ? new Semaphore(maxConcurrentWrites) : null;
+        this.permitWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, permitWaitMs));
+        watchdog.setRemoveOnCancelPolicy(true);
+    }
+
+    public OutboundMailbox create(WebSocketSession session) {
+        return new OutboundMailbox(session, writer, watchdog, maxQueuedBytes, sendTimeoutNanos, overflowPolicy,
+                metrics, totalQueuedBytes, writePermits, permitWaitNanos);
+    }
+
+    /** 모든 세션 송신 큐의 대기 바이트 합계 (모니터링용) */
+    public long getTotalQueuedBytes() {
+        return totalQueuedBytes.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+        watchdog.shutdownNow();
+    }
+}
@@ -0,0 +1,50 @@
+package com.wordawake.gateway.session;
+
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+/**
+ * 이미 UTF-8 로 인코딩된 텍스트 메시지 (Kafka 에서 byte[] 로 받은 hotword 이벤트 JSON 을 그대로 보낼 때).
+ * TextMessage 와 달리 문자열을 만들지 않고 바이트를 들고 다니므로, 송신 큐 크기 계산(getPayloadLength)에 인코딩이 없음.
+ *
+ * 전송: {@link DirectWrite} 세션(reactive 전송)은 바이트를 그대로 텍스트 프레임으로 씀.
+ * servlet(Jakarta WebSocket) 의 텍스트 전송 API 는 String 만 받으므로 OutboundMailbox writer 가 전송 직전에 한 번 디코딩.
+ * payload 가 올바른 UTF-8 인지는 검사하지 않음 (발행 측 계약, Constants.KAFKA_HEADER_EVENT_TYPE 참고).
+ */
+public final class PreEncodedTextMessage implements WebSocketMessage<byte[]> {
+
+    /** 바이트를 디코딩 없이 텍스트 프레임으로 쓸 수 있는 세션 */
+    public interface DirectWrite {
+    }
+
+    private final byte[] payload;
+
+    public PreEncodedTextMessage(byte[] payload) {
+        this.payload = payload;
+    }
+
+    @Override
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    @Override
+    public int getPayloadLength() {
+        return payload.length;
+    }
+
+    @Override
+    public boolean isLast() {
+        return true;
+    }
+
+    /** servlet 세션 전송용 (UTF-8 디코딩 1회) */
+    public TextMessage toTextMessage() {
+        return new TextMessage(payload);
+    }
+
+    @Override
+    public String toString() {
+        return "PreEncodedTextMessage payload length=" + payload.length;
+    }
+}
@@ -0,0 +1,45 @@
+package com.wordawake.gateway.session;
+
+import com.wordawake.gateway.message.MessageEncoding;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * 세션 레지스트리의 세션 1건.
+ * key 로 쓰는 id 는 session.getId() 와 같은 String 인스턴스를 공유 (별도 key 사본을 두지 않음).
+ * 클라이언트로 보내는 메시지는 session 에 직접 쓰지 않고 outbound(OutboundMailbox) 를 거침.
+ * 제어 메시지 인코딩은 핸드셰이크에서 수락한 서브프로토콜로 등록 시 한 번만 정함.
+ */
+public final class SessionEntry {
+
+    private final String id;
+    private final WebSocketSession session;
+    private final OutboundMailbox outbound;
+    private final MessageEncoding encoding;
+
+    SessionEntry(String id, WebSocketSession session, OutboundMailbox outbound) {
+        this.id = id;
+        this.session = session;
+        this.outbound = outbound;
+        this.encoding = MessageEncoding.of(session.getAcceptedProtocol());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public WebSocketSession getSession() {
+        return session;
+    }
+
+    public OutboundMailbox getOutbound() {
+        return outbound;
+    }
+
+    public MessageEncoding getEncoding() {
+        return encoding;
+    }
+
+    public boolean isOpen() {
+        return session.isOpen();
+    }
+}
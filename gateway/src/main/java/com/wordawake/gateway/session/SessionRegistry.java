@@ -0,0 +1,151 @@
+package com.wordawake.gateway.session;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 게이트웨이 세션 레지스트리 (단일 원본).
+ * SessionService(Hotword 전달) 와 GatewaySessionManager(하트비트) 가 모두 이 레지스트리를 사용.
+ *
+ * - 저장소: sessionId 해시로 나눈 shard 배열. shard 마다 HashMap + 락 하나 (lock striping)
+ * - 순회: shard 별 스냅샷 배열을 변경 시에만 다시 만들어 캐시 → 팬아웃 시 락/복사 없이 순회
+ * - 등록 시 세션별 송신 큐(OutboundMailbox)를 함께 만들고, 해제 시 닫음
+ */
+@Component
+public class SessionRegistry {
+
+    private static final SessionEntry[] EMPTY = new SessionEntry[0];
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final AtomicInteger size = new AtomicInteger();
+    private final OutboundMailboxFactory mailboxFactory;
+
+    public SessionRegistry(@Value("${app.session.registry.shards:64}") int shardCount,
+                           OutboundMailboxFactory mailboxFactory) {
+        this.mailboxFactory = mailboxFactory;
+        int count = 1;
+        while (count < shardCount) {
+            count <<= 1; // 2의 거듭제곱으로 올림
+        }
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard();
+        }
+        this.shardMask = count - 1;
+    }
+
+    /**
+     * 세션 등록. 같은 id 가 이미 있으면 교체.
+     */
+    public SessionEntry register(String sessionId, WebSocketSession session) {
+        SessionEntry entry = new SessionEntry(sessionId, session, mailboxFactory.create(session));
+        Shard shard = shardOf(sessionId);
+        SessionEntry previous;
+        shard.lock.lock();
+        try {
+            previous = shard.entries.put(sessionId, entry);
+            shard.snapshot = null;
+        } finally {
+            shard.lock.unlock();
+        }
+        if (previous == null) {
+            size.incrementAndGet();
+        } else {
+            previous.getOutbound().close();
+        }
+        return entry;
+    }
+
+    /**
+     * 세션 제거. 제거된 항목(없으면 null) 반환.
+     */
+    public SessionEntry remove(String sessionId) {
+        Shard shard = shardOf(sessionId);
+        SessionEntry removed;
+        shard.lock.lock();
+        try {
+            removed = shard.entries.remove(sessionId);
+            if (removed != null) {
+                shard.snapshot = null;
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+        if (removed != null) {
+            size.decrementAndGet();
+            removed.getOutbound().close();
+        }
+        return removed;
+    }
+
+    /**
+     * sessionId 에 해당하는 항목. 없으면 null.
+     */
+    public SessionEntry get(String sessionId) {
+        Shard shard = shardOf(sessionId);
+        shard.lock.lock();
+        try {
+            return shard.entries.get(sessionId);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * shard 하나의 순회용 스냅샷. 변경이 없으면 같은 배열을 재사용하므로 호출 측에서 수정하면 안 됨.
+     */
+    public SessionEntry[] snapshot(int shardIndex) {
+        Shard shard = shards[shardIndex];
+        SessionEntry[] snapshot = shard.snapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        shard.lock.lock();
+        try {
+            if (shard.snapshot == null) {
+                shard.snapshot = shard.entries.isEmpty() ? EMPTY : shard.entries.values().toArray(EMPTY);
+            }
+            return shard.snapshot;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * 전체 세션 순회 (shard 스냅샷 기준).
+     */
+    public void forEach(Consumer<SessionEntry> action) {
+        for (int i = 0; i < shards.length; i++) {
+            for (SessionEntry entry : snapshot(i)) {
+                action.accept(entry);
+            }
+        }
+    }
+
+    private Shard shardOf(String sessionId) {
+        int h = sessionId.hashCode();
+        return shards[(h ^ (h >>> 16)) & shardMask];
+    }
+
+    private static final class Shard {
+        final HashMap<String, SessionEntry> entries = new HashMap<>();
+        final ReentrantLock lock = new ReentrantLock();
+        /** 변경 시 null 로 무효화, 다음 순회 때 재생성 */
+        volatile SessionEntry[] snapshot = EMPTY;
+    }
+}
@@ -0,0 +1,364 @@
+package com.wordawake.gateway.spill;
+
+import com.wordawake.gateway.kafka.ConsistentHashPartitioner;
+import com.wordawake.gateway.kafka.SessionKeySerializer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * audio-stream 발행 실패 시 로컬 디스크 스필 + 복구 후 재생 (app.spill.enabled=true 일 때만).
+ *
+ * - 발행이 실패하거나(브로커 다운, delivery.timeout 초과) send 가 막혀 예외가 나면 레코드를
+ *   토픽 파티션별 append-only 메모리 매핑 세그먼트({@link SpillSegment})에 기록.
+ *   기록(mmap 쓰기, 세그먼트 생성/삭제)은 전용 writer 스레드에서 ({@link #appendAsync}) → 발행 실패 콜백을 부르는
+ *   Producer 네트워크 스레드나 오디오 디스패처가 디스크 I/O 를 기다리지 않음
+ * - 스필에 남은 레코드가 있는 파티션의 새 레코드는 Kafka 로 바로 보내지 않고 스필 뒤에 붙임 (세션 내 순서 유지)
+ * - 전용 스레드가 replay-interval 마다 가장 오래된 레코드부터 replay-batch 개씩 보내고, ack 받은 데까지 재생 위치 기록.
+ *   실패하면 다음 주기에 그 위치부터 다시 (at-least-once)
+ * - 상한: 전체 세그먼트 크기가 max-bytes 를 넘으면 가장 오래된 세그먼트부터 삭제,
+ *   max-age 보다 오래된 레코드/세그먼트는 재생하지 않고 버림 (오래된 오디오는 hotword 감지 가치가 없음)
+ *
+ * 파티션은 audio-stream Producer 와 같은 방식(같은 key 형식 + ConsistentHashPartitioner 링)으로 계산하므로,
+ * partitions 를 토픽 파티션 수와 맞추면(기본값) 스필 파티션 하나가 토픽 파티션 하나에 대응.
+ * (브로커가 내려가 있을 때는 메타데이터로 실제 파티션 수를 알 수 없어 설정값 사용)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.spill.enabled", havingValue = "true")
+public class AudioSpill {
+
+    private final KafkaTemplate<String, ByteBuffer> kafkaTemplate;
+    private final Path dir;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final long maxAgeMillis;
+    /** 토픽 파티션 계산용 (Producer 의 ConsistentHashPartitioner 와 같은 링) */
+    private final ConsistentHashPartitioner.Ring ring;
+    /** key-format=uuid16 이면 Producer 와 같이 16바이트 key 로 해시 */
+    private final boolean uuidKeys;
+    private final int replayBatch;
+    private final long sendTimeoutMillis;
+    private final Map<String, SpillPartition> spillPartitions = new ConcurrentHashMap<>();
+    /** 세그먼트 수 합계 (디스크 사용량 = segmentCount * segmentBytes) */
+    private final AtomicInteger segmentCount = new AtomicInteger();
+    private final LongAdder spilledRecords = new LongAdder();
+    private final LongAdder replayedRecords = new LongAdder();
+    private final LongAdder droppedRecords = new LongAdder();
+    private final LongAdder droppedSegments = new LongAdder();
+    private final ScheduledExecutorService replayer =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("audio-spill-replay").daemon().factory());
+    /** 스필 기록 전용 (단일 스레드 → 넘겨받은 순서대로 기록) */
+    private final ExecutorService writer =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("audio-spill-writer").daemon().factory());
+    /** 파티션별 writer 에 넘겼지만 아직 기록하지 않은 레코드 수 (hasBacklog 에 포함) */
+    private final Map<String, AtomicInteger> queuedAppends = new ConcurrentHashMap<>();
+
+    public AudioSpill(
+            @Qualifier("audioStreamKafkaTemplate") KafkaTemplate<String, ByteBuffer> audioStreamKafkaTemplate,
+            @Value("${app.spill.dir:${java.io.tmpdir}/gateway-spill}") String dir,
+            @Value("${app.spill.segment-bytes:67108864}") int segmentBytes,
+            @Value("${app.spill.max-bytes:1073741824}") long maxBytes,
+            @Value("${app.spill.max-age-ms:300000}") long maxAgeMillis,
+            @Value("${app.spill.partitions:${app.kafka.audio-stream.partitions:1}}") int partitions,
+            @Value("${app.kafka.audio-stream.key-format:string}") String keyFormat,
+            @Value("${app.kafka.audio-stream.partitioner.virtual-nodes:64}") int virtualNodes,
+            @Value("${app.spill.replay-batch:500}") int replayBatch,
+            @Value("${app.spill.replay-interval-ms:1000}") long replayIntervalMillis,
+            @Value("${app.spill.send-timeout-ms:10000}") long sendTimeoutMillis) throws IOException {
+        if (segmentBytes <= SpillSegment.HEADER_BYTES || maxBytes < segmentBytes || partitions <= 0) {
+            throw new IllegalArgumentException("invalid spill limits: segment-bytes=" + segmentBytes
+                    + ", max-bytes=" + maxBytes + ", partitions=" + partitions);
+        }
+        this.kafkaTemplate = audioStreamKafkaTemplate;
+        this.dir = Path.of(dir);
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+        this.ring = new ConsistentHashPartitioner.Ring(partitions, virtualNodes);
+        this.uuidKeys = "uuid16".equals(keyFormat);
+        this.replayBatch = replayBatch;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        recover();
+        replayer.scheduleWithFixedDelay(this::replay, replayIntervalMillis, replayIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** key 가 속한 파티션에 재생 대기 레코드가 있음 → 새 레코드도 스필로 보내야 순서가 유지됨 */
+    public boolean hasBacklog(String topic, String key) {
+        String name = partitionName(topic, key);
+        AtomicInteger queued = queuedAppends.get(name);
+        if (queued != null && queued.get() > 0) {
+            return true;
+        }
+        SpillPartition partition = spillPartitions.get(name);
+        return partition != null && partition.hasBacklog();
+    }
+
+    /**
+     * 레코드를 writer 스레드에 넘겨 기록 (발행 실패 콜백/발행 스레드용, 디스크 I/O 를 기다리지 않음).
+     * writer 가 value 의 [position, limit) 를 복사한 뒤(또는 버린 뒤) onDone 을 부르므로, 버퍼 반납은 onDone 에서.
+     *
+     * @return 넘기지 못했으면 false (레코드가 세그먼트보다 크거나 종료 중). 이 경우 onDone 은 이미 호출됨.
+     *         넘긴 뒤의 I/O 실패는 버린 레코드로 집계
+     */
+    public boolean appendAsync(ProducerRecord<String, ByteBuffer> record, Runnable onDone) {
+        Encoded encoded = encode(record);
+        if (encoded == null) {
+            onDone.run();
+            return false;
+        }
+        String name = partitionName(record.topic(), record.key());
+        AtomicInteger queued = queuedAppends.computeIfAbsent(name, n -> new AtomicInteger());
+        queued.incrementAndGet();
+        try {
+            writer.execute(() -> {
+                try {
+                    write(name, record, encoded);
+                } finally {
+                    queued.decrementAndGet();
+                    onDone.run();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            droppedRecords.increment();
+            onDone.run();
+            return false;
+        }
+    }
+
+    /**
+     * 호출 스레드에서 바로 기록. value 의 [position, limit) 를 복사하므로 반환 후 버퍼를 반납해도 됨.
+     *
+     * @return 기록하지 못했으면 false (레코드가 세그먼트보다 크거나 I/O 실패)
+     */
+    public boolean append(ProducerRecord<String, ByteBuffer> record) {
+        Encoded encoded = encode(record);
+        return encoded != null && write(partitionName(record.topic(), record.key()), record, encoded);
+    }
+
+    /** key/헤더 바이트 + 본문 크기. 세그먼트에 들어가지 않으면 버리고 null */
+    private Encoded encode(ProducerRecord<String, ByteBuffer> record) {
+        byte[] key = record.key() == null ? new byte[0] : record.key().getBytes(StandardCharsets.UTF_8);
+        List<byte[]> headerNames = new ArrayList<>();
+        List<byte[]> headerValues = new ArrayList<>();
+        for (Header header : record.headers()) {
+            headerNames.add(header.key().getBytes(StandardCharsets.UTF_8));
+            headerValues.add(header.value() == null ? new byte[0] : header.value());
+        }
+        int bodyBytes = SpillSegment.bodyBytes(key, headerNames, headerValues, record.value().remaining());
+        if (bodyBytes > SpillSegment.maxBodyBytes(segmentBytes)) {
+            droppedRecords.increment();
+            log.warn("[Spill] 세그먼트보다 큰 레코드 버림 - key={}, size={}", record.key(), bodyBytes);
+            return null;
+        }
+        return new Encoded(key, headerNames, headerValues, bodyBytes);
+    }
+
+    private boolean write(String name, ProducerRecord<String, ByteBuffer> record, Encoded encoded) {
+        try {
+            SpillPartition partition = partition(name);
+            long timestamp = record.timestamp() != null ? record.timestamp() : System.currentTimeMillis();
+            if (partition.append(timestamp, encoded.key(), encoded.headerNames(), encoded.headerValues(),
+                    record.value(), encoded.bodyBytes())) {
+                segmentCount.incrementAndGet();
+                enforceDiskLimit();
+            }
+            spilledRecords.increment();
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            droppedRecords.increment();
+            log.error("[Spill] 스필 기록 실패 - key={}", record.key(), e);
+            return false;
+        }
+    }
+
+    /** 스필 세그먼트가 차지한 디스크 바이트 (미리 잡은 파일 크기 기준) */
+    public long getDiskBytes() {
+        return (long) segmentCount.get() * segmentBytes;
+    }
+
+    public long getSpilledRecordCount() {
+        return spilledRecords.sum();
+    }
+
+    public long getReplayedRecordCount() {
+        return replayedRecords.sum();
+    }
+
+    /** 상한/보존 기간 초과 또는 기록 실패로 버린 레코드 수 (세그먼트 단위로 버린 것은 {@link #getDroppedSegmentCount}) */
+    public long getDroppedRecordCount() {
+        return droppedRecords.sum();
+    }
+
+    public long getDroppedSegmentCount() {
+        return droppedSegments.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        replayer.shutdownNow();
+        // 넘겨받은 레코드는 기록하고 닫음
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("[Spill] 종료 시 기록 대기 초과 - queued={}", writer.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        spillPartitions.values().forEach(SpillPartition::close);
+    }
+
+    /** 재생 한 주기: 파티션마다 ack 를 받을 때까지 배치 단위로 보냄. 실패하면 다음 주기로 */
+    void replay() {
+        for (Map.Entry<String, SpillPartition> entry : spillPartitions.entrySet()) {
+            try {
+                replayPartition(entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                log.warn("[Spill] 재생 중단, 다음 주기에 재시도 - partition={}, 이유={}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private void replayPartition(String name, SpillPartition partition) throws InterruptedException {
+        String topic = name.substring(0, name.lastIndexOf('-'));
+        while (true) {
+            long expireBefore = System.currentTimeMillis() - maxAgeMillis;
+            SpillPartition.ReadResult batch = partition.read(replayBatch, expireBefore);
+            droppedSegments.add(batch.expiredSegments());
+            segmentCount.set(totalSegments());
+            if (batch.records().isEmpty()) {
+                return;
+            }
+            List<CompletableFuture<?>> sends = new ArrayList<>(batch.records().size());
+            for (SpilledRecord record : batch.records()) {
+                if (record.timestampMillis() < expireBefore) {
+                    droppedRecords.increment();
+                    sends.add(CompletableFuture.completedFuture(null));
+                    continue;
+                }
+                RecordHeaders headers = new RecordHeaders();
+                for (SpilledRecord.Header header : record.headers()) {
+                    headers.add(header.name(), header.value());
+                }
+                sends.add(kafkaTemplate.send(new ProducerRecord<>(topic, null, record.timestampMillis(),
+                        record.key(), ByteBuffer.wrap(record.value()), headers)));
+            }
+            // ack 받은 앞부분까지만 재생 완료로 기록 (중간 실패 이후는 다음 주기에 다시 보냄)
+            int acked = 0;
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+            try {
+                for (CompletableFuture<?> send : sends) {
+                    send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    acked++;
+                }
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    throw (InterruptedException) e;
+                }
+                log.debug("[Spill] 재생 발행 실패 - partition={}, acked={}/{}", name, acked, sends.size());
+            } finally {
+                if (acked > 0) {
+                    partition.commit(batch.records().get(acked - 1).endOffset());
+                    replayedRecords.add(acked);
+                }
+            }
+            if (acked < sends.size()) {
+                return;
+            }
+        }
+    }
+
+    /** 기동 시 디렉터리에 남은 세그먼트 복구 (이전 프로세스가 못 보낸 레코드) */
+    private void recover() throws IOException {
+        Files.createDirectories(dir);
+        try (Stream<Path> dirs = Files.list(dir)) {
+            for (Path partitionDir : dirs.filter(Files::isDirectory).toList()) {
+                SpillPartition partition = new SpillPartition(partitionDir, segmentBytes);
+                if (partition.segmentCount() > 0) {
+                    spillPartitions.put(partitionDir.getFileName().toString(), partition);
+                    log.info("[Spill] 이전 스필 복구 - partition={}, segments={}", partitionDir.getFileName(), partition.segmentCount());
+                }
+            }
+        }
+        segmentCount.set(totalSegments());
+    }
+
+    private SpillPartition partition(String name) {
+        return spillPartitions.computeIfAbsent(name, n -> {
+            try {
+                return new SpillPartition(dir.resolve(n), segmentBytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /** 디스크 상한: 가장 오래 전에 쓴 세그먼트를 가진 파티션부터 삭제 */
+    private void enforceDiskLimit() {
+        while (getDiskBytes() > maxBytes) {
+            SpillPartition oldest = null;
+            for (SpillPartition partition : spillPartitions.values()) {
+                if (partition.segmentCount() > 1
+                        && (oldest == null || partition.oldestAppendMillis() < oldest.oldestAppendMillis())) {
+                    oldest = partition;
+                }
+            }
+            // 파티션마다 쓰는 중인 세그먼트 하나는 남김
+            if (oldest == null || !oldest.dropOldest()) {
+                return;
+            }
+            segmentCount.decrementAndGet();
+            droppedSegments.increment();
+            log.warn("[Spill] 디스크 상한 초과로 가장 오래된 세그먼트 삭제 - maxBytes={}", maxBytes);
+        }
+    }
+
+    private int totalSegments() {
+        int total = 0;
+        for (SpillPartition partition : spillPartitions.values()) {
+            total += partition.segmentCount();
+        }
+        return total;
+    }
+
+    /** "<topic>-<partition>" (Producer 와 같은 key 바이트 + 같은 링) */
+    private String partitionName(String topic, String key) {
+        int partition = key == null ? 0
+                : ring.partition(uuidKeys ? SessionKeySerializer.encode(key) : key.getBytes(StandardCharsets.UTF_8));
+        return topic + "-" + partition;
+    }
+
+    /** 기록 전에 계산해 두는 key/헤더 바이트 + 본문 크기 */
+    private record Encoded(byte[] key, List<byte[]> headerNames, List<byte[]> headerValues, int bodyBytes) {
+    }
+}
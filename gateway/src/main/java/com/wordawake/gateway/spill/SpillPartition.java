@@ -0,0 +1,154 @@
+package com.wordawake.gateway.spill;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 토픽 파티션 하나의 스필 세그먼트 목록 (오래된 것부터). 쓰기(발행 실패 콜백)와 재생(replayer)이 this 로 동기화.
+ * 세그먼트 파일 이름은 생성 순번 (20자리 0 채움) → 디렉터리 정렬 순서 = 기록 순서.
+ */
+@Slf4j
+final class SpillPartition {
+
+    private static final String SUFFIX = ".spill";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final ArrayDeque<SpillSegment> segments = new ArrayDeque<>();
+    private long nextSegmentId;
+    /** 직전 read 가 읽은 세그먼트 (그 사이 상한 초과로 지워졌으면 null → commit 무시) */
+    private SpillSegment readSegment;
+
+    SpillPartition(Path dir, int segmentBytes) throws IOException {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).sorted().toList()) {
+                try {
+                    SpillSegment segment = SpillSegment.open(file);
+                    segments.addLast(segment);
+                    nextSegmentId = Math.max(nextSegmentId, segmentId(file) + 1);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("[Spill] 세그먼트 복구 실패, 건너뜀 - file={}, 이유={}", file, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 레코드 추가. 마지막 세그먼트가 차면 새 세그먼트를 만듦.
+     *
+     * @return 새 세그먼트를 만들었으면 true (디스크 사용량 확인용)
+     */
+    synchronized boolean append(long timestampMillis, byte[] key, List<byte[]> headerNames, List<byte[]> headerValues,
+                                ByteBuffer value, int bodyBytes) throws IOException {
+        SpillSegment tail = segments.peekLast();
+        if (tail != null && tail.append(timestampMillis, key, headerNames, headerValues, value, bodyBytes)) {
+            return false;
+        }
+        SpillSegment segment = SpillSegment.create(dir.resolve(String.format("%020d%s", nextSegmentId++, SUFFIX)), segmentBytes);
+        segments.addLast(segment);
+        segment.append(timestampMillis, key, headerNames, headerValues, value, bodyBytes);
+        return true;
+    }
+
+    /** 재생할 레코드가 남아 있음 (이 파티션 키의 새 레코드는 순서 유지를 위해 스필 뒤에 붙여야 함) */
+    synchronized boolean hasBacklog() {
+        for (SpillSegment segment : segments) {
+            if (segment.hasUnread()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 가장 오래된 미재생 레코드부터 최대 max 개. 다 재생한 세그먼트와 maxAgeMillis 동안 쓰기가 없던 세그먼트는 먼저 삭제.
+     *
+     * @return 보존 기간 초과로 지운 세그먼트 수는 {@link ReadResult#expiredSegments()}
+     */
+    synchronized ReadResult read(int max, long expireBeforeMillis) {
+        int expired = 0;
+        while (!segments.isEmpty()) {
+            SpillSegment head = segments.peekFirst();
+            boolean stale = head.lastAppendMillis() < expireBeforeMillis;
+            // 다 재생한 세그먼트는 마지막(쓰는 중) 세그먼트가 아닐 때만 삭제
+            boolean drained = !head.hasUnread() && segments.size() > 1;
+            if (!stale && !drained) {
+                break;
+            }
+            if (stale && head.hasUnread()) {
+                expired++;
+            }
+            deleteHead();
+        }
+        readSegment = segments.peekFirst();
+        return new ReadResult(readSegment == null ? List.of() : readSegment.read(max), expired);
+    }
+
+    /** 직전 {@link #read} 로 읽은 레코드 중 endOffset 까지 재생 완료 */
+    synchronized void commit(int endOffset) {
+        if (readSegment != null) {
+            readSegment.commit(endOffset);
+        }
+    }
+
+    /** 디스크 상한 초과 시: 가장 오래된 세그먼트 삭제. 지울 게 없으면 false */
+    synchronized boolean dropOldest() {
+        if (segments.isEmpty()) {
+            return false;
+        }
+        deleteHead();
+        return true;
+    }
+
+    synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /** 가장 오래된 세그먼트의 마지막 쓰기 시각 (없으면 Long.MAX_VALUE) */
+    synchronized long oldestAppendMillis() {
+        SpillSegment head = segments.peekFirst();
+        return head == null ? Long.MAX_VALUE : head.lastAppendMillis();
+    }
+
+    synchronized void close() {
+        for (SpillSegment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                log.warn("[Spill] 세그먼트 닫기 실패 - file={}", segment.path(), e);
+            }
+        }
+        segments.clear();
+    }
+
+    private void deleteHead() {
+        SpillSegment head = segments.pollFirst();
+        if (head == readSegment) {
+            readSegment = null;
+        }
+        try {
+            head.delete();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long segmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    record ReadResult(List<SpilledRecord> records, int expiredSegments) {
+    }
+}
@@ -0,0 +1,202 @@
+package com.wordawake.gateway.spill;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * append-only 메모리 매핑 세그먼트 파일 하나. 스레드 안전하지 않음 (SpillPartition 이 동기화).
+ *
+ * <pre>
+ * 파일 헤더 (16바이트): magic(int) | reserved(int) | readOffset(long, 재생 완료 위치)
+ * 레코드: length(int) | timestampMillis(long) | keyLength(short) | key | headerCount(short)
+ *         | { nameLength(short) | name | valueLength(int) | value }* | valueLength(int) | value
+ * </pre>
+ *
+ * length 는 본문을 다 쓴 뒤 마지막에 씀 → 새 파일은 0 으로 채워져 있으므로 length=0 이 데이터 끝.
+ * 쓰다 말고 프로세스가 죽어도 다음 기동 시 완성된 레코드까지만 복구됨 (페이지 캐시에 남은 쓰기는 OS 가 디스크에 반영).
+ * 재생 위치도 헤더에 기록하므로 재기동 후 이미 보낸 레코드는 다시 보내지 않음 (보내는 도중 죽으면 일부 중복 가능).
+ */
+final class SpillSegment {
+
+    static final int MAGIC = 0x53504C31; // "SPL1"
+    static final int HEADER_BYTES = 16;
+    private static final int READ_OFFSET_POS = 8;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private int writePos;
+    private int readPos;
+    private long lastAppendMillis;
+
+    private SpillSegment(Path path, FileChannel channel, MappedByteBuffer map) {
+        this.path = path;
+        this.channel = channel;
+        this.map = map;
+    }
+
+    /** 새 세그먼트 파일 생성 (size 바이트로 미리 잡음) */
+    static SpillSegment create(Path path, int size) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        SpillSegment segment = new SpillSegment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        segment.map.putInt(0, MAGIC);
+        segment.map.putLong(READ_OFFSET_POS, HEADER_BYTES);
+        segment.writePos = HEADER_BYTES;
+        segment.readPos = HEADER_BYTES;
+        segment.lastAppendMillis = System.currentTimeMillis();
+        return segment;
+    }
+
+    /** 기존 세그먼트 파일 복구: 헤더의 재생 위치부터, 완성된 레코드 끝까지 */
+    static SpillSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        SpillSegment segment = new SpillSegment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        MappedByteBuffer map = segment.map;
+        if (map.capacity() < HEADER_BYTES || map.getInt(0) != MAGIC) {
+            channel.close();
+            throw new IOException("not a spill segment: " + path);
+        }
+        int pos = HEADER_BYTES;
+        while (pos + Integer.BYTES <= map.capacity()) {
+            int length = map.getInt(pos);
+            if (length <= 0 || pos + Integer.BYTES + length > map.capacity()) {
+                break;
+            }
+            pos += Integer.BYTES + length;
+        }
+        segment.writePos = pos;
+        segment.readPos = (int) Math.min(Math.max(map.getLong(READ_OFFSET_POS), HEADER_BYTES), pos);
+        segment.lastAppendMillis = Files.getLastModifiedTime(path).toMillis();
+        return segment;
+    }
+
+    /** 레코드 본문 크기 (length 필드 제외) */
+    static int bodyBytes(byte[] key, List<byte[]> headerNames, List<byte[]> headerValues, int valueLength) {
+        int size = Long.BYTES + Short.BYTES + key.length + Short.BYTES + Integer.BYTES + valueLength;
+        for (int i = 0; i < headerNames.size(); i++) {
+            size += Short.BYTES + headerNames.get(i).length + Integer.BYTES + headerValues.get(i).length;
+        }
+        return size;
+    }
+
+    /** 이 크기 세그먼트에 들어갈 수 있는 가장 큰 본문 */
+    static int maxBodyBytes(int segmentBytes) {
+        return segmentBytes - HEADER_BYTES - Integer.BYTES;
+    }
+
+    /**
+     * 레코드 추가. value 의 [position, limit) 를 복사하며 position 은 바꾸지 않음.
+     *
+     * @return 남은 공간이 부족하면 false (아무것도 쓰지 않음)
+     */
+    boolean append(long timestampMillis, byte[] key, List<byte[]> headerNames, List<byte[]> headerValues,
+                   ByteBuffer value, int bodyBytes) {
+        if (writePos + Integer.BYTES + bodyBytes > map.capacity()) {
+            return false;
+        }
+        int pos = writePos + Integer.BYTES;
+        map.putLong(pos, timestampMillis);
+        pos += Long.BYTES;
+        map.putShort(pos, (short) key.length);
+        pos += Short.BYTES;
+        map.put(pos, key);
+        pos += key.length;
+        map.putShort(pos, (short) headerNames.size());
+        pos += Short.BYTES;
+        for (int i = 0; i < headerNames.size(); i++) {
+            byte[] name = headerNames.get(i);
+            byte[] headerValue = headerValues.get(i);
+            map.putShort(pos, (short) name.length);
+            pos += Short.BYTES;
+            map.put(pos, name);
+            pos += name.length;
+            map.putInt(pos, headerValue.length);
+            pos += Integer.BYTES;
+            map.put(pos, headerValue);
+            pos += headerValue.length;
+        }
+        map.putInt(pos, value.remaining());
+        pos += Integer.BYTES;
+        map.put(pos, value, value.position(), value.remaining());
+        // 본문을 다 쓴 뒤 length 기록 → 이 시점부터 레코드가 보임
+        map.putInt(writePos, bodyBytes);
+        writePos += Integer.BYTES + bodyBytes;
+        lastAppendMillis = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * 재생 위치부터 최대 max 개 레코드를 읽음 (재생 위치는 {@link #commit} 전까지 그대로).
+     */
+    List<SpilledRecord> read(int max) {
+        List<SpilledRecord> records = new ArrayList<>(Math.min(max, 64));
+        int pos = readPos;
+        while (records.size() < max && pos < writePos) {
+            int length = map.getInt(pos);
+            int p = pos + Integer.BYTES;
+            long timestampMillis = map.getLong(p);
+            p += Long.BYTES;
+            byte[] key = new byte[map.getShort(p) & 0xFFFF];
+            p += Short.BYTES;
+            map.get(p, key);
+            p += key.length;
+            int headerCount = map.getShort(p) & 0xFFFF;
+            p += Short.BYTES;
+            List<SpilledRecord.Header> headers = new ArrayList<>(headerCount);
+            for (int i = 0; i < headerCount; i++) {
+                byte[] name = new byte[map.getShort(p) & 0xFFFF];
+                p += Short.BYTES;
+                map.get(p, name);
+                p += name.length;
+                byte[] headerValue = new byte[map.getInt(p)];
+                p += Integer.BYTES;
+                map.get(p, headerValue);
+                p += headerValue.length;
+                headers.add(new SpilledRecord.Header(new String(name, StandardCharsets.UTF_8), headerValue));
+            }
+            byte[] value = new byte[map.getInt(p)];
+            p += Integer.BYTES;
+            map.get(p, value);
+            pos += Integer.BYTES + length;
+            records.add(new SpilledRecord(new String(key, StandardCharsets.UTF_8), value, headers, timestampMillis, pos));
+        }
+        return records;
+    }
+
+    /** endOffset(읽은 레코드의 {@link SpilledRecord#endOffset()}) 까지 재생 완료 */
+    void commit(int endOffset) {
+        readPos = endOffset;
+        map.putLong(READ_OFFSET_POS, endOffset);
+    }
+
+    /** 아직 재생하지 않은 레코드가 있음 */
+    boolean hasUnread() {
+        return readPos < writePos;
+    }
+
+    long lastAppendMillis() {
+        return lastAppendMillis;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    /** 파일 삭제 (매핑은 GC 시 해제) */
+    void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,15 @@
+package com.wordawake.gateway.spill;
+
+import java.util.List;
+
+/**
+ * 세그먼트에서 읽은 레코드 하나.
+ *
+ * @param timestampMillis 처음 발행하려던 시각 (보존 기간 판정 기준)
+ * @param endOffset       세그먼트 안에서 이 레코드가 끝나는 위치 (재생 완료 기록용)
+ */
+record SpilledRecord(String key, byte[] value, List<Header> headers, long timestampMillis, int endOffset) {
+
+    record Header(String name, byte[] value) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.wordawake.gateway.streams;
+
+/**
+ * 게이트웨이 내장 hotword 감지기 (Kafka Streams 토폴로지에서 호출, app.hotword-streams).
+ * 기본 구현은 {@link TemplateMatchingDetector}. 다른 구현을 빈으로 등록하면 그것을 사용.
+ *
+ * 여러 스트림 스레드에서 동시에 호출될 수 있으므로 구현은 스레드 안전해야 함 (세션 상태는 토폴로지가 보관).
+ */
+public interface HotwordDetector {
+
+    /** 감지 결과 */
+    record Detection(String word, double score) {
+    }
+
+    /**
+     * 세션의 최근 오디오 창에서 hotword 감지.
+     *
+     * @param window PCM16 샘플, [0, length) 가 시간 순 (마지막 샘플이 가장 최근)
+     * @return 감지 못 하면 null
+     */
+    Detection detect(String sessionId, short[] window, int length);
+}
@@ -0,0 +1,196 @@
+package com.wordawake.gateway.streams;
+
+import com.google.gson.Gson;
+import com.wordawake.gateway.codec.AudioCodec;
+import com.wordawake.gateway.codec.ImaAdpcm;
+import com.wordawake.gateway.codec.MuLaw;
+import com.wordawake.gateway.kafka.SessionKeyDeserializer;
+import com.wordawake.gateway.kafka.SessionKeySerializer;
+import com.wordawake.gateway.utils.Constants;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 게이트웨이 내장 hotword 감지 토폴로지: audio-stream → (세션별 오디오 창 + HotwordDetector) → hotword-events.
+ *
+ * - key 는 형식(string / uuid16)과 상관없이 SessionKeyDeserializer 로 sessionId 문자열로 복원 → 감지 결과 key 도 sessionId
+ * - 레코드 헤더(audio-codec, frame-lengths)를 보고 PCM16 으로 복원 (pcm16 / mulaw / ima-adpcm)
+ * - 세션(key)별 최근 windowSamples 샘플을 상태 저장소(in-memory)에 PCM16 LE 바이트로 보관
+ * - 레코드마다 창 전체로 감지기 호출, 감지되면 hotword-events 에 JSON 발행하고 창을 비움 (같은 발화 중복 감지 방지)
+ * - 발행 레코드에는 event-type=hotword 헤더 (게이트웨이 소비 측은 payload 를 열지 않고 헤더로 판단)
+ *
+ * 창 저장소는 changelog 를 끔: 레코드마다 창 전체(수십 KB)를 changelog 로 쓰는 비용에 비해,
+ * 재배치 시 잃는 것은 최근 1~2초 오디오뿐이라 복구할 가치가 작음.
+ */
+@Slf4j
+public final class HotwordStreamsTopology {
+
+    public static final String WINDOW_STORE = "hotword-audio-windows";
+
+    private static final byte[] HOTWORD_EVENT_TYPE = Constants.KAFKA_EVENT_TYPE_HOTWORD.getBytes(StandardCharsets.US_ASCII);
+
+    private HotwordStreamsTopology() {
+    }
+
+    /**
+     * builder 에 토폴로지 추가.
+     *
+     * @param windowSamples 세션별로 유지할 최근 샘플 수 (템플릿 길이 + 여유)
+     * @return hotword-events 로 나가는 스트림 (key=sessionId, value=JSON)
+     */
+    public static KStream<String, String> build(StreamsBuilder builder, String audioStreamTopic, String hotwordEventsTopic,
+                                                HotwordDetector detector, int windowSamples) {
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                        Stores.inMemoryKeyValueStore(WINDOW_STORE), Serdes.String(), Serdes.ByteArray())
+                .withLoggingDisabled());
+        KStream<String, String> detections = builder
+                .stream(audioStreamTopic, Consumed.with(
+                        Serdes.serdeFrom(new SessionKeySerializer(), new SessionKeyDeserializer()), Serdes.ByteArray()))
+                .process(() -> new DetectionProcessor(detector, windowSamples), WINDOW_STORE);
+        detections.to(hotwordEventsTopic, Produced.with(Serdes.String(), Serdes.String()));
+        return detections;
+    }
+
+    /** 세션 창 갱신 + 감지. 스트림 태스크마다 인스턴스 하나 (단일 스레드) */
+    static final class DetectionProcessor implements Processor<String, byte[], String, String> {
+
+        private final HotwordDetector detector;
+        private final int windowSamples;
+        private final Gson gson = new Gson();
+        /** 창 + 이번 레코드 복원 샘플 (레코드가 창보다 크면 다시 할당) */
+        private short[] samples;
+        private ProcessorContext<String, String> context;
+        private KeyValueStore<String, byte[]> windows;
+
+        DetectionProcessor(HotwordDetector detector, int windowSamples) {
+            this.detector = detector;
+            this.windowSamples = windowSamples;
+            this.samples = new short[windowSamples * 2];
+        }
+
+        @Override
+        public void init(ProcessorContext<String, String> context) {
+            this.context = context;
+            this.windows = context.getStateStore(WINDOW_STORE);
+        }
+
+        @Override
+        public void process(Record<String, byte[]> record) {
+            String sessionId = record.key();
+            if (sessionId == null || record.value() == null) {
+                return;
+            }
+            byte[] previous = windows.get(sessionId);
+            int length = previous == null ? 0 : toSamples(previous, samples);
+            int capacity = length + maxSamples(record.value().length);
+            if (capacity > samples.length) {
+                short[] grown = new short[capacity];
+                System.arraycopy(samples, 0, grown, 0, length);
+                samples = grown;
+            }
+            length += decode(record.value(), record.headers(), samples, length);
+
+            int start = Math.max(0, length - windowSamples);
+            int windowLength = length - start;
+            if (start > 0) {
+                System.arraycopy(samples, start, samples, 0, windowLength);
+            }
+            HotwordDetector.Detection detection = detector.detect(sessionId, samples, windowLength);
+            if (detection == null) {
+                windows.put(sessionId, toBytes(samples, windowLength));
+                return;
+            }
+            windows.delete(sessionId);
+            log.info("[HotwordStreams] 감지 - sessionId={}, word={}, score={}", sessionId, detection.word(), detection.score());
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("word", detection.word());
+            event.put("score", detection.score());
+            event.put("source", "gateway-streams");
+            // 오디오 헤더(audio-codec 등)는 넘기지 않고 event-type 만 붙임
+            context.forward(new Record<>(sessionId, gson.toJson(event), record.timestamp(), new RecordHeaders()
+                    .add(Constants.KAFKA_HEADER_EVENT_TYPE, HOTWORD_EVENT_TYPE)));
+        }
+    }
+
+    /** 레코드 하나를 PCM16 으로 복원했을 때의 최대 샘플 수 (ima-adpcm 기준 상한) */
+    static int maxSamples(int recordBytes) {
+        return recordBytes * 2;
+    }
+
+    /**
+     * 레코드 값을 코덱 헤더에 맞게 PCM16 샘플로 복원해 out[offset] 부터 씀. 반환값은 샘플 수.
+     * ima-adpcm 은 프레임마다 상태 헤더가 있으므로 frame-lengths 헤더로 경계를 나눠 복원
+     * (홀수 샘플 프레임의 패딩 nibble 은 샘플 하나로 복원됨).
+     */
+    static int decode(byte[] value, Headers headers, short[] out, int offset) {
+        Header codecHeader = headers.lastHeader(Constants.KAFKA_HEADER_AUDIO_CODEC);
+        AudioCodec codec = codecHeader == null
+                ? AudioCodec.PCM16
+                : AudioCodec.of(new String(codecHeader.value(), StandardCharsets.US_ASCII));
+        switch (codec) {
+            case PCM16 -> {
+                int n = value.length / 2;
+                for (int i = 0; i < n; i++) {
+                    out[offset + i] = (short) ((value[2 * i] & 0xFF) | (value[2 * i + 1] << 8));
+                }
+                return n;
+            }
+            case MULAW -> {
+                for (int i = 0; i < value.length; i++) {
+                    out[offset + i] = MuLaw.decode(value[i]);
+                }
+                return value.length;
+            }
+            case IMA_ADPCM -> {
+                Header lengthsHeader = headers.lastHeader(Constants.KAFKA_HEADER_FRAME_LENGTHS);
+                if (lengthsHeader == null) {
+                    return ImaAdpcm.decode(ByteBuffer.wrap(value), out, offset);
+                }
+                ByteBuffer lengths = ByteBuffer.wrap(lengthsHeader.value());
+                int n = 0;
+                int pos = 0;
+                while (lengths.remaining() >= Integer.BYTES) {
+                    int frameLength = lengths.getInt();
+                    n += ImaAdpcm.decode(ByteBuffer.wrap(value, pos, frameLength), out, offset + n);
+                    pos += frameLength;
+                }
+                return n;
+            }
+            default -> throw new IllegalStateException("unknown codec: " + codec);
+        }
+    }
+
+    private static int toSamples(byte[] pcm, short[] out) {
+        int n = pcm.length / 2;
+        for (int i = 0; i < n; i++) {
+            out[i] = (short) ((pcm[2 * i] & 0xFF) | (pcm[2 * i + 1] << 8));
+        }
+        return n;
+    }
+
+    private static byte[] toBytes(short[] samples, int length) {
+        byte[] pcm = new byte[length * 2];
+        for (int i = 0; i < length; i++) {
+            pcm[2 * i] = (byte) samples[i];
+            pcm[2 * i + 1] = (byte) (samples[i] >> 8);
+        }
+        return pcm;
+    }
+}
@@ -0,0 +1,108 @@
+package com.wordawake.gateway.streams;
+
+/**
+ * 참고용 템플릿 매칭 감지기.
+ *
+ * 20ms 단위 로그 에너지 포락선(envelope)을 특징으로 쓰고, 녹음해 둔 hotword 템플릿 포락선과
+ * 창 끝부분(최근 maxShiftFrames 구간 안에서 위치를 옮겨 가며)의 피어슨 상관계수가 threshold 이상이면 감지.
+ * 상관계수는 음량에 무관하므로, 창 끝부분의 최대 에너지가 minEnergyDb 미만이면(무음/잡음) 판정하지 않음.
+ *
+ * 화자/발음 변화에 약한 단순 방식이라 데모·소규모 배포·테스트용. 호출마다 포락선 배열만 할당 (상태 없음, 스레드 안전).
+ */
+public class TemplateMatchingDetector implements HotwordDetector {
+
+    private static final double MIN_DB = -96;
+    private static final double FULL_SCALE_SQUARED = 32768.0 * 32768.0;
+
+    private final String word;
+    private final int frameSamples;
+    private final double[] template;
+    private final double threshold;
+    private final double minEnergyDb;
+    private final int maxShiftFrames;
+
+    /**
+     * @param template       hotword 를 녹음한 PCM16 샘플 (앞뒤 무음은 잘라 둘 것)
+     * @param maxShiftFrames 창 끝에서 템플릿 위치를 옮겨 볼 프레임 수 (레코드 간격만큼이면 충분)
+     */
+    public TemplateMatchingDetector(String word, short[] template, int sampleRate,
+                                    double threshold, double minEnergyDb, int maxShiftFrames) {
+        this.word = word;
+        this.frameSamples = sampleRate / 50;
+        this.template = envelope(template, 0, template.length, frameSamples);
+        if (this.template.length < 2) {
+            throw new IllegalArgumentException("template must be at least 2 frames (40ms)");
+        }
+        this.threshold = threshold;
+        this.minEnergyDb = minEnergyDb;
+        this.maxShiftFrames = maxShiftFrames;
+    }
+
+    @Override
+    public Detection detect(String sessionId, short[] window, int length) {
+        double[] env = envelope(window, 0, length, frameSamples);
+        int t = template.length;
+        if (env.length < t) {
+            return null;
+        }
+        double best = -1;
+        int lastStart = env.length - t;
+        for (int start = lastStart; start >= Math.max(0, lastStart - maxShiftFrames); start--) {
+            if (maxOf(env, start, t) < minEnergyDb) {
+                continue;
+            }
+            best = Math.max(best, correlation(env, start, template));
+        }
+        return best >= threshold ? new Detection(word, best) : null;
+    }
+
+    /** frameSamples 단위 프레임별 RMS 에너지 (dBFS). 마지막 불완전 프레임은 버림 */
+    static double[] envelope(short[] samples, int offset, int length, int frameSamples) {
+        double[] env = new double[length / frameSamples];
+        for (int f = 0; f < env.length; f++) {
+            long sum = 0;
+            int base = offset + f * frameSamples;
+            for (int i = 0; i < frameSamples; i++) {
+                int s = samples[base + i];
+                sum += (long) s * s;
+            }
+            env[f] = sum == 0 ? MIN_DB : Math.max(MIN_DB, 10 * Math.log10(sum / (frameSamples * FULL_SCALE_SQUARED)));
+        }
+        return env;
+    }
+
+    /** env[start, start + t.length) 와 t 의 피어슨 상관계수 */
+    private static double correlation(double[] env, int start, double[] t) {
+        int n = t.length;
+        double meanA = 0;
+        double meanB = 0;
+        for (int i = 0; i < n; i++) {
+            meanA += env[start + i];
+            meanB += t[i];
+        }
+        meanA /= n;
+        meanB /= n;
+        double cov = 0;
+        double varA = 0;
+        double varB = 0;
+        for (int i = 0; i < n; i++) {
+            double a = env[start + i] - meanA;
+            double b = t[i] - meanB;
+            cov += a * b;
+            varA += a * a;
+            varB += b * b;
+        }
+        if (varA == 0 || varB == 0) {
+            return 0;
+        }
+        return cov / Math.sqrt(varA * varB);
+    }
+
+    private static double maxOf(double[] env, int start, int n) {
+        double max = MIN_DB;
+        for (int i = start; i < start + n; i++) {
+            max = Math.max(max, env[i]);
+        }
+        return max;
+    }
+}
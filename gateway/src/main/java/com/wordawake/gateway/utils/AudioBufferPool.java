@@ -0,0 +1,81 @@
+package com.wordawake.gateway.utils;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 고정 크기 ByteBuffer 풀 (heap 또는 direct slab).
+ * 프레임/레코드마다 새 byte[] 를 만들지 않도록 버퍼를 재사용.
+ *
+ * - acquire: 빈 버퍼가 있으면 재사용, 없으면 새로 할당 (풀 크기는 release 시점에만 제한)
+ * - bufferSize 보다 큰 요청은 풀과 무관한 일회성 버퍼를 돌려주고, release 시 버려짐
+ * - free list 는 ArrayBlockingQueue 라 offer/poll 에 노드 할당이 없음
+ */
+public class AudioBufferPool {
+
+    private final int bufferSize;
+    private final boolean direct;
+    private final ArrayBlockingQueue<ByteBuffer> free;
+    private final AtomicLong allocated = new AtomicLong();
+
+    public AudioBufferPool(int bufferSize, int maxPooled, boolean direct) {
+        this.bufferSize = bufferSize;
+        this.direct = direct;
+        this.free = new ArrayBlockingQueue<>(maxPooled);
+    }
+
+    /**
+     * 최소 minCapacity 바이트를 담을 수 있는 비어 있는(position=0, limit=capacity) 버퍼.
+     */
+    public ByteBuffer acquire(int minCapacity) {
+        if (minCapacity > bufferSize) {
+            allocated.incrementAndGet();
+            return allocate(minCapacity);
+        }
+        ByteBuffer buf = free.poll();
+        if (buf == null) {
+            allocated.incrementAndGet();
+            return allocate(bufferSize);
+        }
+        return buf;
+    }
+
+    /**
+     * 버퍼 반납. 풀 크기가 아닌 버퍼나 풀이 가득 찬 경우는 GC 에 맡김.
+     */
+    public void release(ByteBuffer buf) {
+        if (buf == null || buf.capacity() != bufferSize || buf.isDirect() != direct) {
+            return;
+        }
+        buf.clear();
+        free.offer(buf);
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /** 풀에 보관 중인(재사용 대기) 버퍼 수 */
+    public int getPooledCount() {
+        return free.size();
+    }
+
+    /** 누적 신규 할당 수. 정상 상태에서 증가가 멈춰야 함 */
+    public long getAllocatedCount() {
+        return allocated.get();
+    }
+
+    /**
+     * src 의 [position, limit) 를 dst 의 현재 position 에 복사. src/dst 뷰 객체를 만들지 않음.
+     */
+    public static void copy(ByteBuffer src, ByteBuffer dst) {
+        int length = src.remaining();
+        dst.put(dst.position(), src, src.position(), length);
+        dst.position(dst.position() + length);
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+}
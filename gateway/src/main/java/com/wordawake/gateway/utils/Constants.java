@@ -4,5 +4,48 @@ public final class Constants {
     public static final String GW_MSG_STATUS = "status";
     public static final String GW_MSG_MESSAGE = "message";
     public static final String GW_MSG_SESSION_ID = "sessionId";
+    public static final String GW_MSG_TYPE_CONNECTED = "connected";
+
+    // 흐름 제어 메시지 (서버 → 클라이언트): {"type":"credit","credit":n[,"window":w]}
+    public static final String GW_MSG_TYPE = "type";
+    public static final String GW_MSG_TYPE_CREDIT = "credit";
+    public static final String GW_MSG_CREDIT = "credit";
+    public static final String GW_MSG_WINDOW = "window";
+
+    // audio-stream 레코드 헤더
+    public static final String KAFKA_HEADER_FRAME_LENGTHS = "frame-lengths";
+    public static final String KAFKA_HEADER_AUDIO_CODEC = "audio-codec";
+    // framed 세션만: 시퀀스 범위 + 첫 프레임 캡처/게이트웨이 수신 시각 (epoch microseconds)
+    public static final String KAFKA_HEADER_STREAM_ID = "stream-id";
+    public static final String KAFKA_HEADER_SEQ_FIRST = "seq-first";
+    public static final String KAFKA_HEADER_SEQ_LAST = "seq-last";
+    public static final String KAFKA_HEADER_CAPTURE_TS = "capture-ts";
+    public static final String KAFKA_HEADER_GATEWAY_TS = "gateway-ts";
+
+    // stt-requests 레코드 헤더 (hotword 위치 = 레코드 앞에서부터 바이트, 4바이트 BE / 원본 hotword 이벤트 JSON)
+    public static final String KAFKA_HEADER_HOTWORD_OFFSET = "hotword-offset";
+    public static final String KAFKA_HEADER_HOTWORD_EVENT = "hotword-event";
+
+    // hotword-events 레코드 헤더 (선택): 이벤트 종류. 있으면 "hotword" 인 레코드만 클라이언트에 전달
+    // payload 는 UTF-8 JSON 바이트 그대로 텍스트 프레임으로 나가므로 발행 측이 형식을 보장 (게이트웨이는 내용을 검사하지 않음)
+    public static final String KAFKA_HEADER_EVENT_TYPE = "event-type";
+    public static final String KAFKA_EVENT_TYPE_HOTWORD = "hotword";
+
+    // 핸드셰이크 오디오 형식 협상 (쿼리 파라미터 또는 헤더) / 세션 속성 키
+    public static final String WS_PARAM_AUDIO_FORMAT = "audio-format";
+    public static final String WS_HEADER_AUDIO_FORMAT = "X-Audio-Format";
+    public static final String WS_ATTR_AUDIO_FORMAT = "audioFormat";
+
+    // 핸드셰이크 프레임 형식 협상 (raw / framed) / 세션 속성 키 (Boolean, framed 면 true)
+    public static final String WS_PARAM_FRAME_FORMAT = "frame-format";
+    public static final String WS_HEADER_FRAME_FORMAT = "X-Frame-Format";
+    public static final String WS_ATTR_FRAMED = "framed";
+
+    // 제어 메시지(welcome/하트비트/크레딧) 인코딩 협상용 WebSocket 서브프로토콜. 요청하지 않으면 JSON
+    public static final String WS_SUBPROTOCOL_JSON = "gateway.v1.json";
+    public static final String WS_SUBPROTOCOL_CBOR = "gateway.v1.cbor";
+
+    // 핸드셰이크 거절(503) 시 재시도 힌트: 표준 Retry-After(초) 와 함께 밀리초 단위 값
+    public static final String WS_HEADER_RETRY_AFTER_MS = "X-Retry-After-Ms";
 
 }
@@ -0,0 +1,20 @@
+package com.wordawake.gateway.vad;
+
+/**
+ * VAD 설정 (app.audio.vad). 시간 값은 오디오 시간(ms, 프레임 바이트 수로 환산) 기준.
+ *
+ * @param sampleRate  PCM16 mono 샘플레이트 (바이트 → ms 환산용)
+ * @param thresholdDb 음성 판정 최소 에너지 (dBFS)
+ * @param marginDb    추정 잡음 바닥보다 이만큼 커야 음성
+ * @param hangoverMs  마지막 음성 프레임 뒤에도 계속 보내는 시간 (말끝 잘림 방지)
+ * @param preRollMs   무음 동안 보관했다가 음성 시작 시 앞에 붙여 보내는 시간 (말머리 잘림 방지)
+ * @param keepaliveMs 무음 구간에서 프레임 하나를 보내는 주기 (0 이면 보내지 않음)
+ */
+public record VadSettings(int sampleRate, double thresholdDb, double marginDb,
+                          long hangoverMs, long preRollMs, long keepaliveMs) {
+
+    /** PCM16 mono 1ms 바이트 수 */
+    long bytesPerMs() {
+        return sampleRate * 2L / 1000;
+    }
+}
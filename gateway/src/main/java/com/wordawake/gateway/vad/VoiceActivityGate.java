@@ -0,0 +1,137 @@
+package com.wordawake.gateway.vad;
+
+import com.wordawake.gateway.utils.AudioBufferPool;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * 세션별 에너지 기반 VAD 게이트 (PCM16 little-endian mono).
+ *
+ * 프레임마다 RMS 에너지(dBFS)를 구해 max(thresholdDb, 잡음 바닥 + marginDb) 이상이면 음성으로 본다.
+ * 잡음 바닥은 프레임 에너지를 따라가는 이동 평균 (음성 판정 프레임에서는 훨씬 느리게 →
+ * 팬/공조 소음처럼 계속되는 큰 잡음도 잠시 뒤에는 무음으로 분류).
+ * - 음성: 보관 중인 pre-roll 프레임을 먼저 내보낸 뒤 현재 프레임을 내보냄
+ * - 음성 직후 hangover 구간: 무음이어도 내보냄
+ * - 그 외 무음: pre-roll 로 보관 (preRollMs 를 넘는 오래된 프레임은 풀에 반납),
+ *   단 keepaliveMs 마다 한 프레임은 내보내 하류에서 세션이 살아 있음을 알 수 있게 함
+ *
+ * 프레임 버퍼는 AudioBufferPool 에서 빌린 것으로, process 호출 시 소유권이 게이트로 넘어온다.
+ * 내보낼 프레임은 out 에 순서대로 담기고 (발행 후 호출 측이 반납), 버릴 프레임은 게이트가 반납.
+ * lane writer 하나만 호출 (동기화 없음).
+ */
+public final class VoiceActivityGate {
+
+    /** 프레임 판정 결과 */
+    public enum Decision {
+        SPEECH,
+        HANGOVER,
+        KEEPALIVE,
+        /** pre-roll 로 보관되거나 버려짐 (발행 안 함) */
+        SILENCE
+    }
+
+    /** 잡음 바닥 이동 평균 계수 (무음 / 음성 프레임) */
+    private static final double NOISE_FLOOR_ALPHA = 0.05;
+    private static final double NOISE_FLOOR_ALPHA_SPEECH = 0.005;
+    /** 완전 무음(0) 프레임의 에너지 하한 */
+    private static final double MIN_DB = -96;
+    private static final double FULL_SCALE_SQUARED = 32768.0 * 32768.0;
+
+    private final VadSettings settings;
+    private final AudioBufferPool pool;
+    private final long bytesPerMs;
+    private final ArrayDeque<ByteBuffer> preRoll = new ArrayDeque<>();
+    private long preRollBytes;
+    private double noiseFloorDb;
+    /** 남은 hangover (오디오 ms) */
+    private long hangoverLeftMs;
+    /** 마지막으로 무언가 내보낸 뒤 흐른 무음 시간 (오디오 ms) */
+    private long silenceSinceForwardMs;
+
+    public VoiceActivityGate(VadSettings settings, AudioBufferPool pool) {
+        this.settings = settings;
+        this.pool = pool;
+        this.bytesPerMs = Math.max(1, settings.bytesPerMs());
+        this.noiseFloorDb = settings.thresholdDb();
+    }
+
+    /**
+     * 프레임 하나 판정. 내보낼 프레임(pre-roll 포함)은 out 끝에 추가.
+     */
+    public Decision process(ByteBuffer frame, ArrayDeque<ByteBuffer> out) {
+        long frameMs = frame.remaining() / bytesPerMs;
+        double db = energyDb(frame);
+        if (db >= Math.max(settings.thresholdDb(), noiseFloorDb + settings.marginDb())) {
+            noiseFloorDb += (db - noiseFloorDb) * NOISE_FLOOR_ALPHA_SPEECH;
+            while (!preRoll.isEmpty()) {
+                out.addLast(preRoll.pollFirst());
+            }
+            preRollBytes = 0;
+            out.addLast(frame);
+            hangoverLeftMs = settings.hangoverMs();
+            silenceSinceForwardMs = 0;
+            return Decision.SPEECH;
+        }
+        noiseFloorDb += (db - noiseFloorDb) * NOISE_FLOOR_ALPHA;
+        if (hangoverLeftMs > 0) {
+            hangoverLeftMs -= frameMs;
+            out.addLast(frame);
+            silenceSinceForwardMs = 0;
+            return Decision.HANGOVER;
+        }
+        silenceSinceForwardMs += frameMs;
+        if (settings.keepaliveMs() > 0 && silenceSinceForwardMs >= settings.keepaliveMs()) {
+            silenceSinceForwardMs = 0;
+            out.addLast(frame);
+            return Decision.KEEPALIVE;
+        }
+        holdPreRoll(frame);
+        return Decision.SILENCE;
+    }
+
+    /** 세션 종료 시 보관 중인 pre-roll 반납 */
+    public void close() {
+        ByteBuffer buf;
+        while ((buf = preRoll.pollFirst()) != null) {
+            pool.release(buf);
+        }
+        preRollBytes = 0;
+    }
+
+    double getNoiseFloorDb() {
+        return noiseFloorDb;
+    }
+
+    private void holdPreRoll(ByteBuffer frame) {
+        long maxBytes = settings.preRollMs() * bytesPerMs;
+        if (frame.remaining() > maxBytes) {
+            pool.release(frame);
+            return;
+        }
+        preRoll.addLast(frame);
+        preRollBytes += frame.remaining();
+        while (preRollBytes > maxBytes) {
+            ByteBuffer oldest = preRoll.pollFirst();
+            preRollBytes -= oldest.remaining();
+            pool.release(oldest);
+        }
+    }
+
+    /** RMS 에너지 (dBFS). frame 의 position/limit 은 바꾸지 않음 */
+    static double energyDb(ByteBuffer frame) {
+        int start = frame.position();
+        int end = frame.limit() - 1;
+        long sumSquares = 0;
+        int samples = 0;
+        for (int i = start; i < end; i += 2) {
+            int sample = (short) ((frame.get(i) & 0xFF) | (frame.get(i + 1) << 8));
+            sumSquares += (long) sample * sample;
+            samples++;
+        }
+        if (samples == 0 || sumSquares == 0) {
+            return MIN_DB;
+        }
+        return Math.max(MIN_DB, 10 * Math.log10(sumSquares / (samples * FULL_SCALE_SQUARED)));
+    }
+}
@@ -1,7 +1,14 @@
 package com.wordawake.gateway.websocket;
 
-import com.google.gson.Gson;
-import com.wordawake.gateway.kafka.AudioStreamProducer;
+import com.wordawake.gateway.capture.HotwordAudioCapture;
+import com.wordawake.gateway.codec.AudioCodec;
+import com.wordawake.gateway.dispatch.AudioDispatcher;
+import com.wordawake.gateway.flow.CreditFlowController;
+import com.wordawake.gateway.framing.AudioFrameHeader;
+import com.wordawake.gateway.framing.EpochClock;
+import com.wordawake.gateway.framing.FrameLatencyTracker;
+import com.wordawake.gateway.message.GatewayMessage;
+import com.wordawake.gateway.message.MessageEncoding;
 import com.wordawake.gateway.service.SessionService;
 import com.wordawake.gateway.utils.Constants;
 import lombok.extern.slf4j.Slf4j;
@@ -9,52 +16,72 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
 import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * WebSocket 요청 처리.
  * - 연결 시: 세션 등록 + 클라이언트에 sessionId 안내 (Hotword 결과 수신 시 식별용)
- * - 바이너리(음성 청크): Kafka audio-stream 토픽에 발행 → Hotword 서비스가 구독
- * - 텍스트: 에코 (설정/핑 등용)
+ *   제어 메시지(welcome/하트비트/크레딧) 인코딩은 서브프로토콜로 협상 (gateway.v1.json / gateway.v1.cbor, 없으면 JSON)
+ * - 바이너리(음성 청크): AudioDispatcher(세션별 순서 보장, 코덱 변환) 거쳐 Kafka audio-stream 토픽에 발행 → Hotword 서비스가 구독
+ *   hotword 캡처 사용 시 수신 오디오를 세션 링 버퍼에도 기록 (hotword 전후 구간을 STT 로 넘기기 위함)
+ *   framed 세션(핸드셰이크 frame-format=framed)은 프레임 헤더를 검사하고 시퀀스 유실/역순 + 종단 지연 추적용으로 기록
+ *   (헤더가 잘못되면 1007 로 세션 종료)
+ *   흐름 제어 사용 시 크레딧을 넘겨 보낸 세션은 크레딧이 돌아올 때까지 수신을 멈춤
+ *   (회복 못 하면 1008, 크레딧 윈도보다 큰 프레임은 1009 로 세션 종료)
+ * - 텍스트: 로그만 남김. 흐름 제어 크레딧 부여는 서버 → 클라이언트 방향으로만 같은 텍스트 채널 사용
  * - 종료 시: 세션 해제
  */
 @Slf4j
 @Component
-public class GatewayHandler extends AbstractWebSocketHandler {
+public class GatewayHandler extends AbstractWebSocketHandler implements SubProtocolCapable {
 
     private final SessionService sessionService;
-    private final AudioStreamProducer audioStreamProducer;
-    private final GatewaySessionManager gatewaySessionManager;
-
-    public GatewayHandler(SessionService sessionService, AudioStreamProducer audioStreamProducer, GatewaySessionManager gatewaySessionManager) {
+    private final AudioDispatcher audioDispatcher;
+    /** app.capture.enabled=false 면 null */
+    private final HotwordAudioCapture hotwordAudioCapture;
+    /** app.flow.enabled=false 면 null */
+    private final CreditFlowController flowController;
+    private final FrameLatencyTracker frameLatencyTracker;
+
+    public GatewayHandler(SessionService sessionService, AudioDispatcher audioDispatcher,
+                          FrameLatencyTracker frameLatencyTracker,
+                          Optional<HotwordAudioCapture> hotwordAudioCapture,
+                          Optional<CreditFlowController> flowController) {
         this.sessionService = sessionService;
-        this.audioStreamProducer = audioStreamProducer;
-        this.gatewaySessionManager = gatewaySessionManager;
+        this.audioDispatcher = audioDispatcher;
+        this.frameLatencyTracker = frameLatencyTracker;
+        this.hotwordAudioCapture = hotwordAudioCapture.orElse(null);
+        this.flowController = flowController.orElse(null);
     }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         String sessionId = session.getId();
-        Gson gson = new Gson();  // 임시 직접 생성
         log.info("[Gateway] WebSocket 연결 수립 - sessionId={}", sessionId);
 
-        // 세션 저장 : 테스트용
-        gatewaySessionManager.addSession(session);
-        // 세션 저장: Hotword 감지 시 이 sessionId로 클라이언트에게 전달하기 위함
+        // 세션 저장: Hotword 감지 시 이 sessionId로 클라이언트에게 전달하기 위함 (하트비트도 같은 레지스트리 사용)
         sessionService.register(sessionId, session);
+        AudioCodec inputFormat = inputFormat(session);
+        boolean framed = isFramed(session);
+        audioDispatcher.openSession(sessionId, inputFormat, framed);
+        if (framed) {
+            frameLatencyTracker.open(sessionId);
+        }
+        if (hotwordAudioCapture != null) {
+            hotwordAudioCapture.open(sessionId, inputFormat);
+        }
 
         // 클라이언트가 자신의 sessionId를 알 수 있도록 전달.
         // Hotword 서비스가 hotword-events 발행 시 이 sessionId를 key로 사용하면, 이 클라이언트에게만 결과 전달됨.
-        // response 생성
-        Map<String, Object> response = new HashMap<String, Object>();
-        response.put(Constants.GW_MSG_STATUS, "101");
-        response.put(Constants.GW_MSG_MESSAGE, "success");
-        response.put(Constants.GW_MSG_SESSION_ID, sessionId);
-
-        // response 전송
-        session.sendMessage(new TextMessage(gson.toJson(response)));
+        // 세션 인코딩으로 전송 (세션 송신 큐 경유 → 연결 처리 스레드는 클라이언트 I/O 를 기다리지 않음)
+        sessionService.sendToSession(sessionId, new GatewayMessage.Connected(sessionId));
+
+        // 초기 크레딧 (welcome 다음 메시지)
+        if (flowController != null) {
+            flowController.open(sessionId);
+        }
     }
 
     @Override
@@ -65,12 +92,57 @@ public class GatewayHandler extends AbstractWebSocketHandler {
 
     @Override
     protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
-        byte[] audioData = message.getPayload().array();
-//        log.info("[Gateway] BINARY(음성) 수신 - sessionId={}, size={} bytes", session.getId(), audioData.length);
+        // payload 는 heap/direct 어느 쪽이든 가능. array() 대신 디스패처가 풀 버퍼로 복사
+        ByteBuffer audioData = message.getPayload();
+//        log.info("[Gateway] BINARY(음성) 수신 - sessionId={}, size={} bytes", session.getId(), audioData.remaining());
+
+        // framed 세션: 헤더 검사 + 시퀀스/수신 시각 기록
+        boolean framed = isFramed(session);
+        long receiveMicros = 0;
+        if (framed) {
+            try {
+                AudioFrameHeader.check(audioData, inputFormat(session));
+            } catch (IllegalArgumentException e) {
+                log.warn("[Gateway] 잘못된 프레임 헤더로 세션 종료 - sessionId={}, 이유={}", session.getId(), e.getMessage());
+                session.close(CloseStatus.BAD_DATA);
+                return;
+            }
+            receiveMicros = EpochClock.micros();
+            int base = audioData.position();
+            frameLatencyTracker.onFrame(session.getId(), AudioFrameHeader.streamId(audioData, base),
+                    AudioFrameHeader.sequence(audioData, base), AudioFrameHeader.captureMicros(audioData, base), receiveMicros);
+        }
+
+        // 크레딧 초과면 회복될 때까지 이 연결의 읽기를 멈춤
+        if (flowController != null) {
+            CreditFlowController.Result credit = flowController.acquire(session.getId(), audioData.remaining());
+            if (credit != CreditFlowController.Result.ACCEPTED) {
+                log.warn("[Gateway] 흐름 제어로 세션 종료 - sessionId={}, 이유={}", session.getId(), credit);
+                session.close(credit == CreditFlowController.Result.TOO_LARGE
+                        ? CloseStatus.TOO_BIG_TO_PROCESS.withReason("frame larger than credit window")
+                        : CloseStatus.POLICY_VIOLATION.withReason("credit exceeded"));
+                return;
+            }
+        }
+
+        // hotword 캡처 링에 기록 (payload position 은 그대로라 디스패처는 같은 버퍼를 처음부터 읽음)
+        // framed 면 헤더를 뺀 오디오만 기록
+        if (hotwordAudioCapture != null) {
+            int start = audioData.position();
+            if (framed) {
+                audioData.position(start + AudioFrameHeader.SIZE);
+            }
+            hotwordAudioCapture.write(session.getId(), audioData);
+            audioData.position(start);
+        }
 
         // 청크 단위로 Kafka에 발행 → Hotword 서비스가 구독해 분석
-        // Kafka 비동기 발행 (블로킹 최소화)
-        CompletableFuture.runAsync(() -> audioStreamProducer.send(session.getId(), audioData));
+        // 세션별 FIFO lane 에서 비동기 발행 (순서 보장 + 대기 프레임 상한). REJECTED 여도 크레딧은 디스패처가 돌려줌
+        AudioDispatcher.Result result = audioDispatcher.submit(session.getId(), audioData, receiveMicros);
+        if (result == AudioDispatcher.Result.REJECTED) {
+            log.warn("[Gateway] 오디오 대기 상한 초과로 세션 종료 - sessionId={}", session.getId());
+            session.close(CloseStatus.SERVICE_OVERLOAD);
+        }
 
         // 필요 시 클라이언트 ACK
 //        session.sendMessage(new TextMessage("{\"ack\":\"received\"}"));
@@ -86,7 +158,31 @@ public class GatewayHandler extends AbstractWebSocketHandler {
         log.info("[Gateway] WebSocket 연결 종료 - sessionId={}, code={}, reason={}",
                 session.getId(), closeStatus.getCode(), closeStatus.getReason());
         sessionService.unregister(session.getId());
-        gatewaySessionManager.removeSession(session);
+        // 대기 중인 프레임 + 병합 버퍼에 남은 오디오 발행
+        audioDispatcher.closeSession(session.getId());
+        frameLatencyTracker.close(session.getId());
+        if (flowController != null) {
+            flowController.close(session.getId());
+        }
+        if (hotwordAudioCapture != null) {
+            hotwordAudioCapture.close(session.getId());
+        }
+    }
+
+    private static boolean isFramed(WebSocketSession session) {
+        return Boolean.TRUE.equals(session.getAttributes().get(Constants.WS_ATTR_FRAMED));
+    }
+
+    /** 핸드셰이크에서 협상한 입력 형식 (GatewayInterceptor) */
+    private static AudioCodec inputFormat(WebSocketSession session) {
+        Object audioFormat = session.getAttributes().get(Constants.WS_ATTR_AUDIO_FORMAT);
+        return audioFormat instanceof AudioCodec codec ? codec : AudioCodec.PCM16;
+    }
+
+    /** 핸드셰이크에서 클라이언트가 요청한 서브프로토콜 중 처음 일치하는 것을 수락 */
+    @Override
+    public List<String> getSubProtocols() {
+        return MessageEncoding.SUBPROTOCOLS;
     }
 
     @Override
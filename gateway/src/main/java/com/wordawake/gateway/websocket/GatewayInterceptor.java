@@ -1,19 +1,52 @@
 package com.wordawake.gateway.websocket;
 
+import com.wordawake.gateway.codec.AudioCodec;
+import com.wordawake.gateway.utils.Constants;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.server.support.HttpSessionHandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.Map;
 
+/**
+ * 핸드셰이크 인터셉터.
+ * - 오디오 입력 형식 협상: 쿼리 파라미터 audio-format 또는 X-Audio-Format 헤더 (pcm16 / mulaw / ima-adpcm, 없으면 pcm16)
+ *   지원하지 않는 형식이면 415 로 거절, 수락한 형식은 응답 헤더로 돌려주고 세션 속성(audioFormat)에 저장
+ * - 프레임 형식 협상: 쿼리 파라미터 frame-format 또는 X-Frame-Format 헤더 (raw / framed, 없으면 raw)
+ *   framed 면 바이너리 프레임마다 AudioFrameHeader 가 붙음. 알 수 없는 값이면 400, 수락한 값은 응답 헤더 + 세션 속성(framed)
+ * - 수락 제어(HandshakeAdmission, 사용 시): 협상까지 통과한 요청만 수락률/세션 상한 검사.
+ *   거절하면 503 + Retry-After(초) / X-Retry-After-Ms 헤더로 jitter 를 섞은 재시도 시점 안내
+ */
 @Slf4j
 public class GatewayInterceptor extends HttpSessionHandshakeInterceptor {
 
+    /** null 이면 수락 제어 없음 */
+    private final HandshakeAdmission admission;
+
+    public GatewayInterceptor() {
+        this(null);
+    }
+
+    public GatewayInterceptor(HandshakeAdmission admission) {
+        this.admission = admission;
+    }
+
     @Override
     public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler, Map<String, Object> attributes) throws Exception {
         log.debug("GatewayInterceptor: beforeHandshake");
+        HttpStatus rejected = negotiate(
+                requested(request, Constants.WS_PARAM_AUDIO_FORMAT, Constants.WS_HEADER_AUDIO_FORMAT),
+                requested(request, Constants.WS_PARAM_FRAME_FORMAT, Constants.WS_HEADER_FRAME_FORMAT),
+                admission, attributes, response.getHeaders());
+        if (rejected != null) {
+            response.setStatusCode(rejected);
+            return false;
+        }
         return super.beforeHandshake(request, response, wsHandler, attributes);
     }
 
@@ -21,6 +54,56 @@ public class GatewayInterceptor extends HttpSessionHandshakeInterceptor {
     public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler, Exception ex) {
         // 일반적으로 핸드셰이크 요청의 메타데이터(IP주소, 사용자 정보 등)를 로깅
         log.debug("GatewayInterceptor: afterHandshake");
+        if (admission != null) {
+            admission.onHandshakeDone();
+        }
         super.afterHandshake(request, response, wsHandler, ex);
     }
+
+    /**
+     * 형식 협상 + 수락 제어 (servlet 인터셉터 / reactive 핸드셰이크 서비스 공용).
+     * 통과하면 세션 속성과 응답 헤더를 채우고 null, 거절하면 응답 상태 (재시도 힌트 헤더는 채움).
+     * 수락 제어를 통과했으면 핸드셰이크가 끝날 때 {@link HandshakeAdmission#onHandshakeDone()} 호출 필요.
+     *
+     * @param audioFormat 요청한 오디오 형식 (없으면 null)
+     * @param frameFormat 요청한 프레임 형식 (없으면 null)
+     * @param admission   null 이면 수락 제어 없음
+     */
+    public static HttpStatus negotiate(String audioFormat, String frameFormat, HandshakeAdmission admission,
+                                       Map<String, Object> attributes, HttpHeaders responseHeaders) {
+        AudioCodec codec;
+        try {
+            codec = AudioCodec.of(audioFormat);
+        } catch (IllegalArgumentException e) {
+            log.warn("[Gateway] 지원하지 않는 오디오 형식으로 핸드셰이크 거절 - {}", e.getMessage());
+            return HttpStatus.UNSUPPORTED_MEDIA_TYPE;
+        }
+        boolean framed = "framed".equalsIgnoreCase(frameFormat);
+        if (!framed && frameFormat != null && !frameFormat.isBlank() && !"raw".equalsIgnoreCase(frameFormat)) {
+            log.warn("[Gateway] 지원하지 않는 프레임 형식으로 핸드셰이크 거절 - {}", frameFormat);
+            return HttpStatus.BAD_REQUEST;
+        }
+        if (admission != null) {
+            HandshakeAdmission.Decision decision = admission.tryAdmit();
+            if (!decision.admitted()) {
+                log.debug("[Gateway] 핸드셰이크 거절 - 이유={}, retryAfterMs={}", decision.rejection(), decision.retryAfterMillis());
+                responseHeaders.set(HttpHeaders.RETRY_AFTER,
+                        String.valueOf(Math.max(1, (decision.retryAfterMillis() + 999) / 1000)));
+                responseHeaders.set(Constants.WS_HEADER_RETRY_AFTER_MS, String.valueOf(decision.retryAfterMillis()));
+                return HttpStatus.SERVICE_UNAVAILABLE;
+            }
+        }
+        attributes.put(Constants.WS_ATTR_AUDIO_FORMAT, codec);
+        attributes.put(Constants.WS_ATTR_FRAMED, framed);
+        responseHeaders.set(Constants.WS_HEADER_AUDIO_FORMAT, codec.id());
+        responseHeaders.set(Constants.WS_HEADER_FRAME_FORMAT, framed ? "framed" : "raw");
+        return null;
+    }
+
+    /** 쿼리 파라미터 우선, 없으면 헤더 */
+    private static String requested(ServerHttpRequest request, String paramName, String headerName) {
+        String param = UriComponentsBuilder.fromUri(request.getURI()).build()
+                .getQueryParams().getFirst(paramName);
+        return param != null ? param : request.getHeaders().getFirst(headerName);
+    }
 }
@@ -0,0 +1,117 @@
+package com.wordawake.gateway.websocket;
+
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import com.wordawake.gateway.session.SessionRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 핸드셰이크 수락 제어 (app.admission.enabled=true 일 때만). 배포/네트워크 순단 뒤 재연결 폭주 대비.
+ *
+ * - 수락률: 토큰 버킷 (초당 rate-per-second 개, 최대 burst 개까지 모아 둠)
+ * - 노드 동시 세션 상한: 등록된 세션 + 핸드셰이크 진행 중 수가 max-sessions 이상이면 거절
+ * - 거절 시 재시도 힌트 = retry-after + [0, retry-after-jitter) 난수.
+ *   같은 순간 거절된 클라이언트들이 같은 시각에 다시 몰리지 않고 jitter 구간에 퍼져서 들어옴
+ *
+ * 진행 중 수는 beforeHandshake 에서 늘리고 afterHandshake 에서 줄임 (그 뒤는 SessionRegistry 가 셈).
+ * 업그레이드 완료 → afterConnectionEstablished 사이의 짧은 구간은 어느 쪽에도 안 잡히므로 상한은 근사치.
+ */
+@Component
+@ConditionalOnProperty(name = "app.admission.enabled", havingValue = "true")
+public class HandshakeAdmission {
+
+    /** 거절 사유 (메트릭 태그) */
+    public enum Rejection {
+        RATE, CAPACITY
+    }
+
+    /** 판정 결과. rejection 이 null 이면 수락 */
+    public record Decision(Rejection rejection, long retryAfterMillis) {
+
+        static final Decision ADMITTED = new Decision(null, 0);
+
+        public boolean admitted() {
+            return rejection == null;
+        }
+    }
+
+    private final SessionRegistry sessionRegistry;
+    private final GatewayMetrics metrics;
+    private final double tokensPerNano;
+    private final double burst;
+    private final int maxSessions;
+    private final long retryAfterMillis;
+    private final long retryAfterJitterMillis;
+    private final AtomicInteger pendingHandshakes = new AtomicInteger();
+    /** 토큰 버킷 상태 (this 로 동기화, 핸드셰이크마다 짧게 잡음) */
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    public HandshakeAdmission(
+            SessionRegistry sessionRegistry,
+            GatewayMetrics metrics,
+            @Value("${app.admission.rate-per-second:200}") double ratePerSecond,
+            @Value("${app.admission.burst:400}") int burst,
+            @Value("${app.admission.max-sessions:20000}") int maxSessions,
+            @Value("${app.admission.retry-after-ms:1000}") long retryAfterMillis,
+            @Value("${app.admission.retry-after-jitter-ms:5000}") long retryAfterJitterMillis) {
+        if (ratePerSecond <= 0 || burst <= 0 || maxSessions <= 0 || retryAfterMillis < 0 || retryAfterJitterMillis < 0) {
+            throw new IllegalArgumentException("invalid admission limits");
+        }
+        this.sessionRegistry = sessionRegistry;
+        this.metrics = metrics;
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.maxSessions = maxSessions;
+        this.retryAfterMillis = retryAfterMillis;
+        this.retryAfterJitterMillis = retryAfterJitterMillis;
+        // 기동 직후에도 burst 만큼은 바로 받음
+        this.tokens = burst;
+    }
+
+    /** 핸드셰이크 수락 여부. 수락했으면 핸드셰이크가 끝날 때 {@link #onHandshakeDone()} 호출 */
+    public Decision tryAdmit() {
+        return tryAdmit(sessionRegistry.size(), System.nanoTime());
+    }
+
+    Decision tryAdmit(int activeSessions, long nowNanos) {
+        // 상한을 먼저 봄: 어차피 못 받는 연결이 토큰을 쓰지 않게
+        if (activeSessions + pendingHandshakes.get() >= maxSessions) {
+            return reject(Rejection.CAPACITY, retryAfterMillis);
+        }
+        long waitMillis;
+        synchronized (this) {
+            tokens = Math.min(burst, tokens + (nowNanos - lastRefillNanos) * tokensPerNano);
+            lastRefillNanos = nowNanos;
+            if (tokens >= 1) {
+                tokens -= 1;
+                pendingHandshakes.incrementAndGet();
+                return Decision.ADMITTED;
+            }
+            // 다음 토큰까지 남은 시간보다 이르게 다시 오라고 하지 않음
+            waitMillis = TimeUnit.NANOSECONDS.toMillis((long) Math.ceil((1 - tokens) / tokensPerNano));
+        }
+        return reject(Rejection.RATE, Math.max(retryAfterMillis, waitMillis));
+    }
+
+    /** 수락한 핸드셰이크 종료 (성공/실패 무관, afterHandshake) */
+    public void onHandshakeDone() {
+        pendingHandshakes.decrementAndGet();
+    }
+
+    /** 핸드셰이크 진행 중 수 (모니터링용) */
+    public int getPendingHandshakeCount() {
+        return pendingHandshakes.get();
+    }
+
+    private Decision reject(Rejection rejection, long baseMillis) {
+        metrics.onHandshakeRejected(rejection == Rejection.RATE);
+        long jitter = retryAfterJitterMillis == 0 ? 0 : ThreadLocalRandom.current().nextLong(retryAfterJitterMillis);
+        return new Decision(rejection, baseMillis + jitter);
+    }
+}
@@ -0,0 +1,161 @@
+package com.wordawake.gateway.websocket;
+
+import com.wordawake.gateway.message.GatewayMessage;
+import com.wordawake.gateway.message.MessageEncoding;
+import com.wordawake.gateway.session.OutboundMailbox;
+import com.wordawake.gateway.session.SessionEntry;
+import com.wordawake.gateway.session.SessionRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 전체 세션 팬아웃 전송기 (하트비트용).
+ * - 메시지는 tick 당 인코딩별로 한 번만 인코딩하고, 같은 인코딩 세션에는 같은 인스턴스를 전송
+ * - 레지스트리 shard 를 parallelism 개 워커에 나눠 병렬로 세션 송신 큐(OutboundMailbox)에 적재
+ *   → 실제 I/O 는 세션별 writer 가 하므로 느린 클라이언트 하나가 전체를 막지 않음
+ * - 각 워커는 적재 시각을 interval * spread-ratio 구간에 고르게 흩뿌림 (writer 들이 한 번에 몰리지 않게)
+ * - broadcast 는 워커에 작업만 넘기고 바로 반환 (분산 대기는 자체 워커 스레드에서만).
+ *   호출하는 @Scheduled 스레드는 공용 스케줄러라, 여기서 기다리면 flushExpired 같은 짧은 주기 작업이 밀림
+ * - tick 마다 소요 시간, 성공/정리/느린 클라이언트 수를 기록
+ *   (느린 클라이언트: 이전 메시지를 아직 다 받지 못해 송신 큐가 밀려 있는 세션)
+ */
+@Slf4j
+@Component
+public class HeartbeatBroadcaster {
+
+    /** tick 1회 결과. slow = 송신 큐가 밀려 있던 세션 수 */
+    public record TickStats(int sent, int dead, int slow, long durationMs) {
+        static final TickStats EMPTY = new TickStats(0, 0, 0, 0);
+
+        TickStats plus(TickStats other) {
+            return new TickStats(sent + other.sent, dead + other.dead, slow + other.slow, 0);
+        }
+    }
+
+    private final SessionRegistry sessionRegistry;
+    private final int parallelism;
+    private final long spreadNanos;
+    private final ExecutorService workers;
+    private volatile TickStats lastTick = TickStats.EMPTY;
+
+    public HeartbeatBroadcaster(
+            SessionRegistry sessionRegistry,
+            @Value("${app.heartbeat.parallelism:4}") int parallelism,
+            @Value("${app.heartbeat.interval-ms:30000}") long intervalMs,
+            @Value("${app.heartbeat.spread-ratio:0.5}") double spreadRatio) {
+        this.sessionRegistry = sessionRegistry;
+        this.parallelism = Math.max(1, Math.min(parallelism, sessionRegistry.getShardCount()));
+        this.spreadNanos = (long) (TimeUnit.MILLISECONDS.toNanos(intervalMs) * spreadRatio);
+        this.workers = Executors.newFixedThreadPool(this.parallelism,
+                Thread.ofPlatform().name("heartbeat-", 0).daemon().factory());
+    }
+
+    /** 모든 세션에 제어 메시지 전송. 세션 인코딩(JSON / CBOR)마다 한 번씩만 인코딩 */
+    public CompletableFuture<TickStats> broadcast(GatewayMessage message) {
+        MessageEncoding[] encodings = MessageEncoding.values();
+        WebSocketMessage<?>[] encoded = new WebSocketMessage<?>[encodings.length];
+        for (MessageEncoding encoding : encodings) {
+            encoded[encoding.ordinal()] = encoding.encode(message);
+        }
+        return broadcast(encoded);
+    }
+
+    /**
+     * 모든 세션에 message 전송 (인코딩 구분 없이 같은 프레임). 닫혔거나 송신 큐가 닫힌 세션은 레지스트리에서 정리.
+     * 적재는 spread 구간(최대 interval * spread-ratio)에 걸쳐 워커에서 진행되고, 반환된 future 는 모든 워커가 끝나면 완료됨.
+     */
+    public CompletableFuture<TickStats> broadcast(WebSocketMessage<?> message) {
+        WebSocketMessage<?>[] encoded = new WebSocketMessage<?>[MessageEncoding.values().length];
+        Arrays.fill(encoded, message);
+        return broadcast(encoded);
+    }
+
+    /** encoded[인코딩 ordinal] = 그 인코딩 세션에 보낼 프레임 */
+    private CompletableFuture<TickStats> broadcast(WebSocketMessage<?>[] encoded) {
+        long start = System.nanoTime();
+        List<CompletableFuture<TickStats>> futures = new ArrayList<>(parallelism);
+        for (int w = 0; w < parallelism; w++) {
+            int worker = w;
+            futures.add(CompletableFuture.supplyAsync(() -> sendShards(worker, encoded, start), workers)
+                    .exceptionally(e -> {
+                        log.error("[HeartbeatBroadcaster] 워커 실패", e);
+                        return TickStats.EMPTY;
+                    }));
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            TickStats total = TickStats.EMPTY;
+            for (CompletableFuture<TickStats> future : futures) {
+                total = total.plus(future.join());
+            }
+            TickStats stats = new TickStats(total.sent(), total.dead(), total.slow(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            lastTick = stats;
+            return stats;
+        });
+    }
+
+    /** 마지막 tick 결과 */
+    public TickStats getLastTick() {
+        return lastTick;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /** worker 가 맡은 shard(worker, worker + parallelism, ...) 의 세션에 순서대로 전송 */
+    private TickStats sendShards(int worker, WebSocketMessage<?>[] encoded, long start) {
+        List<SessionEntry[]> snapshots = new ArrayList<>();
+        int total = 0;
+        for (int shard = worker; shard < sessionRegistry.getShardCount(); shard += parallelism) {
+            SessionEntry[] snapshot = sessionRegistry.snapshot(shard);
+            snapshots.add(snapshot);
+            total += snapshot.length;
+        }
+        int sent = 0;
+        int dead = 0;
+        int slow = 0;
+        int index = 0;
+        for (SessionEntry[] snapshot : snapshots) {
+            for (SessionEntry entry : snapshot) {
+                // index 번째 세션의 목표 전송 시각까지 대기 → spread 구간에 균등 분산
+                long target = start + (total == 0 ? 0 : spreadNanos * index / total);
+                index++;
+                long wait = target - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (!entry.isOpen()) {
+                    sessionRegistry.remove(entry.getId());
+                    dead++;
+                    continue;
+                }
+                OutboundMailbox outbound = entry.getOutbound();
+                if (outbound.isBacklogged()) {
+                    slow++;
+                }
+                if (outbound.offer(encoded[entry.getEncoding().ordinal()]) == OutboundMailbox.OfferResult.CLOSED) {
+                    log.warn("[HeartbeatBroadcaster] 전송 실패(송신 큐 닫힘) - sessionId={}", entry.getId());
+                    sessionRegistry.remove(entry.getId());
+                    dead++;
+                } else {
+                    sent++;
+                }
+            }
+        }
+        return new TickStats(sent, dead, slow, 0);
+    }
+}
@@ -0,0 +1,110 @@
+package com.wordawake.gateway.capture;
+
+import com.wordawake.gateway.codec.AudioCodec;
+import com.wordawake.gateway.utils.Constants;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * HotwordAudioCapture 단위 테스트 (bytes-per-second=1000 → 1ms = 1바이트).
+ * hotword 전후 구간 발행, 세션 종료 시 대기 캡처 즉시 발행 + 슬롯 반납, 캡처 제외 세션 검증.
+ */
+@SuppressWarnings("unchecked")
+class HotwordAudioCaptureTest {
+
+    KafkaTemplate<String, ByteBuffer> kafkaTemplate = mock(KafkaTemplate.class);
+    HotwordAudioCapture capture;
+
+    @AfterEach
+    void tearDown() {
+        capture.shutdown();
+    }
+
+    @Test
+    void onHotword_publishesPreAndPostAudioAfterPostDelay() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+        capture = new HotwordAudioCapture(kafkaTemplate, "stt-requests", 100, 50, 1000, 4);
+        capture.open("s1", AudioCodec.MULAW);
+
+        capture.write("s1", ByteBuffer.wrap(bytes(0, 120)));
+        capture.onHotword("s1", "{\"word\":\"w\"}".getBytes(StandardCharsets.UTF_8));
+        capture.write("s1", ByteBuffer.wrap(bytes(120, 80)));
+
+        ArgumentCaptor<ProducerRecord<String, ByteBuffer>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, timeout(2000)).send(captor.capture());
+        ProducerRecord<String, ByteBuffer> record = captor.getValue();
+        assertEquals("stt-requests", record.topic());
+        assertEquals("s1", record.key());
+        // [120 - 100, 120 + 50)
+        assertEquals(ByteBuffer.wrap(bytes(20, 150)), record.value());
+        assertEquals("mulaw", header(record, Constants.KAFKA_HEADER_AUDIO_CODEC));
+        assertEquals("{\"word\":\"w\"}", header(record, Constants.KAFKA_HEADER_HOTWORD_EVENT));
+        assertEquals(100, ByteBuffer.wrap(record.headers().lastHeader(Constants.KAFKA_HEADER_HOTWORD_OFFSET).value()).getInt());
+    }
+
+    @Test
+    void close_publishesPendingCaptureImmediatelyAndReleasesSlot() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+        capture = new HotwordAudioCapture(kafkaTemplate, "stt-requests", 100, 60_000, 1000, 1);
+        capture.open("s1", AudioCodec.PCM16);
+        assertEquals(0, capture.getFreeSlotCount());
+
+        capture.write("s1", ByteBuffer.wrap(bytes(0, 40)));
+        capture.onHotword("s1", "{}".getBytes(StandardCharsets.UTF_8));
+        capture.write("s1", ByteBuffer.wrap(bytes(40, 10)));
+        capture.close("s1");
+
+        ArgumentCaptor<ProducerRecord<String, ByteBuffer>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, timeout(2000)).send(captor.capture());
+        // 세션 시작 전 구간은 없으므로 [0, 50), hotword 위치 40
+        assertEquals(ByteBuffer.wrap(bytes(0, 50)), captor.getValue().value());
+        assertEquals(40, ByteBuffer.wrap(captor.getValue().headers().lastHeader(Constants.KAFKA_HEADER_HOTWORD_OFFSET).value()).getInt());
+        verify(kafkaTemplate, timeout(2000).times(1)).send(any(ProducerRecord.class));
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            while (capture.getFreeSlotCount() != 1) {
+                Thread.sleep(5);
+            }
+        });
+    }
+
+    @Test
+    void open_skipsAdpcmSessionsAndSessionsWithoutFreeSlot() {
+        capture = new HotwordAudioCapture(kafkaTemplate, "stt-requests", 100, 0, 1000, 1);
+        capture.open("adpcm", AudioCodec.IMA_ADPCM);
+        capture.open("first", AudioCodec.PCM16);
+        capture.open("second", AudioCodec.PCM16);
+
+        capture.write("adpcm", ByteBuffer.wrap(bytes(0, 10)));
+        capture.write("second", ByteBuffer.wrap(bytes(0, 10)));
+        capture.onHotword("adpcm", "{}".getBytes(StandardCharsets.UTF_8));
+        capture.onHotword("second", "{}".getBytes(StandardCharsets.UTF_8));
+        capture.onHotword("unknown", "{}".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(1, capture.getRejectedSessionCount());
+        verify(kafkaTemplate, after(200).never()).send(any(ProducerRecord.class));
+    }
+
+    private static String header(ProducerRecord<String, ByteBuffer> record, String key) {
+        return new String(record.headers().lastHeader(key).value(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(int start, int length) {
+        byte[] b = new byte[length];
+        for (int i = 0; i < length; i++) {
+            b[i] = (byte) (start + i);
+        }
+        return b;
+    }
+}
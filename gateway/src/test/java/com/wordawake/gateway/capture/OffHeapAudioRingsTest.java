@@ -0,0 +1,94 @@
+package com.wordawake.gateway.capture;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OffHeapAudioRings 단위 테스트.
+ * 슬롯 할당/반납, 링 덮어쓰기(wrap), 구간 스냅샷 잘라내기, 슬롯 간 격리 검증.
+ */
+class OffHeapAudioRingsTest {
+
+    @Test
+    void acquire_returnsNullWhenSlotsExhausted_andReleaseReturnsSlot() {
+        OffHeapAudioRings rings = new OffHeapAudioRings(16, 2);
+
+        OffHeapAudioRings.Ring a = rings.acquire();
+        OffHeapAudioRings.Ring b = rings.acquire();
+
+        assertNotNull(a);
+        assertNotNull(b);
+        assertNull(rings.acquire());
+        assertEquals(0, rings.getFreeSlotCount());
+
+        rings.release(a);
+        rings.release(a);  // 중복 반납은 무시
+        assertEquals(1, rings.getFreeSlotCount());
+        assertNotNull(rings.acquire());
+    }
+
+    @Test
+    void write_wrapsAroundAndKeepsLastSlotBytes() {
+        OffHeapAudioRings rings = new OffHeapAudioRings(8, 1);
+        OffHeapAudioRings.Ring ring = rings.acquire();
+
+        ring.write(ByteBuffer.wrap(bytes(0, 6)));
+        ring.write(ByteBuffer.wrap(bytes(6, 6)));
+
+        assertEquals(12, ring.position());
+        // 앞 4바이트는 덮어써졌으므로 [4, 12) 만 남음
+        assertArrayEquals(bytes(4, 8), ring.snapshot(0, 12));
+        assertArrayEquals(bytes(5, 3), ring.snapshot(5, 8));
+        // 아직 쓰지 않은 뒷부분은 잘림
+        assertArrayEquals(bytes(10, 2), ring.snapshot(10, 20));
+    }
+
+    @Test
+    void write_longerThanSlot_keepsTail_andDoesNotMoveSourcePosition() {
+        OffHeapAudioRings rings = new OffHeapAudioRings(4, 1);
+        OffHeapAudioRings.Ring ring = rings.acquire();
+        ByteBuffer src = ByteBuffer.wrap(bytes(0, 10));
+        src.position(1);
+
+        ring.write(src);
+
+        assertEquals(1, src.position());
+        assertEquals(9, ring.position());
+        assertArrayEquals(bytes(6, 4), ring.snapshot(0, 9));
+    }
+
+    @Test
+    void slotsDoNotOverlap_andReleasedRingIgnoresAccess() {
+        OffHeapAudioRings rings = new OffHeapAudioRings(4, 3);
+        OffHeapAudioRings.Ring a = rings.acquire();
+        OffHeapAudioRings.Ring b = rings.acquire();
+
+        a.write(ByteBuffer.wrap(bytes(10, 4)));
+        b.write(ByteBuffer.wrap(bytes(20, 4)));
+
+        assertArrayEquals(bytes(10, 4), a.snapshot(0, 4));
+        assertArrayEquals(bytes(20, 4), b.snapshot(0, 4));
+
+        rings.release(a);
+        a.write(ByteBuffer.wrap(bytes(30, 4)));
+        assertEquals(0, a.snapshot(0, 8).length);
+        assertArrayEquals(bytes(20, 4), b.snapshot(0, 4));
+    }
+
+    @Test
+    void constructor_rejectsInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapAudioRings(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapAudioRings(16, 0));
+    }
+
+    private static byte[] bytes(int start, int length) {
+        byte[] b = new byte[length];
+        for (int i = 0; i < length; i++) {
+            b[i] = (byte) (start + i);
+        }
+        return b;
+    }
+}
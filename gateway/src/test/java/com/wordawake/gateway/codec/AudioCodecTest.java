@@ -0,0 +1,124 @@
+package com.wordawake.gateway.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 코덱 단위 테스트.
+ * 이름 파싱, 압축 후 크기, 입력 버퍼 불변, 복원 품질(SNR), ADPCM 프레임 단위 복원(헤더 상태) 검증.
+ */
+class AudioCodecTest {
+
+    static final int SAMPLES = 1600; // 16kHz 100ms
+
+    @Test
+    void of_acceptsIdsAndEnumNames() {
+        assertEquals(AudioCodec.PCM16, AudioCodec.of(null));
+        assertEquals(AudioCodec.IMA_ADPCM, AudioCodec.of("ima-adpcm"));
+        assertEquals(AudioCodec.IMA_ADPCM, AudioCodec.of("IMA_ADPCM"));
+        assertEquals(AudioCodec.MULAW, AudioCodec.of(" MuLaw "));
+        assertThrows(IllegalArgumentException.class, () -> AudioCodec.of("opus"));
+    }
+
+    @Test
+    void muLaw_halvesSizeAndRoundTrips() {
+        short[] original = sine(SAMPLES);
+        ByteBuffer pcm = pcm(original);
+        ByteBuffer out = ByteBuffer.allocate(MuLaw.ENCODER.maxEncodedBytes(pcm.remaining()));
+
+        MuLaw.ENCODER.encode(pcm, out);
+        out.flip();
+
+        assertEquals(SAMPLES, out.remaining());
+        assertEquals(0, pcm.position());
+        short[] decoded = new short[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            decoded[i] = MuLaw.decode(out.get(i));
+        }
+        assertTrue(snrDb(original, decoded) > 30, "snr=" + snrDb(original, decoded));
+    }
+
+    @Test
+    void muLaw_extremesDoNotOverflow() {
+        assertTrue(MuLaw.decode(MuLaw.encode(Short.MAX_VALUE)) > 30000);
+        assertTrue(MuLaw.decode(MuLaw.encode(Short.MIN_VALUE)) < -30000);
+        assertEquals(0, MuLaw.decode(MuLaw.encode((short) 0)));
+    }
+
+    @Test
+    void imaAdpcm_quartersSizeAndRoundTrips() {
+        short[] original = sine(SAMPLES);
+        ImaAdpcm.Encoder encoder = new ImaAdpcm.Encoder();
+        ByteBuffer out = ByteBuffer.allocate(encoder.maxEncodedBytes(SAMPLES * 2));
+
+        encoder.encode(pcm(original), out);
+        out.flip();
+
+        assertEquals(ImaAdpcm.HEADER_BYTES + SAMPLES / 2, out.remaining());
+        short[] decoded = new short[SAMPLES];
+        assertEquals(SAMPLES, ImaAdpcm.decode(out, decoded));
+        assertTrue(snrDb(original, decoded) > 20, "snr=" + snrDb(original, decoded));
+    }
+
+    @Test
+    void imaAdpcm_laterFrameDecodesWithoutEarlierFrames() {
+        short[] original = sine(SAMPLES * 2);
+        ImaAdpcm.Encoder encoder = new ImaAdpcm.Encoder();
+        ByteBuffer first = ByteBuffer.allocate(encoder.maxEncodedBytes(SAMPLES * 2));
+        ByteBuffer second = ByteBuffer.allocate(encoder.maxEncodedBytes(SAMPLES * 2));
+        short[] firstHalf = new short[SAMPLES];
+        short[] secondHalf = new short[SAMPLES];
+        System.arraycopy(original, 0, firstHalf, 0, SAMPLES);
+        System.arraycopy(original, SAMPLES, secondHalf, 0, SAMPLES);
+
+        encoder.encode(pcm(firstHalf), first);
+        encoder.encode(pcm(secondHalf), second);
+        second.flip();
+
+        // 두 번째 프레임 헤더에 이어지는 상태가 실려 있어 단독 복원 가능
+        short[] decoded = new short[SAMPLES];
+        ImaAdpcm.decode(second, decoded);
+        assertTrue(snrDb(secondHalf, decoded) > 20, "snr=" + snrDb(secondHalf, decoded));
+    }
+
+    @Test
+    void encode_ignoresTrailingOddByte() {
+        ByteBuffer pcm = ByteBuffer.allocate(5);
+        ByteBuffer out = ByteBuffer.allocate(16);
+
+        MuLaw.ENCODER.encode(pcm, out);
+
+        assertEquals(2, out.position());
+    }
+
+    private static short[] sine(int n) {
+        short[] samples = new short[n];
+        for (int i = 0; i < n; i++) {
+            samples[i] = (short) (Math.sin(2 * Math.PI * 440 * i / 16000.0) * 8000);
+        }
+        return samples;
+    }
+
+    private static ByteBuffer pcm(short[] samples) {
+        ByteBuffer buf = ByteBuffer.allocate(samples.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (short s : samples) {
+            buf.putShort(s);
+        }
+        return buf.flip();
+    }
+
+    private static double snrDb(short[] original, short[] decoded) {
+        double signal = 0;
+        double noise = 0;
+        for (int i = 0; i < original.length; i++) {
+            signal += (double) original[i] * original[i];
+            double e = original[i] - decoded[i];
+            noise += e * e;
+        }
+        return 10 * Math.log10(signal / Math.max(noise, 1));
+    }
+}
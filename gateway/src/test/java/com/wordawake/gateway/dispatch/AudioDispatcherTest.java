@@ -0,0 +1,278 @@
+package com.wordawake.gateway.dispatch;
+
+import com.wordawake.gateway.codec.AudioCodec;
+import com.wordawake.gateway.flow.CreditFlowController;
+import com.wordawake.gateway.framing.AudioFrameHeader;
+import com.wordawake.gateway.framing.FrameStamp;
+import com.wordawake.gateway.kafka.AudioStreamProducer;
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import com.wordawake.gateway.service.SessionService;
+import com.wordawake.gateway.vad.VadSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * AudioDispatcher 단위 테스트.
+ * 세션 내 순서 보장, 상한 도달 시 정책(DROP_OLDEST / CLOSE_SESSION), 종료 시 잔여 발행, 버퍼 재사용,
+ * framed 세션 헤더 분리/시퀀스 전달 검증.
+ */
+class AudioDispatcherTest {
+
+    GatewayMetrics metrics = new GatewayMetrics(new SimpleMeterRegistry());
+
+    AudioStreamProducer producer = mock(AudioStreamProducer.class);
+    /** 발행된 프레임 내용 (버퍼는 발행 후 풀로 반납되므로 복사해 둠) */
+    List<Byte> sent = new CopyOnWriteArrayList<>();
+    CountDownLatch release = new CountDownLatch(0);
+    AudioDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(inv -> {
+            ByteBuffer frame = inv.getArgument(1);
+            sent.add(frame.get(frame.position()));
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(producer).send(eq("s1"), any(ByteBuffer.class), eq(AudioCodec.PCM16));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void submit_preservesOrderWithinSession() throws Exception {
+        dispatcher = newDispatcher(1000, AudioDispatcher.OverflowPolicy.BLOCK);
+        dispatcher.openSession("s1", AudioCodec.PCM16);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(AudioDispatcher.Result.ACCEPTED, dispatcher.submit("s1", frame(i)));
+        }
+
+        await().atMost(1, TimeUnit.SECONDS).until(() -> sent.size() == 50);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(Byte.valueOf((byte) i), sent.get(i));
+        }
+    }
+
+    @Test
+    void submit_whenSessionFull_dropOldestKeepsNewest() throws Exception {
+        release = new CountDownLatch(1);
+        dispatcher = newDispatcher(2, AudioDispatcher.OverflowPolicy.DROP_OLDEST);
+        dispatcher.openSession("s1", AudioCodec.PCM16);
+
+        dispatcher.submit("s1", frame(0));
+        await().atMost(1, TimeUnit.SECONDS).until(() -> sent.size() == 1); // writer 가 0 에서 멈춤
+        dispatcher.submit("s1", frame(1));
+        dispatcher.submit("s1", frame(2));
+        assertEquals(AudioDispatcher.Result.DROPPED, dispatcher.submit("s1", frame(3)));
+        release.countDown();
+
+        await().atMost(1, TimeUnit.SECONDS).until(() -> sent.size() == 3);
+        assertEquals(List.of((byte) 0, (byte) 2, (byte) 3), sent);
+        assertEquals(1, dispatcher.getDroppedFrameCount());
+    }
+
+    @Test
+    void submit_whenSessionFull_closePolicyRejects() throws Exception {
+        release = new CountDownLatch(1);
+        dispatcher = newDispatcher(1, AudioDispatcher.OverflowPolicy.CLOSE_SESSION);
+        dispatcher.openSession("s1", AudioCodec.PCM16);
+
+        dispatcher.submit("s1", frame(0));
+        await().atMost(1, TimeUnit.SECONDS).until(() -> sent.size() == 1);
+        dispatcher.submit("s1", frame(1));
+
+        assertEquals(AudioDispatcher.Result.REJECTED, dispatcher.submit("s1", frame(2)));
+        release.countDown();
+    }
+
+    @Test
+    void submit_rejected_returnsCreditForBlockTimeoutAndClosePolicy() throws Exception {
+        for (AudioDispatcher.OverflowPolicy policy
+                : List.of(AudioDispatcher.OverflowPolicy.BLOCK, AudioDispatcher.OverflowPolicy.CLOSE_SESSION)) {
+            sent.clear();
+            release = new CountDownLatch(1);
+            CreditFlowController flow = new CreditFlowController(mock(SessionService.class), metrics, 1000, 100, 1000);
+            flow.open("s1");
+            dispatcher = new AudioDispatcher(producer, metrics, 1, 1000, policy, 20, 64, 16, false, "pcm16",
+                    Optional.empty(), Optional.of(flow));
+            dispatcher.openSession("s1", AudioCodec.PCM16);
+
+            assertEquals(CreditFlowController.Result.ACCEPTED, flow.acquire("s1", 1));
+            dispatcher.submit("s1", frame(0));
+            await().atMost(1, TimeUnit.SECONDS).until(() -> sent.size() == 1); // writer 가 0 에서 멈춤
+            assertEquals(CreditFlowController.Result.ACCEPTED, flow.acquire("s1", 1));
+            dispatcher.submit("s1", frame(1));
+            assertEquals(CreditFlowController.Result.ACCEPTED, flow.acquire("s1", 1));
+
+            assertEquals(AudioDispatcher.Result.REJECTED, dispatcher.submit("s1", frame(2)), policy.name());
+            // 거절된 프레임 크레딧은 바로 반환, 대기 중인 두 프레임 몫만 남음
+            assertEquals(998, flow.getBalance("s1"), policy.name());
+
+            release.countDown();
+            await().atMost(1, TimeUnit.SECONDS).until(() -> flow.getBalance("s1") == 1000);
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void closeSession_flushesProducerAfterQueuedFrames() throws Exception {
+        dispatcher = newDispatcher(64, AudioDispatcher.OverflowPolicy.BLOCK);
+        dispatcher.openSession("s1", AudioCodec.PCM16);
+
+        dispatcher.submit("s1", frame(1));
+        dispatcher.closeSession("s1");
+
+        InOrder inOrder = inOrder(producer);
+        inOrder.verify(producer, timeout(1000)).send(eq("s1"), any(ByteBuffer.class), eq(AudioCodec.PCM16));
+        inOrder.verify(producer, timeout(1000)).closeSession("s1");
+    }
+
+    @Test
+    void submit_reusesPooledFrameBuffers() throws Exception {
+        dispatcher = newDispatcher(64, AudioDispatcher.OverflowPolicy.BLOCK);
+        dispatcher.openSession("s1", AudioCodec.PCM16);
+
+        for (int i = 0; i < 100; i++) {
+            dispatcher.submit("s1", frame(i));
+            int expected = i + 1;
+            await().atMost(1, TimeUnit.SECONDS).until(() -> sent.size() == expected);
+        }
+
+        assertTrue(dispatcher.getFramePool().getAllocatedCount() <= 2,
+                "allocated=" + dispatcher.getFramePool().getAllocatedCount());
+    }
+
+    @Test
+    void submit_pcmInput_encodesToTargetCodecBeforePublishing() throws Exception {
+        List<Integer> encodedSizes = new CopyOnWriteArrayList<>();
+        doAnswer(inv -> {
+            encodedSizes.add(inv.<ByteBuffer>getArgument(1).remaining());
+            return null;
+        }).when(producer).send(eq("s2"), any(ByteBuffer.class), eq(AudioCodec.IMA_ADPCM));
+        dispatcher = new AudioDispatcher(producer, metrics, 64, 1000, AudioDispatcher.OverflowPolicy.BLOCK,
+                1000, 4096, 16, false, "ima-adpcm", Optional.empty(), Optional.empty());
+        dispatcher.openSession("s2", AudioCodec.PCM16);
+
+        dispatcher.submit("s2", ByteBuffer.wrap(new byte[3200]));
+
+        // 1600 샘플 → 헤더 4 + 800 바이트
+        await().atMost(1, TimeUnit.SECONDS).until(() -> encodedSizes.size() == 1);
+        assertEquals(804, encodedSizes.get(0));
+    }
+
+    @Test
+    void openSession_compressedInput_isPublishedAsIs() throws Exception {
+        List<Integer> sizes = new CopyOnWriteArrayList<>();
+        doAnswer(inv -> {
+            sizes.add(inv.<ByteBuffer>getArgument(1).remaining());
+            return null;
+        }).when(producer).send(eq("s3"), any(ByteBuffer.class), eq(AudioCodec.MULAW));
+        dispatcher = new AudioDispatcher(producer, metrics, 64, 1000, AudioDispatcher.OverflowPolicy.BLOCK,
+                1000, 4096, 16, false, "ima-adpcm", Optional.empty(), Optional.empty());
+
+        dispatcher.openSession("s3", AudioCodec.MULAW);
+        dispatcher.submit("s3", ByteBuffer.wrap(new byte[160]));
+
+        await().atMost(1, TimeUnit.SECONDS).until(() -> sizes.size() == 1);
+        assertEquals(160, sizes.get(0));
+    }
+
+    @Test
+    void submit_withVad_publishesOnlySpeechWithPreRoll() throws Exception {
+        List<Integer> sizes = new CopyOnWriteArrayList<>();
+        doAnswer(inv -> {
+            sizes.add(inv.<ByteBuffer>getArgument(1).remaining());
+            return null;
+        }).when(producer).send(eq("s4"), any(ByteBuffer.class), eq(AudioCodec.PCM16));
+        // pre-roll 20ms(640 bytes), keepalive 없음
+        VadSettings vad = new VadSettings(16000, -45, 10, 0, 20, 0);
+        dispatcher = new AudioDispatcher(producer, metrics, 64, 1000, AudioDispatcher.OverflowPolicy.BLOCK,
+                1000, 4096, 16, false, "pcm16", Optional.of(vad), Optional.empty());
+        dispatcher.openSession("s4", AudioCodec.PCM16);
+
+        for (int i = 0; i < 10; i++) {
+            dispatcher.submit("s4", ByteBuffer.wrap(new byte[640]));
+        }
+        ByteBuffer loud = ByteBuffer.allocate(320);
+        for (int i = 0; i < 160; i++) {
+            loud.put((byte) 0).put((byte) 0x40); // 16384
+        }
+        dispatcher.submit("s4", loud.flip());
+
+        // 무음 10프레임 중 pre-roll 1개 + 음성 1개만 발행
+        await().atMost(1, TimeUnit.SECONDS).until(() -> sizes.size() == 2);
+        assertEquals(List.of(640, 320), sizes);
+    }
+
+    @Test
+    void submit_framedSession_stripsHeaderAndPassesStamp() throws Exception {
+        List<String> published = new CopyOnWriteArrayList<>();
+        doAnswer(inv -> {
+            ByteBuffer audio = inv.getArgument(1);
+            FrameStamp stamp = inv.getArgument(3);
+            published.add(audio.remaining() + "/" + audio.get(audio.position()) + "/" + stamp.streamId() + "/"
+                    + stamp.sequence() + "/" + stamp.captureMicros() + "/" + stamp.receiveMicros());
+            return null;
+        }).when(producer).send(eq("s5"), any(ByteBuffer.class), eq(AudioCodec.MULAW), any(FrameStamp.class));
+        dispatcher = new AudioDispatcher(producer, metrics, 64, 1000, AudioDispatcher.OverflowPolicy.BLOCK,
+                1000, 4096, 16, false, "pcm16", Optional.empty(), Optional.empty());
+        dispatcher.openSession("s5", AudioCodec.MULAW, true);
+
+        for (int seq = 0; seq < 2; seq++) {
+            ByteBuffer frame = ByteBuffer.allocate(AudioFrameHeader.SIZE + 160);
+            AudioFrameHeader.write(frame, AudioCodec.MULAW, 3, 0xFFFFFFFEL + seq, 1_000_000L + seq);
+            frame.put((byte) (10 + seq)).position(frame.capacity());
+            dispatcher.submit("s5", frame.flip(), 2_000_000L + seq);
+        }
+
+        await().atMost(1, TimeUnit.SECONDS).until(() -> published.size() == 2);
+        assertEquals(List.of("160/10/3/4294967294/1000000/2000000", "160/11/3/4294967295/1000001/2000001"), published);
+    }
+
+    @Test
+    void submit_unopenedOrClosedSession_dropsWithoutCreatingLane() throws Exception {
+        dispatcher = newDispatcher(64, AudioDispatcher.OverflowPolicy.BLOCK);
+
+        assertEquals(AudioDispatcher.Result.DROPPED, dispatcher.submit("unknown", frame(1)));
+
+        dispatcher.openSession("s1", AudioCodec.PCM16);
+        dispatcher.submit("s1", frame(2));
+        dispatcher.closeSession("s1");
+        verify(producer, timeout(1000)).closeSession("s1");
+        // 정리된 세션에 늦게 도착한 프레임도 lane 을 다시 만들지 않음
+        assertEquals(AudioDispatcher.Result.DROPPED, dispatcher.submit("s1", frame(3)));
+
+        assertEquals(List.of((byte) 2), sent);
+        verify(producer, never()).send(eq("unknown"), any(ByteBuffer.class), any(AudioCodec.class));
+        verify(producer, times(1)).closeSession("s1");
+        assertEquals(2, dispatcher.getDroppedFrameCount());
+        assertEquals(0, dispatcher.getInFlightCount());
+    }
+
+    private AudioDispatcher newDispatcher(int maxPerSession, AudioDispatcher.OverflowPolicy policy) {
+        return new AudioDispatcher(producer, metrics, maxPerSession, 1000, policy, 1000, 64, 16, false, "pcm16", Optional.empty(), Optional.empty());
+    }
+
+    private static ByteBuffer frame(int value) {
+        return ByteBuffer.wrap(new byte[]{(byte) value});
+    }
+}
@@ -0,0 +1,164 @@
+package com.wordawake.gateway.dispatch;
+
+import com.wordawake.gateway.service.SessionService;
+import com.wordawake.gateway.session.PreEncodedTextMessage;
+import com.wordawake.gateway.utils.Constants;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * HotwordDispatcher 단위 테스트.
+ * 세션별 묶음, 세션 내 순서 유지(병렬 전달 시에도), key 없는 레코드 / hotword 가 아닌 event-type 건너뜀, 실패 집계,
+ * 워커 실패·인터럽트 시에도 모든 워커를 기다린 뒤 반환 검증.
+ */
+class HotwordDispatcherTest {
+
+    SessionService sessionService = mock(SessionService.class);
+    HotwordDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void dispatch_keepsOrderWithinSessionAcrossWorkers() {
+        Map<String, List<String>> received = new ConcurrentHashMap<>();
+        when(sessionService.sendToSession(anyString(), any(PreEncodedTextMessage.class), anyLong())).thenAnswer(inv -> {
+            PreEncodedTextMessage message = inv.getArgument(1);
+            received.computeIfAbsent(inv.getArgument(0), k -> new CopyOnWriteArrayList<>())
+                    .add(new String(message.getPayload(), StandardCharsets.UTF_8));
+            return true;
+        });
+        dispatcher = new HotwordDispatcher(sessionService, 4);
+
+        // 세션 10개의 이벤트가 뒤섞여 한 배치로 도착
+        List<ConsumerRecord<String, byte[]>> batch = new ArrayList<>();
+        for (int seq = 0; seq < 20; seq++) {
+            for (int s = 0; s < 10; s++) {
+                batch.add(record(batch.size(), "s" + s, "{\"word\":\"w\",\"seq\":" + seq + "}"));
+            }
+        }
+
+        HotwordDispatcher.BatchResult result = dispatcher.dispatch(batch);
+
+        assertEquals(10, result.sessions());
+        assertEquals(200, result.delivered());
+        assertEquals(0, result.failed());
+        for (int s = 0; s < 10; s++) {
+            List<String> payloads = received.get("s" + s);
+            assertEquals(20, payloads.size());
+            for (int seq = 0; seq < 20; seq++) {
+                assertTrue(payloads.get(seq).endsWith("\"seq\":" + seq + "}"));
+            }
+        }
+    }
+
+    @Test
+    void dispatch_skipsRecordsWithoutKeyAndCountsFailures() {
+        when(sessionService.sendToSession(eq("open"), any(PreEncodedTextMessage.class), anyLong())).thenReturn(true);
+        when(sessionService.sendToSession(eq("gone"), any(PreEncodedTextMessage.class), anyLong())).thenReturn(false);
+        dispatcher = new HotwordDispatcher(sessionService, 1);
+
+        HotwordDispatcher.BatchResult result = dispatcher.dispatch(List.of(
+                record(0, "open", "{\"word\":\"a\"}"),
+                record(1, null, "{\"word\":\"b\"}"),
+                record(2, "gone", "{\"word\":\"c\"}")));
+
+        assertEquals(2, result.sessions());
+        assertEquals(1, result.delivered());
+        assertEquals(1, result.failed());
+        verify(sessionService, times(2)).sendToSession(anyString(), any(PreEncodedTextMessage.class), anyLong());
+    }
+
+    @Test
+    void dispatch_filtersByEventTypeHeaderWithoutReadingPayload() {
+        when(sessionService.sendToSession(anyString(), any(PreEncodedTextMessage.class), anyLong())).thenReturn(true);
+        dispatcher = new HotwordDispatcher(sessionService, 1);
+        ConsumerRecord<String, byte[]> hotword = record(0, "s1", "{\"word\":\"a\"}");
+        hotword.headers().add(Constants.KAFKA_HEADER_EVENT_TYPE, "hotword".getBytes(StandardCharsets.US_ASCII));
+        // payload 에 "word" 가 있어도 헤더가 hotword 가 아니면 건너뜀
+        ConsumerRecord<String, byte[]> other = record(1, "s1", "{\"word\":\"b\"}");
+        other.headers().add(Constants.KAFKA_HEADER_EVENT_TYPE, "vad".getBytes(StandardCharsets.US_ASCII));
+        // 헤더 없는 기존 발행 측 레코드는 그대로 전달
+        ConsumerRecord<String, byte[]> legacy = record(2, "s1", "{\"word\":\"c\"}");
+
+        HotwordDispatcher.BatchResult result = dispatcher.dispatch(List.of(hotword, other, legacy));
+
+        assertEquals(1, result.sessions());
+        assertEquals(2, result.delivered());
+        verify(sessionService, times(2)).sendToSession(eq("s1"), any(PreEncodedTextMessage.class), anyLong());
+        assertTrue(HotwordDispatcher.isHotwordEvent(new RecordHeaders()));
+    }
+
+    @Test
+    void dispatch_workerFailure_waitsForRemainingWorkers() {
+        when(sessionService.sendToSession(eq("s1"), any(PreEncodedTextMessage.class), anyLong()))
+                .thenThrow(new IllegalStateException("boom"));
+        when(sessionService.sendToSession(eq("s2"), any(PreEncodedTextMessage.class), anyLong())).thenAnswer(inv -> {
+            Thread.sleep(200);
+            return true;
+        });
+        when(sessionService.sendToSession(eq("s0"), any(PreEncodedTextMessage.class), anyLong())).thenReturn(true);
+        when(sessionService.sendToSession(eq("s3"), any(PreEncodedTextMessage.class), anyLong())).thenReturn(true);
+        dispatcher = new HotwordDispatcher(sessionService, 4);
+
+        // s1 워커가 먼저 실패해도 느린 s2 워커가 끝날 때까지 반환하지 않음
+        HotwordDispatcher.BatchResult result = dispatcher.dispatch(List.of(
+                record(0, "s0", "{\"word\":\"a\"}"),
+                record(1, "s1", "{\"word\":\"b\"}"),
+                record(2, "s2", "{\"word\":\"c\"}"),
+                record(3, "s3", "{\"word\":\"d\"}")));
+
+        assertEquals(3, result.delivered());
+        verify(sessionService).sendToSession(eq("s2"), any(PreEncodedTextMessage.class), anyLong());
+    }
+
+    @Test
+    void dispatch_interrupted_drainsWorkersThenRestoresInterrupt() {
+        when(sessionService.sendToSession(anyString(), any(PreEncodedTextMessage.class), anyLong())).thenAnswer(inv -> {
+            if (!"s0".equals(inv.getArgument(0))) {
+                Thread.sleep(100);
+            }
+            return true;
+        });
+        dispatcher = new HotwordDispatcher(sessionService, 4);
+
+        Thread.currentThread().interrupt();
+        HotwordDispatcher.BatchResult result = dispatcher.dispatch(List.of(
+                record(0, "s0", "{\"word\":\"a\"}"),
+                record(1, "s1", "{\"word\":\"b\"}"),
+                record(2, "s2", "{\"word\":\"c\"}"),
+                record(3, "s3", "{\"word\":\"d\"}")));
+
+        // 인터럽트 플래그는 모든 워커를 기다린 뒤 다시 설정됨
+        assertTrue(Thread.interrupted());
+        assertEquals(4, result.delivered());
+    }
+
+    @Test
+    void dispatch_emptyBatch_returnsEmpty() {
+        dispatcher = new HotwordDispatcher(sessionService, 4);
+
+        HotwordDispatcher.BatchResult result = dispatcher.dispatch(List.of());
+
+        assertEquals(0, result.sessions());
+        verifyNoInteractions(sessionService);
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, String key, String value) {
+        return new ConsumerRecord<>("hotword-events", 0, offset, key, value.getBytes(StandardCharsets.UTF_8));
+    }
+}
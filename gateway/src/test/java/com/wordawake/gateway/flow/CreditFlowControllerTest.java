@@ -0,0 +1,125 @@
+package com.wordawake.gateway.flow;
+
+import com.wordawake.gateway.message.GatewayMessage;
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import com.wordawake.gateway.service.SessionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * CreditFlowController 단위 테스트.
+ * 초기 윈도 부여, grant-batch 단위 재부여, 크레딧 초과 시 수신 대기/회복/제한 시간 초과, 윈도보다 큰 프레임 거절,
+ * 종료 시 대기 해제 검증.
+ */
+class CreditFlowControllerTest {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    GatewayMetrics metrics = new GatewayMetrics(registry);
+    SessionService sessionService = mock(SessionService.class);
+
+    @Test
+    void open_grantsInitialWindow_andReleaseGrantsInBatches() throws Exception {
+        CreditFlowController flow = new CreditFlowController(sessionService, metrics, 1000, 300, 1000);
+
+        flow.open("s1");
+        assertEquals(CreditFlowController.Result.ACCEPTED, flow.acquire("s1", 400));
+        flow.release("s1", 200);  // 아직 batch 미만 (클라이언트 잔액 600)
+        flow.release("s1", 200);  // 400 모임 → 부여
+
+        InOrder inOrder = inOrder(sessionService);
+        inOrder.verify(sessionService).sendToSession("s1", new GatewayMessage.Credit(1000, 1000));
+        inOrder.verify(sessionService).sendToSession("s1", GatewayMessage.Credit.grant(400));
+        verifyNoMoreInteractions(sessionService);
+        assertEquals(1000, flow.getBalance("s1"));
+    }
+
+    @Test
+    void release_grantsImmediatelyWhenClientCreditIsExhausted() throws Exception {
+        CreditFlowController flow = new CreditFlowController(sessionService, metrics, 1000, 500, 1000);
+        flow.open("s1");
+        assertEquals(CreditFlowController.Result.ACCEPTED, flow.acquire("s1", 1000));
+
+        flow.release("s1", 100);
+
+        verify(sessionService).sendToSession("s1", GatewayMessage.Credit.grant(100));
+    }
+
+    @Test
+    void acquire_overdrawn_blocksUntilReplenished() throws Exception {
+        CreditFlowController flow = new CreditFlowController(sessionService, metrics, 1000, 500, 5000);
+        flow.open("s1");
+        assertEquals(CreditFlowController.Result.ACCEPTED, flow.acquire("s1", 1000));
+
+        CompletableFuture<CreditFlowController.Result> reader = CompletableFuture.supplyAsync(() -> {
+            try {
+                return flow.acquire("s1", 500);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(reader.isDone());
+
+        flow.release("s1", 500);
+
+        assertEquals(CreditFlowController.Result.ACCEPTED, reader.get(1, TimeUnit.SECONDS));
+        assertEquals(1, registry.get("gateway.flow.throttle.wait").timer().count());
+    }
+
+    @Test
+    void acquire_overdrawnPastTimeout_returnsTimedOut() throws Exception {
+        CreditFlowController flow = new CreditFlowController(sessionService, metrics, 1000, 500, 50);
+        flow.open("s1");
+        assertEquals(CreditFlowController.Result.ACCEPTED, flow.acquire("s1", 800));
+
+        assertEquals(CreditFlowController.Result.TIMED_OUT, flow.acquire("s1", 500));
+        assertEquals(1, registry.get("gateway.flow.throttle.timeouts").counter().count());
+    }
+
+    @Test
+    void acquire_frameLargerThanWindow_isRejectedWithoutDebitOrWait() throws Exception {
+        CreditFlowController flow = new CreditFlowController(sessionService, metrics, 1000, 500, 5000);
+        flow.open("s1");
+
+        // 크레딧이 모두 돌아와도 회복될 수 없으므로 throttle-timeout 을 기다리지 않음
+        long start = System.nanoTime();
+        assertEquals(CreditFlowController.Result.TOO_LARGE, flow.acquire("s1", 1001));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(1000, flow.getBalance("s1"));
+        assertEquals(0, registry.get("gateway.flow.throttle.wait").timer().count());
+        // 정확히 window 크기는 허용
+        assertEquals(CreditFlowController.Result.ACCEPTED, flow.acquire("s1", 1000));
+    }
+
+    @Test
+    void close_releasesBlockedReader_andUnknownSessionIsNotLimited() throws Exception {
+        CreditFlowController flow = new CreditFlowController(sessionService, metrics, 1000, 500, 5000);
+        flow.open("s1");
+        assertEquals(CreditFlowController.Result.ACCEPTED, flow.acquire("s1", 1000));
+        CompletableFuture<CreditFlowController.Result> reader = CompletableFuture.supplyAsync(() -> {
+            try {
+                return flow.acquire("s1", 500);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+
+        flow.close("s1");
+
+        assertEquals(CreditFlowController.Result.ACCEPTED, reader.get(1, TimeUnit.SECONDS));
+        assertEquals(CreditFlowController.Result.ACCEPTED, flow.acquire("unknown", 1 << 20));
+        flow.release("unknown", 100);
+        verify(sessionService, times(1)).sendToSession(anyString(), any(GatewayMessage.class));
+    }
+}
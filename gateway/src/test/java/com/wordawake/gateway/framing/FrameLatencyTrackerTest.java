@@ -0,0 +1,69 @@
+package com.wordawake.gateway.framing;
+
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FrameLatencyTracker 단위 테스트.
+ * 시퀀스 유실/역순 집계, 스트림 변경 시 초기화, hotword 이벤트 seq 로 종단 지연 기록, 링에서 밀려난 시퀀스 무시 검증.
+ */
+class FrameLatencyTrackerTest {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    FrameLatencyTracker tracker = new FrameLatencyTracker(new GatewayMetrics(registry), 8);
+
+    @Test
+    void onFrame_countsGapsAndReorderedFrames() {
+        tracker.open("s1");
+
+        tracker.onFrame("s1", 1, 0, 0, 0);
+        tracker.onFrame("s1", 1, 1, 0, 0);
+        tracker.onFrame("s1", 1, 5, 0, 0);   // 2, 3, 4 유실
+        tracker.onFrame("s1", 1, 3, 0, 0);   // 늦게 도착
+        tracker.onFrame("s1", 1, 6, 0, 0);
+        tracker.onFrame("s1", 2, 100, 0, 0); // 새 스트림: 시퀀스 다시 시작
+
+        assertEquals(3, registry.get("gateway.audio.frames.lost").counter().count());
+        assertEquals(1, registry.get("gateway.audio.frames.reordered").counter().count());
+    }
+
+    @Test
+    void onHotwordEvent_recordsLatencyForEchoedSequence() {
+        tracker.open("s1");
+        long now = EpochClock.micros();
+        tracker.onFrame("s1", 1, 41, now - 300_000, now - 250_000);
+        tracker.onFrame("s1", 1, 42, now - 280_000, now - 230_000);
+
+        assertTrue(tracker.onHotwordEvent("s1", "{\"word\":\"w\",\"seq\":42,\"streamId\":1}"));
+
+        Timer fromCapture = registry.get("gateway.e2e.latency").tag("from", "capture").timer();
+        Timer fromGateway = registry.get("gateway.e2e.latency").tag("from", "gateway").timer();
+        assertEquals(1, fromCapture.count());
+        assertTrue(fromCapture.totalTime(TimeUnit.MILLISECONDS) >= 280);
+        assertTrue(fromGateway.totalTime(TimeUnit.MILLISECONDS) >= 230);
+        assertTrue(fromGateway.totalTime(TimeUnit.MILLISECONDS) < fromCapture.totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void onHotwordEvent_ignoresMissingEvictedOrOtherStreamSequences() {
+        tracker.open("s1");
+        for (int seq = 0; seq < 20; seq++) {
+            tracker.onFrame("s1", 1, seq, 0, 0);
+        }
+
+        assertFalse(tracker.onHotwordEvent("s1", "{\"word\":\"w\"}"));
+        assertFalse(tracker.onHotwordEvent("s1", "{\"seq\":3}"));               // 링(8)에서 밀려남
+        assertFalse(tracker.onHotwordEvent("s1", "{\"seq\":19,\"streamId\":2}"));
+        assertFalse(tracker.onHotwordEvent("s1", "not json \"seq\""));
+        assertFalse(tracker.onHotwordEvent("raw-session", "{\"seq\":19}"));
+        assertFalse(tracker.onHotwordEvent("raw-session", "{\"seq\":19}".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(tracker.onHotwordEvent("s1", "{\"seq\":19}"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.wordawake.gateway.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AdaptiveCoalescing 단위 테스트.
+ * 부하 시 상한까지 2배씩 증가, 한가할 때 하한까지 감소, 중간 구간 유지 검증.
+ */
+class AdaptiveCoalescingTest {
+
+    // bytes 1024 ~ 8192, delay 10 ~ 80 (ns 단위 그대로 사용), rate 100 ~ 1000, in-flight 500
+    AdaptiveCoalescing adaptive = new AdaptiveCoalescing(1024, 8192, 10, 80, 1000, 100, 500);
+
+    @Test
+    void startsAtLowerBounds() {
+        assertEquals(1024, adaptive.getCurrentBytes());
+        assertEquals(10, adaptive.getCurrentDelayNanos());
+    }
+
+    @Test
+    void highRate_growsUntilUpperBounds() {
+        assertTrue(adaptive.update(5000, 0));
+        assertEquals(2048, adaptive.getCurrentBytes());
+        assertEquals(20, adaptive.getCurrentDelayNanos());
+
+        for (int i = 0; i < 10; i++) {
+            adaptive.update(5000, 0);
+        }
+        assertEquals(8192, adaptive.getCurrentBytes());
+        assertEquals(80, adaptive.getCurrentDelayNanos());
+        assertFalse(adaptive.update(5000, 0));
+    }
+
+    @Test
+    void inFlightBacklog_growsEvenAtLowRate() {
+        assertTrue(adaptive.update(50, 600));
+        assertEquals(2048, adaptive.getCurrentBytes());
+    }
+
+    @Test
+    void lowRate_shrinksBackToLowerBounds() {
+        adaptive.update(5000, 0);
+        adaptive.update(5000, 0);
+
+        assertTrue(adaptive.update(10, 0));
+        assertEquals(2048, adaptive.getCurrentBytes());
+        assertEquals(20, adaptive.getCurrentDelayNanos());
+        adaptive.update(10, 0);
+        assertEquals(1024, adaptive.getCurrentBytes());
+        assertFalse(adaptive.update(10, 0));
+    }
+
+    @Test
+    void betweenThresholds_keepsLimits() {
+        adaptive.update(5000, 0);
+
+        assertFalse(adaptive.update(500, 0));
+        assertEquals(2048, adaptive.getCurrentBytes());
+        // rate 는 낮지만 ack 대기가 아직 많으면 줄이지 않음
+        assertFalse(adaptive.update(10, 300));
+    }
+
+    @Test
+    void invalidBounds_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveCoalescing(4096, 1024, 10, 80, 1000, 100, 500));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveCoalescing(1024, 8192, 10, 80, 100, 1000, 500));
+    }
+}
@@ -0,0 +1,152 @@
+package com.wordawake.gateway.kafka;
+
+import com.wordawake.gateway.codec.AudioCodec;
+import com.wordawake.gateway.framing.FrameStamp;
+import com.wordawake.gateway.framing.SequenceRange;
+import com.wordawake.gateway.utils.AudioBufferPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AudioFrameCoalescer 단위 테스트.
+ * 크기/시간 조건 flush, 프레임 경계 보존, 종료 시 잔여분 flush, 버퍼 풀 재사용, framed 시퀀스 범위 검증.
+ */
+class AudioFrameCoalescerTest {
+
+    static final long MAX_DELAY = TimeUnit.MILLISECONDS.toNanos(100);
+
+    record Flushed(String sessionId, byte[] payload, int[] frameLengths, SequenceRange range) {
+    }
+
+    List<Flushed> flushed;
+    AudioBufferPool pool;
+    AudioFrameCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        flushed = new ArrayList<>();
+        pool = new AudioBufferPool(8, 4, false);
+        coalescer = new AudioFrameCoalescer(8, MAX_DELAY, pool, (sessionId, record, frames, codec, range) -> {
+            byte[] payload = new byte[record.remaining()];
+            record.get(payload);
+            flushed.add(new Flushed(sessionId, payload, frames, range));
+            pool.release(record);
+        });
+    }
+
+    @Test
+    void append_whenBelowLimits_doesNotFlush() {
+        coalescer.append("s1", ByteBuffer.wrap(new byte[]{1, 2}), 0);
+        coalescer.append("s1", ByteBuffer.wrap(new byte[]{3}), 10);
+
+        assertTrue(flushed.isEmpty());
+    }
+
+    @Test
+    void append_whenSizeReached_flushesWithFrameBoundaries() {
+        coalescer.append("s1", ByteBuffer.wrap(new byte[]{1, 2, 3}), 0);
+        coalescer.append("s1", ByteBuffer.wrap(new byte[]{4, 5, 6, 7, 8}), 0);
+
+        assertEquals(1, flushed.size());
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}, flushed.get(0).payload());
+        assertArrayEquals(new int[]{3, 5}, flushed.get(0).frameLengths());
+    }
+
+    @Test
+    void append_whenFrameWouldOverflow_flushesPendingFirst() {
+        coalescer.append("s1", ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5}), 0);
+        coalescer.append("s1", ByteBuffer.wrap(new byte[]{6, 7, 8, 9}), 0);
+
+        assertEquals(1, flushed.size());
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, flushed.get(0).payload());
+
+        coalescer.close("s1");
+        assertArrayEquals(new byte[]{6, 7, 8, 9}, flushed.get(1).payload());
+    }
+
+    @Test
+    void flushExpired_flushesOnlyAfterMaxDelay() {
+        coalescer.append("s1", ByteBuffer.wrap(new byte[]{1}), 0);
+        coalescer.append("s2", ByteBuffer.wrap(new byte[]{2}), MAX_DELAY / 2);
+
+        coalescer.flushExpired(MAX_DELAY);
+
+        assertEquals(1, flushed.size());
+        assertEquals("s1", flushed.get(0).sessionId());
+    }
+
+    @Test
+    void close_flushesRemainderAndRemovesBuffer() {
+        coalescer.append("s1", ByteBuffer.wrap(new byte[]{1, 2}), 0);
+
+        coalescer.close("s1");
+
+        assertEquals(1, flushed.size());
+        assertEquals(0, coalescer.pendingSessionCount());
+    }
+
+    @Test
+    void append_doesNotModifyCallerBuffer() {
+        ByteBuffer frame = ByteBuffer.wrap(new byte[]{9, 1, 2, 9});
+        frame.position(1).limit(3);
+
+        coalescer.append("s1", frame, 0);
+        coalescer.close("s1");
+
+        assertArrayEquals(new byte[]{1, 2}, flushed.get(0).payload());
+        assertEquals(1, frame.position());
+        assertEquals(3, frame.limit());
+    }
+
+    @Test
+    void append_reusesPooledRecordBuffers() {
+        for (int i = 0; i < 100; i++) {
+            coalescer.append("s1", ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}), 0);
+        }
+
+        assertEquals(100, flushed.size());
+        assertEquals(1, pool.getAllocatedCount());
+    }
+
+    @Test
+    void setLimits_appliesToNextAppendAndSweep() {
+        coalescer.setLimits(4, MAX_DELAY / 10);
+        coalescer.append("s1", ByteBuffer.wrap(new byte[]{1, 2, 3, 4}), 0);
+        coalescer.append("s2", ByteBuffer.wrap(new byte[]{5}), 0);
+
+        // 크기 한도 4 → s1 즉시 flush, 시간 한도 MAX_DELAY/10 → s2 도 sweep 에서 flush
+        assertEquals(1, flushed.size());
+        coalescer.flushExpired(MAX_DELAY / 10);
+        assertEquals(2, flushed.size());
+        assertThrows(IllegalArgumentException.class, () -> coalescer.setLimits(16, MAX_DELAY));
+    }
+
+    @Test
+    void append_withStamps_passesSequenceRangeAndSplitsOnStreamChange() {
+        FrameStamp stamp = new FrameStamp();
+        coalescer.append("s1", ByteBuffer.wrap(new byte[]{1, 2}), AudioCodec.PCM16, stamp.set(7, 10, 1000, 2000), 0);
+        coalescer.append("s1", ByteBuffer.wrap(new byte[]{3, 4}), AudioCodec.PCM16, stamp.set(7, 12, 1040, 2050), 0);
+        // 스트림이 바뀌면 앞선 누적분 먼저 flush
+        coalescer.append("s1", ByteBuffer.wrap(new byte[]{5}), AudioCodec.PCM16, stamp.set(8, 0, 3000, 4000), 0);
+        coalescer.close("s1");
+
+        assertEquals(2, flushed.size());
+        assertEquals(new SequenceRange(7, 10, 12, 1000, 2000), flushed.get(0).range());
+        assertEquals(new SequenceRange(8, 0, 0, 3000, 4000), flushed.get(1).range());
+    }
+
+    @Test
+    void append_withoutStamps_passesNoRange() {
+        coalescer.append("s1", ByteBuffer.wrap(new byte[]{1, 2}), 0);
+        coalescer.close("s1");
+
+        assertNull(flushed.get(0).range());
+    }
+}
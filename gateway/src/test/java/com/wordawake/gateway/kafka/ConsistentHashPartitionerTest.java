@@ -0,0 +1,70 @@
+package com.wordawake.gateway.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ConsistentHashPartitioner 링 단위 테스트.
+ * 같은 key → 같은 파티션, 파티션 간 분산, 파티션을 늘렸을 때 새 파티션으로 가는 key 만 이동하는지 검증.
+ */
+class ConsistentHashPartitionerTest {
+
+    private static final int KEYS = 20000;
+
+    @Test
+    void sameKey_alwaysMapsToSamePartition() {
+        ConsistentHashPartitioner.Ring ring = new ConsistentHashPartitioner.Ring(6, 64);
+        ConsistentHashPartitioner.Ring rebuilt = new ConsistentHashPartitioner.Ring(6, 64);
+        for (int i = 0; i < 1000; i++) {
+            byte[] key = SessionKeySerializer.encode(UUID.randomUUID().toString());
+            int partition = ring.partition(key);
+
+            assertTrue(partition >= 0 && partition < 6);
+            assertEquals(partition, ring.partition(key));
+            assertEquals(partition, rebuilt.partition(key));
+        }
+    }
+
+    @Test
+    void keys_spreadAcrossPartitions() {
+        ConsistentHashPartitioner.Ring ring = new ConsistentHashPartitioner.Ring(6, 64);
+        int[] counts = new int[6];
+        for (int i = 0; i < KEYS; i++) {
+            counts[ring.partition(SessionKeySerializer.encode(UUID.randomUUID().toString()))]++;
+        }
+        double mean = KEYS / 6.0;
+        for (int count : counts) {
+            assertTrue(count > mean * 0.6 && count < mean * 1.4, "uneven partition load: " + count);
+        }
+    }
+
+    @Test
+    void addingPartition_movesOnlyKeysToNewPartition() {
+        ConsistentHashPartitioner.Ring before = new ConsistentHashPartitioner.Ring(6, 64);
+        ConsistentHashPartitioner.Ring after = new ConsistentHashPartitioner.Ring(7, 64);
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            byte[] key = SessionKeySerializer.encode(UUID.randomUUID().toString());
+            int from = before.partition(key);
+            int to = after.partition(key);
+            if (from != to) {
+                assertEquals(6, to, "key moved between existing partitions");
+                moved++;
+            }
+        }
+        // 기대값 약 1/7 (모듈로 해시는 약 6/7 이 이동)
+        assertTrue(moved < KEYS * 0.25, "too many keys moved: " + moved);
+    }
+
+    @Test
+    void configure_rejectsNonPositiveVirtualNodes() {
+        ConsistentHashPartitioner partitioner = new ConsistentHashPartitioner();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> partitioner.configure(Map.of(ConsistentHashPartitioner.VIRTUAL_NODES_CONFIG, "0")));
+    }
+}
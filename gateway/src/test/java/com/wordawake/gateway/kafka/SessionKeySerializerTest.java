@@ -0,0 +1,59 @@
+package com.wordawake.gateway.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SessionKeySerializer / SessionKeyDeserializer 단위 테스트.
+ * UUID sessionId ↔ 16바이트 key 왕복, UUID 가 아닌 id 는 UTF-8 그대로 왕복하는지 검증.
+ */
+class SessionKeySerializerTest {
+
+    SessionKeySerializer serializer = new SessionKeySerializer();
+    SessionKeyDeserializer deserializer = new SessionKeyDeserializer();
+
+    @Test
+    void uuidSessionId_roundTripsThrough16Bytes() {
+        UUID uuid = UUID.randomUUID();
+        String sessionId = uuid.toString();
+
+        byte[] key = serializer.serialize("audio-stream", sessionId);
+
+        assertEquals(16, key.length);
+        long msb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = msb << 8 | (key[i] & 0xFF);
+        }
+        assertEquals(uuid.getMostSignificantBits(), msb);
+        assertEquals(sessionId, deserializer.deserialize("audio-stream", key));
+    }
+
+    @Test
+    void nonUuidSessionId_isSentAsUtf8() {
+        for (String sessionId : new String[]{"s1", "session-0001", "4F2A1C3B-0000-4000-8000-00000000000A",
+                "4f2a1c3b00000-4000-8000-00000000000a", "4f2a1c3b-0000-4000-8000-00000000000g"}) {
+            byte[] key = serializer.serialize("audio-stream", sessionId);
+
+            assertArrayEquals(sessionId.getBytes(StandardCharsets.UTF_8), key, sessionId);
+            assertEquals(sessionId, deserializer.deserialize("audio-stream", key));
+        }
+    }
+
+    @Test
+    void stringKeys_areReadBackUnchanged() {
+        // key-format=string 레코드(UUID 36바이트)도 같은 역직렬화기로 읽힘
+        String sessionId = UUID.randomUUID().toString();
+
+        assertEquals(sessionId, deserializer.deserialize("audio-stream", sessionId.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void nullKey_staysNull() {
+        assertNull(serializer.serialize("audio-stream", null));
+        assertNull(deserializer.deserialize("audio-stream", null));
+    }
+}
@@ -0,0 +1,163 @@
+package com.wordawake.gateway.load;
+
+import org.eclipse.jetty.websocket.client.WebSocketClient;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ActiveProfilesResolver;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end 부하 테스트: 단말 N대가 PCM 프레임을 일정 간격으로 보내고,
+ * Hotword 서비스 대역(HotwordResponder)이 audio-stream 레코드마다 hotword-events 를 되돌려 보냄.
+ * 노드 1대의 처리량(frames/s, Kafka records/s)과 프레임 송신 → 이벤트 수신 지연 백분위를 출력.
+ *
+ * 기본 빌드(test)에서는 제외. 실행: ./gradlew loadTest -Pload.sessions=500 -Pload.duration-s=60
+ * - load.sessions: 동시 세션 수 (기본 100)
+ * - load.duration-s: 스트리밍 시간 (기본 20)
+ * - load.frame-ms / load.frame-bytes: 프레임 간격/크기 (기본 20ms / 640 bytes = 16kHz 16bit mono)
+ * - load.responder-delay-ms: Hotword 판정 지연 흉내 (기본 0)
+ * - load.transport: servlet (기본, Tomcat) / reactive (Netty, reactive 프로필). 두 모드를 같은 조건으로 돌려 비교
+ * - load.threads: platform (기본) / virtual (virtual 프로필, 가상 스레드 실행 모드). 처리량과 p99 를 모드별로 비교
+ *
+ * 연결당 힙(연결 전후 GC 후 사용량 차이 / 세션 수)과 프로세스 CPU 사용 코어 수도 출력.
+ * 클라이언트/내장 Kafka 가 같은 JVM 에 있으므로 절대값보다 두 모드 간 비교용.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EmbeddedKafka(partitions = 1, bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+@ActiveProfiles(resolver = GatewayLoadTest.ModeProfiles.class)
+@DirtiesContext
+class GatewayLoadTest {
+
+    /**
+     * load.transport=reactive 면 reactive, load.threads=virtual 이면 virtual 프로필 추가
+     * (둘 다 기본값이면 application.yml 기본 프로필)
+     */
+    static class ModeProfiles implements ActiveProfilesResolver {
+        @Override
+        public String[] resolve(Class<?> testClass) {
+            List<String> profiles = new ArrayList<>();
+            if ("reactive".equals(System.getProperty("load.transport"))) {
+                profiles.add("reactive");
+            }
+            if ("virtual".equals(System.getProperty("load.threads"))) {
+                profiles.add("virtual");
+            }
+            if (profiles.isEmpty()) {
+                return new String[0];
+            }
+            profiles.addFirst("embedded");
+            return profiles.toArray(String[]::new);
+        }
+    }
+
+    @LocalServerPort
+    int port;
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    String bootstrapServers;
+
+    @Value("${app.kafka.topic.audio-stream:audio-stream}")
+    String audioStreamTopic;
+
+    @Value("${app.kafka.topic.hotword-events:hotword-events}")
+    String hotwordEventsTopic;
+
+    @Test
+    void streamAudio_reportsThroughputAndLatency() throws Exception {
+        int sessions = Integer.getInteger("load.sessions", 100);
+        int durationS = Integer.getInteger("load.duration-s", 20);
+        int frameMs = Integer.getInteger("load.frame-ms", 20);
+        int frameBytes = Integer.getInteger("load.frame-bytes", 640);
+        long responderDelayMs = Long.getLong("load.responder-delay-ms", 0);
+
+        LatencyRecorder latency = new LatencyRecorder();
+        LongAdder framesSent = new LongAdder();
+        LongAdder eventsReceived = new LongAdder();
+        List<LoadClient> clients = new ArrayList<>(sessions);
+        WebSocketClient webSocketClient = new WebSocketClient();
+        webSocketClient.start();
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors()),
+                Thread.ofPlatform().name("load-client-", 0).daemon().factory());
+
+        try (HotwordResponder responder = new HotwordResponder(bootstrapServers, audioStreamTopic,
+                hotwordEventsTopic, responderDelayMs)) {
+            responder.awaitAssignment(10_000);
+
+            URI uri = URI.create("ws://localhost:" + port + "/gateway/socket");
+            long heapBefore = usedHeapAfterGc();
+            for (int i = 0; i < sessions; i++) {
+                LoadClient client = new LoadClient(frameBytes, latency, framesSent, eventsReceived);
+                client.connect(webSocketClient, uri, 10_000);
+                clients.add(client);
+            }
+            // 서버 + 클라이언트 양쪽 연결 상태 포함
+            long heapPerSession = (usedHeapAfterGc() - heapBefore) / sessions;
+            long cpuBefore = processCpuNanos();
+            for (int i = 0; i < sessions; i++) {
+                clients.get(i).startStreaming(scheduler, (long) frameMs * i / sessions, frameMs);
+            }
+
+            long start = System.nanoTime();
+            TimeUnit.SECONDS.sleep(durationS);
+            clients.forEach(LoadClient::stop);
+            double elapsedS = (System.nanoTime() - start) / 1e9;
+            double coresUsed = (processCpuNanos() - cpuBefore) / 1e9 / elapsedS;
+            // 마지막 병합 레코드/이벤트가 돌아올 시간
+            TimeUnit.MILLISECONDS.sleep(1000 + responderDelayMs);
+
+            System.out.printf("""
+                    [load] transport=%s, threads=%s, sessions=%d, duration=%.1fs, frame=%dms/%dB, responder-delay=%dms
+                    [load] heap per session: %d bytes, cpu: %.2f cores (%.0f sessions/core)
+                    [load] frames sent     : %d (%.0f frames/s)
+                    [load] kafka records   : %d (%.0f records/s, %d frames)
+                    [load] hotword events  : %d (%.0f events/s)
+                    [load] latency frame→event ms: p50=%.2f p99=%.2f p999=%.2f max=%.2f
+                    """,
+                    System.getProperty("load.transport", "servlet"), System.getProperty("load.threads", "platform"), sessions, elapsedS, frameMs, frameBytes, responderDelayMs,
+                    heapPerSession, coresUsed, coresUsed > 0 ? sessions / coresUsed : 0,
+                    framesSent.sum(), framesSent.sum() / elapsedS,
+                    responder.getRecordCount(), responder.getRecordCount() / elapsedS, responder.getFrameCount(),
+                    eventsReceived.sum(), eventsReceived.sum() / elapsedS,
+                    latency.percentileMs(50), latency.percentileMs(99), latency.percentileMs(99.9),
+                    latency.percentileMs(100));
+
+            assertTrue(framesSent.sum() > 0, "프레임 전송 없음");
+            assertTrue(responder.getRecordCount() > 0, "audio-stream 레코드 없음");
+            assertTrue(latency.count() > 0, "hotword 이벤트 수신 없음");
+        } finally {
+            scheduler.shutdownNow();
+            webSocketClient.stop();
+        }
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        System.gc();
+        TimeUnit.MILLISECONDS.sleep(200);
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /** 프로세스 CPU 시간 (지원하지 않는 JVM 이면 0) */
+    private static long processCpuNanos() {
+        return ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os
+                ? Math.max(0, os.getProcessCpuTime())
+                : 0;
+    }
+}
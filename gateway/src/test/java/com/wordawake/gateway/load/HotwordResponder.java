@@ -0,0 +1,129 @@
+package com.wordawake.gateway.load;
+
+import com.wordawake.gateway.kafka.SessionKeyDeserializer;
+import com.wordawake.gateway.utils.Constants;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 부하 테스트용 Hotword 서비스 대역.
+ * audio-stream 레코드마다 delay 후 같은 key(sessionId)로 hotword-events 를 발행.
+ * 이벤트에는 레코드에 담긴 첫 프레임의 송신 시각(프레임 앞 8바이트, System.nanoTime)을 실어
+ * 클라이언트가 "프레임 송신 → 이벤트 수신" 지연을 잴 수 있게 함. 실제 Hotword 서비스처럼 event-type 헤더를 붙임.
+ */
+class HotwordResponder implements AutoCloseable {
+
+    private static final byte[] HOTWORD_EVENT_TYPE = Constants.KAFKA_EVENT_TYPE_HOTWORD.getBytes(StandardCharsets.US_ASCII);
+
+    private final KafkaConsumer<String, byte[]> consumer;
+    private final KafkaProducer<String, String> producer;
+    private final ScheduledExecutorService delayer =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("hotword-responder-delay").daemon().factory());
+    private final Thread poller;
+    private final String hotwordEventsTopic;
+    private final long delayMs;
+    private final LongAdder records = new LongAdder();
+    private final LongAdder frames = new LongAdder();
+    private volatile int assignedPartitions;
+    private volatile boolean running = true;
+
+    HotwordResponder(String bootstrapServers, String audioStreamTopic, String hotwordEventsTopic, long delayMs) {
+        this.hotwordEventsTopic = hotwordEventsTopic;
+        this.delayMs = delayMs;
+
+        Map<String, Object> consumerProps = new HashMap<>();
+        consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, "load-hotword-responder-" + System.nanoTime());
+        // key 형식(string / uuid16)과 상관없이 sessionId 로 복원
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, SessionKeyDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        consumer = new KafkaConsumer<>(consumerProps);
+        consumer.subscribe(List.of(audioStreamTopic));
+
+        Map<String, Object> producerProps = new HashMap<>();
+        producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+        producer = new KafkaProducer<>(producerProps);
+
+        poller = Thread.ofPlatform().name("hotword-responder").daemon().start(this::pollLoop);
+    }
+
+    /** 파티션 할당이 끝날 때까지 대기 (auto-offset-reset=latest 라 할당 전 레코드는 놓침) */
+    void awaitAssignment(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (assignedPartitions == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    long getRecordCount() {
+        return records.sum();
+    }
+
+    long getFrameCount() {
+        return frames.sum();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        consumer.wakeup();
+        poller.join(5000);
+        delayer.shutdownNow();
+        producer.close(Duration.ofSeconds(5));
+    }
+
+    private void pollLoop() {
+        try {
+            while (running) {
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(Duration.ofMillis(100))) {
+                    onAudioRecord(record);
+                }
+                assignedPartitions = consumer.assignment().size();
+            }
+        } catch (WakeupException e) {
+            // close 시 정상 종료
+        } finally {
+            consumer.close();
+        }
+    }
+
+    private void onAudioRecord(ConsumerRecord<String, byte[]> record) {
+        records.increment();
+        var header = record.headers().lastHeader(Constants.KAFKA_HEADER_FRAME_LENGTHS);
+        frames.add(header == null ? 1 : header.value().length / Integer.BYTES);
+        if (record.key() == null || record.value().length < Long.BYTES) {
+            return;
+        }
+        long sentNanos = ByteBuffer.wrap(record.value()).getLong(0);
+        String event = "{\"word\":\"load\",\"sentNanos\":" + sentNanos + "}";
+        ProducerRecord<String, String> out = new ProducerRecord<>(hotwordEventsTopic, record.key(), event);
+        out.headers().add(Constants.KAFKA_HEADER_EVENT_TYPE, HOTWORD_EVENT_TYPE);
+        if (delayMs <= 0) {
+            producer.send(out);
+        } else {
+            delayer.schedule(() -> producer.send(out), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.wordawake.gateway.load;
+
+import java.util.Arrays;
+
+/**
+ * 지연 시간 표본 수집 + 백분위 계산 (부하 테스트 리포트용).
+ * 표본은 nanos 로 받아 배열에 쌓고, 리포트 시 정렬해서 nearest-rank 백분위를 구함.
+ */
+class LatencyRecorder {
+
+    private long[] samples = new long[1 << 16];
+    private int count;
+
+    synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    /** p 백분위 (0 < p <= 100), ms 단위. 표본이 없으면 NaN */
+    synchronized double percentileMs(double p) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(rank, count - 1))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,103 @@
+package com.wordawake.gateway.load;
+
+import org.eclipse.jetty.websocket.api.Callback;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.client.WebSocketClient;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 부하 테스트용 가상 단말 1대.
+ * 연결 후 frameIntervalMs 마다 PCM 프레임(무음 + 앞 8바이트에 송신 시각 nanoTime)을 보내고,
+ * sentNanos 가 실린 hotword 이벤트를 받으면 지연 시간을 기록.
+ */
+class LoadClient implements Session.Listener {
+
+    private final int frameBytes;
+    private final LatencyRecorder latency;
+    private final LongAdder framesSent;
+    private final LongAdder eventsReceived;
+    private final CompletableFuture<String> sessionId = new CompletableFuture<>();
+    /** Jetty 세션은 이전 전송이 끝나기 전에 다음 전송을 허용하지 않으므로 밀리면 그 프레임은 건너뜀 */
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private final Callback sendDone = Callback.from(() -> sending.set(false), failure -> sending.set(false));
+    private volatile Session session;
+    private ScheduledFuture<?> streaming;
+
+    LoadClient(int frameBytes, LatencyRecorder latency, LongAdder framesSent, LongAdder eventsReceived) {
+        this.frameBytes = frameBytes;
+        this.latency = latency;
+        this.framesSent = framesSent;
+        this.eventsReceived = eventsReceived;
+    }
+
+    /** 연결 후 welcome 의 sessionId 를 받을 때까지 대기 */
+    String connect(WebSocketClient client, URI uri, long timeoutMs) throws Exception {
+        client.connect(this, uri).get(timeoutMs, TimeUnit.MILLISECONDS);
+        return sessionId.get(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** 시작 시각을 흩뿌려 모든 단말이 같은 순간에 보내지 않게 함 */
+    void startStreaming(ScheduledExecutorService scheduler, long initialDelayMs, long frameIntervalMs) {
+        streaming = scheduler.scheduleAtFixedRate(this::sendFrame, initialDelayMs, frameIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        if (streaming != null) {
+            streaming.cancel(false);
+        }
+        Session s = session;
+        if (s != null && s.isOpen()) {
+            s.close(StatusCode.NORMAL, "load done", Callback.NOOP);
+        }
+    }
+
+    @Override
+    public void onWebSocketOpen(Session s) {
+        this.session = s;
+        s.demand();
+    }
+
+    @Override
+    public void onWebSocketText(String message) {
+        if (!sessionId.isDone()) {
+            sessionId.complete(extract(message, "\"sessionId\":\"", '"'));
+        } else {
+            String sentNanos = extract(message, "\"sentNanos\":", '}');
+            if (sentNanos != null) {
+                latency.record(System.nanoTime() - Long.parseLong(sentNanos.trim()));
+                eventsReceived.increment();
+            }
+        }
+        session.demand();
+    }
+
+    private void sendFrame() {
+        Session s = session;
+        if (s == null || !s.isOpen() || !sending.compareAndSet(false, true)) {
+            return;
+        }
+        ByteBuffer frame = ByteBuffer.allocate(frameBytes);
+        frame.putLong(0, System.nanoTime());
+        s.sendBinary(frame, sendDone);
+        framesSent.increment();
+    }
+
+    private static String extract(String json, String prefix, char terminator) {
+        int start = json.indexOf(prefix);
+        if (start < 0) {
+            return null;
+        }
+        start += prefix.length();
+        int end = json.indexOf(terminator, start);
+        return end > start ? json.substring(start, end) : null;
+    }
+}
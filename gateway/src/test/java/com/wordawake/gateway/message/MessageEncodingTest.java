@@ -0,0 +1,99 @@
+package com.wordawake.gateway.message;
+
+import com.wordawake.gateway.utils.Constants;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MessageEncoding 단위 테스트.
+ * JSON 출력의 고정 필드 순서/값, 문자열 이스케이프, CBOR map 바이트, 서브프로토콜 → 인코딩 매핑 검증.
+ * JSON 은 기존(HashMap + Gson) 출력과 의미상 같음 (같은 키/값, connected 에 "type" 추가). 바이트 단위로 같지는 않음:
+ * Gson 은 HashMap 순서로 썼고, 여기서는 타입별 고정 순서(heartbeat 는 time 이 마지막)로 씀
+ */
+class MessageEncodingTest {
+
+    @Test
+    void json_writesFixedFieldOrder() {
+        assertEquals("{\"type\":\"connected\",\"status\":\"101\",\"message\":\"success\",\"sessionId\":\"s1\"}",
+                json(new GatewayMessage.Connected("s1")));
+        assertEquals("{\"status\":200,\"status-msg\":\"정상\",\"hotword\":\"켜줘(테스트)\",\"type\":\"command\","
+                        + "\"intent\":\"control\",\"action\":\"turn-on\",\"time\":\"2026-01-02T03:04:05.123Z\"}",
+                json(new GatewayMessage.Heartbeat(Instant.parse("2026-01-02T03:04:05.123Z"))));
+        assertEquals("{\"type\":\"credit\",\"credit\":1000,\"window\":1000}", json(new GatewayMessage.Credit(1000, 1000)));
+        assertEquals("{\"type\":\"credit\",\"credit\":0}", json(GatewayMessage.Credit.grant(0)));
+    }
+
+    @Test
+    void json_escapesStringValues() {
+        assertEquals("{\"type\":\"connected\",\"status\":\"101\",\"message\":\"success\",\"sessionId\":\"a\\\"b\\\\c\\n\\u0001한\"}",
+                json(new GatewayMessage.Connected("a\"b\\c\n\u0001한")));
+    }
+
+    @Test
+    void json_textMessageKeepsUtf8Bytes() {
+        TextMessage message = (TextMessage) MessageEncoding.JSON.encode(new GatewayMessage.Heartbeat(Instant.EPOCH));
+
+        assertEquals(message.getPayload().getBytes(StandardCharsets.UTF_8).length, message.getPayloadLength());
+    }
+
+    @Test
+    void cbor_creditIsDefiniteLengthMap() {
+        // {"type":"credit","credit":100}
+        assertEquals("a2" + text("type") + text("credit") + text("credit") + "1864",
+                hex(MessageEncoding.CBOR.encode(GatewayMessage.Credit.grant(100))));
+        // {"type":"credit","credit":1000,"window":70000}
+        assertEquals("a3" + text("type") + text("credit") + text("credit") + "1903e8" + text("window") + "1a00011170",
+                hex(MessageEncoding.CBOR.encode(new GatewayMessage.Credit(1000, 70000))));
+    }
+
+    @Test
+    void cbor_connectedAndHeartbeat() {
+        assertEquals("a4" + text("type") + text("connected") + text("status") + text("101")
+                        + text("message") + text("success") + text("sessionId") + text("s1"),
+                hex(MessageEncoding.CBOR.encode(new GatewayMessage.Connected("s1"))));
+
+        String heartbeat = hex(MessageEncoding.CBOR.encode(new GatewayMessage.Heartbeat(Instant.parse("2026-01-02T03:04:05Z"))));
+        // 고정 필드 6개 + time, 숫자는 정수, 한글은 UTF-8 바이트 길이
+        assertTrue(heartbeat.startsWith("a7" + text("status") + "18c8" + text("status-msg") + "66"
+                + HexFormat.of().formatHex("정상".getBytes(StandardCharsets.UTF_8))), heartbeat);
+        assertTrue(heartbeat.endsWith(text("time") + text("2026-01-02T03:04:05Z")), heartbeat);
+    }
+
+    @Test
+    void of_mapsAcceptedSubprotocol() {
+        assertEquals(MessageEncoding.JSON, MessageEncoding.of(null));
+        assertEquals(MessageEncoding.JSON, MessageEncoding.of(""));
+        assertEquals(MessageEncoding.JSON, MessageEncoding.of(Constants.WS_SUBPROTOCOL_JSON));
+        assertEquals(MessageEncoding.CBOR, MessageEncoding.of(Constants.WS_SUBPROTOCOL_CBOR));
+        assertInstanceOf(BinaryMessage.class, MessageEncoding.CBOR.encode(GatewayMessage.Credit.grant(1)));
+    }
+
+    private static String json(GatewayMessage message) {
+        return ((TextMessage) MessageEncoding.JSON.encode(message)).getPayload();
+    }
+
+    private static String hex(WebSocketMessage<?> message) {
+        ByteBuffer payload = ((BinaryMessage) message).getPayload().duplicate();
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    /** 23 바이트 이하 ASCII text string */
+    private static String text(String value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(0x60 | value.length());
+        out.writeBytes(value.getBytes(StandardCharsets.US_ASCII));
+        return HexFormat.of().formatHex(out.toByteArray());
+    }
+}
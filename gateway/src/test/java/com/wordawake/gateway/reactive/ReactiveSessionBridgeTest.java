@@ -0,0 +1,114 @@
+package com.wordawake.gateway.reactive;
+
+import com.wordawake.gateway.kafka.SessionKeySerializer;
+import com.wordawake.gateway.session.PreEncodedTextMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.socket.TextMessage;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReactiveSessionBridge 단위 테스트.
+ * 송신 메시지 변환/순서 (pre-encoded 텍스트는 바이트 그대로), 송신 창이 차면 transport 가 가져갈 때까지 대기(시간 초과 시 IOException), 종료 후 송신 거부,
+ * 세션 id 가 servlet 세션과 같은 UUID 형식인지 검증.
+ */
+class ReactiveSessionBridgeTest {
+
+    WebSocketSession session = mock(WebSocketSession.class);
+
+    @Test
+    void sendMessage_emitsTextMessagesInOrder() throws IOException {
+        when(session.textMessage(anyString())).thenAnswer(inv -> mock(WebSocketMessage.class));
+        ReactiveSessionBridge bridge = new ReactiveSessionBridge(session, 4, 100);
+
+        bridge.sendMessage(new TextMessage("a"));
+        bridge.sendMessage(new TextMessage("b"));
+        bridge.terminate();
+
+        List<WebSocketMessage> sent = bridge.outbound().collectList().block(Duration.ofSeconds(1));
+        assertEquals(2, sent.size());
+        var order = inOrder(session);
+        order.verify(session).textMessage("a");
+        order.verify(session).textMessage("b");
+    }
+
+    @Test
+    void sendMessage_preEncodedTextIsWrappedWithoutDecoding() throws IOException {
+        when(session.bufferFactory()).thenReturn(DefaultDataBufferFactory.sharedInstance);
+        ReactiveSessionBridge bridge = new ReactiveSessionBridge(session, 4, 100);
+        byte[] payload = "{\"word\":\"w\"}".getBytes(StandardCharsets.UTF_8);
+
+        bridge.sendMessage(new PreEncodedTextMessage(payload));
+        bridge.terminate();
+
+        WebSocketMessage sent = bridge.outbound().blockFirst(Duration.ofSeconds(1));
+        assertEquals(WebSocketMessage.Type.TEXT, sent.getType());
+        assertEquals("{\"word\":\"w\"}", sent.getPayloadAsText());
+        verify(session, never()).textMessage(anyString());
+    }
+
+    @Test
+    void sendMessage_failsWhenWindowIsNotDrainedInTime() throws IOException {
+        ReactiveSessionBridge bridge = new ReactiveSessionBridge(session, 1, 50);
+
+        bridge.sendMessage(new TextMessage("a"));
+
+        // transport 가 아직 가져가지 않음 → 창(1) 초과
+        assertThrows(IOException.class, () -> bridge.sendMessage(new TextMessage("b")));
+    }
+
+    @Test
+    void sendMessage_resumesWhenTransportTakesMessages() throws Exception {
+        when(session.textMessage(anyString())).thenAnswer(inv -> mock(WebSocketMessage.class));
+        ReactiveSessionBridge bridge = new ReactiveSessionBridge(session, 1, 1000);
+        Flux<WebSocketMessage> outbound = bridge.outbound();
+
+        bridge.sendMessage(new TextMessage("a"));
+        Thread sender = Thread.ofVirtual().start(() -> {
+            try {
+                bridge.sendMessage(new TextMessage("b"));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        // 첫 메시지를 가져가면 창이 비어 두 번째가 들어감
+        assertEquals(2, outbound.take(2).collectList().block(Duration.ofSeconds(2)).size());
+        sender.join(1000);
+        assertFalse(sender.isAlive());
+    }
+
+    @Test
+    void terminate_rejectsFurtherMessages_andIsIdempotent() {
+        when(session.isOpen()).thenReturn(true);
+        ReactiveSessionBridge bridge = new ReactiveSessionBridge(session, 1, 50);
+
+        bridge.terminate();
+        bridge.terminate();
+
+        assertFalse(bridge.isOpen());
+        assertThrows(IOException.class, () -> bridge.sendMessage(new TextMessage("a")));
+    }
+
+    @Test
+    void getId_isUuidLikeServletSessions() {
+        when(session.getId()).thenReturn("4f2a1c3b-1");
+        ReactiveSessionBridge bridge = new ReactiveSessionBridge(session, 1, 50);
+        ReactiveSessionBridge other = new ReactiveSessionBridge(session, 1, 50);
+
+        assertEquals(bridge.getId(), UUID.fromString(bridge.getId()).toString());
+        assertEquals(SessionKeySerializer.UUID_KEY_BYTES, SessionKeySerializer.encode(bridge.getId()).length);
+        assertNotEquals(bridge.getId(), other.getId());
+    }
+}
@@ -0,0 +1,169 @@
+package com.wordawake.gateway.routing;
+
+import com.wordawake.gateway.kafka.HotwordEventConsumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * HotwordEventRouter 단위 테스트.
+ * inbox 발행 실패 시 로컬 전달 없음(재처리 시 중복 방지), 소유 노드를 모르는 이벤트 보류(claim 전파 지연 / 디렉터리 재적재),
+ * 대기 뒤에도 모르면 버림, 끊긴 세션 이벤트는 기다리지 않고 버림을 검증.
+ */
+class HotwordEventRouterTest {
+
+    /** ownerOf / isReleased / isLoaded 를 테스트에서 바꿀 수 있는 디렉터리 */
+    static final class TestDirectory implements SessionDirectory {
+        final ConcurrentHashMap<String, String> owners = new ConcurrentHashMap<>();
+        final Set<String> released = ConcurrentHashMap.newKeySet();
+        volatile boolean loaded = true;
+
+        @Override
+        public void claim(String sessionId) {
+        }
+
+        @Override
+        public void release(String sessionId) {
+        }
+
+        @Override
+        public String ownerOf(String sessionId) {
+            return owners.get(sessionId);
+        }
+
+        @Override
+        public boolean isReleased(String sessionId) {
+            return released.contains(sessionId);
+        }
+
+        @Override
+        public boolean isLoaded() {
+            return loaded;
+        }
+    }
+
+    TestDirectory directory = new TestDirectory();
+    HotwordEventConsumer hotwordEventConsumer = mock(HotwordEventConsumer.class);
+    @SuppressWarnings("unchecked")
+    KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void forwardFailure_doesNotDeliverLocally() {
+        directory.owners.put("local", "node-a");
+        directory.owners.put("remote", "node-b");
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        HotwordEventRouter router = router(2000, 60000);
+
+        // 배치 재처리 때 로컬 클라이언트가 같은 이벤트를 두 번 받지 않도록 로컬 전달 전에 실패
+        assertThrows(CompletionException.class, () -> router.route(List.of(record(0, "local"), record(1, "remote"))));
+        verify(hotwordEventConsumer, never()).deliver(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void forwardsAndLocalDelivery_afterForwardsAcked() throws Exception {
+        directory.owners.put("local", "node-a");
+        directory.owners.put("remote", "node-b");
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        router(2000, 60000).route(List.of(record(0, "local"), record(1, "remote")));
+
+        ArgumentCaptor<ProducerRecord<String, byte[]>> forwarded = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(forwarded.capture());
+        assertEquals("hotword-events.node-b", forwarded.getValue().topic());
+        assertEquals("remote", forwarded.getValue().key());
+        ArgumentCaptor<List<ConsumerRecord<String, byte[]>>> delivered = ArgumentCaptor.forClass(List.class);
+        verify(hotwordEventConsumer).deliver(delivered.capture());
+        assertEquals(List.of("local"), delivered.getValue().stream().map(ConsumerRecord::key).toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unknownOwner_isHeldUntilClaimPropagates() throws Exception {
+        // claim 이 아직 디렉터리에 안 들어온 세션
+        scheduler.schedule(() -> directory.owners.put("late", "node-a"), 100, TimeUnit.MILLISECONDS);
+
+        router(2000, 60000).route(List.of(record(0, "late")));
+
+        ArgumentCaptor<List<ConsumerRecord<String, byte[]>>> delivered = ArgumentCaptor.forClass(List.class);
+        verify(hotwordEventConsumer).deliver(delivered.capture());
+        assertEquals(List.of("late"), delivered.getValue().stream().map(ConsumerRecord::key).toList());
+    }
+
+    @Test
+    void directoryLoading_holdsPastUnknownOwnerWait() throws Exception {
+        // 재기동 직후: 디렉터리가 토픽을 다시 읽는 중이라 다른 노드 세션을 아직 모름
+        directory.loaded = false;
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        scheduler.schedule(() -> {
+            directory.owners.put("remote", "node-b");
+            directory.loaded = true;
+        }, 300, TimeUnit.MILLISECONDS);
+
+        router(50, 5000).route(List.of(record(0, "remote")));
+
+        verify(kafkaTemplate).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void releasedSession_isDroppedWithoutWaiting() throws Exception {
+        // 정상 종료된 세션(tombstone)의 늦은 이벤트: 같은 배치의 다른 세션 전달을 붙잡지 않음
+        directory.released.add("closed");
+        directory.owners.put("local", "node-a");
+        long start = System.nanoTime();
+
+        router(2000, 60000).route(List.of(record(0, "closed"), record(1, "local")));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+        ArgumentCaptor<List<ConsumerRecord<String, byte[]>>> delivered = ArgumentCaptor.forClass(List.class);
+        verify(hotwordEventConsumer).deliver(delivered.capture());
+        assertEquals(List.of("local"), delivered.getValue().stream().map(ConsumerRecord::key).toList());
+    }
+
+    @Test
+    void unknownOwner_droppedAfterWaitOnceDirectoryLoaded() throws Exception {
+        long start = System.nanoTime();
+
+        router(50, 5000).route(List.of(record(0, "gone")));
+
+        // 디렉터리 적재가 끝났으므로 directory-load-wait 까지 기다리지 않음
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+        verify(hotwordEventConsumer, never()).deliver(anyList());
+    }
+
+    private HotwordEventRouter router(long unknownOwnerWaitMs, long directoryLoadWaitMs) {
+        return new HotwordEventRouter("node-a", directory, hotwordEventConsumer, kafkaTemplate, "hotword-events",
+                unknownOwnerWaitMs, directoryLoadWaitMs);
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, String sessionId) {
+        return new ConsumerRecord<>("hotword-events", 0, offset, sessionId,
+                "{\"word\":\"w\"}".getBytes(StandardCharsets.UTF_8));
+    }
+}
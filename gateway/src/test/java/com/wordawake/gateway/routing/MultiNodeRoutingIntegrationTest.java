@@ -0,0 +1,258 @@
+package com.wordawake.gateway.routing;
+
+import com.wordawake.gateway.GatewayApplication;
+import com.wordawake.gateway.framing.AudioFrameHeader;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.eclipse.jetty.websocket.api.Callback;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.client.WebSocketClient;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 다중 노드 라우팅 통합 테스트.
+ * 내장 KRaft 브로커 하나에 게이트웨이 컨텍스트 2개(node-a, node-b)를 라우팅 모드로 띄우고,
+ * 공용 hotword-events 에 발행한 이벤트가 세션을 가진 노드의 클라이언트에게만 전달되는지,
+ * router 가 자기 노드 세션 이벤트를 inbox 없이 바로 넘길 때도 종단 지연이 기록되는지 검증.
+ */
+class MultiNodeRoutingIntegrationTest {
+
+    static EmbeddedKafkaBroker broker;
+    static ConfigurableApplicationContext nodeA;
+    static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        broker = new EmbeddedKafkaKraftBroker(1, 3, "hotword-events", "audio-stream");
+        broker.afterPropertiesSet();
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeA != null) nodeA.close();
+        if (nodeB != null) nodeB.close();
+        if (broker != null) broker.destroy();
+    }
+
+    @Test
+    void hotwordEvent_reachesOnlyOwningNodeClient() throws Exception {
+        WebSocketClient client = new WebSocketClient();
+        client.start();
+        try {
+            BlockingQueue<String> receivedA = new LinkedBlockingQueue<>();
+            BlockingQueue<String> receivedB = new LinkedBlockingQueue<>();
+            Session sessionA = connect(client, nodeA, receivedA);
+            Session sessionB = connect(client, nodeB, receivedB);
+            String sessionIdA = extractSessionId(receivedA.poll(5, TimeUnit.SECONDS));
+            String sessionIdB = extractSessionId(receivedB.poll(5, TimeUnit.SECONDS));
+            assertNotNull(sessionIdA);
+            assertNotNull(sessionIdB);
+
+            // 디렉터리 토픽을 통해 두 노드 모두 상대 노드의 세션을 알게 될 때까지 대기
+            SessionDirectory directoryA = nodeA.getBean(SessionDirectory.class);
+            SessionDirectory directoryB = nodeB.getBean(SessionDirectory.class);
+            await().atMost(10, TimeUnit.SECONDS).until(() ->
+                    "node-b".equals(directoryA.ownerOf(sessionIdB)) && "node-a".equals(directoryB.ownerOf(sessionIdA)));
+
+            // Hotword 서비스 역할: 공용 토픽에 발행 (어느 노드의 router 가 읽을지는 모름)
+            try (KafkaProducer<String, String> producer = stringProducer()) {
+                producer.send(new ProducerRecord<>("hotword-events", sessionIdA, "{\"word\":\"to-a\"}")).get(5, TimeUnit.SECONDS);
+                producer.send(new ProducerRecord<>("hotword-events", sessionIdB, "{\"word\":\"to-b\"}")).get(5, TimeUnit.SECONDS);
+            }
+
+            String toA = pollHotword(receivedA);
+            String toB = pollHotword(receivedB);
+            assertTrue(toA.contains("to-a"), "node-a 수신: " + toA);
+            assertTrue(toB.contains("to-b"), "node-b 수신: " + toB);
+            // 상대 노드 세션의 이벤트는 받지 않음 (양쪽이 모두 받았다면 위 수신 뒤 잠시 안에 도착)
+            assertNeverReceives(receivedA, "to-b");
+            assertNeverReceives(receivedB, "to-a");
+
+            sessionA.close(StatusCode.NORMAL, "done", Callback.NOOP);
+            sessionB.close(StatusCode.NORMAL, "done", Callback.NOOP);
+        } finally {
+            client.stop();
+        }
+    }
+
+    @Test
+    void hotwordEvent_routedLocally_recordsEndToEndLatency() throws Exception {
+        WebSocketClient client = new WebSocketClient();
+        client.start();
+        try {
+            BlockingQueue<String> receivedA = new LinkedBlockingQueue<>();
+            BlockingQueue<String> receivedB = new LinkedBlockingQueue<>();
+            Session sessionA = connect(client, nodeA, receivedA, "?frame-format=framed");
+            Session sessionB = connect(client, nodeB, receivedB, "?frame-format=framed");
+            String sessionIdA = extractSessionId(receivedA.poll(5, TimeUnit.SECONDS));
+            String sessionIdB = extractSessionId(receivedB.poll(5, TimeUnit.SECONDS));
+            assertNotNull(sessionIdA);
+            assertNotNull(sessionIdB);
+            SessionDirectory directoryA = nodeA.getBean(SessionDirectory.class);
+            SessionDirectory directoryB = nodeB.getBean(SessionDirectory.class);
+            await().atMost(10, TimeUnit.SECONDS).until(() ->
+                    "node-b".equals(directoryA.ownerOf(sessionIdB)) && "node-a".equals(directoryB.ownerOf(sessionIdA)));
+
+            // seq 0 프레임을 보내 두면 이벤트의 "seq":0 으로 종단 지연 기록
+            double framesA = framesReceived(nodeA);
+            double framesB = framesReceived(nodeB);
+            sessionA.sendBinary(framedFrame(), Callback.NOOP);
+            sessionB.sendBinary(framedFrame(), Callback.NOOP);
+            await().atMost(5, TimeUnit.SECONDS).until(() ->
+                    framesReceived(nodeA) > framesA && framesReceived(nodeB) > framesB);
+            Timer latencyA = e2eFromGateway(nodeA);
+            Timer latencyB = e2eFromGateway(nodeB);
+            long beforeA = latencyA.count();
+            long beforeB = latencyB.count();
+
+            // 두 세션 이벤트를 모든 파티션에 발행. 파티션을 읽는 router 가 어느 노드든 한쪽 세션은 소유 노드라
+            // inbox 를 거치지 않는 로컬 전달 경로가 반드시 한 번 이상 실행됨
+            try (KafkaProducer<String, String> producer = stringProducer()) {
+                for (int partition = 0; partition < 3; partition++) {
+                    producer.send(new ProducerRecord<>("hotword-events", partition, sessionIdA, "{\"word\":\"to-a\",\"seq\":0}"))
+                            .get(5, TimeUnit.SECONDS);
+                    producer.send(new ProducerRecord<>("hotword-events", partition, sessionIdB, "{\"word\":\"to-b\",\"seq\":0}"))
+                            .get(5, TimeUnit.SECONDS);
+                }
+            }
+
+            for (int i = 0; i < 3; i++) {
+                assertTrue(pollHotword(receivedA).contains("to-a"));
+                assertTrue(pollHotword(receivedB).contains("to-b"));
+            }
+            // 로컬 전달이든 inbox 경유든 이벤트마다 기록
+            await().atMost(5, TimeUnit.SECONDS).until(() ->
+                    latencyA.count() - beforeA == 3 && latencyB.count() - beforeB == 3);
+
+            sessionA.close(StatusCode.NORMAL, "done", Callback.NOOP);
+            sessionB.close(StatusCode.NORMAL, "done", Callback.NOOP);
+        } finally {
+            client.stop();
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId) {
+        // 커맨드라인 인자로 넘겨 application.yml(embedded 프로필 등)보다 우선 적용
+        return new SpringApplicationBuilder(GatewayApplication.class).run(
+                "--spring.profiles.active=routing-test",
+                "--server.port=0",
+                "--spring.kafka.bootstrap-servers=" + broker.getBrokersAsString(),
+                "--spring.kafka.consumer.auto-offset-reset=earliest",
+                "--app.routing.enabled=true",
+                "--app.routing.node-id=" + nodeId,
+                "--app.kafka.hotword-events.partitions=3",
+                "--app.kafka.hotword-events.concurrency=1");
+    }
+
+    private static Session connect(WebSocketClient client, ConfigurableApplicationContext node,
+                                   BlockingQueue<String> received) throws Exception {
+        return connect(client, node, received, "");
+    }
+
+    private static Session connect(WebSocketClient client, ConfigurableApplicationContext node,
+                                   BlockingQueue<String> received, String query) throws Exception {
+        int port = Integer.parseInt(node.getEnvironment().getProperty("local.server.port"));
+        URI uri = URI.create("ws://localhost:" + port + "/gateway/socket" + query);
+        return client.connect(new Listener(received), uri).get(5, TimeUnit.SECONDS);
+    }
+
+    /** framed 프레임 1개: 헤더(version 1, pcm16, stream 1, seq 0, 캡처 시각) + 20ms 무음 */
+    private static ByteBuffer framedFrame() {
+        ByteBuffer frame = ByteBuffer.allocate(AudioFrameHeader.SIZE + 640);
+        frame.put((byte) AudioFrameHeader.VERSION).put((byte) 0).putShort((short) 1).putInt(0)
+                .putLong(System.currentTimeMillis() * 1000);
+        return frame.clear();
+    }
+
+    private static double framesReceived(ConfigurableApplicationContext node) {
+        return node.getBean(MeterRegistry.class).get("gateway.audio.frames.received").counter().count();
+    }
+
+    private static Timer e2eFromGateway(ConfigurableApplicationContext node) {
+        return node.getBean(MeterRegistry.class).get("gateway.e2e.latency").tag("from", "gateway").timer();
+    }
+
+    /** 하트비트 등 다른 메시지는 건너뛰고 hotword 메시지만 */
+    private static String pollHotword(BlockingQueue<String> received) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            String msg = received.poll(500, TimeUnit.MILLISECONDS);
+            if (msg != null && msg.contains("\"word\"")) {
+                return msg;
+            }
+        }
+        fail("hotword 메시지를 받지 못함");
+        return null;
+    }
+
+    /** 잠시(2초) 동안 받은 메시지 중 word 가 든 것이 없어야 함 */
+    private static void assertNeverReceives(BlockingQueue<String> received, String word) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (System.currentTimeMillis() < deadline) {
+            String msg = received.poll(200, TimeUnit.MILLISECONDS);
+            assertFalse(msg != null && msg.contains(word), "다른 노드 세션 이벤트 수신: " + msg);
+        }
+    }
+
+    private static KafkaProducer<String, String> stringProducer() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        return new KafkaProducer<>(props);
+    }
+
+    private static String extractSessionId(String welcomeJson) {
+        if (welcomeJson == null) return null;
+        int start = welcomeJson.indexOf("\"sessionId\":\"") + 13;
+        if (start < 13) return null;
+        int end = welcomeJson.indexOf("\"", start);
+        return end > start ? welcomeJson.substring(start, end) : null;
+    }
+
+    /** 받은 텍스트를 큐에 모으는 클라이언트 리스너 */
+    static class Listener implements Session.Listener {
+        private final BlockingQueue<String> received;
+        private Session session;
+
+        Listener(BlockingQueue<String> received) {
+            this.received = received;
+        }
+
+        @Override
+        public void onWebSocketOpen(Session s) {
+            this.session = s;
+            session.demand();
+        }
+
+        @Override
+        public void onWebSocketText(String message) {
+            received.offer(message);
+            session.demand();
+        }
+    }
+}
@@ -1,7 +1,16 @@
 package com.wordawake.gateway.service;
 
+import com.wordawake.gateway.message.GatewayMessage;
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import com.wordawake.gateway.routing.InMemorySessionDirectory;
+import com.wordawake.gateway.session.OutboundMailbox;
+import com.wordawake.gateway.session.OutboundMailboxFactory;
+import com.wordawake.gateway.session.SessionRegistry;
+import com.wordawake.gateway.utils.Constants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
@@ -14,11 +23,17 @@ import static org.mockito.Mockito.*;
  */
 class SessionServiceTest {
 
+    GatewayMetrics metrics = new GatewayMetrics(new SimpleMeterRegistry());
+
     SessionService sessionService;
+    OutboundMailboxFactory mailboxFactory;
+    InMemorySessionDirectory sessionDirectory;
 
     @BeforeEach
     void setUp() {
-        sessionService = new SessionService();
+        mailboxFactory = new OutboundMailboxFactory(1 << 20, 10_000, OutboundMailbox.OverflowPolicy.DROP_OLDEST, 0, 0, metrics);
+        sessionDirectory = new InMemorySessionDirectory("node-1");
+        sessionService = new SessionService(new SessionRegistry(4, mailboxFactory), sessionDirectory);
     }
 
     @Test
@@ -32,6 +47,15 @@ class SessionServiceTest {
         assertNull(sessionService.get("unknown"));
     }
 
+    @Test
+    void registerAndUnregister_updatesDirectory() {
+        sessionService.register("s1", mock(WebSocketSession.class));
+        assertEquals("node-1", sessionDirectory.ownerOf("s1"));
+
+        sessionService.unregister("s1");
+        assertNull(sessionDirectory.ownerOf("s1"));
+    }
+
     @Test
     void unregister_removesSession() {
         WebSocketSession session = mock(WebSocketSession.class);
@@ -53,10 +77,29 @@ class SessionServiceTest {
         boolean sent = sessionService.sendToSession("s1", "hello");
 
         assertTrue(sent);
-        verify(session).sendMessage(argThat(msg ->
+        // 전송은 송신 큐 writer 에서 비동기로 수행
+        verify(session, timeout(1000)).sendMessage(argThat(msg ->
                 msg instanceof TextMessage && "hello".equals(((TextMessage) msg).getPayload())));
     }
 
+    @Test
+    void sendToSession_gatewayMessage_usesNegotiatedEncoding() throws Exception {
+        WebSocketSession json = mock(WebSocketSession.class);
+        when(json.isOpen()).thenReturn(true);
+        WebSocketSession cbor = mock(WebSocketSession.class);
+        when(cbor.isOpen()).thenReturn(true);
+        when(cbor.getAcceptedProtocol()).thenReturn(Constants.WS_SUBPROTOCOL_CBOR);
+        sessionService.register("json", json);
+        sessionService.register("cbor", cbor);
+
+        assertTrue(sessionService.sendToSession("json", GatewayMessage.Credit.grant(100)));
+        assertTrue(sessionService.sendToSession("cbor", GatewayMessage.Credit.grant(100)));
+
+        verify(json, timeout(1000)).sendMessage(argThat(msg ->
+                msg instanceof TextMessage && "{\"type\":\"credit\",\"credit\":100}".equals(((TextMessage) msg).getPayload())));
+        verify(cbor, timeout(1000)).sendMessage(any(BinaryMessage.class));
+    }
+
     @Test
     void sendToSession_whenSessionClosed_returnsFalse() throws Exception {
         WebSocketSession session = mock(WebSocketSession.class);
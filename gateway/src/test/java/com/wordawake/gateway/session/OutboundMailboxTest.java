@@ -0,0 +1,360 @@
+package com.wordawake.gateway.session;
+
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * OutboundMailbox 단위 테스트.
+ * writer 작업을 수동 실행기로 받아 순서대로 실행하며 순서 보장, 바이트 예산 정책, 실패 시 종료 검증.
+ * 전송 중 타임아웃(watchdog), 동시 전송 상한(허가 없이 전송하지 않음)은 실제 가상 스레드 writer 로 검증.
+ */
+class OutboundMailboxTest {
+
+    /** execute 된 작업을 모아 두었다가 runAll 때 실행 */
+    static final class ManualExecutor implements Executor {
+        final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    WebSocketSession session;
+    ManualExecutor writer;
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    GatewayMetrics metrics = new GatewayMetrics(meterRegistry);
+    LongAdder totalQueuedBytes = new LongAdder();
+    ScheduledExecutorService watchdog;
+
+    @BeforeEach
+    void setUp() {
+        session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("s1");
+        writer = new ManualExecutor();
+        watchdog = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        watchdog.shutdownNow();
+    }
+
+    @Test
+    void offer_sendsInOrderOnSingleWriter() throws Exception {
+        OutboundMailbox mailbox = mailbox(1024, OutboundMailbox.OverflowPolicy.DROP_OLDEST);
+        TextMessage a = new TextMessage("a");
+        TextMessage b = new TextMessage("b");
+
+        assertEquals(OutboundMailbox.OfferResult.QUEUED, mailbox.offer(a));
+        assertEquals(OutboundMailbox.OfferResult.QUEUED, mailbox.offer(b));
+        // writer 는 한 번만 예약됨
+        assertEquals(1, writer.tasks.size());
+        assertTrue(mailbox.isBacklogged());
+
+        writer.runAll();
+
+        InOrder inOrder = inOrder(session);
+        inOrder.verify(session).sendMessage(same(a));
+        inOrder.verify(session).sendMessage(same(b));
+        assertFalse(mailbox.isBacklogged());
+        assertEquals(0, mailbox.getQueuedBytes());
+    }
+
+    @Test
+    void overBudget_dropOldest_keepsNewest() throws Exception {
+        OutboundMailbox mailbox = mailbox(4, OutboundMailbox.OverflowPolicy.DROP_OLDEST);
+        TextMessage old = new TextMessage("old1");
+        TextMessage fresh = new TextMessage("new1");
+
+        mailbox.offer(old);
+        assertEquals(OutboundMailbox.OfferResult.DROPPED, mailbox.offer(fresh));
+        writer.runAll();
+
+        verify(session, never()).sendMessage(same(old));
+        verify(session).sendMessage(same(fresh));
+    }
+
+    @Test
+    void overBudget_dropNewest_keepsQueued() throws Exception {
+        OutboundMailbox mailbox = mailbox(4, OutboundMailbox.OverflowPolicy.DROP_NEWEST);
+        TextMessage old = new TextMessage("old1");
+        TextMessage fresh = new TextMessage("new1");
+
+        mailbox.offer(old);
+        assertEquals(OutboundMailbox.OfferResult.DROPPED, mailbox.offer(fresh));
+        writer.runAll();
+
+        verify(session).sendMessage(same(old));
+        verify(session, never()).sendMessage(same(fresh));
+    }
+
+    @Test
+    void overBudget_closeSession_closesAndRejectsLaterOffers() throws Exception {
+        OutboundMailbox mailbox = mailbox(4, OutboundMailbox.OverflowPolicy.CLOSE_SESSION);
+
+        mailbox.offer(new TextMessage("old1"));
+        assertEquals(OutboundMailbox.OfferResult.CLOSED, mailbox.offer(new TextMessage("new1")));
+        writer.runAll();
+
+        verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+        verify(session, never()).sendMessage(any());
+        assertEquals(OutboundMailbox.OfferResult.CLOSED, mailbox.offer(new TextMessage("x")));
+    }
+
+    @Test
+    void sendTimeout_watchdogClosesStuckSendWithoutFurtherOffers() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        doAnswer(inv -> {
+            sending.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new IOException("interrupted", e);
+            }
+            return null;
+        }).when(session).sendMessage(any());
+        ExecutorService virtualWriter = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            OutboundMailbox mailbox = new OutboundMailbox(session, virtualWriter, watchdog, 1024,
+                    TimeUnit.MILLISECONDS.toNanos(50), OutboundMailbox.OverflowPolicy.DROP_OLDEST,
+                    metrics, totalQueuedBytes, null, 0);
+
+            mailbox.offer(new TextMessage("a"));
+            assertTrue(sending.await(1, TimeUnit.SECONDS));
+
+            // 추가 offer 없이도 타임아웃 뒤 세션 종료 + 멈춘 writer 해제
+            verify(session, timeout(1000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+            assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+            for (int i = 0; i < 100 && mailbox.isBacklogged(); i++) {
+                Thread.sleep(10);
+            }
+            assertFalse(mailbox.isBacklogged());
+            assertEquals(OutboundMailbox.OfferResult.CLOSED, mailbox.offer(new TextMessage("b")));
+            verify(session, never()).close(CloseStatus.SERVER_ERROR);
+        } finally {
+            virtualWriter.shutdownNow();
+        }
+    }
+
+    @Test
+    void sendTimeout_releasesPermitHeldByStuckSend() throws Exception {
+        Semaphore permits = new Semaphore(1);
+        doAnswer(inv -> {
+            new CountDownLatch(1).await();
+            return null;
+        }).when(session).sendMessage(any());
+        ExecutorService virtualWriter = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            OutboundMailbox mailbox = new OutboundMailbox(session, virtualWriter, watchdog, 1024,
+                    TimeUnit.MILLISECONDS.toNanos(50), OutboundMailbox.OverflowPolicy.DROP_OLDEST,
+                    metrics, totalQueuedBytes, permits, TimeUnit.MILLISECONDS.toNanos(10));
+
+            mailbox.offer(new TextMessage("a"));
+            verify(session, timeout(1000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+            assertTrue(permits.tryAcquire(1, TimeUnit.SECONDS));
+        } finally {
+            virtualWriter.shutdownNow();
+        }
+    }
+
+    @Test
+    void sendTimeout_doesNotCountTimeBeforeSendStarts() throws Exception {
+        OutboundMailbox mailbox = new OutboundMailbox(session, writer, watchdog, 1024, TimeUnit.MILLISECONDS.toNanos(50),
+                OutboundMailbox.OverflowPolicy.DROP_OLDEST, metrics, totalQueuedBytes, null, 0);
+
+        mailbox.offer(new TextMessage("a"));
+        Thread.sleep(100);
+
+        // writer 가 아직 전송을 시작하지 않았으면 타임아웃(50ms)이 지나도 세션 유지
+        assertEquals(OutboundMailbox.OfferResult.QUEUED, mailbox.offer(new TextMessage("b")));
+        writer.runAll();
+        Thread.sleep(100);
+
+        // 끝난 전송의 watchdog 작업은 취소됨
+        verify(session, times(2)).sendMessage(any());
+        verify(session, never()).close(any());
+    }
+
+    @Test
+    void sendFailure_closesMailbox() throws Exception {
+        OutboundMailbox mailbox = mailbox(1024, OutboundMailbox.OverflowPolicy.DROP_OLDEST);
+        doThrow(new IOException("broken pipe")).when(session).sendMessage(any());
+
+        mailbox.offer(new TextMessage("a"));
+        mailbox.offer(new TextMessage("b"));
+        writer.runAll();
+
+        verify(session, times(1)).sendMessage(any());
+        verify(session).close(CloseStatus.SERVER_ERROR);
+        assertFalse(mailbox.isBacklogged());
+        assertEquals(OutboundMailbox.OfferResult.CLOSED, mailbox.offer(new TextMessage("c")));
+    }
+
+    @Test
+    void timedMessage_recordsDeliveryLatencyAndQueuedBytes() throws Exception {
+        OutboundMailbox mailbox = mailbox(1024, OutboundMailbox.OverflowPolicy.DROP_OLDEST);
+
+        mailbox.offer(new TextMessage("hot"), System.nanoTime());
+        mailbox.offer(new TextMessage("hb"));
+        assertEquals(5, totalQueuedBytes.sum());
+        writer.runAll();
+
+        assertEquals(0, totalQueuedBytes.sum());
+        // originNanos 가 있는 메시지만 계측
+        assertEquals(1, meterRegistry.get("gateway.hotword.delivery.latency").timer().count());
+    }
+
+    @Test
+    void preEncodedText_isDecodedOnWriterForServletSession() throws Exception {
+        OutboundMailbox mailbox = mailbox(1024, OutboundMailbox.OverflowPolicy.DROP_OLDEST);
+        byte[] payload = "{\"word\":\"안녕\"}".getBytes(StandardCharsets.UTF_8);
+
+        mailbox.offer(new PreEncodedTextMessage(payload), System.nanoTime());
+        // 예산은 UTF-8 바이트 기준
+        assertEquals(payload.length, totalQueuedBytes.sum());
+        writer.runAll();
+
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session).sendMessage(sent.capture());
+        assertEquals(new TextMessage("{\"word\":\"안녕\"}"), sent.getValue());
+    }
+
+    @Test
+    void writePermits_limitConcurrentSendsAcrossMailboxes() throws Exception {
+        // 허가 1개를 두 세션이 공유: 첫 세션 전송이 막혀 있는 동안 두 번째 세션은 전송을 시작하지 않음
+        Semaphore permits = new Semaphore(1);
+        CountDownLatch firstSending = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        WebSocketSession other = mock(WebSocketSession.class);
+        when(other.getId()).thenReturn("s2");
+        doAnswer(inv -> {
+            firstSending.countDown();
+            releaseFirst.await();
+            return null;
+        }).when(session).sendMessage(any());
+        ExecutorService virtualWriter = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            OutboundMailbox first = new OutboundMailbox(session, virtualWriter, watchdog, 1024, Long.MAX_VALUE,
+                    OutboundMailbox.OverflowPolicy.DROP_OLDEST, metrics, totalQueuedBytes, permits, Long.MAX_VALUE);
+            OutboundMailbox second = new OutboundMailbox(other, virtualWriter, watchdog, 1024, Long.MAX_VALUE,
+                    OutboundMailbox.OverflowPolicy.DROP_OLDEST, metrics, totalQueuedBytes, permits, Long.MAX_VALUE);
+
+            first.offer(new TextMessage("a"));
+            assertTrue(firstSending.await(1, TimeUnit.SECONDS));
+            second.offer(new TextMessage("b"));
+            verify(other, after(100).never()).sendMessage(any());
+
+            releaseFirst.countDown();
+            verify(other, timeout(1000)).sendMessage(any());
+        } finally {
+            virtualWriter.shutdownNow();
+        }
+    }
+
+    @Test
+    void writePermits_neverSendWithoutPermitAndWaitIsNotSendTime() throws Exception {
+        // 멈춘 클라이언트가 허가 1개를 쥐고 있음. 두 번째 세션은 허가 대기 주기(20ms)가 여러 번 지나도 전송하지 않고
+        // 메시지를 큐에 둔 채 기다림. 그 대기 시간은 전송 타임아웃(50ms)에 들어가지 않음
+        Semaphore permits = new Semaphore(1);
+        CountDownLatch firstSending = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        WebSocketSession other = mock(WebSocketSession.class);
+        when(other.getId()).thenReturn("s2");
+        doAnswer(inv -> {
+            firstSending.countDown();
+            releaseFirst.await();
+            return null;
+        }).when(session).sendMessage(any());
+        long sendTimeout = TimeUnit.MILLISECONDS.toNanos(50);
+        long permitWait = TimeUnit.MILLISECONDS.toNanos(20);
+        ExecutorService virtualWriter = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            OutboundMailbox stalled = new OutboundMailbox(session, virtualWriter, watchdog, 1024, Long.MAX_VALUE,
+                    OutboundMailbox.OverflowPolicy.DROP_OLDEST, metrics, totalQueuedBytes, permits, permitWait);
+            OutboundMailbox healthy = new OutboundMailbox(other, virtualWriter, watchdog, 1024, sendTimeout,
+                    OutboundMailbox.OverflowPolicy.DROP_OLDEST, metrics, totalQueuedBytes, permits, permitWait);
+
+            stalled.offer(new TextMessage("a"));
+            assertTrue(firstSending.await(1, TimeUnit.SECONDS));
+            healthy.offer(new TextMessage("b"));
+            Thread.sleep(100);
+
+            // 허가 대기 중 → 전송 없음, 메시지는 큐에 남음, 타임아웃 아님
+            verify(other, never()).sendMessage(any());
+            assertEquals(1, healthy.getQueuedBytes());
+            assertEquals(OutboundMailbox.OfferResult.QUEUED, healthy.offer(new TextMessage("c")));
+
+            releaseFirst.countDown();
+            verify(other, timeout(1000).times(2)).sendMessage(any());
+            verify(other, never()).close(any());
+        } finally {
+            releaseFirst.countDown();
+            virtualWriter.shutdownNow();
+        }
+        assertEquals(1, permits.availablePermits());
+    }
+
+    @Test
+    void writePermits_waitingWriterExitsWhenMailboxCloses() throws Exception {
+        Semaphore permits = new Semaphore(0);
+        ExecutorService virtualWriter = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            OutboundMailbox mailbox = new OutboundMailbox(session, virtualWriter, watchdog, 1024, Long.MAX_VALUE,
+                    OutboundMailbox.OverflowPolicy.DROP_OLDEST, metrics, totalQueuedBytes, permits,
+                    TimeUnit.MILLISECONDS.toNanos(10));
+
+            mailbox.offer(new TextMessage("a"));
+            assertTrue(mailbox.isBacklogged());
+            mailbox.close();
+
+            // 다음 대기 주기에 닫힌 것을 보고 writer 종료, 허가를 받지 못한 메시지는 보내지 않음
+            for (int i = 0; i < 100 && mailbox.isBacklogged(); i++) {
+                Thread.sleep(10);
+            }
+            assertFalse(mailbox.isBacklogged());
+            permits.release();
+            verify(session, after(100).never()).sendMessage(any());
+            assertEquals(1, permits.availablePermits());
+        } finally {
+            virtualWriter.shutdownNow();
+        }
+    }
+
+    private OutboundMailbox mailbox(long maxQueuedBytes, OutboundMailbox.OverflowPolicy policy) {
+        return new OutboundMailbox(session, writer, watchdog, maxQueuedBytes, Long.MAX_VALUE, policy, metrics, totalQueuedBytes, null, 0);
+    }
+}
@@ -0,0 +1,111 @@
+package com.wordawake.gateway.session;
+
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SessionRegistry 단위 테스트.
+ * 등록/해제/조회, 크기 추적, shard 스냅샷 캐시와 무효화 검증.
+ */
+class SessionRegistryTest {
+
+    GatewayMetrics metrics = new GatewayMetrics(new SimpleMeterRegistry());
+
+    SessionRegistry registry;
+    OutboundMailboxFactory mailboxFactory;
+
+    @BeforeEach
+    void setUp() {
+        mailboxFactory = new OutboundMailboxFactory(1 << 20, 10_000, OutboundMailbox.OverflowPolicy.DROP_OLDEST, 0, 0, metrics);
+        registry = new SessionRegistry(4, mailboxFactory);
+    }
+
+    @Test
+    void registerAndRemove_tracksSize() {
+        WebSocketSession session = mock(WebSocketSession.class);
+
+        SessionEntry entry = registry.register("s1", session);
+
+        assertSame(entry, registry.get("s1"));
+        assertSame(session, entry.getSession());
+        assertEquals(1, registry.size());
+
+        assertSame(entry, registry.remove("s1"));
+        assertNull(registry.get("s1"));
+        assertNull(registry.remove("s1"));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void register_sameIdTwice_replacesWithoutGrowing() {
+        WebSocketSession second = mock(WebSocketSession.class);
+        registry.register("s1", mock(WebSocketSession.class));
+
+        registry.register("s1", second);
+
+        assertSame(second, registry.get("s1").getSession());
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    void register_sameIdTwice_closesPreviousMailbox() {
+        WebSocketSession first = mock(WebSocketSession.class);
+        SessionEntry previous = registry.register("s1", first);
+
+        registry.register("s1", mock(WebSocketSession.class));
+
+        assertEquals(OutboundMailbox.OfferResult.CLOSED, previous.getOutbound().offer(new TextMessage("late")));
+    }
+
+    @Test
+    void remove_closesMailbox() {
+        SessionEntry entry = registry.register("s1", mock(WebSocketSession.class));
+
+        registry.remove("s1");
+
+        assertEquals(OutboundMailbox.OfferResult.CLOSED, entry.getOutbound().offer(new TextMessage("late")));
+    }
+
+    @Test
+    void shardCount_roundsUpToPowerOfTwo() {
+        assertEquals(8, new SessionRegistry(5, mailboxFactory).getShardCount());
+        assertEquals(1, new SessionRegistry(1, mailboxFactory).getShardCount());
+    }
+
+    @Test
+    void snapshot_isCachedUntilChanged() {
+        for (int i = 0; i < 100; i++) {
+            registry.register("s" + i, mock(WebSocketSession.class));
+        }
+        int shard = 0;
+        SessionEntry[] first = registry.snapshot(shard);
+
+        assertSame(first, registry.snapshot(shard));
+
+        registry.remove(first[0].getId());
+        assertNotSame(first, registry.snapshot(shard));
+        assertEquals(first.length - 1, registry.snapshot(shard).length);
+    }
+
+    @Test
+    void forEach_visitsEverySessionOnce() {
+        for (int i = 0; i < 100; i++) {
+            registry.register("s" + i, mock(WebSocketSession.class));
+        }
+        Set<String> visited = new HashSet<>();
+
+        registry.forEach(entry -> assertTrue(visited.add(entry.getId())));
+
+        assertEquals(100, visited.size());
+    }
+}
@@ -0,0 +1,252 @@
+package com.wordawake.gateway.spill;
+
+import com.wordawake.gateway.kafka.AudioStreamProducer;
+import com.wordawake.gateway.kafka.ConsistentHashPartitioner;
+import com.wordawake.gateway.kafka.SessionKeySerializer;
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import com.wordawake.gateway.utils.Constants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * AudioSpill 단위 테스트. KafkaTemplate 은 mock 으로 성공/실패 future 를 돌려주고, 재생은 replay() 를 직접 호출.
+ * 발행 실패 → 스필(전용 writer 스레드), 스필 backlog 뒤로 새 레코드 적재, ack 받은 앞부분까지만 커밋 + 중간 실패 후 재전송,
+ * 보존 기간 초과 레코드 버림, 디스크 상한, 스필 파티션 = ConsistentHashPartitioner 파티션 검증.
+ */
+class AudioSpillTest {
+
+    private static final String TOPIC = "audio-stream";
+    /** 세그먼트 하나에 레코드 하나 (key "s1", 헤더 없음, value 100 바이트) */
+    private static final int SEGMENT_BYTES = SpillSegment.HEADER_BYTES + Integer.BYTES
+            + SpillSegment.bodyBytes("s1".getBytes(StandardCharsets.UTF_8), List.of(), List.of(), 100);
+
+    Path dir;
+    KafkaTemplate<String, ByteBuffer> kafkaTemplate;
+    List<AudioSpill> spills = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("audio-spill-test");
+        kafkaTemplate = mock(KafkaTemplate.class);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        spills.forEach(AudioSpill::shutdown);
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Test
+    void failedSend_isSpilled_andLaterRecordsQueueBehindBacklog() {
+        AudioSpill spill = spill(1 << 20, 1 << 24, 60_000, 1, "string");
+        AudioStreamProducer producer = new AudioStreamProducer(kafkaTemplate, TOPIC, new GatewayMetrics(new SimpleMeterRegistry()),
+                false, 8192, 100, 16, false, Optional.empty(), Optional.of(spill));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(failed());
+
+        producer.send("s1", value(1, 100));
+        // writer 에 넘긴 순간부터 backlog (기록 전에도 뒤 레코드가 앞지르지 않음)
+        assertTrue(spill.hasBacklog(TOPIC, "s1"));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> spill.getSpilledRecordCount() == 1);
+
+        // 앞 레코드가 스필에 있으므로 Kafka 로 바로 보내지 않고 스필 뒤에 붙임
+        producer.send("s1", value(2, 100));
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> spill.getSpilledRecordCount() == 2);
+
+        // 복구 후 재생: 기록 순서대로, 헤더(audio-codec) 유지
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(acked());
+        spill.replay();
+
+        // 첫 호출(실패한 원래 발행)의 버퍼는 이미 풀에 반납됐으므로 재생분만 확인
+        List<ProducerRecord<String, ByteBuffer>> sent = sentRecords(3);
+        assertEquals(List.of(1, 2), sent.subList(1, 3).stream().map(AudioSpillTest::firstByte).toList());
+        assertEquals("s1", sent.get(2).key());
+        assertNotNull(sent.get(2).headers().lastHeader(Constants.KAFKA_HEADER_AUDIO_CODEC));
+        assertEquals(2, spill.getReplayedRecordCount());
+        assertFalse(spill.hasBacklog(TOPIC, "s1"));
+    }
+
+    @Test
+    void appendAsync_writesOnSpillWriterThreadAndReleasesAfterCopy() throws Exception {
+        AudioSpill spill = spill(1 << 20, 1 << 24, 60_000, 1, "string");
+        CompletableFuture<String> doneOn = new CompletableFuture<>();
+
+        // 발행 실패 콜백(Producer 네트워크 스레드) 대신 호출: 디스크 기록을 기다리지 않고 바로 반환
+        assertTrue(spill.appendAsync(new ProducerRecord<>(TOPIC, "s1", value(1, 100)),
+                () -> doneOn.complete(Thread.currentThread().getName())));
+
+        assertEquals("audio-spill-writer", doneOn.get(5, TimeUnit.SECONDS));
+        assertEquals(1, spill.getSpilledRecordCount());
+        assertTrue(spill.hasBacklog(TOPIC, "s1"));
+
+        // 세그먼트보다 큰 레코드는 넘기지 않고 바로 onDone
+        AtomicBoolean released = new AtomicBoolean();
+        assertFalse(spill.appendAsync(new ProducerRecord<>(TOPIC, "s1", value(2, 2 << 20)), () -> released.set(true)));
+        assertTrue(released.get());
+    }
+
+    @Test
+    void replay_commitsOnlyAckedPrefix_andResendsAfterMidBatchFailure() {
+        AudioSpill spill = spill(1 << 20, 1 << 24, 60_000, 1, "string");
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(spill.append(new ProducerRecord<>(TOPIC, "s1", value(i, 100))));
+        }
+        // 두 번째 레코드 발행 실패 (세 번째는 보내졌지만 그 앞이 실패했으므로 커밋하지 않음)
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(acked(), failed(), acked());
+
+        spill.replay();
+
+        assertEquals(1, spill.getReplayedRecordCount());
+        assertTrue(spill.hasBacklog(TOPIC, "s1"));
+
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(acked());
+        spill.replay();
+
+        // at-least-once: 실패 지점부터 다시 보냄 (세 번째 레코드는 두 번 발행)
+        assertEquals(List.of(1, 2, 3, 2, 3), sentRecords(5).stream().map(AudioSpillTest::firstByte).toList());
+        assertEquals(3, spill.getReplayedRecordCount());
+        assertFalse(spill.hasBacklog(TOPIC, "s1"));
+    }
+
+    @Test
+    void replay_dropsRecordsOlderThanMaxAge() {
+        AudioSpill spill = spill(1 << 20, 1 << 24, 60_000, 1, "string");
+        long now = System.currentTimeMillis();
+        spill.append(new ProducerRecord<>(TOPIC, null, now - 120_000, "s1", value(1, 100)));
+        spill.append(new ProducerRecord<>(TOPIC, null, now, "s1", value(2, 100)));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(acked());
+
+        spill.replay();
+
+        assertEquals(List.of(2), sentRecords(1).stream().map(AudioSpillTest::firstByte).toList());
+        assertEquals(1, spill.getDroppedRecordCount());
+        assertFalse(spill.hasBacklog(TOPIC, "s1"));
+    }
+
+    @Test
+    void append_dropsOldestSegmentsOverDiskLimit() {
+        AudioSpill spill = spill(SEGMENT_BYTES, 2L * SEGMENT_BYTES, 60_000, 1, "string");
+
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(spill.append(new ProducerRecord<>(TOPIC, "s1", value(i, 100))));
+        }
+
+        assertEquals(2L * SEGMENT_BYTES, spill.getDiskBytes());
+        assertEquals(2, spill.getDroppedSegmentCount());
+
+        // 남은 최신 두 레코드만 재생
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(acked());
+        spill.replay();
+        assertEquals(List.of(3, 4), sentRecords(2).stream().map(AudioSpillTest::firstByte).toList());
+    }
+
+    @Test
+    void spillPartition_matchesConsistentHashPartitioner() throws IOException {
+        int partitions = 6;
+        Cluster cluster = cluster(partitions);
+        ConsistentHashPartitioner partitioner = new ConsistentHashPartitioner();
+        for (String keyFormat : List.of("string", "uuid16")) {
+            Path formatDir = Files.createDirectory(dir.resolve(keyFormat));
+            AudioSpill spill = track(new AudioSpill(kafkaTemplate, formatDir.toString(), 1 << 16, 1 << 24, 60_000,
+                    partitions, keyFormat, 64, 500, 3_600_000, 1000));
+            for (int i = 0; i < 50; i++) {
+                String key = UUID.randomUUID().toString();
+                byte[] keyBytes = "uuid16".equals(keyFormat)
+                        ? SessionKeySerializer.encode(key) : key.getBytes(StandardCharsets.UTF_8);
+                int expected = partitioner.partition(TOPIC, key, keyBytes, null, null, cluster);
+
+                spill.append(new ProducerRecord<>(TOPIC, key, value(i, 10)));
+
+                assertTrue(spill.hasBacklog(TOPIC, key));
+                assertTrue(Files.isDirectory(formatDir.resolve(TOPIC + "-" + expected)), keyFormat + " key " + key);
+            }
+        }
+    }
+
+    /** 재생 주기는 1시간 → 테스트에서 replay() 를 직접 호출 */
+    private AudioSpill spill(int segmentBytes, long maxBytes, long maxAgeMillis, int partitions, String keyFormat) {
+        try {
+            return track(new AudioSpill(kafkaTemplate, dir.toString(), segmentBytes, maxBytes, maxAgeMillis,
+                    partitions, keyFormat, 64, 500, 3_600_000, 1000));
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private AudioSpill track(AudioSpill spill) {
+        spills.add(spill);
+        return spill;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ProducerRecord<String, ByteBuffer>> sentRecords(int times) {
+        ArgumentCaptor<ProducerRecord<String, ByteBuffer>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(times)).send(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static CompletableFuture<SendResult<String, ByteBuffer>> acked() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static CompletableFuture<SendResult<String, ByteBuffer>> failed() {
+        return CompletableFuture.failedFuture(new RuntimeException("broker down"));
+    }
+
+    /** 모든 바이트가 marker 인 size 바이트 */
+    private static ByteBuffer value(int marker, int size) {
+        byte[] bytes = new byte[size];
+        Arrays.fill(bytes, (byte) marker);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    private static int firstByte(ProducerRecord<String, ByteBuffer> record) {
+        ByteBuffer value = record.value();
+        return value.get(value.position());
+    }
+
+    private static Cluster cluster(int partitions) {
+        Node node = new Node(0, "localhost", 9092);
+        List<PartitionInfo> infos = new ArrayList<>();
+        for (int p = 0; p < partitions; p++) {
+            infos.add(new PartitionInfo(TOPIC, p, node, new Node[]{node}, new Node[]{node}));
+        }
+        return new Cluster("test", List.of(node), infos, Set.of(), Set.of());
+    }
+}
@@ -0,0 +1,172 @@
+package com.wordawake.gateway.spill;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SpillPartition / SpillSegment 단위 테스트.
+ * 기록 순서대로 읽기, 세그먼트 롤링, 재생 위치 커밋, 재기동 복구, 보존 기간/디스크 상한 삭제 검증.
+ */
+class SpillPartitionTest {
+
+    /** 레코드 하나 = length(4) + 본문 (key "s1", 헤더 1개, value 100 바이트) */
+    private static final int SEGMENT_BYTES = SpillSegment.HEADER_BYTES + 3 * recordBytes(100);
+
+    Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("spill-test");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Test
+    void append_rollsSegments_andReadsInOrderAcrossSegments() throws IOException {
+        SpillPartition partition = new SpillPartition(dir, SEGMENT_BYTES);
+
+        int rolled = 0;
+        for (int i = 0; i < 7; i++) {
+            rolled += append(partition, i) ? 1 : 0;
+        }
+
+        assertEquals(3, rolled);
+        assertEquals(3, partition.segmentCount());
+        assertTrue(partition.hasBacklog());
+        int next = 0;
+        while (true) {
+            List<SpilledRecord> records = partition.read(2, 0).records();
+            if (records.isEmpty()) {
+                break;
+            }
+            for (SpilledRecord record : records) {
+                assertEquals("s1", record.key());
+                assertEquals(next, record.value()[0]);
+                assertEquals(100, record.value().length);
+                assertEquals("audio-codec", record.headers().get(0).name());
+                assertArrayEquals("pcm16".getBytes(StandardCharsets.US_ASCII), record.headers().get(0).value());
+                assertEquals(1000L + next, record.timestampMillis());
+                next++;
+            }
+            partition.commit(records.get(records.size() - 1).endOffset());
+        }
+        assertEquals(7, next);
+        assertFalse(partition.hasBacklog());
+        // 다 재생한 세그먼트는 지우고, 쓰는 중인 마지막 세그먼트만 남음
+        assertEquals(1, partition.segmentCount());
+        partition.close();
+    }
+
+    @Test
+    void reopen_recoversUnreadRecordsAfterCommittedOffset() throws IOException {
+        SpillPartition partition = new SpillPartition(dir, SEGMENT_BYTES);
+        for (int i = 0; i < 5; i++) {
+            append(partition, i);
+        }
+        List<SpilledRecord> first = partition.read(2, 0).records();
+        partition.commit(first.get(1).endOffset());
+        partition.close();
+
+        SpillPartition reopened = new SpillPartition(dir, SEGMENT_BYTES);
+
+        assertEquals(2, reopened.segmentCount());
+        assertTrue(reopened.hasBacklog());
+        List<SpilledRecord> head = reopened.read(10, 0).records();
+        assertEquals(1, head.size());
+        assertEquals(2, head.get(0).value()[0]);
+        reopened.commit(head.get(0).endOffset());
+        // 이어서 쓴 레코드는 복구된 쓰기 위치 뒤에 붙음
+        append(reopened, 5);
+        List<Integer> values = reopened.read(10, 0).records().stream().map(r -> (int) r.value()[0]).toList();
+        assertEquals(List.of(3, 4, 5), values);
+        reopened.close();
+    }
+
+    @Test
+    void commit_withoutFullBatch_rereadsUncommittedRecords() throws IOException {
+        SpillPartition partition = new SpillPartition(dir, SEGMENT_BYTES);
+        for (int i = 0; i < 3; i++) {
+            append(partition, i);
+        }
+
+        List<SpilledRecord> batch = partition.read(3, 0).records();
+        partition.commit(batch.get(0).endOffset());
+
+        List<SpilledRecord> retry = partition.read(3, 0).records();
+        assertEquals(2, retry.size());
+        assertEquals(1, retry.get(0).value()[0]);
+        partition.close();
+    }
+
+    @Test
+    void read_deletesSegmentsOlderThanMaxAge() throws IOException {
+        SpillPartition partition = new SpillPartition(dir, SEGMENT_BYTES);
+        for (int i = 0; i < 4; i++) {
+            append(partition, i);
+        }
+
+        SpillPartition.ReadResult result = partition.read(10, Long.MAX_VALUE);
+
+        assertEquals(2, result.expiredSegments());
+        assertTrue(result.records().isEmpty());
+        assertEquals(0, partition.segmentCount());
+        assertFalse(partition.hasBacklog());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+        partition.close();
+    }
+
+    @Test
+    void dropOldest_discardsHeadSegment_andIgnoresCommitForDroppedSegment() throws IOException {
+        SpillPartition partition = new SpillPartition(dir, SEGMENT_BYTES);
+        for (int i = 0; i < 4; i++) {
+            append(partition, i);
+        }
+        List<SpilledRecord> batch = partition.read(2, 0).records();
+
+        assertTrue(partition.dropOldest());
+        partition.commit(batch.get(1).endOffset());
+
+        // 남은 세그먼트의 레코드(3)는 커밋 영향 없이 그대로 읽힘
+        List<SpilledRecord> remaining = partition.read(10, 0).records();
+        assertEquals(1, remaining.size());
+        assertEquals(3, remaining.get(0).value()[0]);
+        partition.close();
+    }
+
+    private static boolean append(SpillPartition partition, int marker) throws IOException {
+        byte[] key = "s1".getBytes(StandardCharsets.UTF_8);
+        List<byte[]> names = List.of("audio-codec".getBytes(StandardCharsets.UTF_8));
+        List<byte[]> values = List.of("pcm16".getBytes(StandardCharsets.US_ASCII));
+        byte[] value = new byte[100];
+        value[0] = (byte) marker;
+        return partition.append(1000L + marker, key, names, values, ByteBuffer.wrap(value),
+                SpillSegment.bodyBytes(key, names, values, value.length));
+    }
+
+    private static int recordBytes(int valueLength) {
+        byte[] key = "s1".getBytes(StandardCharsets.UTF_8);
+        return Integer.BYTES + SpillSegment.bodyBytes(key, List.of("audio-codec".getBytes(StandardCharsets.UTF_8)),
+                List.of("pcm16".getBytes(StandardCharsets.US_ASCII)), valueLength);
+    }
+}
@@ -0,0 +1,137 @@
+package com.wordawake.gateway.streams;
+
+import com.wordawake.gateway.codec.AudioCodec;
+import com.wordawake.gateway.codec.ImaAdpcm;
+import com.wordawake.gateway.kafka.SessionKeySerializer;
+import com.wordawake.gateway.utils.Constants;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.test.TestRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HotwordStreamsTopology 테스트 (TopologyTestDriver, 브로커 없음).
+ * 100ms 청크로 나눠 들어온 오디오가 세션 창에 이어 붙어 감지되는지, 코덱 헤더 복원, 세션 분리, 감지 후 창 초기화 검증.
+ */
+class HotwordStreamsTopologyTest {
+
+    static final int RATE = 16000;
+    static final int CHUNK_SAMPLES = RATE / 10;
+
+    TopologyTestDriver driver;
+    TestInputTopic<String, byte[]> audio;
+    TestOutputTopic<String, String> events;
+
+    @BeforeEach
+    void setUp() {
+        HotwordDetector detector = new TemplateMatchingDetector("hey",
+                Speech.synth(TemplateMatchingDetectorTest.UTTERANCE, 1.0, RATE), RATE, 0.85, -40, 10);
+        StreamsBuilder builder = new StreamsBuilder();
+        HotwordStreamsTopology.build(builder, "audio-stream", "hotword-events", detector, RATE * 2);
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "hotword-streams-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        driver = new TopologyTestDriver(builder.build(), props);
+        audio = driver.createInputTopic("audio-stream", new StringSerializer(), new ByteArraySerializer());
+        events = driver.createOutputTopic("hotword-events", new StringDeserializer(), new StringDeserializer());
+    }
+
+    @AfterEach
+    void tearDown() {
+        driver.close();
+    }
+
+    @Test
+    void pcmChunks_detectHotwordOncePerUtterance() {
+        pipePcm("s1", utteranceWithLeadingSilence());
+
+        List<TestRecord<String, String>> out = events.readRecordsToList();
+        assertEquals(1, out.size());
+        assertEquals("s1", out.get(0).key());
+        assertTrue(out.get(0).value().contains("\"word\":\"hey\""), out.get(0).value());
+        assertArrayEquals(Constants.KAFKA_EVENT_TYPE_HOTWORD.getBytes(StandardCharsets.US_ASCII),
+                out.get(0).headers().lastHeader(Constants.KAFKA_HEADER_EVENT_TYPE).value());
+
+        // 감지 후 창이 비워지므로 같은 발화가 다시 오면 다시 감지
+        pipePcm("s1", utteranceWithLeadingSilence());
+        assertEquals(1, events.readRecordsToList().size());
+    }
+
+    @Test
+    void imaAdpcmChunks_areDecodedUsingHeaders() {
+        short[] samples = utteranceWithLeadingSilence();
+        ImaAdpcm.Encoder encoder = new ImaAdpcm.Encoder();
+        for (int offset = 0; offset < samples.length; offset += CHUNK_SAMPLES) {
+            short[] chunk = Arrays.copyOfRange(samples, offset, Math.min(samples.length, offset + CHUNK_SAMPLES));
+            ByteBuffer pcm = ByteBuffer.wrap(Speech.toBytes(chunk));
+            ByteBuffer encoded = ByteBuffer.allocate(encoder.maxEncodedBytes(pcm.remaining()));
+            encoder.encode(pcm, encoded);
+            byte[] value = Arrays.copyOf(encoded.array(), encoded.position());
+            RecordHeaders headers = new RecordHeaders();
+            headers.add(Constants.KAFKA_HEADER_AUDIO_CODEC, AudioCodec.IMA_ADPCM.headerValue());
+            headers.add(Constants.KAFKA_HEADER_FRAME_LENGTHS, ByteBuffer.allocate(4).putInt(value.length).array());
+            audio.pipeInput(new TestRecord<>("s1", value, headers));
+        }
+
+        assertEquals(1, events.readRecordsToList().size());
+    }
+
+    @Test
+    void sessionsKeepSeparateWindows() {
+        short[] samples = utteranceWithLeadingSilence();
+        // 무음 500ms + 발화 앞 200ms 까지
+        int split = RATE * 700 / 1000;
+
+        // 발화 앞/뒤가 서로 다른 세션으로 오면 어느 쪽도 감지되지 않음
+        pipePcm("s1", Arrays.copyOfRange(samples, 0, split));
+        pipePcm("s2", Arrays.copyOfRange(samples, split, samples.length));
+
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void uuid16Keys_areReadBackAsSessionIds() {
+        String sessionId = UUID.randomUUID().toString();
+        TestInputTopic<String, byte[]> binaryKeyed =
+                driver.createInputTopic("audio-stream", new SessionKeySerializer(), new ByteArraySerializer());
+        short[] samples = utteranceWithLeadingSilence();
+
+        for (int offset = 0; offset < samples.length; offset += CHUNK_SAMPLES) {
+            short[] chunk = Arrays.copyOfRange(samples, offset, Math.min(samples.length, offset + CHUNK_SAMPLES));
+            binaryKeyed.pipeInput(sessionId, Speech.toBytes(chunk));
+        }
+
+        List<TestRecord<String, String>> out = events.readRecordsToList();
+        assertEquals(1, out.size());
+        assertEquals(sessionId, out.get(0).key());
+    }
+
+    private void pipePcm(String sessionId, short[] samples) {
+        for (int offset = 0; offset < samples.length; offset += CHUNK_SAMPLES) {
+            short[] chunk = Arrays.copyOfRange(samples, offset, Math.min(samples.length, offset + CHUNK_SAMPLES));
+            audio.pipeInput(sessionId, Speech.toBytes(chunk));
+        }
+    }
+
+    private static short[] utteranceWithLeadingSilence() {
+        return Speech.concat(Speech.silence(500, RATE), Speech.synth(TemplateMatchingDetectorTest.UTTERANCE, 0.5, RATE));
+    }
+}
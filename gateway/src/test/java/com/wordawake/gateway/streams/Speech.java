@@ -0,0 +1,47 @@
+package com.wordawake.gateway.streams;
+
+/** 테스트용 합성 오디오 (구간별 진폭을 가진 사각파) */
+final class Speech {
+
+    private Speech() {
+    }
+
+    /** segments = {길이 ms, 진폭} 배열, gain 으로 전체 음량 조절 */
+    static short[] synth(int[][] segments, double gain, int rate) {
+        int total = 0;
+        for (int[] segment : segments) {
+            total += segment[0] * rate / 1000;
+        }
+        short[] out = new short[total];
+        int pos = 0;
+        for (int[] segment : segments) {
+            int n = segment[0] * rate / 1000;
+            int amplitude = (int) (segment[1] * gain);
+            for (int i = 0; i < n; i++) {
+                out[pos++] = (short) ((i / 8) % 2 == 0 ? amplitude : -amplitude);
+            }
+        }
+        return out;
+    }
+
+    static short[] silence(int ms, int rate) {
+        return new short[ms * rate / 1000];
+    }
+
+    static short[] concat(short[] a, short[] b) {
+        short[] out = new short[a.length + b.length];
+        System.arraycopy(a, 0, out, 0, a.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+
+    /** PCM16 little-endian 바이트 */
+    static byte[] toBytes(short[] samples) {
+        byte[] pcm = new byte[samples.length * 2];
+        for (int i = 0; i < samples.length; i++) {
+            pcm[2 * i] = (byte) samples[i];
+            pcm[2 * i + 1] = (byte) (samples[i] >> 8);
+        }
+        return pcm;
+    }
+}
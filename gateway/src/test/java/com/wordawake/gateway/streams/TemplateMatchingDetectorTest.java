@@ -0,0 +1,55 @@
+package com.wordawake.gateway.streams;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TemplateMatchingDetector 단위 테스트 (16kHz, 합성 발화).
+ * 음량이 달라도 같은 포락선이면 감지, 다른 포락선/무음은 미감지, 창 끝에서 조금 어긋나도 감지 검증.
+ */
+class TemplateMatchingDetectorTest {
+
+    static final int RATE = 16000;
+
+    /** 구간별 (길이 ms, 진폭) 으로 만든 합성 발화. 끝이 큰 소리로 끝남 */
+    static final int[][] UTTERANCE = {{100, 8000}, {60, 200}, {120, 4000}, {40, 200}, {80, 9000}};
+    static final int[][] OTHER = {{80, 9000}, {40, 200}, {120, 4000}, {60, 200}, {100, 8000}};
+
+    TemplateMatchingDetector detector =
+            new TemplateMatchingDetector("hey", Speech.synth(UTTERANCE, 1.0, RATE), RATE, 0.85, -40, 10);
+
+    @Test
+    void detect_sameEnvelopeAtLowerVolume() {
+        short[] window = Speech.concat(Speech.silence(500, RATE), Speech.synth(UTTERANCE, 0.4, RATE));
+
+        HotwordDetector.Detection detection = detector.detect("s1", window, window.length);
+
+        assertNotNull(detection);
+        assertEquals("hey", detection.word());
+        assertTrue(detection.score() > 0.95, "score=" + detection.score());
+    }
+
+    @Test
+    void detect_toleratesShortTrailingSilence() {
+        short[] window = Speech.concat(Speech.synth(UTTERANCE, 1.0, RATE), Speech.silence(100, RATE));
+
+        assertNotNull(detector.detect("s1", window, window.length));
+    }
+
+    @Test
+    void detect_ignoresDifferentEnvelopeAndSilence() {
+        short[] other = Speech.synth(OTHER, 1.0, RATE);
+        short[] silence = Speech.silence(1000, RATE);
+
+        assertNull(detector.detect("s1", other, other.length));
+        assertNull(detector.detect("s1", silence, silence.length));
+    }
+
+    @Test
+    void detect_windowShorterThanTemplate_returnsNull() {
+        short[] window = Speech.synth(UTTERANCE, 1.0, RATE);
+
+        assertNull(detector.detect("s1", window, window.length / 2));
+    }
+}
@@ -0,0 +1,125 @@
+package com.wordawake.gateway.vad;
+
+import com.wordawake.gateway.utils.AudioBufferPool;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * VoiceActivityGate 단위 테스트 (16kHz, 프레임 20ms = 640 bytes).
+ * 무음 억제, 음성 시작 시 pre-roll 동반 발행, hangover, keepalive, 버퍼 반납 검증.
+ */
+class VoiceActivityGateTest {
+
+    static final int FRAME_BYTES = 640;
+
+    // threshold -45dB, margin 10dB, hangover 60ms(3프레임), pre-roll 40ms(2프레임), keepalive 200ms(10프레임)
+    VadSettings settings = new VadSettings(16000, -45, 10, 60, 40, 200);
+    AudioBufferPool pool = new AudioBufferPool(FRAME_BYTES, 64, false);
+    VoiceActivityGate gate = new VoiceActivityGate(settings, pool);
+    ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+    /** 프레임 식별용 (버퍼 identity → 번호) */
+    Map<ByteBuffer, Integer> tags = new IdentityHashMap<>();
+
+    @Test
+    void silence_isSuppressedExceptKeepalive() {
+        int forwarded = 0;
+        for (int i = 0; i < 30; i++) {
+            if (gate.process(frame(0, i), out) != VoiceActivityGate.Decision.SILENCE) {
+                forwarded++;
+            }
+        }
+
+        // 600ms 무음 → keepalive 200ms 마다 1개
+        assertEquals(3, forwarded);
+        assertEquals(3, out.size());
+    }
+
+    @Test
+    void speechOnset_forwardsPreRollFirst() {
+        gate.process(frame(0, 1), out);
+        gate.process(frame(0, 2), out);
+        gate.process(frame(0, 3), out);
+        assertTrue(out.isEmpty());
+
+        assertEquals(VoiceActivityGate.Decision.SPEECH, gate.process(frame(8000, 4), out));
+
+        // pre-roll 40ms = 직전 무음 2프레임 + 음성 프레임
+        assertEquals(3, out.size());
+        assertEquals(2, tag(out.pollFirst()));
+        assertEquals(3, tag(out.pollFirst()));
+        assertEquals(4, tag(out.pollFirst()));
+        // 보관 한도를 넘은 첫 프레임은 풀로 반납됨
+        assertEquals(1, pool.getPooledCount());
+    }
+
+    @Test
+    void hangover_keepsForwardingAfterSpeech() {
+        gate.process(frame(8000, 0), out);
+        out.clear();
+
+        assertEquals(VoiceActivityGate.Decision.HANGOVER, gate.process(frame(0, 1), out));
+        assertEquals(VoiceActivityGate.Decision.HANGOVER, gate.process(frame(0, 2), out));
+        assertEquals(VoiceActivityGate.Decision.HANGOVER, gate.process(frame(0, 3), out));
+        assertEquals(VoiceActivityGate.Decision.SILENCE, gate.process(frame(0, 4), out));
+        assertEquals(3, out.size());
+    }
+
+    @Test
+    void noiseFloor_adaptsSoSteadyNoiseIsNotSpeech() {
+        // -30dBFS 정도의 지속 잡음: 처음엔 음성으로 판정되지만 잡음 바닥이 따라오면 억제됨
+        assertEquals(VoiceActivityGate.Decision.SPEECH, gate.process(frame(1000, 0), out));
+        for (int i = 0; i < 200; i++) {
+            gate.process(frame(1000, i), out);
+            releaseAll();
+        }
+        assertEquals(VoiceActivityGate.Decision.SILENCE, gate.process(frame(1000, 0), out));
+        // 잡음보다 충분히 큰 소리는 여전히 음성
+        assertEquals(VoiceActivityGate.Decision.SPEECH, gate.process(frame(8000, 0), out));
+    }
+
+    @Test
+    void close_releasesPreRoll() {
+        gate.process(frame(0, 1), out);
+        gate.process(frame(0, 2), out);
+
+        gate.close();
+
+        assertEquals(2, pool.getPooledCount());
+    }
+
+    @Test
+    void energyDb_ofSilenceAndFullScale() {
+        assertEquals(-96, VoiceActivityGate.energyDb(frame(0, 0)), 0.001);
+        // 최대 진폭 사각파 = 0 dBFS
+        assertEquals(0, VoiceActivityGate.energyDb(frame(32767, 0)), 0.01);
+    }
+
+    /** 진폭 amplitude 의 사각파 프레임. 풀 버퍼와 같은 크기라 게이트가 반납하면 풀에 쌓임 */
+    private ByteBuffer frame(int amplitude, int tag) {
+        ByteBuffer buf = ByteBuffer.allocate(FRAME_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < FRAME_BYTES / 2; i++) {
+            buf.putShort((short) (i % 2 == 0 ? amplitude : -amplitude));
+        }
+        buf.flip();
+        tags.put(buf, tag);
+        return buf;
+    }
+
+    private int tag(ByteBuffer buf) {
+        return tags.get(buf);
+    }
+
+    private void releaseAll() {
+        ByteBuffer buf;
+        while ((buf = out.pollFirst()) != null) {
+            pool.release(buf);
+        }
+    }
+}
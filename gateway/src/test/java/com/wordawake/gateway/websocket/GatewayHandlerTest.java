@@ -1,7 +1,14 @@
 package com.wordawake.gateway.websocket;
 
+import com.wordawake.gateway.codec.AudioCodec;
+import com.wordawake.gateway.dispatch.AudioDispatcher;
+import com.wordawake.gateway.framing.FrameLatencyTracker;
 import com.wordawake.gateway.kafka.AudioStreamProducer;
+import com.wordawake.gateway.message.GatewayMessage;
+import com.wordawake.gateway.message.MessageEncoding;
+import com.wordawake.gateway.metrics.GatewayMetrics;
 import com.wordawake.gateway.service.SessionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,10 +18,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
-import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.nio.ByteBuffer;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,14 +29,16 @@ import static org.mockito.Mockito.lenient;
 
 /**
  * GatewayHandler 단위 테스트.
- * - 연결 시 세션 등록 + welcome(sessionId) 전송
+ * - 연결 시 세션 등록 + welcome(sessionId) 전송, 제어 메시지 서브프로토콜 제공
  * - 텍스트 메시지 시 에코
- * - 바이너리 메시지 시 Kafka 발행
+ * - 바이너리 메시지 시 AudioDispatcher 거쳐 Kafka 발행
  * - 종료 시 세션 해제
  */
 @ExtendWith(MockitoExtension.class)
 class GatewayHandlerTest {
 
+    GatewayMetrics metrics = new GatewayMetrics(new SimpleMeterRegistry());
+
     GatewayHandler handler;
 
     @Mock
@@ -43,7 +52,8 @@ class GatewayHandlerTest {
 
     @BeforeEach
     void setUp() {
-        handler = new GatewayHandler(sessionService, audioStreamProducer, null);
+        AudioDispatcher audioDispatcher = new AudioDispatcher(audioStreamProducer, metrics, 64, 1000, AudioDispatcher.OverflowPolicy.DROP_OLDEST, 1000, 4096, 16, false, "pcm16", Optional.empty(), Optional.empty());
+        handler = new GatewayHandler(sessionService, audioDispatcher, new FrameLatencyTracker(metrics, 64), Optional.empty(), Optional.empty());
         // sessionId 사용 테스트에서만 쓰이므로 lenient (미사용 시 UnnecessaryStubbing 방지)
         lenient().when(session.getId()).thenReturn("test-session-id");
     }
@@ -53,28 +63,42 @@ class GatewayHandlerTest {
         handler.afterConnectionEstablished(session);
 
         verify(sessionService).register(eq("test-session-id"), same(session));
-        ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
-        verify(session).sendMessage(captor.capture());
-        assertTrue(captor.getValue().getPayload().contains("\"sessionId\":\"test-session-id\""));
-        assertTrue(captor.getValue().getPayload().contains("\"type\":\"connected\""));
+        ArgumentCaptor<GatewayMessage> captor = ArgumentCaptor.forClass(GatewayMessage.class);
+        verify(sessionService).sendToSession(eq("test-session-id"), captor.capture());
+        // 서브프로토콜을 요청하지 않은 세션은 JSON 텍스트
+        String welcome = ((TextMessage) MessageEncoding.JSON.encode(captor.getValue())).getPayload();
+        assertTrue(welcome.contains("\"sessionId\":\"test-session-id\""));
+        assertTrue(welcome.contains("\"type\":\"connected\""));
     }
 
     @Test
-    void handleTextMessage_sendsGatewayEcho() throws Exception {
+    void handleTextMessage_sendsNothing() throws Exception {
         handler.handleMessage(session, new TextMessage("ping"));
 
-        verify(session).sendMessage(argThat((WebSocketMessage<?> msg) ->
-                msg instanceof TextMessage && "gateway echo: ping".equals(((TextMessage) msg).getPayload())));
+        // 텍스트는 로그만 남김 (텍스트 채널의 서버 → 클라이언트 메시지는 JSON 만)
+        verify(session, never()).sendMessage(any());
+        verify(sessionService, never()).sendToSession(anyString(), anyString());
     }
 
     @Test
-    void handleBinaryMessage_sendsToAudioStreamProducerAndAck() throws Exception {
+    void handleBinaryMessage_sendsToAudioStreamProducerWithoutAck() throws Exception {
         byte[] chunk = new byte[]{1, 2, 3};
+        // 디스패처 풀 버퍼는 발행 직후 반납되므로 호출 시점에 내용 비교
+        doAnswer(inv -> {
+            ByteBuffer frame = inv.getArgument(1);
+            byte[] copy = new byte[frame.remaining()];
+            frame.get(frame.position(), copy);
+            assertArrayEquals(chunk, copy);
+            return null;
+        }).when(audioStreamProducer).send(eq("test-session-id"), any(ByteBuffer.class), eq(AudioCodec.PCM16));
+        handler.afterConnectionEstablished(session);
+
         handler.handleBinaryMessage(session, new BinaryMessage(ByteBuffer.wrap(chunk)));
 
-        verify(audioStreamProducer).send(eq("test-session-id"), eq(chunk));
-        verify(session).sendMessage(argThat((WebSocketMessage<?> msg) ->
-                msg instanceof TextMessage && ((TextMessage) msg).getPayload().contains("\"ack\":\"received\"")));
+        verify(audioStreamProducer, timeout(1000)).send(eq("test-session-id"), any(ByteBuffer.class), eq(AudioCodec.PCM16));
+        // 오디오 프레임마다 ACK 를 보내지 않음 (흐름 제어는 크레딧 메시지로만)
+        verify(session, never()).sendMessage(any());
+        verify(sessionService, never()).sendToSession(eq("test-session-id"), anyString());
     }
 
     @Test
@@ -84,6 +108,11 @@ class GatewayHandlerTest {
         verify(sessionService).unregister("test-session-id");
     }
 
+    @Test
+    void getSubProtocols_offersJsonAndCbor() {
+        assertEquals(MessageEncoding.SUBPROTOCOLS, handler.getSubProtocols());
+    }
+
     @Test
     void supportsPartialMessages_returnsFalse() {
         assertFalse(handler.supportsPartialMessages());
@@ -1,8 +1,10 @@
 package com.wordawake.gateway.websocket;
 
+import com.wordawake.gateway.utils.Constants;
 import org.eclipse.jetty.websocket.api.Callback;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.client.ClientUpgradeRequest;
 import org.eclipse.jetty.websocket.client.WebSocketClient;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,6 +21,7 @@ import org.springframework.kafka.test.context.EmbeddedKafka;
 import org.springframework.test.annotation.DirtiesContext;
 
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.net.URI;
 import java.util.ArrayList;
@@ -43,6 +46,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * WebSocket + Kafka 연동 통합 테스트.
  * - EmbeddedKafka로 실제 토픽 사용
  * - 연결 → sessionId 수신 → 바이너리 전송 → hotword-events 발행 → 해당 클라이언트가 메시지 수신하는지 검증
+ * - CBOR 서브프로토콜 요청 시 welcome 이 바이너리(CBOR) 로 오는지 검증
  */
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @EmbeddedKafka(partitions = 1, bootstrapServersProperty = "spring.kafka.bootstrap-servers")
@@ -133,7 +137,36 @@ class GatewayWebSocketIntegrationTest {
     }
 
     @Test
-    void textMessage_receivesEcho() throws Exception {
+    void connect_withCborSubprotocol_receivesBinaryWelcome() throws Exception {
+        BlockingQueue<byte[]> binary = new LinkedBlockingQueue<>();
+        ClientUpgradeRequest upgrade = new ClientUpgradeRequest();
+        upgrade.setSubProtocols("unknown.v9", Constants.WS_SUBPROTOCOL_CBOR);
+
+        URI uri = URI.create("ws://localhost:" + port + "/gateway/socket");
+        Session session = webSocketClient.connect(new Session.Listener.AutoDemanding() {
+            @Override
+            public void onWebSocketBinary(ByteBuffer payload, Callback callback) {
+                byte[] copy = new byte[payload.remaining()];
+                payload.get(copy);
+                binary.offer(copy);
+                callback.succeed();
+            }
+        }, uri, upgrade).get(5, TimeUnit.SECONDS);
+
+        assertEquals(Constants.WS_SUBPROTOCOL_CBOR, session.getUpgradeResponse().getAcceptedSubProtocol());
+        // 첫 메시지: CBOR map(4) {"type":"connected",...,"sessionId":...}
+        byte[] first = binary.poll(3, TimeUnit.SECONDS);
+        assertNotNull(first);
+        assertEquals(0xA4, first[0] & 0xFF);
+        String raw = new String(first, StandardCharsets.ISO_8859_1);
+        assertTrue(raw.contains("connected"));
+        assertTrue(raw.contains("sessionId"));
+
+        session.close(StatusCode.NORMAL, "done", Callback.NOOP);
+    }
+
+    @Test
+    void textMessage_receivesNoReply() throws Exception {
         BlockingQueue<String> received = new LinkedBlockingQueue<>();
         CountDownLatch closeLatch = new CountDownLatch(1);
         Listener listener = new Listener(received, closeLatch);
@@ -144,8 +177,9 @@ class GatewayWebSocketIntegrationTest {
         received.poll(2, TimeUnit.SECONDS);
 
         session.sendText("ping", Callback.NOOP);
-        String echo = received.poll(2, TimeUnit.SECONDS);
-        assertEquals("gateway echo: ping", echo);
+        // 텍스트 메시지에는 응답이 없음
+        String reply = received.poll(500, TimeUnit.MILLISECONDS);
+        assertNull(reply, "unexpected reply: " + reply);
 
         session.close(StatusCode.NORMAL, "done", Callback.NOOP);
         closeLatch.await(2, TimeUnit.SECONDS);
@@ -165,10 +199,9 @@ class GatewayWebSocketIntegrationTest {
 
         byte[] chunk = new byte[]{1, 2, 3, 4, 5};
         session.sendBinary(ByteBuffer.wrap(chunk), Callback.NOOP);
-        // ACK 수신
-        String ack = received.poll(2, TimeUnit.SECONDS);
-        assertNotNull(ack);
-        assertTrue(ack.contains("ack"));
+        // 오디오 프레임에는 ACK 응답이 없음
+        String reply = received.poll(500, TimeUnit.MILLISECONDS);
+        assertTrue(reply == null || !reply.contains("\"ack\""), "unexpected reply: " + reply);
 
         // audio-stream 토픽에서 해당 sessionId의 레코드 1건 수신 확인
         try (KafkaConsumer<String, byte[]> consumer = audioConsumer()) {
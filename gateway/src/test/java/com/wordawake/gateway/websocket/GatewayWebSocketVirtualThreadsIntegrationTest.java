@@ -0,0 +1,38 @@
+package com.wordawake.gateway.websocket;
+
+import com.wordawake.gateway.metrics.VirtualThreadPinningMonitor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 가상 스레드 모드(프로필 virtual)에서 같은 WebSocket + Kafka 통합 시나리오 실행.
+ * 상위 클래스의 테스트를 그대로 상속하고, 모드 전용 구성(리스너 실행기, pinning 감시)만 추가로 검증.
+ */
+@ActiveProfiles("virtual")
+@Import(GatewayWebSocketIntegrationTest.TestKafkaConfig.class)
+class GatewayWebSocketVirtualThreadsIntegrationTest extends GatewayWebSocketIntegrationTest {
+
+    @Autowired
+    ConcurrentKafkaListenerContainerFactory<Object, Object> hotwordBatchListenerContainerFactory;
+
+    @Autowired
+    ApplicationContext context;
+
+    @Test
+    void hotwordListener_runsOnVirtualThreads() {
+        assertInstanceOf(VirtualThreadTaskExecutor.class,
+                hotwordBatchListenerContainerFactory.getContainerProperties().getListenerTaskExecutor());
+    }
+
+    @Test
+    void pinningMonitor_isActive() {
+        assertEquals(1, context.getBeanNamesForType(VirtualThreadPinningMonitor.class).length);
+    }
+}
@@ -0,0 +1,90 @@
+package com.wordawake.gateway.websocket;
+
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import com.wordawake.gateway.session.SessionRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * HandshakeAdmission 단위 테스트.
+ * 토큰 버킷(burst 소진 → 거절 → 시간 경과 후 회복), 세션 상한(진행 중 핸드셰이크 포함), 재시도 힌트 jitter 범위 검증.
+ */
+class HandshakeAdmissionTest {
+
+    static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    GatewayMetrics metrics = new GatewayMetrics(registry);
+    SessionRegistry sessionRegistry = mock(SessionRegistry.class);
+
+    @Test
+    void tryAdmit_rejectsAfterBurst_andRefillsAtRate() {
+        // 초당 10개, burst 3, jitter 500ms
+        HandshakeAdmission admission = new HandshakeAdmission(sessionRegistry, metrics, 10, 3, 1000, 1000, 500);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(admission.tryAdmit(0, now).admitted());
+        }
+        HandshakeAdmission.Decision rejected = admission.tryAdmit(0, now);
+
+        assertEquals(HandshakeAdmission.Rejection.RATE, rejected.rejection());
+        assertTrue(rejected.retryAfterMillis() >= 1000 && rejected.retryAfterMillis() < 1500, "retryAfter=" + rejected.retryAfterMillis());
+        // 100ms 뒤 토큰 1개 (부동소수 오차 여유 1ms)
+        long next = now + SECOND / 10 + TimeUnit.MILLISECONDS.toNanos(1);
+        assertTrue(admission.tryAdmit(0, next).admitted());
+        assertFalse(admission.tryAdmit(0, next).admitted());
+        // 오래 쉬어도 burst 까지만 모임
+        long later = now + 60 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertTrue(admission.tryAdmit(0, later).admitted());
+        }
+        assertFalse(admission.tryAdmit(0, later).admitted());
+        assertEquals(3.0, registry.get("gateway.handshake.rejected").tag("reason", "rate").counter().count());
+    }
+
+    @Test
+    void tryAdmit_rejectsAtCapacity_countingPendingHandshakes_withoutSpendingTokens() {
+        HandshakeAdmission admission = new HandshakeAdmission(sessionRegistry, metrics, 10, 5, 3, 200, 0);
+        long now = System.nanoTime();
+
+        assertTrue(admission.tryAdmit(1, now).admitted());
+        assertTrue(admission.tryAdmit(1, now).admitted());
+        assertEquals(2, admission.getPendingHandshakeCount());
+
+        // 등록 1 + 진행 중 2 = 상한 3
+        HandshakeAdmission.Decision rejected = admission.tryAdmit(1, now);
+        assertEquals(HandshakeAdmission.Rejection.CAPACITY, rejected.rejection());
+        assertEquals(200, rejected.retryAfterMillis());
+
+        // 핸드셰이크 하나가 끝나고 세션으로 등록되면 여전히 상한
+        admission.onHandshakeDone();
+        assertFalse(admission.tryAdmit(2, now).admitted());
+        // 세션 하나가 닫히면 자리가 남. 상한 거절은 토큰을 쓰지 않았으므로 토큰 3개 중 마지막까지 수락
+        assertTrue(admission.tryAdmit(1, now).admitted());
+        admission.onHandshakeDone();
+        admission.onHandshakeDone();
+        for (int i = 0; i < 2; i++) {
+            assertTrue(admission.tryAdmit(0, now).admitted());
+        }
+        assertEquals(HandshakeAdmission.Rejection.RATE, admission.tryAdmit(0, now).rejection());
+        assertEquals(2.0, registry.get("gateway.handshake.rejected").tag("reason", "capacity").counter().count());
+    }
+
+    @Test
+    void tryAdmit_retryHintIsAtLeastTimeToNextToken() {
+        // 초당 0.5개 → 다음 토큰까지 2초, 기본 힌트 100ms 보다 김
+        HandshakeAdmission admission = new HandshakeAdmission(sessionRegistry, metrics, 0.5, 1, 1000, 100, 0);
+        long now = System.nanoTime();
+
+        assertTrue(admission.tryAdmit(0, now).admitted());
+        HandshakeAdmission.Decision rejected = admission.tryAdmit(0, now);
+
+        assertEquals(2000, rejected.retryAfterMillis());
+    }
+}
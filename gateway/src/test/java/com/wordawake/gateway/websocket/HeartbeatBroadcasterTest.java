@@ -0,0 +1,181 @@
+package com.wordawake.gateway.websocket;
+
+import com.wordawake.gateway.kafka.AudioStreamProducer;
+import com.wordawake.gateway.message.GatewayMessage;
+import com.wordawake.gateway.metrics.GatewayMetrics;
+import com.wordawake.gateway.session.OutboundMailbox;
+import com.wordawake.gateway.session.OutboundMailboxFactory;
+import com.wordawake.gateway.session.SessionRegistry;
+import com.wordawake.gateway.utils.Constants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * HeartbeatBroadcaster 단위 테스트.
+ * 열린 세션 전송, 세션 인코딩별 1회 인코딩, 닫힌/송신 큐가 닫힌 세션 정리, 송신 큐가 밀린 세션 집계,
+ * 분산 대기 중에도 스케줄러 스레드를 붙잡지 않는지 검증.
+ */
+class HeartbeatBroadcasterTest {
+
+    GatewayMetrics metrics = new GatewayMetrics(new SimpleMeterRegistry());
+
+    OutboundMailboxFactory mailboxFactory;
+    SessionRegistry registry;
+    HeartbeatBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        mailboxFactory = new OutboundMailboxFactory(1 << 20, 10_000, OutboundMailbox.OverflowPolicy.DROP_OLDEST, 0, 0, metrics);
+        registry = new SessionRegistry(8, mailboxFactory);
+        // spread-ratio 0: 분산 대기 없이 바로 전송
+        broadcaster = new HeartbeatBroadcaster(registry, 4, 30000, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+        mailboxFactory.shutdown();
+    }
+
+    @Test
+    void broadcast_sendsSameMessageToAllOpenSessions() throws Exception {
+        WebSocketSession[] sessions = new WebSocketSession[20];
+        for (int i = 0; i < sessions.length; i++) {
+            sessions[i] = openSession();
+            registry.register("s" + i, sessions[i]);
+        }
+        TextMessage message = new TextMessage("hb");
+
+        HeartbeatBroadcaster.TickStats stats = broadcaster.broadcast(message).get(1, TimeUnit.SECONDS);
+
+        assertEquals(20, stats.sent());
+        assertEquals(0, stats.dead());
+        for (WebSocketSession session : sessions) {
+            verify(session, timeout(1000)).sendMessage(same(message));
+        }
+        assertSame(stats, broadcaster.getLastTick());
+    }
+
+    @Test
+    void broadcast_gatewayMessage_encodesOncePerSessionEncoding() throws Exception {
+        WebSocketSession json1 = openSession();
+        WebSocketSession json2 = openSession();
+        WebSocketSession cbor = openSession();
+        when(cbor.getAcceptedProtocol()).thenReturn(Constants.WS_SUBPROTOCOL_CBOR);
+        registry.register("json1", json1);
+        registry.register("json2", json2);
+        registry.register("cbor", cbor);
+
+        HeartbeatBroadcaster.TickStats stats = broadcaster.broadcast(new GatewayMessage.Heartbeat(Instant.EPOCH)).get(1, TimeUnit.SECONDS);
+
+        assertEquals(3, stats.sent());
+        ArgumentCaptor<WebSocketMessage<?>> first = ArgumentCaptor.forClass(WebSocketMessage.class);
+        ArgumentCaptor<WebSocketMessage<?>> second = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(json1, timeout(1000)).sendMessage(first.capture());
+        verify(json2, timeout(1000)).sendMessage(second.capture());
+        assertInstanceOf(TextMessage.class, first.getValue());
+        assertSame(first.getValue(), second.getValue());
+        verify(cbor, timeout(1000)).sendMessage(any(BinaryMessage.class));
+    }
+
+    @Test
+    void broadcast_removesClosedAndFailedSessions() throws Exception {
+        WebSocketSession closed = mock(WebSocketSession.class);
+        when(closed.isOpen()).thenReturn(false);
+        WebSocketSession failing = openSession();
+        doThrow(new IOException("broken pipe")).when(failing).sendMessage(any());
+        registry.register("closed", closed);
+        registry.register("failing", failing);
+        registry.register("ok", openSession());
+
+        // 1회차: 닫힌 세션 정리, 실패 세션은 writer 에서 전송 실패 → 송신 큐 닫힘
+        HeartbeatBroadcaster.TickStats first = broadcaster.broadcast(new TextMessage("hb")).get(1, TimeUnit.SECONDS);
+        assertEquals(2, first.sent());
+        assertEquals(1, first.dead());
+        verify(failing, timeout(1000)).close(any());
+
+        // 2회차: 송신 큐가 닫힌 세션도 정리
+        HeartbeatBroadcaster.TickStats second = broadcaster.broadcast(new TextMessage("hb")).get(1, TimeUnit.SECONDS);
+        assertEquals(1, second.sent());
+        assertEquals(1, second.dead());
+        assertEquals(1, registry.size());
+        assertNotNull(registry.get("ok"));
+    }
+
+    @Test
+    void broadcast_countsBackloggedSessionsWithoutWaiting() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch sending = new CountDownLatch(1);
+        WebSocketSession slow = openSession();
+        doAnswer(inv -> {
+            sending.countDown();
+            release.await();
+            return null;
+        }).when(slow).sendMessage(any());
+        registry.register("slow", slow);
+        registry.register("fast", openSession());
+
+        broadcaster.broadcast(new TextMessage("hb")).get(1, TimeUnit.SECONDS);
+        assertTrue(sending.await(1, TimeUnit.SECONDS));
+        await().atMost(1, TimeUnit.SECONDS).until(() -> !registry.get("fast").getOutbound().isBacklogged());
+
+        // 느린 세션의 writer 가 막혀 있어도 브로드캐스트는 기다리지 않음
+        HeartbeatBroadcaster.TickStats stats = broadcaster.broadcast(new TextMessage("hb")).get(1, TimeUnit.SECONDS);
+        release.countDown();
+
+        assertEquals(2, stats.sent());
+        assertEquals(1, stats.slow());
+        assertTrue(stats.durationMs() < 1000);
+    }
+
+    @Test
+    void heartbeatTick_doesNotBlockSharedSchedulerThread() throws Exception {
+        // 1초 spread 동안 분산 적재되는 tick
+        HeartbeatBroadcaster spreading = new HeartbeatBroadcaster(registry, 4, 1000, 1.0);
+        for (int i = 0; i < 100; i++) {
+            registry.register("s" + i, openSession());
+        }
+        GatewaySessionManager sessionManager = new GatewaySessionManager(registry, spreading);
+        AudioStreamProducer producer = mock(AudioStreamProducer.class);
+        // spring.task.scheduling.pool.size 기본값과 같은 스레드 1개짜리 스케줄러
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.initialize();
+        try {
+            scheduler.schedule(sessionManager::sendHeartbeatToAll, Instant.now());
+            scheduler.scheduleAtFixedRate(producer::flushExpired, Duration.ofMillis(10));
+
+            // tick 이 끝나기 전에도 flushExpired 가 주기대로 실행됨
+            verify(producer, timeout(500).atLeast(10)).flushExpired();
+            assertSame(HeartbeatBroadcaster.TickStats.EMPTY, spreading.getLastTick());
+            await().atMost(3, TimeUnit.SECONDS).until(() -> spreading.getLastTick().sent() == 100);
+        } finally {
+            scheduler.shutdown();
+            spreading.shutdown();
+        }
+    }
+
+    private static WebSocketSession openSession() {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+}